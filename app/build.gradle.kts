@@ -117,6 +117,9 @@ android {
                         "--add-exports", "jdk.unsupported/sun.misc=ALL-UNNAMED"
                     )
                 )
+                // *BenchmarkTests only run if requested, e.g. `./gradlew testServerDebugUnitTest -Pbenchmarks`,
+                // see BenchmarkAssumptions
+                it.systemProperty("benchmarks", project.hasProperty("benchmarks"))
             }
         }
     }
@@ -19,86 +19,66 @@ package io.appium.uiautomator2.core;
 import android.graphics.Point;
 import android.os.Build;
 import android.os.SystemClock;
-import android.util.SparseArray;
 import android.util.Xml;
 import android.view.Display;
-import android.view.View;
 import android.view.accessibility.AccessibilityNodeInfo;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import org.apache.xerces.jaxp.DocumentBuilderFactoryImpl;
 import org.eclipse.wst.xml.xpath2.api.Item;
 import org.eclipse.wst.xml.xpath2.api.ResultSequence;
-import org.eclipse.wst.xml.xpath2.api.XPath2Expression;
-import org.eclipse.wst.xml.xpath2.processor.Engine;
-import org.eclipse.wst.xml.xpath2.processor.XPathParserException;
 import org.eclipse.wst.xml.xpath2.processor.util.DynamicContextBuilder;
-import org.eclipse.wst.xml.xpath2.processor.util.StaticContextBuilder;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 import org.xmlpull.v1.XmlSerializer;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.Charset;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Semaphore;
 import java.util.stream.IntStream;
 
-import io.appium.uiautomator2.common.exceptions.InvalidSelectorException;
 import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
+import io.appium.uiautomator2.core.dom.SnapshotDocument;
+import io.appium.uiautomator2.core.dom.SnapshotElement;
+import io.appium.uiautomator2.model.AppiumUIA2Driver;
 import io.appium.uiautomator2.model.NotificationListener;
+import io.appium.uiautomator2.model.Session;
 import io.appium.uiautomator2.model.UiElement;
 import io.appium.uiautomator2.model.UiElementSnapshot;
 import io.appium.uiautomator2.model.settings.EnforceXpath1;
 import io.appium.uiautomator2.model.settings.LimitXpathContextScope;
-import io.appium.uiautomator2.model.settings.NormalizeTagNames;
 import io.appium.uiautomator2.model.settings.Settings;
 import io.appium.uiautomator2.utils.Attribute;
 import io.appium.uiautomator2.utils.Logger;
 import io.appium.uiautomator2.utils.NodeInfoList;
-import io.appium.uiautomator2.utils.StringHelpers;
 
 import static io.appium.uiautomator2.utils.AXWindowHelpers.getCachedWindowRoots;
-import static io.appium.uiautomator2.utils.XMLHelpers.toNodeName;
+import static io.appium.uiautomator2.utils.XMLHelpers.NON_XML_CHAR_REPLACEMENT;
 import static io.appium.uiautomator2.utils.XMLHelpers.toSafeString;
-import static net.gcardone.junidecode.Junidecode.unidecode;
+import static io.appium.uiautomator2.utils.XMLHelpers.toXmlNodeName;
 
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 public class AccessibilityNodeInfoDumper {
-    private static final String UI_ELEMENT_INDEX = "uiElementIndex";
-    private static final String NON_XML_CHAR_REPLACEMENT = "?";
     private static final String NAMESPACE = "";
-    private static final String DEFAULT_VIEW_CLASS_NAME = View.class.getName();
     private static final String XML_ENCODING = "UTF-8";
     private final Semaphore RESOURCES_GUARD = new Semaphore(1);
-    private static final XPathFactory XPATH_FACTORY = XPathFactory.newInstance();
 
     @Nullable
     private final AccessibilityNodeInfo root;
-    private final SparseArray<UiElement<?, ?>> uiElementsMapping = new SparseArray<>();
     private final Set<Attribute> includedAttributes;
-    private boolean shouldAddDisplayInfo;
     private XmlSerializer serializer;
     // The most recently built source snapshot tree, so its transient nodes can be recycled
     // once the tree has been fully consumed (serialized and/or matched against).
@@ -108,6 +88,10 @@ public class AccessibilityNodeInfoDumper {
     // across queries and therefore must not be recycled together with the snapshot tree.
     private final Set<AccessibilityNodeInfo> retainedNodes =
             Collections.newSetFromMap(new IdentityHashMap<>());
+    // The session snapshot cache, which is locked by this instance while the cached
+    // tree is being consumed
+    @Nullable
+    private SnapshotCache lockedSnapshotCache;
 
     public AccessibilityNodeInfoDumper(@Nullable AccessibilityNodeInfo root,
                                        Set<Attribute> includedAttributes) {
@@ -115,88 +99,34 @@ public class AccessibilityNodeInfoDumper {
         this.includedAttributes = includedAttributes;
     }
 
-    private int matchRootElementIndex() {
-        if (root == null) {
-            throw new RuntimeException(
-                    "Root node search query cannot be built if the root is unset"
-            );
-        }
-        return IntStream.range(0, uiElementsMapping.size())
-                .filter(i -> Objects.equals(uiElementsMapping.valueAt(i).getNode(), root))
-                .mapToObj(uiElementsMapping::keyAt)
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Cannot match the index of the root node"));
-    }
-
-    @Nullable
-    private static Node matchRootElement(Node root, final int elementIndex) {
-        if (root instanceof Element
-                && ((Element) root).hasAttribute(UI_ELEMENT_INDEX)
-                && Integer.parseInt(((Element) root).getAttribute(UI_ELEMENT_INDEX)) == elementIndex
-        ) {
-            return root;
-        }
-        if (!root.hasChildNodes()) {
-            return null;
-        }
-        NodeList childNodes = root.getChildNodes();
-        return IntStream.range(0, childNodes.getLength())
-                .mapToObj(childNodes::item)
-                .map(child -> matchRootElement(child, elementIndex))
-                .filter(Objects::nonNull)
-                .findFirst()
-                .orElse(null);
+    private boolean isContextScopeLimited() {
+        return root != null && Settings.getValue(LimitXpathContextScope.class);
     }
 
     @NonNull
-    private Node fetchContext(InputStream xml) {
-        Document doc = loadDocument(xml);
-        return root == null || Settings.get(LimitXpathContextScope.class).getValue()
-                ? doc
+    private Node fetchContext(SnapshotDocument document) {
+        return root == null || isContextScopeLimited()
+                ? document
                 : Objects.requireNonNull(
-                    matchRootElement(doc.getDocumentElement(), matchRootElementIndex()),
+                    document.findElement(root),
                     "Cannot match the root element for the context-based XPath lookup"
                 );
     }
 
-    private void addDisplayInfo() throws IOException {
+    private static Map<String, String> getDisplayInfo() {
         Display display = UiAutomatorBridge.getInstance().getCurrentDisplay();
         Point size = new Point();
         display.getSize(size);
-        serializer.attribute(NAMESPACE, "rotation", Integer.toString(display.getRotation()));
-        serializer.attribute(NAMESPACE, "width", Integer.toString(size.x));
-        serializer.attribute(NAMESPACE, "height", Integer.toString(size.y));
+        Map<String, String> result = new LinkedHashMap<>();
+        result.put("rotation", Integer.toString(display.getRotation()));
+        result.put("width", Integer.toString(size.x));
+        result.put("height", Integer.toString(size.y));
+        return result;
     }
 
-    private static String toXmlNodeName(@Nullable String className) {
-        if (StringHelpers.isBlank(className)) {
-            return DEFAULT_VIEW_CLASS_NAME;
-        }
-
-        String fixedName = className
-                .replaceAll("[$@#&]", ".")
-                .replaceAll("\\.+", ".")
-                .replaceAll("(^\\.|\\.$)", "");
-
-        if (Settings.get(NormalizeTagNames.class).getValue()) {
-            // A workaround for the Apache Harmony bug described in https://github.com/appium/appium/issues/11854
-            // The buggy implementation: https://android.googlesource.com/platform/dalvik/+/21d27c095fee51fd6eac6a68d50b79df4dc97d85/libcore/xml/src/main/java/org/apache/harmony/xml/dom/DocumentImpl.java#84
-            fixedName = unidecode(fixedName).replaceAll("[^A-Za-z0-9\\-._]", "_");
-        }
-
-        fixedName = toNodeName(fixedName);
-        if (StringHelpers.isBlank(fixedName)) {
-            fixedName = DEFAULT_VIEW_CLASS_NAME;
-        }
-        if (!fixedName.equals(className)) {
-            Logger.info(String.format("Rewrote class name '%s' to XML node name '%s'", className, fixedName));
-        }
-        return fixedName;
-    }
-
-    private void serializeUiElement(UiElement<?, ?> uiElement, boolean isIndexed) throws IOException {
-        final String className = uiElement.getClassName();
-        final String nodeName = toXmlNodeName(className);
+    private void serializeUiElement(UiElement<?, ?> uiElement,
+                                    @Nullable Map<String, String> extraAttributes) throws IOException {
+        final String nodeName = toXmlNodeName(uiElement.getClassName());
         serializer.startTag(NAMESPACE, nodeName);
 
         for (Attribute attr : uiElement.attributeKeys()) {
@@ -209,51 +139,92 @@ public class AccessibilityNodeInfoDumper {
             }
             serializer.attribute(NAMESPACE, attr.getName(), toSafeString(String.valueOf(value), NON_XML_CHAR_REPLACEMENT));
         }
-        if (shouldAddDisplayInfo) {
-            addDisplayInfo();
-            // Display info is only added once to the root node
-            shouldAddDisplayInfo = false;
-        }
-
-        final int uiElementIndex = uiElementsMapping.size();
-        uiElementsMapping.put(uiElementIndex, uiElement);
-        if (isIndexed) {
-            serializer.attribute(NAMESPACE, UI_ELEMENT_INDEX, Integer.toString(uiElementIndex));
+        if (extraAttributes != null) {
+            for (Map.Entry<String, String> extraAttribute : extraAttributes.entrySet()) {
+                serializer.attribute(NAMESPACE, extraAttribute.getKey(), extraAttribute.getValue());
+            }
         }
 
         for (UiElement<?, ?> child : uiElement.getChildren()) {
-            serializeUiElement(child, isIndexed);
+            serializeUiElement(child, null);
         }
         serializer.endTag(NAMESPACE, nodeName);
     }
 
-    private InputStream toStream(boolean isIndexed) throws IOException {
-        final long startTime = SystemClock.uptimeMillis();
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            serializer = Xml.newSerializer();
-            shouldAddDisplayInfo = root == null;
-            serializer.setOutput(outputStream, XML_ENCODING);
-            serializer.startDocument(XML_ENCODING, true);
-            serializer.setFeature("http://xmlpull.org/v1/doc/features.html#indent-output", true);
-            final UiElement<?, ?> uiRootElement;
-            if (root != null && Settings.get(LimitXpathContextScope.class).getValue()) {
-                uiRootElement = UiElementSnapshot.take(root, includedAttributes);
-                retainedNodes.add(root);
-            } else {
-                AccessibilityNodeInfo[] windowRoots = getCachedWindowRoots();
-                uiRootElement = UiElementSnapshot.take(
-                        windowRoots, NotificationListener.getInstance().getToastMessage(),
-                        includedAttributes
+    @Nullable
+    private static SnapshotCache getSnapshotCache() {
+        Session session = AppiumUIA2Driver.getInstance().getSession();
+        if (session == null) {
+            return null;
+        }
+        SnapshotCache snapshotCache = session.getSnapshotCache();
+        return snapshotCache.isUsable() ? snapshotCache : null;
+    }
+
+    private UiElement<?, ?> takeSnapshot() {
+        final UiElement<?, ?> uiRootElement;
+        SnapshotCache snapshotCache = isContextScopeLimited() ? null : getSnapshotCache();
+        if (snapshotCache != null) {
+            snapshotCache.lock();
+            try {
+                uiRootElement = snapshotCache.get(
+                        includedAttributes, NotificationListener.getInstance().getToastMessage()
                 );
-                retainedNodes.addAll(Arrays.asList(windowRoots));
+            } catch (RuntimeException e) {
+                snapshotCache.unlock();
+                throw e;
             }
-            snapshotRoot = uiRootElement;
-            serializeUiElement(uiRootElement, isIndexed);
-            serializer.endDocument();
-            Logger.debug(String.format("The source XML tree (%s bytes) has been fetched in %sms",
-                    outputStream.size(), SystemClock.uptimeMillis() - startTime));
-            return new ByteArrayInputStream(outputStream.toByteArray());
+            lockedSnapshotCache = snapshotCache;
+            return uiRootElement;
         }
+        if (isContextScopeLimited()) {
+            uiRootElement = UiElementSnapshot.take(root, includedAttributes);
+            retainedNodes.add(root);
+        } else {
+            AccessibilityNodeInfo[] windowRoots = getCachedWindowRoots();
+            uiRootElement = UiElementSnapshot.take(
+                    windowRoots, NotificationListener.getInstance().getToastMessage(),
+                    includedAttributes
+            );
+            retainedNodes.addAll(Arrays.asList(windowRoots));
+        }
+        snapshotRoot = uiRootElement;
+        return uiRootElement;
+    }
+
+    private void serialize(Writer writer) throws IOException {
+        final long startTime = SystemClock.uptimeMillis();
+        serializer = Xml.newSerializer();
+        serializer.setOutput(writer);
+        serializer.startDocument(XML_ENCODING, true);
+        serializer.setFeature("http://xmlpull.org/v1/doc/features.html#indent-output", true);
+        final UiElement<?, ?> uiRootElement = takeSnapshot();
+        // Display info is only added once to the root node
+        serializeUiElement(uiRootElement, root == null ? getDisplayInfo() : null);
+        serializer.endDocument();
+        Logger.debug(String.format("The source XML tree has been serialized in %sms",
+                SystemClock.uptimeMillis() - startTime));
+    }
+
+    /**
+     * Takes a snapshot of the current hierarchy and wraps it into a read-only DOM document,
+     * so XPath expressions could be evaluated over the snapshot tree directly.
+     */
+    private SnapshotDocument toDocument() {
+        final long startTime = SystemClock.uptimeMillis();
+        final UiElement<?, ?> uiRootElement = takeSnapshot();
+        SnapshotDocument document = new SnapshotDocument(uiRootElement,
+                root == null ? getDisplayInfo() : Collections.<String, String>emptyMap());
+        Logger.debug(String.format("The source snapshot tree (%s elements) has been fetched in %sms",
+                document.getElementsCount(), SystemClock.uptimeMillis() - startTime));
+        return document;
+    }
+
+    @Nullable
+    private static AccessibilityNodeInfo toAccessibilityNode(@Nullable Object item) {
+        return item instanceof SnapshotElement
+                ? ((SnapshotElement) item).getUiElement().getNode()
+                : null;
     }
 
     /**
@@ -267,6 +238,13 @@ public class AccessibilityNodeInfoDumper {
      * no-op on API 33+, where these instances are managed by the framework.
      */
     private void recycleSnapshotNodes(@Nullable Collection<AccessibilityNodeInfo> retainAdditionally) {
+        if (lockedSnapshotCache != null) {
+            // The tree is owned by the cache and gets recycled once it is invalidated
+            lockedSnapshotCache.retain(retainAdditionally);
+            lockedSnapshotCache.unlock();
+            lockedSnapshotCache = null;
+            return;
+        }
         try {
             if (snapshotRoot == null || Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
                 return;
@@ -285,7 +263,7 @@ public class AccessibilityNodeInfoDumper {
         }
     }
 
-    private static void recycleTree(UiElement<?, ?> element, Set<AccessibilityNodeInfo> keep) {
+    static void recycleTree(UiElement<?, ?> element, Set<AccessibilityNodeInfo> keep) {
         for (UiElement<?, ?> child : element.getChildren()) {
             recycleTree(child, keep);
         }
@@ -300,65 +278,60 @@ public class AccessibilityNodeInfoDumper {
     }
 
     public String dumpToXml() {
+        StringWriter writer = new StringWriter();
         try {
-            RESOURCES_GUARD.acquire();
-        } catch (InterruptedException e) {
-            throw new UiAutomator2Exception(e);
-        }
-        try (InputStream xmlStream = toStream(false)) {
-            return StringHelpers.inputStreamToString(xmlStream, Charset.forName(XML_ENCODING));
+            dumpToXml(writer);
         } catch (IOException e) {
             throw new UiAutomator2Exception(e);
-        } finally {
-            recycleSnapshotNodes(null);
-            uiElementsMapping.clear();
-            RESOURCES_GUARD.release();
         }
+        return writer.toString();
     }
 
-    private static Document loadDocument(InputStream in) {
-        DocumentBuilderFactory factory = new DocumentBuilderFactoryImpl();
-        factory.setNamespaceAware(true);
-        factory.setValidating(false);
+    /**
+     * Serializes the source snapshot tree directly into the given writer, so the page source
+     * does not have to be kept in memory as a whole.
+     *
+     * @param writer The destination writer. It is flushed, but not closed.
+     * @throws IOException if the destination writer fails
+     */
+    public void dumpToXml(Writer writer) throws IOException {
         try {
-            return factory.newDocumentBuilder().parse(in);
-        } catch (SAXException | ParserConfigurationException | IOException e) {
-            throw new RuntimeException(e);
+            RESOURCES_GUARD.acquire();
+        } catch (InterruptedException e) {
+            throw new UiAutomator2Exception(e);
         }
-    }
-
-    private NodeInfoList findNodesUsingXpath1(String xpath1Selector, boolean multiple) {
-        final XPathExpression expression;
         try {
-            expression = XPATH_FACTORY.newXPath().compile(xpath1Selector);
-        } catch (XPathExpressionException e) {
-            throw new InvalidSelectorException(e);
+            serialize(writer);
+            writer.flush();
+        } finally {
+            recycleSnapshotNodes(null);
+            RESOURCES_GUARD.release();
         }
+    }
 
+    private NodeInfoList findNodesUsingXpath1(CompiledXPath xpath, boolean multiple) {
         try {
             RESOURCES_GUARD.acquire();
         } catch (InterruptedException e) {
             throw new UiAutomator2Exception(e);
         }
         final NodeInfoList matchedNodes = new NodeInfoList();
-        try (InputStream xmlStream = toStream(true)) {
-            NodeList elements = (NodeList) expression.evaluate(
-                    fetchContext(xmlStream), XPathConstants.NODESET
-            );
+        try {
+            Node context = fetchContext(toDocument());
+            NodeList elements;
+            synchronized (xpath) {
+                elements = (NodeList) Objects.requireNonNull(xpath.getXpath1Expression())
+                        .evaluate(context, XPathConstants.NODESET);
+            }
             final long timeStarted = SystemClock.uptimeMillis();
             IntStream.range(0, elements.getLength())
                     .mapToObj(elements::item)
-                    .filter(Element.class::isInstance)
-                    .map(Element.class::cast)
-                    .filter(item -> item.hasAttribute(UI_ELEMENT_INDEX))
-                    .map(item -> uiElementsMapping.get(Integer.parseInt(item.getAttribute(UI_ELEMENT_INDEX))))
-                    .filter(Objects::nonNull)
-                    .map(UiElement::getNode)
+                    .map(AccessibilityNodeInfoDumper::toAccessibilityNode)
                     .filter(Objects::nonNull)
                     .limit(multiple ? elements.getLength() : 1)
                     .forEach(matchedNodes::add);
             Logger.info(String.format("Took %sms to retrieve %s matches for '%s' XPath1 query",
-                    SystemClock.uptimeMillis() - timeStarted, matchedNodes.size(), xpath1Selector));
+                    SystemClock.uptimeMillis() - timeStarted, matchedNodes.size(), xpath.getSelector()));
             return matchedNodes;
         } catch (XPathExpressionException | IllegalArgumentException e) {
             throw new UiAutomator2Exception(
@@ -370,60 +343,38 @@ public class AccessibilityNodeInfoDumper {
             throw new UiAutomator2Exception(e);
         } finally {
             recycleSnapshotNodes(matchedNodes.getAll());
-            uiElementsMapping.clear();
             RESOURCES_GUARD.release();
         }
     }
 
-    private NodeInfoList findNodesUsingXpath2(String xpath2Selector, boolean multiple) {
-        StaticContextBuilder scb = new StaticContextBuilder();
-        final XPath2Expression expr;
-        try {
-            expr = new Engine().parseExpression(xpath2Selector, scb);
-        } catch (XPathParserException e) {
-            throw new InvalidSelectorException(e);
-        }
-
+    private NodeInfoList findNodesUsingXpath2(CompiledXPath xpath, boolean multiple) {
         try {
             RESOURCES_GUARD.acquire();
         } catch (InterruptedException e) {
             throw new UiAutomator2Exception(e);
         }
         final NodeInfoList matchedNodes = new NodeInfoList();
-        try (InputStream xmlStream = toStream(true)) {
-            ResultSequence rs = expr.evaluate(
-                    new DynamicContextBuilder(scb), new Object[]{fetchContext(xmlStream)}
-            );
-            Iterator<Item> iterator = rs.iterator();
+        try {
+            Node context = fetchContext(toDocument());
             final long timeStarted = SystemClock.uptimeMillis();
-            while (iterator.hasNext()) {
-                Item item = iterator.next();
-                if (!(item.getNativeValue() instanceof Node)) {
-                    continue;
-                }
-                Node node = (Node) item.getNativeValue();
-                if (node.getNodeType() != Node.ELEMENT_NODE) {
-                    continue;
-                }
-
-                NamedNodeMap attributes = node.getAttributes();
-                Node uiElementIndexAttr = attributes.getNamedItem(UI_ELEMENT_INDEX);
-                if (uiElementIndexAttr == null) {
-                    continue;
-                }
-                UiElement<?, ?> uiElement = uiElementsMapping.get(
-                        Integer.parseInt(uiElementIndexAttr.getNodeValue())
+            synchronized (xpath) {
+                ResultSequence rs = Objects.requireNonNull(xpath.getXpath2Expression()).evaluate(
+                        new DynamicContextBuilder(xpath.getStaticContext()), new Object[]{context}
                 );
-                if (uiElement == null || uiElement.getNode() == null) {
-                    continue;
-                }
-                matchedNodes.add(uiElement.getNode());
-                if (!multiple) {
-                    break;
+                Iterator<Item> iterator = rs.iterator();
+                while (iterator.hasNext()) {
+                    AccessibilityNodeInfo node = toAccessibilityNode(iterator.next().getNativeValue());
+                    if (node == null) {
+                        continue;
+                    }
+                    matchedNodes.add(node);
+                    if (!multiple) {
+                        break;
+                    }
                 }
             }
             Logger.info(String.format("Took %sms to retrieve %s matches for '%s' XPath2 query",
-                    SystemClock.uptimeMillis() - timeStarted, matchedNodes.size(), xpath2Selector));
+                    SystemClock.uptimeMillis() - timeStarted, matchedNodes.size(), xpath.getSelector()));
             return matchedNodes;
         } catch (Exception e) {
             Logger.error("Got an unexpected error while fetching matches using XPath2", e);
@@ -433,14 +384,18 @@ public class AccessibilityNodeInfoDumper {
                             Settings.ENFORCE_XPATH1.getSetting().getName()), e);
         } finally {
             recycleSnapshotNodes(matchedNodes.getAll());
-            uiElementsMapping.clear();
             RESOURCES_GUARD.release();
         }
     }
 
     public NodeInfoList findNodes(String xpathSelector, boolean multiple) {
-        return Settings.get(EnforceXpath1.class).getValue()
-                ? findNodesUsingXpath1(xpathSelector, multiple)
-                : findNodesUsingXpath2(xpathSelector, multiple);
+        return findNodes(CompiledXPath.compile(xpathSelector,
+                Settings.getValue(EnforceXpath1.class)), multiple);
+    }
+
+    public NodeInfoList findNodes(CompiledXPath xpath, boolean multiple) {
+        return xpath.isXpath1()
+                ? findNodesUsingXpath1(xpath, multiple)
+                : findNodesUsingXpath2(xpath, multiple);
     }
 }
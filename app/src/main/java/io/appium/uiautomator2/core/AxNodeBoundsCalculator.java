@@ -0,0 +1,213 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.core;
+
+import android.annotation.SuppressLint;
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.os.Build;
+import android.view.Display;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.view.accessibility.AccessibilityWindowInfo;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import io.appium.uiautomator2.model.internal.CustomUiDevice;
+import io.appium.uiautomator2.model.settings.Settings;
+import io.appium.uiautomator2.model.settings.SimpleBoundsCalculation;
+import io.appium.uiautomator2.model.settings.SnapshotMaxDepth;
+
+import static io.appium.uiautomator2.core.AxNodeInfoHelper.UNDEFINED_WINDOW_ID;
+import static io.appium.uiautomator2.core.AxNodeInfoHelper.recycleSafely;
+
+/**
+ * Calculates the visible bounds of accessibility nodes.
+ * <p>
+ * Display sizes, window bounds and visible bounds of scrollable ancestors are memoized,
+ * so a single instance should be used to calculate bounds of multiple nodes at once,
+ * for example siblings in the same list. The instance must not outlive the UI state
+ * it has been created for.
+ */
+public class AxNodeBoundsCalculator {
+    private final boolean trimScrollableParent;
+    private final int maxDepth;
+    private final IntFunction<Rect> displayRectProvider;
+    private final Map<Integer, Rect> displayRects = new HashMap<>();
+    private final Map<Integer, WindowInfo> windows = new HashMap<>();
+    // Visible bounds of the closest scrollable ancestor (null if there is none)
+    // of each already traversed node, keyed by node identifiers
+    private final Map<String, Rect> scrollableAncestorRects = new HashMap<>();
+
+    public AxNodeBoundsCalculator() {
+        this(Boolean.FALSE.equals(Settings.getValue(SimpleBoundsCalculation.class)),
+                Settings.getValue(SnapshotMaxDepth.class));
+    }
+
+    /**
+     * @param trimScrollableParent Whether to trim node bounds into the closest scrollable ancestor
+     * @param maxDepth The maximum count of nested scrollable ancestors to take into account
+     */
+    public AxNodeBoundsCalculator(boolean trimScrollableParent, int maxDepth) {
+        this(trimScrollableParent, maxDepth, AxNodeBoundsCalculator::fetchDisplayRect);
+    }
+
+    @VisibleForTesting
+    AxNodeBoundsCalculator(boolean trimScrollableParent, int maxDepth,
+                           IntFunction<Rect> displayRectProvider) {
+        this.trimScrollableParent = trimScrollableParent;
+        this.maxDepth = maxDepth;
+        this.displayRectProvider = displayRectProvider;
+    }
+
+    private static class WindowInfo {
+        final int displayId;
+        @Nullable
+        final Rect bounds;
+
+        WindowInfo(int displayId, @Nullable Rect bounds) {
+            this.displayId = displayId;
+            this.bounds = bounds;
+        }
+    }
+
+    public Rect getBounds(@Nullable AccessibilityNodeInfo node) {
+        int displayId = node == null ? Display.DEFAULT_DISPLAY : getWindowInfo(node).displayId;
+        Rect screen = getDisplayRect(displayId);
+        if (node == null) {
+            return screen == null ? new Rect() : new Rect(screen);
+        }
+        return getVisibleBoundsInScreen(node, screen, 0);
+    }
+
+    @Nullable
+    private static Rect fetchDisplayRect(int displayId) {
+        if (CustomUiDevice.getInstance().getDisplayById(displayId) == null) {
+            return null;
+        }
+        Point displaySize = CustomUiDevice.getInstance().getDisplaySize(displayId);
+        return new Rect(0, 0, displaySize.x, displaySize.y);
+    }
+
+    @Nullable
+    private Rect getDisplayRect(int displayId) {
+        if (displayRects.containsKey(displayId)) {
+            return displayRects.get(displayId);
+        }
+        Rect result = displayRectProvider.apply(displayId);
+        displayRects.put(displayId, result);
+        return result;
+    }
+
+    private WindowInfo getWindowInfo(AccessibilityNodeInfo node) {
+        int windowId = node.getWindowId();
+        WindowInfo result = windowId == UNDEFINED_WINDOW_ID ? null : windows.get(windowId);
+        if (result != null) {
+            return result;
+        }
+        AccessibilityWindowInfo window = node.getWindow();
+        if (window == null) {
+            result = new WindowInfo(Display.DEFAULT_DISPLAY, null);
+        } else {
+            try {
+                Rect bounds = new Rect();
+                window.getBoundsInScreen(bounds);
+                result = new WindowInfo(Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                        ? window.getDisplayId()
+                        : Display.DEFAULT_DISPLAY, bounds);
+            } finally {
+                recycleSafely(window);
+            }
+        }
+        if (windowId != UNDEFINED_WINDOW_ID) {
+            windows.put(windowId, result);
+        }
+        return result;
+    }
+
+    @SuppressLint("CheckResult")
+    private Rect getVisibleBoundsInScreen(
+            AccessibilityNodeInfo node, @Nullable Rect displayRect, int depth
+    ) {
+        Rect nodeRect = new Rect();
+        node.getBoundsInScreen(nodeRect);
+
+        nodeRect.intersect(displayRect == null ? new Rect() : displayRect);
+
+        // Trim any portion of the bounds that are outside the window
+        Rect windowBounds = getWindowInfo(node).bounds;
+        if (windowBounds != null) {
+            nodeRect.intersect(windowBounds);
+        }
+
+        // Trim the bounds into any scrollable ancestor, if required.
+        if (trimScrollableParent) {
+            Rect ancestorRect = getScrollableAncestorRect(node, displayRect, depth);
+            if (ancestorRect != null) {
+                nodeRect.intersect(ancestorRect);
+            }
+        }
+
+        return nodeRect;
+    }
+
+    @VisibleForTesting
+    @Nullable
+    String toCacheKey(AccessibilityNodeInfo node) {
+        return AxNodeInfoHelper.toUuid(node);
+    }
+
+    @Nullable
+    private Rect getScrollableAncestorRect(
+            AccessibilityNodeInfo node, @Nullable Rect displayRect, int depth
+    ) {
+        List<String> traversedIds = new ArrayList<>();
+        Rect result = null;
+        AccessibilityNodeInfo ancestor = node.getParent();
+        while (ancestor != null) {
+            String ancestorId = toCacheKey(ancestor);
+            if (ancestorId != null && scrollableAncestorRects.containsKey(ancestorId)) {
+                result = scrollableAncestorRects.get(ancestorId);
+                recycleSafely(ancestor);
+                break;
+            }
+            if (ancestorId != null) {
+                traversedIds.add(ancestorId);
+            }
+            if (ancestor.isScrollable()) {
+                if (depth < maxDepth) {
+                    result = getVisibleBoundsInScreen(ancestor, displayRect, depth + 1);
+                }
+                recycleSafely(ancestor);
+                break;
+            }
+            AccessibilityNodeInfo parent = ancestor.getParent();
+            recycleSafely(ancestor);
+            ancestor = parent;
+        }
+        for (String traversedId : traversedIds) {
+            scrollableAncestorRects.put(traversedId, result);
+        }
+        return result;
+    }
+}
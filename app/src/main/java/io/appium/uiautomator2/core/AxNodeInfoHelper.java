@@ -16,33 +16,35 @@
 
 package io.appium.uiautomator2.core;
 
-import android.annotation.SuppressLint;
 import android.graphics.Point;
 import android.graphics.Rect;
 import android.os.Build;
 import android.os.Bundle;
 import android.util.Pair;
 import android.view.Display;
+import android.view.accessibility.AccessibilityEvent;
 import android.view.accessibility.AccessibilityNodeInfo;
 import android.view.accessibility.AccessibilityNodeInfo.AccessibilityAction;
+import android.view.accessibility.AccessibilityRecord;
 import android.view.accessibility.AccessibilityWindowInfo;
 
 import androidx.annotation.Nullable;
 import androidx.test.uiautomator.Direction;
 
+import java.lang.invoke.MethodHandle;
+
 import io.appium.uiautomator2.common.exceptions.InvalidElementStateException;
+import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
 import io.appium.uiautomator2.model.CollectionInfo;
 import io.appium.uiautomator2.model.CollectionItemInfo;
 import io.appium.uiautomator2.model.internal.CustomUiDevice;
 import io.appium.uiautomator2.model.internal.GestureController;
 import io.appium.uiautomator2.model.settings.MapTestTagToResourceId;
 import io.appium.uiautomator2.model.settings.Settings;
-import io.appium.uiautomator2.model.settings.SimpleBoundsCalculation;
-import io.appium.uiautomator2.model.settings.SnapshotMaxDepth;
 import io.appium.uiautomator2.utils.Logger;
 import io.appium.uiautomator2.utils.ModelUtils;
 
-import static io.appium.uiautomator2.utils.ReflectionUtils.getField;
+import static io.appium.uiautomator2.utils.ReflectionUtils.getFieldGetter;
 import static io.appium.uiautomator2.utils.StringHelpers.charSequenceToNullableString;
 import static io.appium.uiautomator2.utils.StringHelpers.charSequenceToString;
 
@@ -53,6 +55,7 @@ public class AxNodeInfoHelper {
     private static final long UNDEFINED_NODE_ID =
             (((long) Integer.MAX_VALUE) << 32) | Integer.MAX_VALUE;
     public static final int UNDEFINED_WINDOW_ID = -1;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
     private static final float DEFAULT_GESTURE_MARGIN_PERCENT = 0.1f;
     private static final Margins mMargins = new PercentMargins(
             DEFAULT_GESTURE_MARGIN_PERCENT,
@@ -61,20 +64,70 @@ public class AxNodeInfoHelper {
             DEFAULT_GESTURE_MARGIN_PERCENT
     );
 
+    // Resolved on first use, so the class could be loaded where these hidden fields are absent
+    private static final class SourceNodeIdGetters {
+        static final MethodHandle NODE = getFieldGetter(AccessibilityNodeInfo.class, "mSourceNodeId");
+        static final MethodHandle RECORD = getFieldGetter(AccessibilityRecord.class, "mSourceNodeId");
+    }
+
     @Nullable
     public static String toUuid(AccessibilityNodeInfo info) {
         // mSourceNodeId and windowId properties define
         // the uniqueness of the particular AccessibilityNodeInfo instance
-        long sourceNodeId = (Long) getField("mSourceNodeId", info);
-        int windowId = info.getWindowId();
+        final long sourceNodeId;
+        try {
+            sourceNodeId = (long) SourceNodeIdGetters.NODE.invokeExact(info);
+        } catch (Throwable e) {
+            throw new UiAutomator2Exception("Cannot get the source node id", e);
+        }
+        return toUuid(info.getWindowId(), sourceNodeId);
+    }
+
+    /**
+     * Builds the same identifier as {@link #toUuid(AccessibilityNodeInfo)} does for the node,
+     * which is the source of the given accessibility event.
+     *
+     * @param event The accessibility event
+     * @return The identifier of the event source or null if the event has no source node
+     */
+    @Nullable
+    public static String toUuid(AccessibilityEvent event) {
+        final long sourceNodeId;
+        try {
+            sourceNodeId = (long) SourceNodeIdGetters.RECORD.invokeExact((AccessibilityRecord) event);
+        } catch (Throwable e) {
+            throw new UiAutomator2Exception("Cannot get the source node id of the event", e);
+        }
+        return toUuid(event.getWindowId(), sourceNodeId);
+    }
+
+    @Nullable
+    private static String toUuid(int windowId, long sourceNodeId) {
         if (sourceNodeId == UNDEFINED_NODE_ID || windowId == UNDEFINED_WINDOW_ID) {
             return null;
         }
-        String sourceNodeIdHex = String.format("%016x", sourceNodeId);
-        String windowIdHex = String.format("%016x", windowId);
-        return String.format("%s-%s-%s-%s-%s",
-                windowIdHex.substring(0, 8), windowIdHex.substring(8, 12), windowIdHex.substring(12, 16),
-                sourceNodeIdHex.substring(0, 4), sourceNodeIdHex.substring(4, 16));
+        // The same as formatting both values with %016x and joining their parts with dashes
+        // as 8-4-4 hex digits of the window id and 4-12 hex digits of the source node id.
+        // Avoids String.format, which is way too slow for the amount of nodes we have to process
+        long windowIdBits = windowId & 0xFFFFFFFFL;
+        char[] result = new char[36];
+        writeHexDigits(windowIdBits >>> 32, result, 0, 8);
+        result[8] = '-';
+        writeHexDigits(windowIdBits >>> 16, result, 9, 4);
+        result[13] = '-';
+        writeHexDigits(windowIdBits, result, 14, 4);
+        result[18] = '-';
+        writeHexDigits(sourceNodeId >>> 48, result, 19, 4);
+        result[23] = '-';
+        writeHexDigits(sourceNodeId, result, 24, 12);
+        return new String(result);
+    }
+
+    private static void writeHexDigits(long value, char[] dst, int offset, int digitsCount) {
+        for (int i = offset + digitsCount - 1; i >= offset; --i) {
+            dst[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
     }
 
     @Nullable
@@ -119,7 +172,7 @@ public class AxNodeInfoHelper {
         if (nodeInfo == null) {
             return null;
         }
-        if (Settings.get(MapTestTagToResourceId.class).getValue()) {
+        if (Settings.getValue(MapTestTagToResourceId.class)) {
             Object testTag = nodeInfo.getExtras().get(COMPOSE_TEST_TAG_EXTRA_KEY);
             if (testTag != null) {
                 return testTag.toString();
@@ -290,69 +343,7 @@ public class AxNodeInfoHelper {
     }
 
     public static Rect getBounds(@Nullable AccessibilityNodeInfo node) {
-        int displayId = AxNodeInfoHelper.getAxNodeDisplayId(node);
-        final boolean isDisplayAccessible = CustomUiDevice.getInstance().getDisplayById(displayId) != null;
-        Rect screen = null;
-        if (isDisplayAccessible) {
-            Point displaySize = CustomUiDevice.getInstance().getDisplaySize(displayId);
-            screen = new Rect(0, 0, displaySize.x, displaySize.y);
-        }
-        if (node == null) {
-            return screen == null ? new Rect() : screen;
-        }
-        return getVisibleBoundsInScreen(
-                node,
-                screen,
-                Boolean.FALSE.equals(Settings.get(SimpleBoundsCalculation.class).getValue()),
-                0
-        );
-    }
-
-    @SuppressLint("CheckResult")
-    private static Rect getVisibleBoundsInScreen(
-            AccessibilityNodeInfo node, Rect displayRect, boolean trimScrollableParent, int depth
-    ) {
-        Rect nodeRect = new Rect();
-        node.getBoundsInScreen(nodeRect);
-
-        if (displayRect == null) {
-            displayRect = new Rect();
-        }
-        nodeRect.intersect(displayRect);
-
-        // Trim any portion of the bounds that are outside the window
-        Rect bounds = new Rect();
-        AccessibilityWindowInfo window = node.getWindow();
-        if (window != null) {
-            try {
-                window.getBoundsInScreen(bounds);
-                nodeRect.intersect(bounds);
-            } finally {
-                recycleSafely(window);
-            }
-        }
-
-        // Trim the bounds into any scrollable ancestor, if required.
-        if (trimScrollableParent) {
-            AccessibilityNodeInfo ancestor = node.getParent();
-            while (ancestor != null) {
-                if (ancestor.isScrollable()) {
-                    if (depth < Settings.get(SnapshotMaxDepth.class).getValue()) {
-                        Rect ancestorRect = getVisibleBoundsInScreen(
-                                ancestor, displayRect, true, depth + 1
-                        );
-                        nodeRect.intersect(ancestorRect);
-                    }
-                    recycleSafely(ancestor);
-                    break;
-                }
-                AccessibilityNodeInfo parent = ancestor.getParent();
-                recycleSafely(ancestor);
-                ancestor = parent;
-            }
-        }
-
-        return nodeRect;
+        return new AxNodeBoundsCalculator().getBounds(node);
     }
 
     public static int calculateIndex(AccessibilityNodeInfo node) {
@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.core;
+
+import androidx.annotation.Nullable;
+
+import org.eclipse.wst.xml.xpath2.api.XPath2Expression;
+import org.eclipse.wst.xml.xpath2.processor.Engine;
+import org.eclipse.wst.xml.xpath2.processor.XPathParserException;
+import org.eclipse.wst.xml.xpath2.processor.util.StaticContextBuilder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import io.appium.uiautomator2.common.exceptions.InvalidSelectorException;
+import io.appium.uiautomator2.model.UiElementSnapshot;
+import io.appium.uiautomator2.utils.Attribute;
+
+/**
+ * An XPath selector, which has already been compiled either by the XPath1 or by the XPath2 engine.
+ * Compiled expressions are stateful while being evaluated, so they must only be evaluated
+ * while holding the lock of the corresponding instance of this class.
+ */
+public class CompiledXPath {
+    private static final XPathFactory XPATH_FACTORY = XPathFactory.newInstance();
+
+    private final String selector;
+    private final boolean isXpath1;
+    @Nullable
+    private final XPathExpression xpath1Expression;
+    @Nullable
+    private final XPath2Expression xpath2Expression;
+    @Nullable
+    private final StaticContextBuilder staticContext;
+    private final Set<Attribute> queriedAttributes;
+
+    private CompiledXPath(String selector, @Nullable XPathExpression xpath1Expression,
+                          @Nullable XPath2Expression xpath2Expression,
+                          @Nullable StaticContextBuilder staticContext) {
+        this.selector = selector;
+        this.isXpath1 = xpath1Expression != null;
+        this.xpath1Expression = xpath1Expression;
+        this.xpath2Expression = xpath2Expression;
+        this.staticContext = staticContext;
+        this.queriedAttributes = Collections.unmodifiableSet(extractQueriedAttributes(selector));
+    }
+
+    /**
+     * Compiles the given selector.
+     *
+     * @param selector The XPath selector to compile
+     * @param isXpath1 Whether to use XPath1 or XPath2 engine for the compilation
+     * @return The compiled selector
+     * @throws InvalidSelectorException if the selector cannot be compiled
+     */
+    public static CompiledXPath compile(String selector, boolean isXpath1) {
+        if (isXpath1) {
+            try {
+                return new CompiledXPath(selector,
+                        XPATH_FACTORY.newXPath().compile(selector), null, null);
+            } catch (XPathExpressionException e) {
+                throw new InvalidSelectorException(e);
+            }
+        }
+
+        StaticContextBuilder scb = new StaticContextBuilder();
+        try {
+            return new CompiledXPath(selector, null,
+                    new Engine().parseExpression(selector, scb), scb);
+        } catch (XPathParserException e) {
+            throw new InvalidSelectorException(e);
+        }
+    }
+
+    private static Set<Attribute> extractQueriedAttributes(String xpathExpression) {
+        if (xpathExpression.contains("@*")) {
+            return new HashSet<>(Arrays.asList(UiElementSnapshot.SUPPORTED_ATTRIBUTES));
+        }
+
+        return Arrays.stream(Attribute.values())
+                .filter(attr -> xpathExpression.contains("@" + attr.toString()))
+                .collect(Collectors.toSet());
+    }
+
+    public String getSelector() {
+        return selector;
+    }
+
+    public boolean isXpath1() {
+        return isXpath1;
+    }
+
+    @Nullable
+    public XPathExpression getXpath1Expression() {
+        return xpath1Expression;
+    }
+
+    @Nullable
+    public XPath2Expression getXpath2Expression() {
+        return xpath2Expression;
+    }
+
+    @Nullable
+    public StaticContextBuilder getStaticContext() {
+        return staticContext;
+    }
+
+    /**
+     * We are trying to be smart here and only include the actually queried
+     * attributes into the source document. This allows to improve the performance a lot
+     * while building this document.
+     *
+     * @return The set of attributes referenced by the selector
+     */
+    public Set<Attribute> getQueriedAttributes() {
+        return queriedAttributes;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.appium.uiautomator2.model.api.CacheStatsModel;
+import io.appium.uiautomator2.model.settings.EnforceXpath1;
+import io.appium.uiautomator2.model.settings.Settings;
+import io.appium.uiautomator2.model.settings.XpathCacheEvictionPolicy;
+import io.appium.uiautomator2.model.settings.XpathCacheSize;
+
+/**
+ * Keeps recently compiled XPath selectors, so repeated lookups using the same locator
+ * skip parsing. Entries are keyed by the selector and the XPath engine that compiled it.
+ * The capacity and the eviction policy are controlled by {@link XpathCacheSize} and
+ * {@link XpathCacheEvictionPolicy} settings.
+ */
+public class CompiledXPathCache {
+    private static CompiledXPathCache INSTANCE;
+
+    private LinkedHashMap<String, CompiledXPath> entries = new LinkedHashMap<>();
+    private boolean isAccessOrdered;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    CompiledXPathCache() {}
+
+    public static synchronized CompiledXPathCache getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new CompiledXPathCache();
+        }
+        return INSTANCE;
+    }
+
+    private static String toKey(String selector, boolean isXpath1) {
+        return (isXpath1 ? "1:" : "2:") + selector;
+    }
+
+    /**
+     * Returns the compiled selector from the cache or compiles it if there is no cached entry
+     * yet. The engine is selected based on the current value of {@link EnforceXpath1} setting.
+     *
+     * @param selector The XPath selector
+     * @return The compiled selector
+     * @throws io.appium.uiautomator2.common.exceptions.InvalidSelectorException if
+     * the selector cannot be compiled
+     */
+    public CompiledXPath get(String selector) {
+        boolean isXpath1 = Settings.getValue(EnforceXpath1.class);
+        int capacity = Settings.getValue(XpathCacheSize.class);
+        String key = toKey(selector, isXpath1);
+        synchronized (this) {
+            applyPolicy(capacity, Settings.get(XpathCacheEvictionPolicy.class).isAccessOrdered());
+            CompiledXPath result = entries.get(key);
+            if (result != null) {
+                ++hits;
+                return result;
+            }
+            ++misses;
+        }
+        // Compilation may take a while, so it is done without blocking other lookups
+        CompiledXPath result = CompiledXPath.compile(selector, isXpath1);
+        if (capacity > 0) {
+            synchronized (this) {
+                CompiledXPath existing = entries.get(key);
+                if (existing != null) {
+                    return existing;
+                }
+                entries.put(key, result);
+                trimToSize(capacity);
+            }
+        }
+        return result;
+    }
+
+    private void applyPolicy(int capacity, boolean isAccessOrdered) {
+        if (this.isAccessOrdered != isAccessOrdered) {
+            LinkedHashMap<String, CompiledXPath> reordered =
+                    new LinkedHashMap<>(Math.max(capacity, 16), 0.75f, isAccessOrdered);
+            reordered.putAll(entries);
+            entries = reordered;
+            this.isAccessOrdered = isAccessOrdered;
+        }
+        trimToSize(capacity);
+    }
+
+    private void trimToSize(int capacity) {
+        while (entries.size() > capacity) {
+            String eldestKey = entries.keySet().iterator().next();
+            entries.remove(eldestKey);
+            ++evictions;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized CacheStatsModel getStats() {
+        return new CacheStatsModel(
+                entries.size(),
+                Settings.getValue(XpathCacheSize.class),
+                Settings.getValue(XpathCacheEvictionPolicy.class),
+                hits,
+                misses,
+                evictions
+        );
+    }
+}
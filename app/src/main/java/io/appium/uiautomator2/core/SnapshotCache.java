@@ -0,0 +1,389 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.core;
+
+import android.os.SystemClock;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.appium.uiautomator2.model.NotificationListener;
+import io.appium.uiautomator2.model.UiElementSnapshot;
+import io.appium.uiautomator2.model.api.SnapshotCacheStatsModel;
+import io.appium.uiautomator2.model.settings.AllowInvisibleElements;
+import io.appium.uiautomator2.model.settings.AlwaysTraversableViewClasses;
+import io.appium.uiautomator2.model.settings.EnableMultiWindows;
+import io.appium.uiautomator2.model.settings.EnableSnapshotCache;
+import io.appium.uiautomator2.model.settings.EnableTopmostWindowFromActivePackage;
+import io.appium.uiautomator2.model.settings.IncludeA11yActionsInPageSource;
+import io.appium.uiautomator2.model.settings.IncludeExtraRenderingInfo;
+import io.appium.uiautomator2.model.settings.IncludeExtrasInPageSource;
+import io.appium.uiautomator2.model.settings.MapTestTagToResourceId;
+import io.appium.uiautomator2.model.settings.Settings;
+import io.appium.uiautomator2.model.settings.SimpleBoundsCalculation;
+import io.appium.uiautomator2.model.settings.SnapshotMaxDepth;
+import io.appium.uiautomator2.utils.Attribute;
+import io.appium.uiautomator2.utils.Logger;
+
+import static android.app.UiAutomation.OnAccessibilityEventListener;
+import static io.appium.uiautomator2.utils.AXWindowHelpers.getCachedWindowRoots;
+
+/**
+ * Keeps the most recent snapshot of the whole UI hierarchy between lookups, so page source
+ * and XPath queries could reuse it while the screen stays idle.
+ * <p>
+ * The snapshot is invalidated by accessibility events delivered to {@link NotificationListener}.
+ * Window-level events cause the full hierarchy to be rebuilt, while content-level events only
+ * mark the subtree of their source node as dirty. Dirty subtrees are refreshed in place the next
+ * time the snapshot is requested. The cache is bypassed whenever it is disabled by
+ * {@link EnableSnapshotCache} setting or the event listener is not active.
+ * <p>
+ * The snapshot tree is mutable and thus must only be accessed while holding the lock,
+ * see {@link #lock()}.
+ */
+public class SnapshotCache implements OnAccessibilityEventListener {
+    // Refreshing too many subtrees separately is slower than rebuilding the whole hierarchy
+    private static final int MAX_DIRTY_SUBTREES = 32;
+
+    private final ReentrantLock treeLock = new ReentrantLock();
+    private volatile boolean isObserving;
+    @Nullable
+    private UiElementSnapshot root;
+    private Set<Attribute> includedAttributes = Collections.emptySet();
+    @Nullable
+    private String fingerprint;
+    private int listenerGeneration;
+    // Nodes owned elsewhere (window roots or matched nodes returned to the client),
+    // which must not be recycled together with the snapshot tree
+    private final Set<AccessibilityNodeInfo> retainedNodes =
+            Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Guarded by this
+    private boolean isFullRebuildRequired = true;
+    // Guarded by this
+    private final Set<String> dirtySubtrees = new HashSet<>();
+
+    private volatile long hits;
+    private volatile long partialHits;
+    private volatile long misses;
+    private volatile long subtreeRebuilds;
+
+    /**
+     * Checks whether the cache could be used at the moment.
+     * The cached tree is released if the cache cannot be used anymore.
+     *
+     * @return true if the cache is enabled and accessibility events are being observed
+     */
+    public boolean isUsable() {
+        boolean isUsable = Settings.getValue(EnableSnapshotCache.class)
+                && NotificationListener.getInstance().isListening();
+        if (!isUsable) {
+            close();
+        } else if (!isObserving) {
+            NotificationListener.getInstance().addObserver(this);
+            isObserving = true;
+        }
+        return isUsable;
+    }
+
+    /**
+     * Acquires the exclusive access to the cached snapshot tree. Each call must be paired
+     * with {@link #unlock()}.
+     */
+    public void lock() {
+        treeLock.lock();
+    }
+
+    public void unlock() {
+        treeLock.unlock();
+    }
+
+    /**
+     * Returns the cached snapshot of the whole UI hierarchy, rebuilding its dirty parts first.
+     * Must only be called while holding the lock.
+     *
+     * @param includedAttributes The attributes that must be present in the snapshot.
+     *                           An empty set means all the supported attributes.
+     * @param toastMessages The list of toast messages to be added to the hierarchy root
+     * @return The snapshot tree root
+     */
+    public UiElementSnapshot get(Set<Attribute> includedAttributes, List<CharSequence> toastMessages) {
+        if (!treeLock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("The snapshot cache must be locked before it is accessed");
+        }
+
+        final boolean isFullRebuildRequired;
+        final Set<String> dirtySubtrees;
+        synchronized (this) {
+            isFullRebuildRequired = this.isFullRebuildRequired;
+            dirtySubtrees = new HashSet<>(this.dirtySubtrees);
+            this.isFullRebuildRequired = false;
+            this.dirtySubtrees.clear();
+        }
+
+        int generation = NotificationListener.getInstance().getGeneration();
+        String fingerprint = makeFingerprint(toastMessages);
+        if (root == null || isFullRebuildRequired || generation != listenerGeneration
+                || !fingerprint.equals(this.fingerprint)) {
+            rebuild(includedAttributes, toastMessages, fingerprint, generation);
+        } else if (!covers(this.includedAttributes, includedAttributes)) {
+            rebuild(union(this.includedAttributes, includedAttributes),
+                    toastMessages, fingerprint, generation);
+        } else if (dirtySubtrees.isEmpty()) {
+            ++hits;
+        } else if (rebuildSubtrees(dirtySubtrees)) {
+            ++partialHits;
+        } else {
+            rebuild(this.includedAttributes, toastMessages, fingerprint, generation);
+        }
+        return root;
+    }
+
+    /**
+     * Marks the given nodes as being used outside of the snapshot tree, so they are not recycled
+     * after the tree gets invalidated.
+     */
+    public void retain(@Nullable Collection<AccessibilityNodeInfo> nodes) {
+        if (nodes != null) {
+            retainedNodes.addAll(nodes);
+        }
+    }
+
+    public synchronized void invalidate() {
+        isFullRebuildRequired = true;
+        dirtySubtrees.clear();
+    }
+
+    /**
+     * Stops observing accessibility events and releases the cached tree.
+     */
+    public void close() {
+        if (isObserving) {
+            NotificationListener.getInstance().removeObserver(this);
+            isObserving = false;
+        }
+        invalidate();
+        lock();
+        try {
+            release();
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public void onAccessibilityEvent(AccessibilityEvent event) {
+        switch (event.getEventType()) {
+            case AccessibilityEvent.TYPE_WINDOWS_CHANGED:
+            case AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED:
+            // Focus and selection events are only delivered for the newly focused/selected
+            // node, while the state of the previous one changes as well
+            case AccessibilityEvent.TYPE_VIEW_FOCUSED:
+            case AccessibilityEvent.TYPE_VIEW_SELECTED:
+                invalidate();
+                break;
+            case AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED:
+            case AccessibilityEvent.TYPE_VIEW_SCROLLED:
+            case AccessibilityEvent.TYPE_VIEW_TEXT_CHANGED:
+            case AccessibilityEvent.TYPE_VIEW_TEXT_SELECTION_CHANGED:
+            case AccessibilityEvent.TYPE_VIEW_CLICKED:
+            case AccessibilityEvent.TYPE_VIEW_LONG_CLICKED:
+            case AccessibilityEvent.TYPE_VIEW_ACCESSIBILITY_FOCUSED:
+            case AccessibilityEvent.TYPE_VIEW_ACCESSIBILITY_FOCUS_CLEARED:
+                markDirty(event);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private synchronized void markDirty(AccessibilityEvent event) {
+        if (isFullRebuildRequired) {
+            return;
+        }
+        String sourceId = null;
+        try {
+            sourceId = AxNodeInfoHelper.toUuid(event);
+        } catch (Exception e) {
+            Logger.debug(String.format("Cannot retrieve the source node of %s", event), e);
+        }
+        if (sourceId == null || dirtySubtrees.size() >= MAX_DIRTY_SUBTREES) {
+            isFullRebuildRequired = true;
+            dirtySubtrees.clear();
+        } else {
+            dirtySubtrees.add(sourceId);
+        }
+    }
+
+    public synchronized SnapshotCacheStatsModel getStats() {
+        long requests = hits + partialHits + misses;
+        return new SnapshotCacheStatsModel(
+                Settings.getValue(EnableSnapshotCache.class),
+                hits,
+                partialHits,
+                misses,
+                subtreeRebuilds,
+                requests == 0 ? 0 : (double) (hits + partialHits) / requests
+        );
+    }
+
+    private void rebuild(Set<Attribute> includedAttributes, List<CharSequence> toastMessages,
+                         String fingerprint, int generation) {
+        final long startTime = SystemClock.uptimeMillis();
+        release();
+        AccessibilityNodeInfo[] windowRoots = getCachedWindowRoots();
+        retainedNodes.addAll(Arrays.asList(windowRoots));
+        root = UiElementSnapshot.take(windowRoots, toastMessages, includedAttributes);
+        this.includedAttributes = includedAttributes;
+        this.fingerprint = fingerprint;
+        this.listenerGeneration = generation;
+        ++misses;
+        Logger.debug(String.format("The cached snapshot tree has been rebuilt in %sms",
+                SystemClock.uptimeMillis() - startTime));
+    }
+
+    private void release() {
+        if (root != null) {
+            AccessibilityNodeInfoDumper.recycleTree(root, retainedNodes);
+        }
+        root = null;
+        fingerprint = null;
+        retainedNodes.clear();
+    }
+
+    /**
+     * Rebuilds the subtrees with the given source node identifiers.
+     *
+     * @return false if any of the subtrees cannot be rebuilt, so the whole tree must be rebuilt
+     */
+    private boolean rebuildSubtrees(Set<String> dirtySubtrees) {
+        final long startTime = SystemClock.uptimeMillis();
+        Map<String, UiElementSnapshot> elementsById = new HashMap<>();
+        Map<UiElementSnapshot, UiElementSnapshot> parents = new IdentityHashMap<>();
+        indexTree(Collections.singletonList(Objects.requireNonNull(root)), elementsById, parents);
+
+        List<UiElementSnapshot> targets = new ArrayList<>();
+        for (String id : dirtySubtrees) {
+            UiElementSnapshot element = elementsById.get(id);
+            if (element == null || !parents.containsKey(element)) {
+                // The changed node is not a part of the snapshot yet,
+                // although it might have become a part of it
+                return false;
+            }
+            targets.add(element);
+        }
+        Set<UiElementSnapshot> targetsSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        targetsSet.addAll(targets);
+        for (UiElementSnapshot target : targets) {
+            if (hasAncestorIn(target, targetsSet, parents)) {
+                // The subtree is going to be rebuilt together with its ancestor
+                continue;
+            }
+            UiElementSnapshot replaced = Objects.requireNonNull(parents.get(target)).rebuildChild(target);
+            if (replaced == null) {
+                return false;
+            }
+            ++subtreeRebuilds;
+            Set<AccessibilityNodeInfo> keep = Collections.newSetFromMap(new IdentityHashMap<>());
+            keep.addAll(retainedNodes);
+            keep.add(replaced.getNode());
+            AccessibilityNodeInfoDumper.recycleTree(replaced, keep);
+        }
+        Logger.debug(String.format("%s subtree(s) of the cached snapshot tree have been rebuilt in %sms",
+                targets.size(), SystemClock.uptimeMillis() - startTime));
+        return true;
+    }
+
+    private static boolean hasAncestorIn(UiElementSnapshot element, Set<UiElementSnapshot> candidates,
+                                         Map<UiElementSnapshot, UiElementSnapshot> parents) {
+        UiElementSnapshot parent = parents.get(element);
+        while (parent != null) {
+            if (candidates.contains(parent)) {
+                return true;
+            }
+            parent = parents.get(parent);
+        }
+        return false;
+    }
+
+    private static void indexTree(List<UiElementSnapshot> elements,
+                                  Map<String, UiElementSnapshot> elementsById,
+                                  Map<UiElementSnapshot, UiElementSnapshot> parents) {
+        List<UiElementSnapshot> pending = new ArrayList<>(elements);
+        while (!pending.isEmpty()) {
+            UiElementSnapshot element = pending.remove(pending.size() - 1);
+            AccessibilityNodeInfo node = element.getNode();
+            if (node != null) {
+                String id = AxNodeInfoHelper.toUuid(node);
+                if (id != null) {
+                    elementsById.put(id, element);
+                }
+            }
+            for (UiElementSnapshot child : element.getChildren()) {
+                parents.put(child, element);
+                pending.add(child);
+            }
+        }
+    }
+
+    private static boolean covers(Set<Attribute> available, Set<Attribute> requested) {
+        return available.isEmpty() || (!requested.isEmpty() && available.containsAll(requested));
+    }
+
+    private static Set<Attribute> union(Set<Attribute> first, Set<Attribute> second) {
+        if (first.isEmpty() || second.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<Attribute> result = new HashSet<>(first);
+        result.addAll(second);
+        return result;
+    }
+
+    /**
+     * Settings, which affect the content of the snapshot tree, and the toast messages
+     * (they are not tracked by accessibility events) are part of the fingerprint.
+     */
+    private static String makeFingerprint(List<CharSequence> toastMessages) {
+        return Arrays.asList(
+                Settings.getValue(SnapshotMaxDepth.class),
+                Settings.getValue(AllowInvisibleElements.class),
+                Settings.getValue(AlwaysTraversableViewClasses.class),
+                Settings.getValue(IncludeExtrasInPageSource.class),
+                Settings.getValue(IncludeA11yActionsInPageSource.class),
+                Settings.getValue(IncludeExtraRenderingInfo.class),
+                Settings.getValue(MapTestTagToResourceId.class),
+                Settings.getValue(SimpleBoundsCalculation.class),
+                Settings.getValue(EnableMultiWindows.class),
+                Settings.getValue(EnableTopmostWindowFromActivePackage.class),
+                toastMessages
+        ).toString();
+    }
+}
@@ -44,7 +44,7 @@ public class UiAutomatorBridge {
     }
 
     public int getCurrentDisplayId() {
-        return Settings.get(CurrentDisplayId.class).getValue();
+        return Settings.getValue(CurrentDisplayId.class);
     }
 
     public InteractionController getInteractionController() {
@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.core.dom;
+
+import androidx.annotation.Nullable;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.TypeInfo;
+
+/**
+ * A read-only attribute of {@link SnapshotElement}. Values are already sanitized to only
+ * contain characters that are legal in XML 1.0, exactly like in the serialized page source.
+ */
+public class SnapshotAttr extends SnapshotNode implements Attr {
+    private final SnapshotElement ownerElement;
+    private final int index;
+    private final String name;
+    private final String value;
+
+    SnapshotAttr(SnapshotElement ownerElement, int index, String name, String value) {
+        this.ownerElement = ownerElement;
+        this.index = index;
+        this.name = name;
+        this.value = value;
+        this.ordinal = ownerElement.ordinal;
+        this.subtreeEnd = ownerElement.ordinal;
+    }
+
+    @Override
+    SnapshotDocument getSnapshotDocument() {
+        return ownerElement.getSnapshotDocument();
+    }
+
+    @Override
+    int getAttributeIndex() {
+        return index;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean getSpecified() {
+        return true;
+    }
+
+    @Override
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public void setValue(String value) {
+        throw readOnly();
+    }
+
+    @Override
+    public Element getOwnerElement() {
+        return ownerElement;
+    }
+
+    @Nullable
+    @Override
+    public TypeInfo getSchemaTypeInfo() {
+        return null;
+    }
+
+    @Override
+    public boolean isId() {
+        return false;
+    }
+
+    @Override
+    public String getNodeName() {
+        return name;
+    }
+
+    @Override
+    public String getNodeValue() {
+        return value;
+    }
+
+    @Override
+    public short getNodeType() {
+        return Node.ATTRIBUTE_NODE;
+    }
+
+    @Override
+    public Document getOwnerDocument() {
+        return getSnapshotDocument();
+    }
+
+    @Override
+    public String getLocalName() {
+        return name;
+    }
+
+    @Override
+    public String getTextContent() {
+        return value;
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.core.dom;
+
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.CDATASection;
+import org.w3c.dom.Comment;
+import org.w3c.dom.DOMConfiguration;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
+import org.w3c.dom.DocumentFragment;
+import org.w3c.dom.DocumentType;
+import org.w3c.dom.Element;
+import org.w3c.dom.EntityReference;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.ProcessingInstruction;
+import org.w3c.dom.Text;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import io.appium.uiautomator2.model.UiElement;
+
+/**
+ * A read-only {@code org.w3c.dom} view over a {@link UiElement} snapshot tree.
+ * <p>
+ * The document lets XPath engines (both {@code javax.xml.xpath} and the PsychoPath XPath2
+ * processor) evaluate expressions directly over the snapshot, without serializing it to XML
+ * and parsing the result back into a separate DOM tree. Every matched {@link SnapshotElement}
+ * keeps a reference to its {@link UiElement}, so matches map straight back to their
+ * accessibility nodes.
+ * <p>
+ * The tree exposes exactly the same element names and attributes as the page source XML.
+ * It only contains element and attribute nodes.
+ */
+public class SnapshotDocument extends SnapshotNode implements Document {
+    private static final String XML_VERSION = "1.0";
+    private static final String XML_ENCODING = "UTF-8";
+
+    private final SnapshotElement documentElement;
+    // All elements in document order, so the element with ordinal N is stored at index N - 1
+    private final SnapshotElement[] elements;
+    private final Map<String, String> rootAttributes;
+
+    /**
+     * Wraps the given snapshot tree.
+     *
+     * @param root           The root of the snapshot tree
+     * @param rootAttributes Additional attributes to be appended to the document element,
+     *                       for example, the display info
+     */
+    public SnapshotDocument(UiElement<?, ?> root, Map<String, String> rootAttributes) {
+        this.rootAttributes = Collections.unmodifiableMap(rootAttributes);
+        this.ordinal = 0;
+        List<SnapshotElement> ordered = new ArrayList<>();
+        this.documentElement = new SnapshotElement(this, this, 0, root);
+        // Use an explicit stack, so deep hierarchies cannot overflow the call stack
+        Deque<SnapshotElement> stack = new ArrayDeque<>();
+        stack.push(documentElement);
+        while (!stack.isEmpty()) {
+            SnapshotElement element = stack.pop();
+            element.ordinal = ordered.size() + 1;
+            ordered.add(element);
+            List<? extends UiElement<?, ?>> uiChildren = element.getUiElement().getChildren();
+            SnapshotElement[] children = new SnapshotElement[uiChildren.size()];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = new SnapshotElement(this, element, i, uiChildren.get(i));
+            }
+            element.setChildren(children);
+            for (int i = children.length - 1; i >= 0; i--) {
+                stack.push(children[i]);
+            }
+        }
+        this.elements = ordered.toArray(new SnapshotElement[0]);
+        // Each element's subtree spans up to the ordinal preceding its next sibling
+        // (or the next sibling of its closest ancestor that has one)
+        for (int i = elements.length - 1; i >= 0; i--) {
+            SnapshotElement element = elements[i];
+            Node lastChild = element.getLastChild();
+            element.subtreeEnd = lastChild == null
+                    ? element.ordinal
+                    : ((SnapshotElement) lastChild).subtreeEnd;
+        }
+        this.subtreeEnd = elements.length;
+    }
+
+    static boolean hasFeature(@Nullable String feature, @Nullable String version) {
+        boolean isKnownFeature = "Core".equalsIgnoreCase(feature) || "XML".equalsIgnoreCase(feature);
+        return isKnownFeature && (version == null || version.isEmpty()
+                || "1.0".equals(version) || "2.0".equals(version) || "3.0".equals(version));
+    }
+
+    Map<String, String> getRootAttributes() {
+        return rootAttributes;
+    }
+
+    /**
+     * @return The total count of elements in the document
+     */
+    public int getElementsCount() {
+        return elements.length;
+    }
+
+    /**
+     * Looks up the element, which wraps the given accessibility node.
+     *
+     * @param node The node to look for
+     * @return The matched element or null if the node is not a part of this snapshot
+     */
+    @Nullable
+    public SnapshotElement findElement(AccessibilityNodeInfo node) {
+        for (SnapshotElement element : elements) {
+            if (Objects.equals(element.getUiElement().getNode(), node)) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    NodeList collectElements(SnapshotNode scope, @Nullable String namespaceURI,
+                             String localName) {
+        boolean isNullNamespace = namespaceURI == null || namespaceURI.isEmpty()
+                || "*".equals(namespaceURI);
+        if (!isNullNamespace) {
+            return EMPTY_NODE_LIST;
+        }
+        boolean isWildcard = "*".equals(localName);
+        List<SnapshotNode> result = new ArrayList<>();
+        // Only descendants are included, but never the scope node itself
+        for (int ordinal = scope.ordinal + 1; ordinal <= scope.subtreeEnd; ordinal++) {
+            SnapshotElement element = elements[ordinal - 1];
+            if (isWildcard || element.getTagName().equals(localName)) {
+                result.add(element);
+            }
+        }
+        return new SnapshotNodeList(result.toArray(new SnapshotNode[0]));
+    }
+
+    @Override
+    SnapshotDocument getSnapshotDocument() {
+        return this;
+    }
+
+    @Nullable
+    @Override
+    public DocumentType getDoctype() {
+        return null;
+    }
+
+    @Override
+    public DOMImplementation getImplementation() {
+        throw notSupported();
+    }
+
+    @NonNull
+    @Override
+    public Element getDocumentElement() {
+        return documentElement;
+    }
+
+    @Override
+    public Element createElement(String tagName) {
+        throw readOnly();
+    }
+
+    @Override
+    public DocumentFragment createDocumentFragment() {
+        throw readOnly();
+    }
+
+    @Override
+    public Text createTextNode(String data) {
+        throw readOnly();
+    }
+
+    @Override
+    public Comment createComment(String data) {
+        throw readOnly();
+    }
+
+    @Override
+    public CDATASection createCDATASection(String data) {
+        throw readOnly();
+    }
+
+    @Override
+    public ProcessingInstruction createProcessingInstruction(String target, String data) {
+        throw readOnly();
+    }
+
+    @Override
+    public Attr createAttribute(String name) {
+        throw readOnly();
+    }
+
+    @Override
+    public EntityReference createEntityReference(String name) {
+        throw readOnly();
+    }
+
+    @Override
+    public NodeList getElementsByTagName(String tagname) {
+        return collectElements(this, null, tagname);
+    }
+
+    @Override
+    public Node importNode(Node importedNode, boolean deep) {
+        throw readOnly();
+    }
+
+    @Override
+    public Element createElementNS(String namespaceURI, String qualifiedName) {
+        throw readOnly();
+    }
+
+    @Override
+    public Attr createAttributeNS(String namespaceURI, String qualifiedName) {
+        throw readOnly();
+    }
+
+    @Override
+    public NodeList getElementsByTagNameNS(String namespaceURI, String localName) {
+        return collectElements(this, namespaceURI, localName);
+    }
+
+    @Nullable
+    @Override
+    public Element getElementById(String elementId) {
+        // The snapshot has no attributes of ID type
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public String getInputEncoding() {
+        return null;
+    }
+
+    @Override
+    public String getXmlEncoding() {
+        return XML_ENCODING;
+    }
+
+    @Override
+    public boolean getXmlStandalone() {
+        return true;
+    }
+
+    @Override
+    public void setXmlStandalone(boolean xmlStandalone) {
+        throw readOnly();
+    }
+
+    @Override
+    public String getXmlVersion() {
+        return XML_VERSION;
+    }
+
+    @Override
+    public void setXmlVersion(String xmlVersion) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean getStrictErrorChecking() {
+        return false;
+    }
+
+    @Override
+    public void setStrictErrorChecking(boolean strictErrorChecking) {
+        // Nothing to check in a read-only document
+    }
+
+    @Nullable
+    @Override
+    public String getDocumentURI() {
+        return null;
+    }
+
+    @Override
+    public void setDocumentURI(String documentURI) {
+        throw readOnly();
+    }
+
+    @Override
+    public Node adoptNode(Node source) {
+        throw readOnly();
+    }
+
+    @Override
+    public DOMConfiguration getDomConfig() {
+        throw notSupported();
+    }
+
+    @Override
+    public void normalizeDocument() {
+        // The snapshot is always normalized
+    }
+
+    @Override
+    public Node renameNode(Node n, String namespaceURI, String qualifiedName) {
+        throw readOnly();
+    }
+
+    @Override
+    public String getNodeName() {
+        return "#document";
+    }
+
+    @Override
+    public short getNodeType() {
+        return Node.DOCUMENT_NODE;
+    }
+
+    @Override
+    public NodeList getChildNodes() {
+        return new SnapshotNodeList(new SnapshotNode[]{documentElement});
+    }
+
+    @Nullable
+    @Override
+    public Document getOwnerDocument() {
+        return null;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.core.dom;
+
+import androidx.annotation.Nullable;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.TypeInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.appium.uiautomator2.model.UiElement;
+import io.appium.uiautomator2.utils.Attribute;
+
+import static io.appium.uiautomator2.utils.XMLHelpers.NON_XML_CHAR_REPLACEMENT;
+import static io.appium.uiautomator2.utils.XMLHelpers.toSafeString;
+import static io.appium.uiautomator2.utils.XMLHelpers.toXmlNodeName;
+
+/**
+ * A read-only element that wraps a single {@link UiElement} of the snapshot tree.
+ * Both the tag name and the attributes are only computed when they are requested
+ * for the first time.
+ */
+public class SnapshotElement extends SnapshotNode implements Element {
+    private final SnapshotDocument document;
+    private final SnapshotNode parent;
+    private final int indexInParent;
+    private final UiElement<?, ?> uiElement;
+    private SnapshotElement[] children;
+    @Nullable
+    private String tagName;
+    @Nullable
+    private SnapshotAttr[] attributes;
+
+    SnapshotElement(SnapshotDocument document, SnapshotNode parent, int indexInParent,
+                    UiElement<?, ?> uiElement) {
+        this.document = document;
+        this.parent = parent;
+        this.indexInParent = indexInParent;
+        this.uiElement = uiElement;
+    }
+
+    void setChildren(SnapshotElement[] children) {
+        this.children = children;
+    }
+
+    /**
+     * @return The snapshot element this DOM element has been created for
+     */
+    public UiElement<?, ?> getUiElement() {
+        return uiElement;
+    }
+
+    @Override
+    SnapshotDocument getSnapshotDocument() {
+        return document;
+    }
+
+    private SnapshotAttr[] getAttributesArray() {
+        if (attributes != null) {
+            return attributes;
+        }
+        List<SnapshotAttr> result = new ArrayList<>();
+        for (Attribute attr : uiElement.attributeKeys()) {
+            if (!attr.isExposableToXml()) {
+                continue;
+            }
+            Object value = uiElement.get(attr);
+            if (value == null) {
+                continue;
+            }
+            result.add(new SnapshotAttr(this, result.size(), attr.getName(),
+                    toSafeString(String.valueOf(value), NON_XML_CHAR_REPLACEMENT)));
+        }
+        if (document.getDocumentElement() == this) {
+            for (Map.Entry<String, String> extra : document.getRootAttributes().entrySet()) {
+                result.add(new SnapshotAttr(this, result.size(), extra.getKey(), extra.getValue()));
+            }
+        }
+        attributes = result.toArray(new SnapshotAttr[0]);
+        return attributes;
+    }
+
+    @Nullable
+    private SnapshotAttr findAttribute(String name) {
+        for (SnapshotAttr attribute : getAttributesArray()) {
+            if (attribute.getName().equals(name)) {
+                return attribute;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isNullNamespace(@Nullable String namespaceURI) {
+        return namespaceURI == null || namespaceURI.isEmpty();
+    }
+
+    @Override
+    public String getTagName() {
+        if (tagName == null) {
+            tagName = toXmlNodeName(uiElement.getClassName());
+        }
+        return tagName;
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        SnapshotAttr attribute = findAttribute(name);
+        return attribute == null ? "" : attribute.getValue();
+    }
+
+    @Override
+    public void setAttribute(String name, String value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        throw readOnly();
+    }
+
+    @Nullable
+    @Override
+    public Attr getAttributeNode(String name) {
+        return findAttribute(name);
+    }
+
+    @Override
+    public Attr setAttributeNode(Attr newAttr) {
+        throw readOnly();
+    }
+
+    @Override
+    public Attr removeAttributeNode(Attr oldAttr) {
+        throw readOnly();
+    }
+
+    @Override
+    public NodeList getElementsByTagName(String name) {
+        return document.collectElements(this, null, name);
+    }
+
+    @Override
+    public String getAttributeNS(String namespaceURI, String localName) {
+        return isNullNamespace(namespaceURI) ? getAttribute(localName) : "";
+    }
+
+    @Override
+    public void setAttributeNS(String namespaceURI, String qualifiedName, String value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeAttributeNS(String namespaceURI, String localName) {
+        throw readOnly();
+    }
+
+    @Nullable
+    @Override
+    public Attr getAttributeNodeNS(String namespaceURI, String localName) {
+        return isNullNamespace(namespaceURI) ? findAttribute(localName) : null;
+    }
+
+    @Override
+    public Attr setAttributeNodeNS(Attr newAttr) {
+        throw readOnly();
+    }
+
+    @Override
+    public NodeList getElementsByTagNameNS(String namespaceURI, String localName) {
+        return document.collectElements(this, namespaceURI, localName);
+    }
+
+    @Override
+    public boolean hasAttribute(String name) {
+        return findAttribute(name) != null;
+    }
+
+    @Override
+    public boolean hasAttributeNS(String namespaceURI, String localName) {
+        return isNullNamespace(namespaceURI) && hasAttribute(localName);
+    }
+
+    @Nullable
+    @Override
+    public TypeInfo getSchemaTypeInfo() {
+        return null;
+    }
+
+    @Override
+    public void setIdAttribute(String name, boolean isId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setIdAttributeNS(String namespaceURI, String localName, boolean isId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setIdAttributeNode(Attr idAttr, boolean isId) {
+        throw readOnly();
+    }
+
+    @Override
+    public String getNodeName() {
+        return getTagName();
+    }
+
+    @Override
+    public short getNodeType() {
+        return Node.ELEMENT_NODE;
+    }
+
+    @Override
+    public Node getParentNode() {
+        return parent;
+    }
+
+    @Override
+    public NodeList getChildNodes() {
+        return children.length == 0 ? EMPTY_NODE_LIST : new SnapshotNodeList(children);
+    }
+
+    @Nullable
+    @Override
+    public Node getFirstChild() {
+        return children.length == 0 ? null : children[0];
+    }
+
+    @Nullable
+    @Override
+    public Node getLastChild() {
+        return children.length == 0 ? null : children[children.length - 1];
+    }
+
+    @Override
+    public boolean hasChildNodes() {
+        return children.length > 0;
+    }
+
+    @Nullable
+    @Override
+    public Node getPreviousSibling() {
+        return parent instanceof SnapshotElement && indexInParent > 0
+                ? ((SnapshotElement) parent).children[indexInParent - 1]
+                : null;
+    }
+
+    @Nullable
+    @Override
+    public Node getNextSibling() {
+        if (!(parent instanceof SnapshotElement)) {
+            return null;
+        }
+        SnapshotElement[] siblings = ((SnapshotElement) parent).children;
+        return indexInParent + 1 < siblings.length ? siblings[indexInParent + 1] : null;
+    }
+
+    @Override
+    public NamedNodeMap getAttributes() {
+        return new SnapshotNamedNodeMap(getAttributesArray());
+    }
+
+    @Override
+    public boolean hasAttributes() {
+        return getAttributesArray().length > 0;
+    }
+
+    @Override
+    public Document getOwnerDocument() {
+        return document;
+    }
+
+    @Override
+    public String getLocalName() {
+        return getTagName();
+    }
+
+    @Override
+    public String getTextContent() {
+        // The snapshot tree does not contain any text nodes
+        return "";
+    }
+}
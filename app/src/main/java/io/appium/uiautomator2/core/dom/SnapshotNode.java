@@ -0,0 +1,338 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.core.dom;
+
+import androidx.annotation.Nullable;
+
+import org.eclipse.wst.xml.xpath2.api.DocumentOrderedNode;
+import org.w3c.dom.DOMException;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.UserDataHandler;
+
+import java.util.Objects;
+
+/**
+ * The common base of the read-only {@code org.w3c.dom} view over a {@code UiElementSnapshot} tree.
+ * <p>
+ * Every node carries the pre-order ordinal of the element it belongs to (attributes share the
+ * ordinal of their owner element), together with the ordinal of the last node in its subtree.
+ * This makes document order comparison and containment checks O(1), which is what XPath engines
+ * rely on the most while sorting and deduplicating intermediate node sets. The XPath2 engine
+ * uses {@link #getDocumentOrderKey()} for that directly.
+ */
+public abstract class SnapshotNode implements Node, DocumentOrderedNode {
+    static final NodeList EMPTY_NODE_LIST = new SnapshotNodeList(new SnapshotNode[0]);
+
+    int ordinal;
+    int subtreeEnd;
+
+    abstract SnapshotDocument getSnapshotDocument();
+
+    /**
+     * @return The index of this node among the attributes of its owner element or -1 if this
+     * node is not an attribute
+     */
+    int getAttributeIndex() {
+        return -1;
+    }
+
+    /**
+     * @return The pre-order position of this node in the snapshot document
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * @return The ordinal in the high half and the attribute index shifted by one in the low
+     * half, so attributes follow their owner element and precede its children
+     */
+    @Override
+    public long getDocumentOrderKey() {
+        return ((long) ordinal << 32) | (getAttributeIndex() + 1);
+    }
+
+    private boolean contains(SnapshotNode other) {
+        return getAttributeIndex() < 0
+                && other.ordinal >= ordinal && other.ordinal <= subtreeEnd
+                && (other.ordinal != ordinal || other.getAttributeIndex() >= 0);
+    }
+
+    private int compareOrder(SnapshotNode other) {
+        return ordinal == other.ordinal
+                ? Integer.compare(getAttributeIndex(), other.getAttributeIndex())
+                : Integer.compare(ordinal, other.ordinal);
+    }
+
+    static DOMException readOnly() {
+        return new DOMException(DOMException.NO_MODIFICATION_ALLOWED_ERR,
+                "The snapshot document is read-only");
+    }
+
+    static DOMException notSupported() {
+        return new DOMException(DOMException.NOT_SUPPORTED_ERR,
+                "The operation is not supported by the snapshot document");
+    }
+
+    @Override
+    public String getNodeValue() {
+        return null;
+    }
+
+    @Override
+    public void setNodeValue(String nodeValue) {
+        throw readOnly();
+    }
+
+    @Nullable
+    @Override
+    public Node getParentNode() {
+        return null;
+    }
+
+    @Override
+    public NodeList getChildNodes() {
+        return EMPTY_NODE_LIST;
+    }
+
+    @Nullable
+    @Override
+    public Node getFirstChild() {
+        NodeList children = getChildNodes();
+        return children.getLength() == 0 ? null : children.item(0);
+    }
+
+    @Nullable
+    @Override
+    public Node getLastChild() {
+        NodeList children = getChildNodes();
+        return children.getLength() == 0 ? null : children.item(children.getLength() - 1);
+    }
+
+    @Nullable
+    @Override
+    public Node getPreviousSibling() {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public Node getNextSibling() {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public NamedNodeMap getAttributes() {
+        return null;
+    }
+
+    @Override
+    public Node insertBefore(Node newChild, Node refChild) {
+        throw readOnly();
+    }
+
+    @Override
+    public Node replaceChild(Node newChild, Node oldChild) {
+        throw readOnly();
+    }
+
+    @Override
+    public Node removeChild(Node oldChild) {
+        throw readOnly();
+    }
+
+    @Override
+    public Node appendChild(Node newChild) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean hasChildNodes() {
+        return getChildNodes().getLength() > 0;
+    }
+
+    @Override
+    public Node cloneNode(boolean deep) {
+        throw notSupported();
+    }
+
+    @Override
+    public void normalize() {
+        // The snapshot never contains adjacent text nodes
+    }
+
+    @Override
+    public boolean isSupported(String feature, String version) {
+        return SnapshotDocument.hasFeature(feature, version);
+    }
+
+    @Nullable
+    @Override
+    public String getNamespaceURI() {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public String getPrefix() {
+        return null;
+    }
+
+    @Override
+    public void setPrefix(String prefix) {
+        throw readOnly();
+    }
+
+    @Nullable
+    @Override
+    public String getLocalName() {
+        return null;
+    }
+
+    @Override
+    public boolean hasAttributes() {
+        return false;
+    }
+
+    @Nullable
+    @Override
+    public String getBaseURI() {
+        return null;
+    }
+
+    @Override
+    public short compareDocumentPosition(Node other) {
+        if (other == this) {
+            return 0;
+        }
+        if (!(other instanceof SnapshotNode)
+                || ((SnapshotNode) other).getSnapshotDocument() != getSnapshotDocument()) {
+            return (short) (DOCUMENT_POSITION_DISCONNECTED
+                    | DOCUMENT_POSITION_IMPLEMENTATION_SPECIFIC
+                    | (System.identityHashCode(this) < System.identityHashCode(other)
+                        ? DOCUMENT_POSITION_FOLLOWING
+                        : DOCUMENT_POSITION_PRECEDING));
+        }
+        SnapshotNode that = (SnapshotNode) other;
+        if (contains(that)) {
+            return DOCUMENT_POSITION_CONTAINED_BY | DOCUMENT_POSITION_FOLLOWING;
+        }
+        if (that.contains(this)) {
+            return DOCUMENT_POSITION_CONTAINS | DOCUMENT_POSITION_PRECEDING;
+        }
+        return compareOrder(that) < 0 ? DOCUMENT_POSITION_FOLLOWING : DOCUMENT_POSITION_PRECEDING;
+    }
+
+    @Nullable
+    @Override
+    public String getTextContent() {
+        return null;
+    }
+
+    @Override
+    public void setTextContent(String textContent) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean isSameNode(Node other) {
+        return this == other;
+    }
+
+    @Nullable
+    @Override
+    public String lookupPrefix(String namespaceURI) {
+        return null;
+    }
+
+    @Override
+    public boolean isDefaultNamespace(String namespaceURI) {
+        return namespaceURI == null || namespaceURI.isEmpty();
+    }
+
+    @Nullable
+    @Override
+    public String lookupNamespaceURI(String prefix) {
+        return null;
+    }
+
+    @Override
+    public boolean isEqualNode(Node other) {
+        if (other == this) {
+            return true;
+        }
+        if (other == null
+                || other.getNodeType() != getNodeType()
+                || !Objects.equals(other.getNodeName(), getNodeName())
+                || !Objects.equals(other.getNodeValue(), getNodeValue())) {
+            return false;
+        }
+        NamedNodeMap attributes = getAttributes();
+        NamedNodeMap otherAttributes = other.getAttributes();
+        if ((attributes == null) != (otherAttributes == null)) {
+            return false;
+        }
+        if (attributes != null) {
+            if (attributes.getLength() != otherAttributes.getLength()) {
+                return false;
+            }
+            for (int i = 0; i < attributes.getLength(); i++) {
+                Node attribute = attributes.item(i);
+                Node otherAttribute = otherAttributes.getNamedItem(attribute.getNodeName());
+                if (otherAttribute == null || !attribute.isEqualNode(otherAttribute)) {
+                    return false;
+                }
+            }
+        }
+        NodeList children = getChildNodes();
+        NodeList otherChildren = other.getChildNodes();
+        if (children.getLength() != otherChildren.getLength()) {
+            return false;
+        }
+        for (int i = 0; i < children.getLength(); i++) {
+            if (!children.item(i).isEqualNode(otherChildren.item(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public Object getFeature(String feature, String version) {
+        return isSupported(feature, version) ? this : null;
+    }
+
+    @Override
+    public Object setUserData(String key, Object data, UserDataHandler handler) {
+        throw notSupported();
+    }
+
+    @Nullable
+    @Override
+    public Object getUserData(String key) {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%s: %s]", getNodeName(), getNodeValue());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.handler;
+
+import android.graphics.Rect;
+
+import androidx.annotation.Nullable;
+import androidx.test.uiautomator.UiObjectNotFoundException;
+
+import java.util.List;
+import java.util.Map;
+
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
+import io.appium.uiautomator2.handler.request.SafeRequestHandler;
+import io.appium.uiautomator2.http.AppiumResponse;
+import io.appium.uiautomator2.http.BinaryContent;
+import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.model.AndroidElement;
+import io.appium.uiautomator2.model.AppiumUIA2Driver;
+import io.appium.uiautomator2.model.Session;
+import io.appium.uiautomator2.utils.ScreenshotFormat;
+import io.appium.uiautomator2.utils.ScreenshotHelper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.QueryStringDecoder;
+
+/**
+ * Sends the screenshot of the screen or of a single element as raw image bytes
+ * with the matching Content-Type instead of a base64 string wrapped into JSON.
+ * <p>
+ * The following query parameters are supported:
+ * <ul>
+ * <li>format - One of png, jpeg or webp. If omitted then the format is negotiated using
+ * the Accept request header, falling back to png.</li>
+ * <li>quality - The compression quality for lossy formats in range 1..100 (90 by default)</li>
+ * <li>scale - The scale factor of the resulting image in range (0, 1] (1 by default)</li>
+ * </ul>
+ */
+public class CaptureBinaryScreenshot extends SafeRequestHandler {
+    static final int DEFAULT_QUALITY = 90;
+
+    public CaptureBinaryScreenshot(String mappedUri) {
+        super(mappedUri);
+    }
+
+    @Override
+    protected AppiumResponse safeHandle(IHttpRequest request) throws UiObjectNotFoundException {
+        Map<String, List<String>> params = new QueryStringDecoder(request.uri()).parameters();
+        ScreenshotFormat format = parseFormat(
+                getParam(params, "format"), request.header(HttpHeaderNames.ACCEPT.toString()));
+        int quality = parseQuality(getParam(params, "quality"), format);
+        float scale = parseScale(getParam(params, "scale"));
+
+        Rect cropArea = null;
+        String id = getElementId(request);
+        if (id != null) {
+            Session session = AppiumUIA2Driver.getInstance().getSessionOrThrow();
+            AndroidElement element = session.getElementsCache().get(id);
+            cropArea = element.getBounds();
+        }
+        BinaryContent result = ScreenshotHelper.takeScreenshot(cropArea, format, quality, scale);
+        return new AppiumResponse(getSessionId(request), result);
+    }
+
+    @Nullable
+    private static String getParam(Map<String, List<String>> params, String name) {
+        List<String> values = params.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    static ScreenshotFormat parseFormat(@Nullable String name, @Nullable String accept) {
+        if (name != null) {
+            ScreenshotFormat format = ScreenshotFormat.fromString(name);
+            if (format == null) {
+                throw new InvalidArgumentException(String.format(
+                        "The screenshot format '%s' is not supported", name));
+            }
+            return format;
+        }
+        ScreenshotFormat format = ScreenshotFormat.fromAcceptHeader(accept);
+        return format == null ? ScreenshotFormat.PNG : format;
+    }
+
+    static int parseQuality(@Nullable String value, ScreenshotFormat format) {
+        if (value == null) {
+            return format.isLossy() ? DEFAULT_QUALITY : ScreenshotFormat.MAX_QUALITY;
+        }
+        try {
+            int quality = Integer.parseInt(value.trim());
+            if (quality >= 1 && quality <= ScreenshotFormat.MAX_QUALITY) {
+                return quality;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw new InvalidArgumentException(String.format(
+                "The screenshot quality must be an integer in range 1..%s. '%s' is given",
+                ScreenshotFormat.MAX_QUALITY, value));
+    }
+
+    static float parseScale(@Nullable String value) {
+        if (value == null) {
+            return 1.0f;
+        }
+        try {
+            float scale = Float.parseFloat(value.trim());
+            if (scale > 0 && scale <= 1) {
+                return scale;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw new InvalidArgumentException(String.format(
+                "The screenshot scale must be a number in range (0, 1]. '%s' is given", value));
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.handler;
+
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
+import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
+import io.appium.uiautomator2.common.exceptions.UnknownCommandException;
+import io.appium.uiautomator2.handler.request.SafeRequestHandler;
+import io.appium.uiautomator2.http.AppiumResponse;
+import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.http.impl.NestedHttpRequest;
+import io.appium.uiautomator2.model.api.BatchCommandModel;
+import io.appium.uiautomator2.model.api.BatchCommandResultModel;
+import io.appium.uiautomator2.model.api.BatchModel;
+import io.appium.uiautomator2.model.api.ElementModel;
+import io.appium.uiautomator2.utils.Logger;
+import io.netty.handler.codec.http.HttpResponseStatus;
+
+import static io.appium.uiautomator2.utils.ModelUtils.toModel;
+import static io.appium.uiautomator2.utils.StringHelpers.isBlank;
+import static io.appium.uiautomator2.utils.StringHelpers.pluralize;
+
+/**
+ * Executes multiple commands of the current session in a single request.
+ * <p>
+ * Commands are executed in the given order by the same handlers, which serve them as
+ * separate requests. Command paths are relative to the session URL. A command may reference
+ * elements returned by the preceding commands: {@code ${N}} is replaced with the identifier
+ * of the element returned by the N-th command (zero-based) and {@code ${N[K]}} with
+ * the identifier of the K-th element in the list returned by it. References are resolved
+ * in command paths and bodies.
+ * <p>
+ * The result is the list of statuses and values of the executed commands. The remaining
+ * commands are skipped after the first failure unless stopOnError is set to false.
+ */
+public class ExecuteBatch extends SafeRequestHandler {
+    private static final Pattern ELEMENT_REFERENCE_PATTERN =
+            Pattern.compile("\\$\\{(\\d+)(?:\\[(\\d+)])?}");
+    private static final Set<String> SUPPORTED_METHODS = new HashSet<>(
+            Arrays.asList("GET", "POST", "DELETE"));
+
+    public interface CommandExecutor {
+        /**
+         * @param request The command request
+         * @return The command response or null if no handler is registered for the request
+         */
+        @Nullable
+        AppiumResponse execute(IHttpRequest request);
+    }
+
+    private final CommandExecutor executor;
+
+    public ExecuteBatch(String mappedUri, CommandExecutor executor) {
+        super(mappedUri);
+        this.executor = executor;
+    }
+
+    @Override
+    protected AppiumResponse safeHandle(IHttpRequest request) {
+        BatchModel model = toModel(request, BatchModel.class);
+        String sessionId = getSessionId(request);
+        boolean stopOnError = model.stopOnError == null || model.stopOnError;
+        List<AppiumResponse> responses = new ArrayList<>(model.commands.size());
+        List<BatchCommandResultModel> results = new ArrayList<>(model.commands.size());
+        for (BatchCommandModel command : model.commands) {
+            AppiumResponse response = execute(request, sessionId, command, responses);
+            BatchCommandResultModel result = toResultModel(response);
+            responses.add(response);
+            results.add(result);
+            if (stopOnError && result.status != HttpResponseStatus.OK.code()) {
+                Logger.info(String.format("Skipping %s after the failure of %s %s",
+                        pluralize(model.commands.size() - results.size(), "remaining batch command"),
+                        command.method, command.path));
+                break;
+            }
+        }
+        return new AppiumResponse(sessionId, results);
+    }
+
+    private AppiumResponse execute(IHttpRequest batchRequest, String sessionId,
+                                   BatchCommandModel command, List<AppiumResponse> previousResponses) {
+        try {
+            String method = command.method.toUpperCase(Locale.ROOT);
+            if (!SUPPORTED_METHODS.contains(method)) {
+                throw new InvalidArgumentException(String.format(
+                        "The batch command method must be one of %s. '%s' was given",
+                        SUPPORTED_METHODS, command.method));
+            }
+            if (!command.path.startsWith("/")) {
+                throw new InvalidArgumentException(String.format(
+                        "The batch command path must be relative to the session URL " +
+                                "and start with a slash. '%s' was given", command.path));
+            }
+            String uri = String.format("/session/%s%s",
+                    sessionId, resolveElementReferences(command.path, previousResponses));
+            String body = command.body == null
+                    ? null
+                    : resolveElementReferences(command.body.toString(), previousResponses);
+            AppiumResponse response = executor.execute(new NestedHttpRequest(batchRequest, method, uri, body));
+            return response == null
+                    ? new AppiumResponse(sessionId, new UnknownCommandException(String.format(
+                            "The batch command %s %s is not known", method, command.path)))
+                    : response;
+        } catch (UiAutomator2Exception e) {
+            return new AppiumResponse(sessionId, e);
+        } catch (IllegalArgumentException e) {
+            return new AppiumResponse(sessionId, new InvalidArgumentException(e));
+        }
+    }
+
+    private static BatchCommandResultModel toResultModel(AppiumResponse response) {
+        try {
+            return new BatchCommandResultModel(
+                    response.getHttpStatus().code(), response.toSerializableValue());
+        } catch (IOException e) {
+            return toResultModel(new AppiumResponse(null, e));
+        }
+    }
+
+    private static String resolveElementReferences(String source, List<AppiumResponse> responses) {
+        Matcher matcher = ELEMENT_REFERENCE_PATTERN.matcher(source);
+        if (!matcher.find()) {
+            return source;
+        }
+        StringBuffer result = new StringBuffer();
+        do {
+            int commandIndex = Integer.parseInt(matcher.group(1));
+            Integer elementIndex = matcher.group(2) == null ? null : Integer.parseInt(matcher.group(2));
+            matcher.appendReplacement(result,
+                    Matcher.quoteReplacement(toElementId(responses, commandIndex, elementIndex)));
+        } while (matcher.find());
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static String toElementId(List<AppiumResponse> responses, int commandIndex,
+                                      @Nullable Integer elementIndex) {
+        if (commandIndex >= responses.size()) {
+            throw new InvalidArgumentException(String.format(
+                    "Cannot reference the result of the batch command #%s, " +
+                            "because it has not been executed yet", commandIndex));
+        }
+        Object value = responses.get(commandIndex).getValue();
+        if (elementIndex != null) {
+            if (!(value instanceof List) || elementIndex >= ((List<?>) value).size()) {
+                throw new InvalidArgumentException(String.format(
+                        "The batch command #%s has not returned a list of at least %s",
+                        commandIndex, pluralize(elementIndex + 1, "element")));
+            }
+            value = ((List<?>) value).get(elementIndex);
+        }
+        String elementId = null;
+        if (value instanceof ElementModel) {
+            elementId = ((ElementModel) value).getUnifiedId();
+        } else if (value instanceof Map) {
+            //noinspection unchecked
+            elementId = new ElementModel((Map<String, Object>) value).getUnifiedId();
+        }
+        if (isBlank(elementId)) {
+            throw new InvalidArgumentException(String.format(
+                    "The batch command #%s has not returned an element", commandIndex));
+        }
+        return elementId;
+    }
+}
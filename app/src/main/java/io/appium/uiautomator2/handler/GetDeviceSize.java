@@ -38,7 +38,7 @@ public class GetDeviceSize extends SafeRequestHandler {
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) {
         Logger.info("Get window size of the device");
-        int displayId = Settings.get(CurrentDisplayId.class).getValue();
+        int displayId = Settings.getValue(CurrentDisplayId.class);
         return new AppiumResponse(getSessionId(request), new SizeModel(
                 getUiDevice().getDisplayWidth(displayId),
                 getUiDevice().getDisplayHeight(displayId)
@@ -0,0 +1,214 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.handler;
+
+import android.util.Pair;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.test.uiautomator.UiObjectNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.appium.uiautomator2.common.exceptions.ElementNotFoundException;
+import io.appium.uiautomator2.common.exceptions.StaleElementReferenceException;
+import io.appium.uiautomator2.core.AxNodeBoundsCalculator;
+import io.appium.uiautomator2.core.AxNodeInfoHelper;
+import io.appium.uiautomator2.handler.request.SafeRequestHandler;
+import io.appium.uiautomator2.http.AppiumResponse;
+import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.model.AndroidElement;
+import io.appium.uiautomator2.model.AppiumUIA2Driver;
+import io.appium.uiautomator2.model.BaseElement;
+import io.appium.uiautomator2.model.ElementsCache;
+import io.appium.uiautomator2.model.Session;
+import io.appium.uiautomator2.model.api.ElementRectModel;
+import io.appium.uiautomator2.model.api.ElementsPropertiesModel;
+import io.appium.uiautomator2.utils.Attribute;
+
+import static io.appium.uiautomator2.core.AxNodeInfoExtractor.toAxNodeInfo;
+import static io.appium.uiautomator2.utils.ElementHelpers.generateNoAttributeException;
+import static io.appium.uiautomator2.utils.ModelUtils.toModel;
+
+/**
+ * Reads multiple attributes of multiple elements in a single request.
+ * <p>
+ * The result is a matrix of values. Each row contains the values of the requested attributes
+ * of the corresponding element in the same order as they have been requested. Attribute values
+ * are the same as the GetElementAttribute endpoint returns, while the value of the "rect"
+ * pseudo-attribute is the same as the GetRect endpoint returns. The row is null if the
+ * corresponding element does not exist anymore.
+ * <p>
+ * The accessibility node of each element is only fetched once for all its attributes, and
+ * display, window and scrollable ancestor lookups are shared by all elements in the request.
+ */
+public class GetElementsProperties extends SafeRequestHandler {
+    private static final String RECT_ATTRIBUTE = "rect";
+
+    public GetElementsProperties(String mappedUri) {
+        super(mappedUri);
+    }
+
+    @Override
+    protected AppiumResponse safeHandle(IHttpRequest request) throws UiObjectNotFoundException {
+        ElementsPropertiesModel model = toModel(request, ElementsPropertiesModel.class);
+        // null stands for the rect pseudo-attribute
+        List<Attribute> attributes = new ArrayList<>(model.attributes.size());
+        for (String name : model.attributes) {
+            Attribute attribute = Attribute.fromString(name);
+            if (attribute == null && !RECT_ATTRIBUTE.equals(name)) {
+                throw generateNoAttributeException(name);
+            }
+            attributes.add(attribute);
+        }
+
+        Session session = AppiumUIA2Driver.getInstance().getSessionOrThrow();
+        ElementsCache elementsCache = session.getElementsCache();
+        AxNodeBoundsCalculator boundsCalculator = new AxNodeBoundsCalculator();
+        List<List<Object>> result = new ArrayList<>(model.elements.size());
+        for (String id : model.elements) {
+            result.add(readProperties(elementsCache, id, model.attributes, attributes,
+                    boundsCalculator));
+        }
+        return new AppiumResponse(getSessionId(request), result);
+    }
+
+    @VisibleForTesting
+    @Nullable
+    static List<Object> readProperties(ElementsCache elementsCache, String id,
+                                       List<String> names, List<Attribute> attributes,
+                                       AxNodeBoundsCalculator boundsCalculator)
+            throws UiObjectNotFoundException {
+        try {
+            AndroidElement element = elementsCache.peek(id);
+            AccessibilityNodeInfo node;
+            try {
+                node = toAxNodeInfo(element.getUiObject());
+            } catch (Exception e) {
+                // UiObject2 reports staleness with StaleObjectException, which arrives here
+                // wrapped into a reflection error. Same as ElementsCache.get, treat any
+                // failure of the probe as staleness
+                element = elementsCache.restoreStale(element, e);
+                node = toAxNodeInfo(element.getUiObject());
+            }
+            List<Object> row = new ArrayList<>(attributes.size());
+            for (int i = 0; i < attributes.size(); i++) {
+                Attribute attribute = attributes.get(i);
+                row.add(attribute == null
+                        ? new ElementRectModel(boundsCalculator.getBounds(node))
+                        : readAttribute(element, node, attribute, names.get(i), boundsCalculator));
+            }
+            return row;
+        } catch (ElementNotFoundException | StaleElementReferenceException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the attribute from the already fetched node if possible. Otherwise falls back
+     * to {@link AndroidElement#getAttribute(String)}.
+     */
+    @Nullable
+    private static String readAttribute(AndroidElement element, AccessibilityNodeInfo node,
+                                        Attribute attribute, String name,
+                                        AxNodeBoundsCalculator boundsCalculator)
+            throws UiObjectNotFoundException {
+        final Object result;
+        switch (attribute) {
+            case TEXT:
+                result = AxNodeInfoHelper.getText(node, true);
+                break;
+            case RESOURCE_ID:
+                result = AxNodeInfoHelper.getResourceId(node);
+                break;
+            case ENABLED:
+                result = node.isEnabled();
+                break;
+            case CHECKABLE:
+                result = node.isCheckable();
+                break;
+            case CHECKED:
+                result = node.isChecked();
+                break;
+            case CLICKABLE:
+                result = node.isClickable();
+                break;
+            case FOCUSABLE:
+                result = node.isFocusable();
+                break;
+            case FOCUSED:
+                result = node.isFocused();
+                break;
+            case LONG_CLICKABLE:
+                result = node.isLongClickable();
+                break;
+            case SCROLLABLE:
+                result = node.isScrollable();
+                break;
+            case SELECTED:
+                result = node.isSelected();
+                break;
+            case DISPLAYED:
+                result = AxNodeInfoHelper.isVisible(node);
+                break;
+            case PASSWORD:
+                result = AxNodeInfoHelper.isPassword(node);
+                break;
+            case BOUNDS:
+                result = boundsCalculator.getBounds(node).toShortString();
+                break;
+            case PACKAGE:
+                result = AxNodeInfoHelper.getPackageName(node);
+                break;
+            case HINT:
+                result = node.getHintText();
+                break;
+            case SELECTION_END:
+            case SELECTION_START: {
+                Pair<Integer, Integer> selectionRange = AxNodeInfoHelper.getSelectionRange(node);
+                result = selectionRange == null
+                        ? null
+                        : (attribute == Attribute.SELECTION_END
+                                ? selectionRange.second
+                                : selectionRange.first);
+                break;
+            }
+            case EXTRAS:
+                result = BaseElement.getExtrasAsString(node);
+                break;
+            case IS_COLLECTION:
+                result = AxNodeInfoHelper.isCollection(node);
+                break;
+            case IS_COLLECTION_ITEM:
+                result = AxNodeInfoHelper.isCollectionItem(node);
+                break;
+            case COLLECTION_INFO:
+                result = AxNodeInfoHelper.getCollectionInfoAsString(node);
+                break;
+            case COLLECTION_ITEM_INFO:
+                result = AxNodeInfoHelper.getCollectionItemInfoAsString(node);
+                break;
+            default:
+                // Attributes, whose values depend on the element type or require more than
+                // the node itself, e.g. content-desc or contentSize
+                return element.getAttribute(name);
+        }
+        return result == null ? null : String.valueOf(result);
+    }
+}
@@ -32,7 +32,7 @@ public class GetOrientation extends SafeRequestHandler {
 
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) {
-        return Settings.get(UseResourcesForOrientationDetection.class).getValue()
+        return Settings.getValue(UseResourcesForOrientationDetection.class)
                 ? new AppiumResponse(getSessionId(request), ScreenOrientation.current().name())
                 : new AppiumResponse(getSessionId(request), ScreenRotation.current().toOrientation().name());
     }
@@ -27,6 +27,7 @@ import android.content.pm.PackageManager;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import io.appium.uiautomator2.handler.request.ConcurrentCommandHandler;
 import io.appium.uiautomator2.handler.request.NoSessionCommandHandler;
 import io.appium.uiautomator2.handler.request.SafeRequestHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
@@ -35,7 +36,8 @@ import io.appium.uiautomator2.model.api.PackageModel;
 
 // Get a list of all applications (System and Installed) with packageActivity.
 // It does not include applications wich has no launchable activities in the manifest.
-public class GetPackages extends SafeRequestHandler implements NoSessionCommandHandler {
+public class GetPackages extends SafeRequestHandler
+        implements NoSessionCommandHandler, ConcurrentCommandHandler {
     public GetPackages(String mappedUri) {
         super(mappedUri);
     }
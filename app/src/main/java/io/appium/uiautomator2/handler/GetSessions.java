@@ -19,6 +19,7 @@ package io.appium.uiautomator2.handler;
 import java.util.Collections;
 import java.util.Map;
 
+import io.appium.uiautomator2.handler.request.ConcurrentCommandHandler;
 import io.appium.uiautomator2.handler.request.NoSessionCommandHandler;
 import io.appium.uiautomator2.handler.request.SafeRequestHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
@@ -29,7 +30,8 @@ import io.appium.uiautomator2.model.api.SessionModel;
 
 import static io.appium.uiautomator2.model.Session.NO_ID;
 
-public class GetSessions extends SafeRequestHandler implements NoSessionCommandHandler {
+public class GetSessions extends SafeRequestHandler
+        implements NoSessionCommandHandler, ConcurrentCommandHandler {
 
     public GetSessions(String mappedUri) {
         super(mappedUri);
@@ -39,7 +39,7 @@ public class SetOrientation extends SafeRequestHandler {
         ScreenOrientation desiredOrientation = ScreenOrientation.ofString(model.orientation);
         ScreenRotation rotation = CustomUiDevice.getInstance()
                 .setRotationSync(ScreenRotation.ofOrientation(desiredOrientation));
-        String result = Settings.get(UseResourcesForOrientationDetection.class).getValue()
+        String result = Settings.getValue(UseResourcesForOrientationDetection.class)
                 ? ScreenOrientation.current().name()
                 : rotation.toOrientation().name();
         return new AppiumResponse(getSessionId(request), result);
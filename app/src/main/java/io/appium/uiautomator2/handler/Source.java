@@ -16,16 +16,20 @@
 
 package io.appium.uiautomator2.handler;
 
+import java.io.Writer;
+
 import io.appium.uiautomator2.core.AccessibilityNodeInfoDumper;
 import io.appium.uiautomator2.handler.request.SafeRequestHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.http.StreamedText;
 
 import static io.appium.uiautomator2.utils.AXWindowHelpers.resetAccessibilityCache;
 import static io.appium.uiautomator2.utils.Attribute.xmlExposableAttributes;
 
 /**
- * Get page source. Return as string of XML doc
+ * Get page source. Return as string of XML doc, which is streamed to the client
+ * while the snapshot tree is being serialized
  */
 public class Source extends SafeRequestHandler {
     public Source(String mappedUri) {
@@ -35,7 +39,8 @@ public class Source extends SafeRequestHandler {
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) {
         resetAccessibilityCache();
-        String xmlSource = new AccessibilityNodeInfoDumper(null, xmlExposableAttributes()).dumpToXml();
+        StreamedText xmlSource = (Writer writer) ->
+                new AccessibilityNodeInfoDumper(null, xmlExposableAttributes()).dumpToXml(writer);
         return new AppiumResponse(getSessionId(request), xmlSource);
     }
 }
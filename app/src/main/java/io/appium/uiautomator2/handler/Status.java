@@ -16,19 +16,27 @@
 
 package io.appium.uiautomator2.handler;
 
+import io.appium.uiautomator2.core.CompiledXPathCache;
+import io.appium.uiautomator2.handler.request.ConcurrentCommandHandler;
 import io.appium.uiautomator2.handler.request.NoSessionCommandHandler;
 import io.appium.uiautomator2.handler.request.SafeRequestHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.http.RequestDispatcher;
+import io.appium.uiautomator2.model.AppiumUIA2Driver;
+import io.appium.uiautomator2.model.Session;
 import io.appium.uiautomator2.model.api.BuildConfigModel;
 import io.appium.uiautomator2.model.api.StatusModel;
+import io.appium.uiautomator2.model.internal.GestureStats;
+import io.appium.uiautomator2.server.mjpeg.MjpegStreamStats;
 
 import static io.appium.uiautomator2.model.Session.NO_ID;
 import static io.appium.uiautomator2.utils.BuildUtils.getBuildConfig;
 
 import java.util.Map;
 
-public class Status extends SafeRequestHandler implements NoSessionCommandHandler {
+public class Status extends SafeRequestHandler
+        implements NoSessionCommandHandler, ConcurrentCommandHandler {
 
     public Status(String mappedUri) {
         super(mappedUri);
@@ -37,6 +45,7 @@ public class Status extends SafeRequestHandler implements NoSessionCommandHandle
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) {
         Map<String, Object> buildConfig = getBuildConfig();
+        Session session = AppiumUIA2Driver.getInstance().getSession();
         //noinspection DataFlowIssue
         return new AppiumResponse(NO_ID, new StatusModel(
                 true,
@@ -44,7 +53,13 @@ public class Status extends SafeRequestHandler implements NoSessionCommandHandle
                 new BuildConfigModel(
                         (String) buildConfig.get("VERSION_NAME"),
                         (int) buildConfig.get("VERSION_CODE")
-                )
+                ),
+                CompiledXPathCache.getInstance().getStats(),
+                session == null ? null : session.getSnapshotCache().getStats(),
+                session == null ? null : session.getElementsCache().getStats(),
+                RequestDispatcher.getInstance().getStats(),
+                MjpegStreamStats.getInstance().toModel(),
+                GestureStats.getInstance().toModel()
         ));
     }
 }
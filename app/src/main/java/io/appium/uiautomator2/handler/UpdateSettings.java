@@ -16,7 +16,6 @@
 
 package io.appium.uiautomator2.handler;
 
-import java.util.Arrays;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -58,10 +57,6 @@ public class UpdateSettings extends SafeRequestHandler {
 
     @Nullable
     public ISetting<?> getSetting(String settingName) {
-        return Arrays.stream(Settings.values())
-                .filter(value -> value.toString().equals(settingName))
-                .findFirst()
-                .map(Settings::getSetting)
-                .orElse(null);
+        return Settings.find(settingName);
     }
 }
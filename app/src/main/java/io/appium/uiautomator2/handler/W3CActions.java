@@ -27,6 +27,7 @@ import io.appium.uiautomator2.http.IHttpRequest;
 import io.appium.uiautomator2.model.api.actions.W3CActionsModel;
 import io.appium.uiautomator2.model.api.actions.W3CItemModel;
 import io.appium.uiautomator2.utils.w3c.ActionTokens;
+import io.appium.uiautomator2.utils.w3c.ActionTokensCache;
 import io.appium.uiautomator2.utils.w3c.ActionsExecutor;
 import io.appium.uiautomator2.utils.w3c.ActionsPreprocessor;
 import io.appium.uiautomator2.utils.w3c.ActionsTokenizer;
@@ -36,6 +37,7 @@ import static io.appium.uiautomator2.utils.ModelUtils.toModel;
 public class W3CActions extends SafeRequestHandler {
     private static final ActionsPreprocessor actionsPreprocessor = new ActionsPreprocessor();
     private static final ActionsTokenizer actionsTokenizer = new ActionsTokenizer();
+    private static final ActionTokensCache actionTokensCache = new ActionTokensCache();
 
     public W3CActions(String mappedUri) {
         super(mappedUri);
@@ -72,10 +74,9 @@ public class W3CActions extends SafeRequestHandler {
      */
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) {
-        final List<W3CItemModel> actions = actionsPreprocessor.preprocess(
-                toModel(request, W3CActionsModel.class).actions
-        );
-        final ActionTokens actionTokens = actionsTokenizer.tokenize(actions);
+        final List<W3CItemModel> actions = toModel(request, W3CActionsModel.class).actions;
+        final ActionTokens actionTokens = actionTokensCache.get(actions,
+                items -> actionsTokenizer.tokenize(actionsPreprocessor.preprocess(items)));
         if (new ActionsExecutor(actionTokens).execute()) {
             return new AppiumResponse(getSessionId(request));
         }
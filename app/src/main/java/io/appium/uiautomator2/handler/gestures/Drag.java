@@ -16,17 +16,10 @@
 
 package io.appium.uiautomator2.handler.gestures;
 
-import android.graphics.Point;
-import android.graphics.Rect;
-
 import io.appium.uiautomator2.handler.request.SafeRequestHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.http.IHttpRequest;
-import io.appium.uiautomator2.model.AndroidElement;
-import io.appium.uiautomator2.model.AppiumUIA2Driver;
-import io.appium.uiautomator2.model.Session;
 import io.appium.uiautomator2.model.api.gestures.DragModel;
-import io.appium.uiautomator2.model.internal.CustomUiDevice;
 
 import static io.appium.uiautomator2.utils.ModelUtils.toModel;
 
@@ -39,29 +32,7 @@ public class Drag extends SafeRequestHandler {
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) {
         DragModel dragModel = toModel(request, DragModel.class);
-        final String elementId = dragModel.origin == null ? null : dragModel.origin.getUnifiedId();
-        if (elementId == null) {
-            if (dragModel.start == null) {
-                throw new IllegalArgumentException("The starting point coordinates must be provided if " +
-                        "element is not set");
-            }
-            CustomUiDevice.getInstance().getGestureController().drag(
-                    dragModel.start.toNativePoint(), dragModel.end.toNativePoint(), dragModel.speed);
-        } else {
-            Session session = AppiumUIA2Driver.getInstance().getSessionOrThrow();
-            AndroidElement element = session.getElementsCache().get(elementId);
-            if (dragModel.start == null) {
-                element.drag(dragModel.end.toPoint(), dragModel.speed);
-            } else {
-                Rect bounds = element.getBounds();
-                Point start = new Point(bounds.left + dragModel.start.x.intValue(),
-                        bounds.top + dragModel.start.y.intValue());
-                CustomUiDevice.getInstance().getGestureController(element).drag(
-                        start, dragModel.end.toNativePoint(), dragModel.speed
-                );
-            }
-        }
-
+        io.appium.uiautomator2.utils.gestures.Drag.perform(dragModel);
         return new AppiumResponse(getSessionId(request));
     }
 }
@@ -19,11 +19,7 @@ package io.appium.uiautomator2.handler.gestures;
 import io.appium.uiautomator2.handler.request.SafeRequestHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.http.IHttpRequest;
-import io.appium.uiautomator2.model.AndroidElement;
-import io.appium.uiautomator2.model.AppiumUIA2Driver;
-import io.appium.uiautomator2.model.Session;
 import io.appium.uiautomator2.model.api.gestures.FlingModel;
-import io.appium.uiautomator2.model.internal.CustomUiDevice;
 
 import static io.appium.uiautomator2.utils.ModelUtils.toModel;
 
@@ -36,21 +32,7 @@ public class Fling extends SafeRequestHandler {
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) {
         FlingModel flingModel = toModel(request, FlingModel.class);
-        final String elementId = flingModel.origin == null ? null : flingModel.origin.getUnifiedId();
-        final boolean result;
-        if (elementId == null) {
-            if (flingModel.area == null) {
-                throw new IllegalArgumentException("The fling area coordinates must be provided if " +
-                        "element is not set");
-            }
-            result = CustomUiDevice.getInstance().getGestureController()
-                    .fling(flingModel.area.toNativeRect(), flingModel.getDirection(), flingModel.speed);
-        } else {
-            Session session = AppiumUIA2Driver.getInstance().getSessionOrThrow();
-            AndroidElement element = session.getElementsCache().get(elementId);
-            result = element.fling(flingModel.getDirection(), flingModel.speed);
-        }
-
+        Object result = io.appium.uiautomator2.utils.gestures.Fling.perform(flingModel);
         return new AppiumResponse(getSessionId(request), result);
     }
 }
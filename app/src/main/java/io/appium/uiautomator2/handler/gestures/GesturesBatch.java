@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.handler.gestures;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
+import io.appium.uiautomator2.handler.request.SafeRequestHandler;
+import io.appium.uiautomator2.http.AppiumResponse;
+import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.model.api.BaseModel;
+import io.appium.uiautomator2.model.api.gestures.ClickModel;
+import io.appium.uiautomator2.model.api.gestures.DoubleClickModel;
+import io.appium.uiautomator2.model.api.gestures.DragModel;
+import io.appium.uiautomator2.model.api.gestures.FlingModel;
+import io.appium.uiautomator2.model.api.gestures.GestureBatchItemModel;
+import io.appium.uiautomator2.model.api.gestures.GesturesBatchModel;
+import io.appium.uiautomator2.model.api.gestures.LongClickModel;
+import io.appium.uiautomator2.model.api.gestures.PinchModel;
+import io.appium.uiautomator2.model.api.gestures.ScrollModel;
+import io.appium.uiautomator2.model.api.gestures.SwipeModel;
+import io.appium.uiautomator2.utils.gestures.Click;
+import io.appium.uiautomator2.utils.gestures.DoubleClick;
+import io.appium.uiautomator2.utils.gestures.LongClick;
+
+import static io.appium.uiautomator2.utils.ModelUtils.toJsonString;
+import static io.appium.uiautomator2.utils.ModelUtils.toModel;
+
+/**
+ * Performs multiple gestures back-to-back in a single request.
+ * <p>
+ * Each gesture is described by the name of its endpoint, for example {@code swipe} or
+ * {@code long_click}, and the payload the endpoint accepts. All payloads are validated before
+ * the first gesture is performed. The result is the list of values the gestures have returned.
+ * The remaining gestures are skipped after the first failure.
+ */
+public class GesturesBatch extends SafeRequestHandler {
+    private static final List<String> SUPPORTED_TYPES = Arrays.asList(
+            "click", "double_click", "long_click", "drag", "fling",
+            "pinch_close", "pinch_open", "scroll", "swipe");
+
+    public GesturesBatch(String mappedUri) {
+        super(mappedUri);
+    }
+
+    @Override
+    protected AppiumResponse safeHandle(IHttpRequest request) {
+        GesturesBatchModel model = toModel(request, GesturesBatchModel.class);
+        List<Supplier<Object>> gestures = prepare(model.gestures);
+        List<Object> results = new ArrayList<>(gestures.size());
+        for (Supplier<Object> gesture : gestures) {
+            results.add(gesture.get());
+        }
+        return new AppiumResponse(getSessionId(request), results);
+    }
+
+    @VisibleForTesting
+    static List<Supplier<Object>> prepare(List<GestureBatchItemModel> items) {
+        List<Supplier<Object>> result = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            result.add(prepare(items.get(i), i));
+        }
+        return result;
+    }
+
+    private static Supplier<Object> prepare(GestureBatchItemModel item, int index) {
+        if (item == null || item.type == null || !SUPPORTED_TYPES.contains(item.type)) {
+            throw new InvalidArgumentException(String.format(
+                    "The type of the gesture #%s must be one of %s. '%s' was given",
+                    index, SUPPORTED_TYPES, item == null ? null : item.type));
+        }
+        if (item.payload == null) {
+            throw new InvalidArgumentException(String.format(
+                    "The payload of the '%s' gesture #%s must be provided", item.type, index));
+        }
+        switch (item.type) {
+            case "click": {
+                ClickModel model = toPayloadModel(item, ClickModel.class);
+                return () -> Click.perform(model);
+            }
+            case "double_click": {
+                DoubleClickModel model = toPayloadModel(item, DoubleClickModel.class);
+                return () -> DoubleClick.perform(model);
+            }
+            case "long_click": {
+                LongClickModel model = toPayloadModel(item, LongClickModel.class);
+                return () -> LongClick.perform(model);
+            }
+            case "drag": {
+                DragModel model = toPayloadModel(item, DragModel.class);
+                return () -> io.appium.uiautomator2.utils.gestures.Drag.perform(model);
+            }
+            case "fling": {
+                FlingModel model = toPayloadModel(item, FlingModel.class);
+                return () -> io.appium.uiautomator2.utils.gestures.Fling.perform(model);
+            }
+            case "pinch_close": {
+                PinchModel model = toPayloadModel(item, PinchModel.class);
+                return () -> io.appium.uiautomator2.utils.gestures.PinchClose.perform(model);
+            }
+            case "pinch_open": {
+                PinchModel model = toPayloadModel(item, PinchModel.class);
+                return () -> io.appium.uiautomator2.utils.gestures.PinchOpen.perform(model);
+            }
+            case "scroll": {
+                ScrollModel model = toPayloadModel(item, ScrollModel.class);
+                return () -> io.appium.uiautomator2.utils.gestures.Scroll.perform(model);
+            }
+            default: {
+                SwipeModel model = toPayloadModel(item, SwipeModel.class);
+                return () -> io.appium.uiautomator2.utils.gestures.Swipe.perform(model);
+            }
+        }
+    }
+
+    private static <T extends BaseModel> T toPayloadModel(GestureBatchItemModel item, Class<T> modelCls) {
+        return toModel(toJsonString(item.payload), modelCls);
+    }
+}
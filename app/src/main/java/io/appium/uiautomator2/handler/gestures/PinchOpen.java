@@ -19,11 +19,7 @@ package io.appium.uiautomator2.handler.gestures;
 import io.appium.uiautomator2.handler.request.SafeRequestHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.http.IHttpRequest;
-import io.appium.uiautomator2.model.AndroidElement;
-import io.appium.uiautomator2.model.AppiumUIA2Driver;
-import io.appium.uiautomator2.model.Session;
 import io.appium.uiautomator2.model.api.gestures.PinchModel;
-import io.appium.uiautomator2.model.internal.CustomUiDevice;
 
 import static io.appium.uiautomator2.utils.ModelUtils.toModel;
 
@@ -36,20 +32,7 @@ public class PinchOpen extends SafeRequestHandler {
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) {
         PinchModel pinchModel = toModel(request, PinchModel.class);
-        final String elementId = pinchModel.origin == null ? null : pinchModel.origin.getUnifiedId();
-        if (elementId == null) {
-            if (pinchModel.area == null) {
-                throw new IllegalArgumentException("The pinch area coordinates must be provided if " +
-                        "element is not set");
-            }
-            CustomUiDevice.getInstance().getGestureController()
-                    .pinchOpen(pinchModel.area.toNativeRect(), pinchModel.percent, pinchModel.speed);
-        } else {
-            Session session = AppiumUIA2Driver.getInstance().getSessionOrThrow();
-            AndroidElement element = session.getElementsCache().get(elementId);
-            element.pinchOpen(pinchModel.percent, pinchModel.speed);
-        }
-
+        io.appium.uiautomator2.utils.gestures.PinchOpen.perform(pinchModel);
         return new AppiumResponse(getSessionId(request));
     }
 }
@@ -19,11 +19,7 @@ package io.appium.uiautomator2.handler.gestures;
 import io.appium.uiautomator2.handler.request.SafeRequestHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.http.IHttpRequest;
-import io.appium.uiautomator2.model.AndroidElement;
-import io.appium.uiautomator2.model.AppiumUIA2Driver;
-import io.appium.uiautomator2.model.Session;
 import io.appium.uiautomator2.model.api.gestures.ScrollModel;
-import io.appium.uiautomator2.model.internal.CustomUiDevice;
 
 import static io.appium.uiautomator2.utils.ModelUtils.toModel;
 
@@ -36,21 +32,7 @@ public class Scroll extends SafeRequestHandler {
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) {
         ScrollModel scrollModel = toModel(request, ScrollModel.class);
-        final String elementId = scrollModel.origin == null ? null : scrollModel.origin.getUnifiedId();
-        final boolean result;
-        if (elementId == null) {
-            if (scrollModel.area == null) {
-                throw new IllegalArgumentException("The scroll area coordinates must be provided if " +
-                        "element is not set");
-            }
-            result = CustomUiDevice.getInstance().getGestureController()
-                    .scroll(scrollModel.area.toNativeRect(), scrollModel.getDirection(), scrollModel.percent, scrollModel.speed);
-        } else {
-            Session session = AppiumUIA2Driver.getInstance().getSessionOrThrow();
-            AndroidElement element = session.getElementsCache().get(elementId);
-            result = element.scroll(scrollModel.getDirection(), scrollModel.percent, scrollModel.speed);
-        }
-
+        Object result = io.appium.uiautomator2.utils.gestures.Scroll.perform(scrollModel);
         return new AppiumResponse(getSessionId(request), result);
     }
 }
@@ -19,11 +19,7 @@ package io.appium.uiautomator2.handler.gestures;
 import io.appium.uiautomator2.handler.request.SafeRequestHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.http.IHttpRequest;
-import io.appium.uiautomator2.model.AndroidElement;
-import io.appium.uiautomator2.model.AppiumUIA2Driver;
-import io.appium.uiautomator2.model.Session;
 import io.appium.uiautomator2.model.api.gestures.SwipeModel;
-import io.appium.uiautomator2.model.internal.CustomUiDevice;
 
 import static io.appium.uiautomator2.utils.ModelUtils.toModel;
 
@@ -36,20 +32,7 @@ public class Swipe extends SafeRequestHandler {
     @Override
     protected AppiumResponse safeHandle(IHttpRequest request) {
         SwipeModel swipeModel = toModel(request, SwipeModel.class);
-        final String elementId = swipeModel.origin == null ? null : swipeModel.origin.getUnifiedId();
-        if (elementId == null) {
-            if (swipeModel.area == null) {
-                throw new IllegalArgumentException("The swipe area coordinates must be provided if " +
-                        "element is not set");
-            }
-            CustomUiDevice.getInstance().getGestureController()
-                    .swipe(swipeModel.area.toNativeRect(), swipeModel.getDirection(), swipeModel.percent, swipeModel.speed);
-        } else {
-            Session session = AppiumUIA2Driver.getInstance().getSessionOrThrow();
-            AndroidElement element = session.getElementsCache().get(elementId);
-            element.swipe(swipeModel.getDirection(), swipeModel.percent, swipeModel.speed);
-        }
-
+        io.appium.uiautomator2.utils.gestures.Swipe.perform(swipeModel);
         return new AppiumResponse(getSessionId(request));
     }
 }
@@ -77,7 +77,7 @@ public abstract class BaseRequestHandler {
 
     public static JSONObject toJSON(IHttpRequest request) throws JSONException {
         String json = request.body();
-        Logger.debug("payload: " + json);
+        Logger.debugf("payload: %s", json);
         if (json != null && !json.isEmpty()) {
             return new JSONObject(json);
         }
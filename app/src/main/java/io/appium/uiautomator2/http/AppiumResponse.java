@@ -16,12 +16,20 @@
 
 package io.appium.uiautomator2.http;
 
+import android.util.Base64;
 import android.util.Log;
 
 import androidx.annotation.Nullable;
 
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.JsonParseException;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 
 import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
@@ -31,9 +39,12 @@ import io.appium.uiautomator2.utils.Logger;
 import io.netty.handler.codec.http.HttpResponseStatus;
 
 import static io.appium.uiautomator2.utils.ModelUtils.toJsonString;
-import static io.appium.uiautomator2.utils.StringHelpers.abbreviate;
+import static io.appium.uiautomator2.utils.ModelUtils.writeJson;
 
 public class AppiumResponse {
+    // The count of leading response characters, which are logged
+    private static final int LOGGED_RESPONSE_LENGTH = 300;
+
     private final Object value;
     private final String sessionId;
     private final HttpResponseStatus httpStatus;
@@ -66,24 +77,118 @@ public class AppiumResponse {
     }
 
     public void renderTo(IHttpResponse response) {
+        if (value instanceof BinaryContent) {
+            renderBinaryTo(response, (BinaryContent) value);
+            return;
+        }
         response.setContentType("application/json");
         response.setEncoding(StandardCharsets.UTF_8);
         response.setStatus(getHttpStatus().code());
+        if (value instanceof StreamedText) {
+            renderStreamedTo(response, (StreamedText) value);
+            return;
+        }
         boolean isError = value instanceof Throwable;
         try {
             Object val = isError ? formatException((Throwable) value) : value;
             ResponseModel responseModel = new ResponseModel(val, sessionId);
-            final String responseString = toJsonString(responseModel);
-            Logger.info(String.format("AppiumResponse: %s",
-                    isError ? responseString : abbreviate(responseString, 300)));
-            response.setContent(responseString);
-        } catch (JsonSyntaxException e) {
+            if (isError) {
+                final String responseString = toJsonString(responseModel);
+                Logger.infof("AppiumResponse: %s", responseString);
+                response.setContent(responseString);
+            } else {
+                renderModelTo(response, responseModel);
+            }
+        } catch (IOException | JsonParseException e) {
             Logger.error("Unable to create JSON Object", e);
             response.setContent("{}");
             response.setStatus(UiAutomator2Exception.DEFAULT_ERROR_STATUS.code());
         }
     }
 
+    /**
+     * Serializes the model straight into the response buffers. Only the leading part of
+     * the JSON, which is needed for logging, is kept in memory.
+     */
+    private static void renderModelTo(IHttpResponse response, ResponseModel responseModel)
+            throws IOException {
+        final boolean shouldLog = Logger.isLoggable(Log.INFO);
+        final PrefixCapturingWriter[] preview = new PrefixCapturingWriter[1];
+        response.setContent((OutputStream output) -> {
+            // Gson emits lots of tiny fragments, which are expensive to encode one by one
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            if (shouldLog) {
+                preview[0] = new PrefixCapturingWriter(writer, LOGGED_RESPONSE_LENGTH);
+                writer = preview[0];
+            }
+            writeJson(responseModel, true, writer);
+            writer.flush();
+        });
+        if (shouldLog) {
+            Logger.infof("AppiumResponse: %s", preview[0].getPreview());
+        }
+    }
+
+    /**
+     * Produces the same JSON as {@link ResponseModel} would be serialized to, but writes
+     * the escaped text value straight into the response instead of building the whole
+     * response string first.
+     */
+    private void renderStreamedTo(IHttpResponse response, StreamedText text) {
+        try {
+            response.setContent((OutputStream output) -> {
+                Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+                writer.write("{\"value\":\"");
+                text.writeTo(new JsonEscapingWriter(writer));
+                writer.write("\",\"sessionId\":");
+                writer.write(toJsonString(sessionId));
+                writer.write("}");
+                writer.flush();
+            });
+            Logger.infof("AppiumResponse: <streamed text value> (sessionId: %s)", sessionId);
+        } catch (IOException | RuntimeException e) {
+            // Nothing has been sent to the client yet
+            new AppiumResponse(sessionId, e).renderTo(response);
+        }
+    }
+
+    private void renderBinaryTo(IHttpResponse response, BinaryContent content) {
+        response.setContentType(content.getContentType());
+        response.setStatus(getHttpStatus().code());
+        try {
+            response.setContent(content);
+            Logger.infof("AppiumResponse: <binary %s value> (sessionId: %s)",
+                    content.getContentType(), sessionId);
+        } catch (IOException | RuntimeException e) {
+            // Nothing has been sent to the client yet
+            new AppiumResponse(sessionId, e).renderTo(response);
+        }
+    }
+
+    /**
+     * Returns the value in the form it is serialized to the response body. Errors are formatted
+     * and streamed text is read into a string, so the result could be embedded into another
+     * response, for example into the result of a batch command. Binary content is encoded
+     * to a base64 string.
+     *
+     * @return The serializable value
+     * @throws IOException If the streamed content cannot be read
+     */
+    @Nullable
+    public Object toSerializableValue() throws IOException {
+        if (value instanceof StreamedText) {
+            StringWriter writer = new StringWriter();
+            ((StreamedText) value).writeTo(writer);
+            return writer.toString();
+        }
+        if (value instanceof BinaryContent) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ((BinaryContent) value).writeTo(output);
+            return Base64.encodeToString(output.toByteArray(), Base64.NO_WRAP);
+        }
+        return value instanceof Throwable ? formatException((Throwable) value) : value;
+    }
+
     public HttpResponseStatus getHttpStatus() {
         return httpStatus;
     }
@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.http;
+
+/**
+ * A response value, which is sent to the client as the raw response body with its own
+ * content type rather than being wrapped into JSON. {@link AppiumResponse} streams the
+ * content straight into the response buffers.
+ */
+public interface BinaryContent extends IContentWriter {
+    /**
+     * @return The MIME type of the content
+     */
+    String getContentType();
+}
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
@@ -56,6 +57,7 @@ public class HttpServer {
                             .option(ChannelOption.SO_REUSEADDR, true)
                             .option(ChannelOption.SO_KEEPALIVE, true)
                             .option(ChannelOption.TCP_NODELAY, true)
+                            .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
                             .childHandler(new ServerInitializer(handlers));
 
                     Channel ch = bootstrap.bind(port).sync().channel();
@@ -16,6 +16,7 @@
 
 package io.appium.uiautomator2.http;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
 
 public interface IHttpResponse {
@@ -28,6 +29,17 @@ public interface IHttpResponse {
 
     IHttpResponse setContent(String message);
 
+    /**
+     * Sends the content produced by the given writer to the client as soon as it is
+     * written rather than after the whole response body has been collected. Status and
+     * headers must be set before this method is called and cannot be changed afterwards.
+     *
+     * @param writer The writer producing the response body
+     * @throws IOException if the content cannot be produced. The response stays untouched
+     *                     in such case unless a part of the content has already been sent
+     */
+    IHttpResponse setContent(IContentWriter writer) throws IOException;
+
     IHttpResponse setEncoding(Charset charset);
 
     IHttpResponse sendRedirect(String to);
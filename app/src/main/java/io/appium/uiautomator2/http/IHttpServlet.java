@@ -16,6 +16,18 @@
 
 package io.appium.uiautomator2.http;
 
+import androidx.annotation.Nullable;
+
 public interface IHttpServlet {
+    /**
+     * Defines how the given request could be scheduled relatively to other requests.
+     *
+     * @param request The request to be handled
+     * @return The name of the lane requests must be handled sequentially in or null if the
+     * request does not depend on other requests and could be handled concurrently
+     */
+    @Nullable
+    String getDispatchLane(io.appium.uiautomator2.http.IHttpRequest request);
+
     void handleHttpRequest(io.appium.uiautomator2.http.IHttpRequest IHttpRequest, io.appium.uiautomator2.http.IHttpResponse httpResponse) throws Exception;
 }
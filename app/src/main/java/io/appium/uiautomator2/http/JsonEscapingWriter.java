@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.http;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escapes the written characters, so they could be placed between the quotes of a JSON
+ * string literal. The escaping rules match the ones Gson applies with HTML escaping disabled.
+ */
+class JsonEscapingWriter extends Writer {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+
+    JsonEscapingWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        String replacement = getReplacement((char) c);
+        if (replacement == null) {
+            out.write(c);
+        } else {
+            out.write(replacement);
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        int last = off;
+        final int end = off + len;
+        for (int i = off; i < end; i++) {
+            String replacement = getReplacement(cbuf[i]);
+            if (replacement == null) {
+                continue;
+            }
+            if (last < i) {
+                out.write(cbuf, last, i - last);
+            }
+            out.write(replacement);
+            last = i + 1;
+        }
+        if (last < end) {
+            out.write(cbuf, last, end - last);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        int last = off;
+        final int end = off + len;
+        for (int i = off; i < end; i++) {
+            String replacement = getReplacement(str.charAt(i));
+            if (replacement == null) {
+                continue;
+            }
+            if (last < i) {
+                out.write(str, last, i - last);
+            }
+            out.write(replacement);
+            last = i + 1;
+        }
+        if (last < end) {
+            out.write(str, last, end - last);
+        }
+    }
+
+    private static String getReplacement(char c) {
+        switch (c) {
+            case '"':
+                return "\\\"";
+            case '\\':
+                return "\\\\";
+            case '\n':
+                return "\\n";
+            case '\r':
+                return "\\r";
+            case '\t':
+                return "\\t";
+            case '\b':
+                return "\\b";
+            case '\f':
+                return "\\f";
+            case '\u2028':
+                return "\\u2028";
+            case '\u2029':
+                return "\\u2029";
+            default:
+                return c < 0x20
+                        ? "\\u00" + HEX_DIGITS[c >> 4] + HEX_DIGITS[c & 0xf]
+                        : null;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.http;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Forwards the written characters and keeps a copy of the leading ones, so the streamed
+ * content could be previewed in logs without building the whole content string.
+ */
+class PrefixCapturingWriter extends Writer {
+    private final Writer out;
+    private final int maxLength;
+    private final StringBuilder prefix;
+    private boolean isTruncated;
+
+    PrefixCapturingWriter(Writer out, int maxLength) {
+        this.out = out;
+        this.maxLength = maxLength;
+        this.prefix = new StringBuilder(maxLength);
+    }
+
+    private void capture(char[] cbuf, int off, int len) {
+        int count = Math.min(len, maxLength - prefix.length());
+        if (count > 0) {
+            prefix.append(cbuf, off, count);
+        }
+        if (count < len) {
+            isTruncated = true;
+        }
+    }
+
+    private void capture(String str, int off, int len) {
+        int count = Math.min(len, maxLength - prefix.length());
+        if (count > 0) {
+            prefix.append(str, off, off + count);
+        }
+        if (count < len) {
+            isTruncated = true;
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (prefix.length() < maxLength) {
+            prefix.append((char) c);
+        } else {
+            isTruncated = true;
+        }
+        out.write(c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        capture(cbuf, off, len);
+        out.write(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        capture(str, off, len);
+        out.write(str, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * @return The captured leading characters followed by an ellipsis if there were more
+     */
+    String getPreview() {
+        return isTruncated ? prefix + "\u2026" : prefix.toString();
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.http;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.appium.uiautomator2.model.api.RequestsStatsModel;
+import io.appium.uiautomator2.model.api.RouteStatsModel;
+import io.appium.uiautomator2.utils.Logger;
+
+/**
+ * Runs HTTP request handlers outside of Netty event loops.
+ * <p>
+ * Requests assigned to the same lane (for example, the same session) are executed one by one
+ * in the order they have been received. Requests without a lane may run concurrently with
+ * any other request. The total amount of pending requests is bounded, so the server rejects
+ * new requests instead of piling them up if handlers get stuck.
+ */
+public class RequestDispatcher {
+    private static final int THREADS_COUNT = 4;
+    private static final int MAX_PENDING_REQUESTS = 128;
+    private static RequestDispatcher INSTANCE;
+
+    private final ThreadPoolExecutor executor;
+    // Guarded by itself
+    private final Map<String, Queue<Runnable>> lanes = new HashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final ConcurrentMap<String, RouteStats> routeStats = new ConcurrentHashMap<>();
+
+    private RequestDispatcher() {
+        executor = new ThreadPoolExecutor(THREADS_COUNT, THREADS_COUNT,
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new HandlerThreadFactory());
+    }
+
+    public static synchronized RequestDispatcher getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new RequestDispatcher();
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Schedules the given task for execution.
+     *
+     * @param lane The name of the lane to serialize the task in or null if the task may run
+     *             concurrently with other tasks
+     * @param task The task to execute
+     * @throws RejectedExecutionException if there are too many pending tasks
+     */
+    public void dispatch(@Nullable String lane, Runnable task) {
+        if (pendingCount.incrementAndGet() > MAX_PENDING_REQUESTS) {
+            pendingCount.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException(String.format(
+                    "The server is busy. More than %s requests are waiting to be handled",
+                    MAX_PENDING_REQUESTS));
+        }
+
+        if (lane == null) {
+            executor.execute(() -> run(task));
+            return;
+        }
+        synchronized (lanes) {
+            Queue<Runnable> laneTasks = lanes.get(lane);
+            if (laneTasks != null) {
+                // The lane is already being drained
+                laneTasks.add(task);
+                return;
+            }
+            laneTasks = new ArrayDeque<>();
+            laneTasks.add(task);
+            lanes.put(lane, laneTasks);
+        }
+        executor.execute(() -> drain(lane));
+    }
+
+    private void drain(String lane) {
+        while (true) {
+            Runnable task;
+            synchronized (lanes) {
+                Queue<Runnable> laneTasks = lanes.get(lane);
+                task = laneTasks == null ? null : laneTasks.poll();
+                if (task == null) {
+                    lanes.remove(lane);
+                    return;
+                }
+            }
+            run(task);
+        }
+    }
+
+    private void run(Runnable task) {
+        pendingCount.decrementAndGet();
+        activeCount.incrementAndGet();
+        try {
+            task.run();
+        } catch (Throwable e) {
+            Logger.error("Got an unexpected error while handling the request", e);
+        } finally {
+            activeCount.decrementAndGet();
+            completedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records the time it took to handle a request to the given route.
+     */
+    public void recordLatency(String route, long durationMs) {
+        routeStats.computeIfAbsent(route, key -> new RouteStats()).record(durationMs);
+    }
+
+    public RequestsStatsModel getStats() {
+        Map<String, RouteStatsModel> routes = new LinkedHashMap<>();
+        for (Map.Entry<String, RouteStats> entry : routeStats.entrySet()) {
+            routes.put(entry.getKey(), entry.getValue().toModel());
+        }
+        return new RequestsStatsModel(
+                pendingCount.get(),
+                activeCount.get(),
+                completedCount.get(),
+                rejectedCount.get(),
+                routes
+        );
+    }
+
+    private static class RouteStats {
+        private long count;
+        private long totalMs;
+        private long maxMs;
+
+        synchronized void record(long durationMs) {
+            ++count;
+            totalMs += durationMs;
+            maxMs = Math.max(maxMs, durationMs);
+        }
+
+        synchronized RouteStatsModel toModel() {
+            return new RouteStatsModel(count, count == 0 ? 0 : totalMs / count, maxMs);
+        }
+    }
+
+    private static class HandlerThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable,
+                    String.format("appium-request-handler-%s", threadNumber.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
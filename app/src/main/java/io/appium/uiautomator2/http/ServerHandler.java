@@ -16,8 +16,14 @@
 
 package io.appium.uiautomator2.http;
 
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
 
+import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
 import io.appium.uiautomator2.common.exceptions.UnknownCommandException;
 import io.appium.uiautomator2.http.impl.NettyHttpRequest;
 import io.appium.uiautomator2.http.impl.NettyHttpResponse;
@@ -31,6 +37,7 @@ import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.util.ReferenceCountUtil;
 
 import static io.netty.handler.codec.http.HttpHeaders.Names.CACHE_CONTROL;
 import static io.netty.handler.codec.http.HttpHeaders.Names.CONNECTION;
@@ -38,11 +45,24 @@ import static io.netty.handler.codec.http.HttpHeaders.Names.PRAGMA;
 import static io.netty.handler.codec.http.HttpResponseStatus.OK;
 import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
 
+/**
+ * Handles requests of a single channel.
+ * <p>
+ * HTTP/1.1 requires responses to be sent in the order the requests have been received on the
+ * connection. Since requests may be handled in different dispatch lanes, the next pipelined
+ * request of the channel is only dispatched once the response to the previous one has been
+ * written.
+ */
 public class ServerHandler extends ChannelInboundHandlerAdapter {
 
     private static final String LEGACY_URI_PREFIX = "/wd/hub";
 
     private final List<IHttpServlet> httpHandlers;
+    // Requests received while the previous request of the channel is being handled.
+    // Guarded by itself
+    private final Queue<PendingRequest> queuedRequests = new ArrayDeque<>();
+    // Guarded by queuedRequests
+    private boolean isHandlingRequest = false;
 
     public ServerHandler(List<IHttpServlet> handlers) {
         this.httpHandlers = handlers;
@@ -55,15 +75,7 @@ public class ServerHandler extends ChannelInboundHandlerAdapter {
         }
 
         FullHttpRequest request = (FullHttpRequest) msg;
-        FullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, OK);
-        boolean keepAlive = HttpHeaders.isKeepAlive(request);
-        response.headers().set(CONNECTION, keepAlive
-                ? HttpHeaders.Values.KEEP_ALIVE
-                : HttpHeaders.Values.CLOSE);
-        response.headers().set(PRAGMA, "no-cache");
-        response.headers().set(CACHE_CONTROL, "no-store");
-
-        Logger.info(String.format("channel read: %s %s", request.getMethod().toString(), request.getUri()));
+        Logger.infof("channel read: %s %s", request.getMethod(), request.getUri());
 
         // Check if the request URI starts with the legacy prefix, and remove it if present
         // This ensures compatibility with clients using older versions
@@ -72,25 +84,110 @@ public class ServerHandler extends ChannelInboundHandlerAdapter {
         }
 
         IHttpRequest httpRequest = new NettyHttpRequest(request);
-        IHttpResponse httpResponse = new NettyHttpResponse(response);
+        String lane = null;
         for (IHttpServlet handler : httpHandlers) {
-            handler.handleHttpRequest(httpRequest, httpResponse);
-            if (httpResponse.isClosed()) {
+            lane = handler.getDispatchLane(httpRequest);
+            if (lane != null) {
                 break;
             }
         }
+        PendingRequest pendingRequest = new PendingRequest(ctx, request, httpRequest, lane);
+        synchronized (queuedRequests) {
+            if (isHandlingRequest) {
+                queuedRequests.add(pendingRequest);
+                return;
+            }
+            isHandlingRequest = true;
+        }
+        if (!dispatch(pendingRequest)) {
+            dispatchNext();
+        }
+    }
+
+    /**
+     * Handlers may take a while, so they must not block the event loop.
+     * The request is released once it has been handled.
+     *
+     * @return true if the request has been scheduled, and the next queued request is going to be
+     * dispatched once it has been handled, or false if the request has already been rejected
+     */
+    private boolean dispatch(PendingRequest pendingRequest) {
+        try {
+            RequestDispatcher.getInstance().dispatch(pendingRequest.lane, () -> {
+                try {
+                    handleRequest(pendingRequest, null);
+                } finally {
+                    ReferenceCountUtil.release(pendingRequest.request);
+                    dispatchNext();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            try {
+                handleRequest(pendingRequest, new UiAutomator2Exception(e.getMessage(), e));
+            } finally {
+                ReferenceCountUtil.release(pendingRequest.request);
+            }
+            return false;
+        }
+    }
+
+    private void dispatchNext() {
+        while (true) {
+            PendingRequest pendingRequest;
+            synchronized (queuedRequests) {
+                pendingRequest = queuedRequests.poll();
+                if (pendingRequest == null) {
+                    isHandlingRequest = false;
+                    return;
+                }
+            }
+            if (dispatch(pendingRequest)) {
+                return;
+            }
+        }
+    }
+
+    private void handleRequest(PendingRequest pendingRequest, @Nullable Throwable error) {
+        handleRequest(pendingRequest.ctx, pendingRequest.request, pendingRequest.httpRequest, error);
+    }
+
+    private void handleRequest(ChannelHandlerContext ctx, FullHttpRequest request,
+                               IHttpRequest httpRequest, @Nullable Throwable error) {
+        FullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, OK);
+        boolean keepAlive = HttpHeaders.isKeepAlive(request);
+        response.headers().set(CONNECTION, keepAlive
+                ? HttpHeaders.Values.KEEP_ALIVE
+                : HttpHeaders.Values.CLOSE);
+        response.headers().set(PRAGMA, "no-cache");
+        response.headers().set(CACHE_CONTROL, "no-store");
+
+        NettyHttpResponse httpResponse = new NettyHttpResponse(ctx, response);
+        if (error == null) {
+            for (IHttpServlet handler : httpHandlers) {
+                try {
+                    handler.handleHttpRequest(httpRequest, httpResponse);
+                } catch (Exception e) {
+                    error = e;
+                    break;
+                }
+                if (httpResponse.isClosed()) {
+                    break;
+                }
+            }
+        }
         if (!httpResponse.isClosed()) {
             Object sessionId = httpRequest.data().get(AppiumServlet.SESSION_ID_KEY);
-            new AppiumResponse(sessionId == null ? null : (String) sessionId, new UnknownCommandException())
+            new AppiumResponse(sessionId == null ? null : (String) sessionId,
+                    error == null ? new UnknownCommandException() : error)
                     .renderTo(httpResponse);
             httpResponse.end();
         }
 
-        ChannelFuture future = ctx.write(response);
+        ChannelFuture future = httpResponse.flush();
         if (!keepAlive) {
             future.addListener(ChannelFutureListener.CLOSE);
         }
-        super.channelRead(ctx, msg);
     }
 
     @Override
@@ -99,10 +196,38 @@ public class ServerHandler extends ChannelInboundHandlerAdapter {
         ctx.fireChannelReadComplete();
     }
 
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        // Nobody is going to read responses to the requests, which have not been dispatched yet
+        synchronized (queuedRequests) {
+            PendingRequest pendingRequest;
+            while ((pendingRequest = queuedRequests.poll()) != null) {
+                ReferenceCountUtil.release(pendingRequest.request);
+            }
+        }
+        super.channelInactive(ctx);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
         Logger.error("exception caught", cause);
         ctx.close();
         super.exceptionCaught(ctx, cause);
     }
+
+    private static class PendingRequest {
+        final ChannelHandlerContext ctx;
+        final FullHttpRequest request;
+        final IHttpRequest httpRequest;
+        @Nullable
+        final String lane;
+
+        PendingRequest(ChannelHandlerContext ctx, FullHttpRequest request,
+                       IHttpRequest httpRequest, @Nullable String lane) {
+            this.ctx = ctx;
+            this.request = request;
+            this.httpRequest = httpRequest;
+            this.lane = lane;
+        }
+    }
 }
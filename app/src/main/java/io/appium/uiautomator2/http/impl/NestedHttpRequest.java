@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.http.impl;
+
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.appium.uiautomator2.http.IHttpRequest;
+
+/**
+ * A request, which is executed as a part of another request, for example a batch command.
+ * Headers are inherited from the enclosing request.
+ */
+public class NestedHttpRequest implements IHttpRequest {
+    private final IHttpRequest parent;
+    private final String method;
+    private final String uri;
+    private final String body;
+    private final Map<String, Object> data = new HashMap<>();
+
+    public NestedHttpRequest(IHttpRequest parent, String method, String uri, @Nullable String body) {
+        this.parent = parent;
+        this.method = method;
+        this.uri = uri;
+        this.body = body == null ? "" : body;
+    }
+
+    @Override
+    public String method() {
+        return method;
+    }
+
+    @Override
+    public String uri() {
+        return uri;
+    }
+
+    @Override
+    public String body() {
+        return body;
+    }
+
+    @Override
+    public String header(String name) {
+        return parent.header(name);
+    }
+
+    @Override
+    public Map<String, Object> data() {
+        return data;
+    }
+}
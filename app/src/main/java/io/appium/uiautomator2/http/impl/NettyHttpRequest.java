@@ -1,9 +1,12 @@
 package io.appium.uiautomator2.http.impl;
 
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.HashMap;
 import java.util.Map;
 
 import io.appium.uiautomator2.http.IHttpRequest;
+import io.netty.buffer.ByteBufInputStream;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.util.CharsetUtil;
 
@@ -31,6 +34,16 @@ public class NettyHttpRequest implements IHttpRequest {
         return request.content().toString(CharsetUtil.UTF_8);
     }
 
+    /**
+     * Returns a reader over the request body, which decodes the content buffer
+     * without building the body string first.
+     */
+    public Reader bodyReader() {
+        // The duplicate keeps the reader index of the original buffer intact
+        return new InputStreamReader(new ByteBufInputStream(request.content().duplicate()),
+                CharsetUtil.UTF_8);
+    }
+
     @Override
     public String header(String name) {
         return request.headers().get(name);
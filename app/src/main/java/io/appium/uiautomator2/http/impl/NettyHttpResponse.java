@@ -1,24 +1,44 @@
 package io.appium.uiautomator2.http.impl;
 
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 
+import io.appium.uiautomator2.http.IContentWriter;
 import io.appium.uiautomator2.http.IHttpResponse;
+import io.appium.uiautomator2.utils.Logger;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
 import io.netty.util.CharsetUtil;
 
 public class NettyHttpResponse implements IHttpResponse {
 
     private final FullHttpResponse response;
+    private final ChannelHandlerContext ctx;
+    // The amount of bytes collected before the next chunk of a streamed content is sent
+    private static final int STREAM_CHUNK_SIZE = 16 * 1024;
     private static final String CONTENT_TYPE = "Content-Type";
     private static final String CONTENT_ENCODING = "Content-Encoding";
     private static final String CONTENT_LENGTH = "Content-Length";
     private static final String LOCATION = "location";
     private boolean closed;
     private Charset charset = CharsetUtil.UTF_8;
+    // Is set once the content has been streamed to the client
+    @Nullable
+    private ChannelFuture streamFuture;
 
-
-    public NettyHttpResponse(FullHttpResponse response) {
+    public NettyHttpResponse(ChannelHandlerContext ctx, FullHttpResponse response) {
+        this.ctx = ctx;
         this.response = response;
         response.headers().add(CONTENT_ENCODING, "identity");
     }
@@ -29,12 +49,12 @@ public class NettyHttpResponse implements IHttpResponse {
     }
 
     public IHttpResponse setContentType(String mimeType) {
-        response.headers().add(CONTENT_TYPE, mimeType);
+        response.headers().set(CONTENT_TYPE, mimeType);
         return this;
     }
 
     public IHttpResponse setContent(byte[] data) {
-        response.headers().add(CONTENT_LENGTH, data.length);
+        response.headers().set(CONTENT_LENGTH, data.length);
         response.content().writeBytes(data);
         return this;
     }
@@ -44,6 +64,25 @@ public class NettyHttpResponse implements IHttpResponse {
         return this;
     }
 
+    @Override
+    public IHttpResponse setContent(IContentWriter writer) throws IOException {
+        ChunkedContentStream output = new ChunkedContentStream();
+        try {
+            writer.writeTo(output);
+            output.finish();
+        } catch (IOException | RuntimeException e) {
+            output.discard();
+            if (!output.isCommitted()) {
+                throw e;
+            }
+            // The status line has already been sent, so the only way to let the client know
+            // the content is incomplete is to drop the connection
+            Logger.error("Unable to stream the response content", e);
+            streamFuture = ctx.close();
+        }
+        return this;
+    }
+
     public IHttpResponse sendRedirect(String to) {
         setStatus(HttpResponseStatus.MOVED_PERMANENTLY.code());
         response.headers().add(LOCATION, to);
@@ -70,4 +109,102 @@ public class NettyHttpResponse implements IHttpResponse {
         this.charset = charset;
         return this;
     }
+
+    /**
+     * Sends the response to the client unless its content has already been streamed.
+     *
+     * @return The future of the last message written to the channel
+     */
+    public ChannelFuture flush() {
+        if (streamFuture == null) {
+            return ctx.writeAndFlush(response);
+        }
+        response.release();
+        return streamFuture;
+    }
+
+    /**
+     * Collects the written bytes into pooled buffers and sends each of them as a separate
+     * chunk once it is full. Content that fits into a single chunk is sent as a usual full
+     * response with the Content-Length header.
+     */
+    private class ChunkedContentStream extends OutputStream {
+        @Nullable
+        private ByteBuf chunk = ctx.alloc().buffer(STREAM_CHUNK_SIZE);
+        private boolean committed;
+
+        boolean isCommitted() {
+            return committed;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureOpen().writeByte(b);
+            if (chunk.readableBytes() >= STREAM_CHUNK_SIZE) {
+                sendChunk();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int count = Math.min(len, STREAM_CHUNK_SIZE - ensureOpen().readableBytes());
+                chunk.writeBytes(b, off, count);
+                off += count;
+                len -= count;
+                if (chunk.readableBytes() >= STREAM_CHUNK_SIZE) {
+                    sendChunk();
+                }
+            }
+        }
+
+        private ByteBuf ensureOpen() throws IOException {
+            if (chunk == null) {
+                throw new IOException("The content stream is already closed");
+            }
+            return chunk;
+        }
+
+        private void sendChunk() throws IOException {
+            if (!committed) {
+                HttpResponse head = new DefaultHttpResponse(response.protocolVersion(),
+                        response.status(), response.headers().copy());
+                HttpUtil.setTransferEncodingChunked(head, true);
+                ctx.write(head);
+                committed = true;
+            }
+            ChannelFuture future = ctx.writeAndFlush(new DefaultHttpContent(chunk));
+            chunk = ctx.alloc().buffer(STREAM_CHUNK_SIZE);
+            // Do not let the outbound buffer grow beyond the channel's high water mark
+            // if the client reads slower than the content is produced
+            if (!ctx.channel().isWritable() && !ctx.executor().inEventLoop()) {
+                future.awaitUninterruptibly();
+            }
+            if (future.isDone() && !future.isSuccess()) {
+                throw new IOException("Unable to send the response content", future.cause());
+            }
+        }
+
+        void finish() throws IOException {
+            ByteBuf lastChunk = ensureOpen();
+            chunk = null;
+            if (committed) {
+                streamFuture = ctx.writeAndFlush(new DefaultLastHttpContent(lastChunk));
+                return;
+            }
+            try {
+                response.headers().set(CONTENT_LENGTH, lastChunk.readableBytes());
+                response.content().writeBytes(lastChunk);
+            } finally {
+                lastChunk.release();
+            }
+        }
+
+        void discard() {
+            if (chunk != null) {
+                chunk.release();
+                chunk = null;
+            }
+        }
+    }
 }
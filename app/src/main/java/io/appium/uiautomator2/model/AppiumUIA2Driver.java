@@ -39,6 +39,9 @@ public class AppiumUIA2Driver {
     }
 
     public String initializeSession(Map<String, Object> capabilities) {
+        if (this.session != null) {
+            this.session.close();
+        }
         this.session = new Session(UUID.randomUUID().toString(), capabilities);
         return this.session.getSessionId();
     }
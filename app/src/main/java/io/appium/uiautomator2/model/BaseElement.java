@@ -205,12 +205,12 @@ public abstract class BaseElement implements AndroidElement {
     @Override
     public Object toModel() throws UiObjectNotFoundException {
         ElementModel model = new ElementModel(this);
-        if (Settings.get(ShouldUseCompactResponses.class).getValue()) {
+        if (Settings.getValue(ShouldUseCompactResponses.class)) {
             return model;
         }
 
         Map<String, Object> result = new HashMap<>(model.toMap());
-        String [] responseAttributes = Settings.get(ElementResponseAttributes.class).asArray();
+        String [] responseAttributes = Settings.getValue(ElementResponseAttributes.class).split(",");
         for (String field : responseAttributes) {
             try {
                 if (Objects.equals(field, "name")) {
@@ -16,19 +16,34 @@
 
 package io.appium.uiautomator2.model;
 
-import android.util.LruCache;
+import android.os.SystemClock;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.test.uiautomator.UiObject;
 import androidx.test.uiautomator.UiObject2;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
 
 import io.appium.uiautomator2.common.exceptions.ElementNotFoundException;
 import io.appium.uiautomator2.common.exceptions.StaleElementReferenceException;
 import io.appium.uiautomator2.core.AxNodeInfoHelper;
+import io.appium.uiautomator2.model.api.ElementsCacheStatsModel;
 import io.appium.uiautomator2.model.internal.CustomUiDevice;
+import io.appium.uiautomator2.model.settings.ElementsCacheMaxAge;
+import io.appium.uiautomator2.model.settings.ElementsCacheSize;
+import io.appium.uiautomator2.model.settings.Settings;
 import io.appium.uiautomator2.utils.ByUiAutomatorFinder;
 import io.appium.uiautomator2.utils.Logger;
 import io.appium.uiautomator2.utils.NodeInfoList;
@@ -36,11 +51,139 @@ import io.appium.uiautomator2.utils.NodeInfoList;
 import static io.appium.uiautomator2.utils.ElementLocationHelpers.findElementById;
 import static io.appium.uiautomator2.utils.ElementLocationHelpers.getXPathNodeMatch;
 
+/**
+ * Keeps the elements found in the current session, so they could be addressed by their identifiers.
+ * <p>
+ * Entries are spread over several independently locked stripes, so lookups of different elements
+ * do not block each other. Liveness checks of cached elements and the restoration of stale ones
+ * are performed without holding any lock, and concurrent restorations of the same element are
+ * coalesced into a single search.
+ * <p>
+ * The least recently used elements are evicted once the count of entries exceeds the
+ * {@link ElementsCacheSize} setting value. Elements, which have not been accessed for longer than
+ * the {@link ElementsCacheMaxAge} setting value, are evicted as well.
+ */
 public class ElementsCache {
-    private final LruCache<String, AndroidElement> cache;
+    private static final int STRIPES_COUNT = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES_COUNT];
+    private final Map<String, FutureTask<AndroidElement>> pendingRestorations = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong accessCounter = new AtomicLong();
+    private final IntSupplier capacitySupplier;
+    private final LongSupplier maxAgeSupplier;
+    private final LongSupplier clock;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong staleElements = new AtomicLong();
+    private final AtomicLong restorations = new AtomicLong();
+    private final AtomicLong failedRestorations = new AtomicLong();
+    private final AtomicLong coalescedRestorations = new AtomicLong();
+
+    ElementsCache() {
+        this(() -> Settings.getValue(ElementsCacheSize.class),
+                () -> Settings.getValue(ElementsCacheMaxAge.class),
+                SystemClock::uptimeMillis);
+    }
 
-    ElementsCache(int maxSize) {
-        this.cache = new LruCache<>(maxSize);
+    @VisibleForTesting
+    ElementsCache(IntSupplier capacitySupplier, LongSupplier maxAgeSupplier, LongSupplier clock) {
+        this.capacitySupplier = capacitySupplier;
+        this.maxAgeSupplier = maxAgeSupplier;
+        this.clock = clock;
+        for (int i = 0; i < STRIPES_COUNT; ++i) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private static final class Entry {
+        final AndroidElement element;
+        long lastAccessTime;
+        long lastAccessOrder;
+
+        Entry(AndroidElement element) {
+            this.element = element;
+        }
+    }
+
+    /**
+     * A part of the cache guarded by its own lock. Entries are kept in the access order,
+     * so the eldest entry of a stripe is always its least recently used one.
+     */
+    private final class Stripe {
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        @Nullable
+        synchronized AndroidElement get(String id, long now, long maxAge) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (isExpired(entry, now, maxAge)) {
+                entries.remove(id);
+                size.decrementAndGet();
+                expirations.incrementAndGet();
+                return null;
+            }
+            touch(entry, now);
+            return entry.element;
+        }
+
+        synchronized void put(AndroidElement element, long now) {
+            Entry entry = new Entry(element);
+            touch(entry, now);
+            if (entries.put(element.getId(), entry) == null) {
+                size.incrementAndGet();
+            }
+        }
+
+        private void touch(Entry entry, long now) {
+            entry.lastAccessTime = now;
+            entry.lastAccessOrder = accessCounter.incrementAndGet();
+        }
+
+        synchronized void removeExpired(long now, long maxAge) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (!isExpired(iterator.next(), now, maxAge)) {
+                    // The remaining entries have been accessed later
+                    break;
+                }
+                iterator.remove();
+                size.decrementAndGet();
+                expirations.incrementAndGet();
+            }
+        }
+
+        /**
+         * @return The access order of the least recently used entry or Long.MAX_VALUE
+         * if the stripe is empty
+         */
+        synchronized long getEldestAccessOrder() {
+            return entries.isEmpty() ? Long.MAX_VALUE : entries.values().iterator().next().lastAccessOrder;
+        }
+
+        synchronized boolean removeEldest(long expectedAccessOrder) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            if (!iterator.hasNext() || iterator.next().lastAccessOrder != expectedAccessOrder) {
+                return false;
+            }
+            iterator.remove();
+            size.decrementAndGet();
+            return true;
+        }
+    }
+
+    private static boolean isExpired(Entry entry, long now, long maxAge) {
+        return maxAge > 0 && now - entry.lastAccessTime > maxAge;
+    }
+
+    private Stripe stripeFor(String id) {
+        int hash = id.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES_COUNT - 1)];
     }
 
     public static AndroidElement toAndroidElement(AccessibleUiObject element, boolean isSingleMatch,
@@ -66,7 +209,8 @@ public class ElementsCache {
                 String.format("Unknown element type: %s", element.getClass().getName()));
     }
 
-    private AndroidElement restore(AndroidElement element) {
+    @VisibleForTesting
+    AndroidElement restore(AndroidElement element) {
         final By by = element.getBy();
         if (by == null) {
             throw new StaleElementReferenceException(String.format(
@@ -125,43 +269,169 @@ public class ElementsCache {
 
         AndroidElement restoredElement = toAndroidElement(accessibleUiObject,
                 element.isSingleMatch(), element.getBy(), element.getContextId(), element.getId());
-        cache.put(restoredElement.getId(), restoredElement);
+        put(restoredElement);
         return restoredElement;
     }
 
+    /**
+     * Restores the given stale element. Only one restoration per element identifier
+     * is running at a time, other callers wait for its result.
+     */
+    private AndroidElement restoreOnce(AndroidElement element) {
+        final String id = element.getId();
+        FutureTask<AndroidElement> task = new FutureTask<>(() -> {
+            try {
+                AndroidElement result = restore(element);
+                restorations.incrementAndGet();
+                return result;
+            } catch (RuntimeException e) {
+                failedRestorations.incrementAndGet();
+                throw e;
+            }
+        });
+        FutureTask<AndroidElement> pendingTask = pendingRestorations.putIfAbsent(id, task);
+        if (pendingTask == null) {
+            try {
+                task.run();
+            } finally {
+                pendingRestorations.remove(id, task);
+            }
+            pendingTask = task;
+        } else {
+            coalescedRestorations.incrementAndGet();
+        }
+
+        try {
+            return pendingTask.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new StaleElementReferenceException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StaleElementReferenceException(String.format(
+                    "Interrupted while waiting for the element '%s' to be restored", id));
+        }
+    }
+
     @NonNull
     public AndroidElement get(String id) {
+        AndroidElement resultElement = peek(id);
+        // It might be that cached UI object has been invalidated
+        // after AX cache reset has been performed. So we try to recreate
+        // the cached object automatically
+        // in order to avoid an unexpected StaleElementReferenceException
+        try {
+            resultElement.getName();
+            return resultElement;
+        } catch (Exception e) {
+            return restoreStale(resultElement, e);
+        }
+    }
+
+    /**
+     * Same as {@link #get(String)}, but does not verify whether the cached element
+     * is still present in the UI hierarchy. Callers, which are going to query the element anyway,
+     * should use it together with {@link #restoreStale(AndroidElement, Exception)} to save
+     * the extra accessibility request per element.
+     *
+     * @param id The element identifier
+     * @return The cached element
+     * @throws ElementNotFoundException if no element with the given identifier is cached
+     */
+    @NonNull
+    public AndroidElement peek(String id) {
         if (id == null) {
             throw new IllegalArgumentException(
                     "A valid cached element identifier must be provided. Got null instead");
         }
 
-        AndroidElement resultElement;
-        synchronized (cache) {
-            resultElement = cache.get(id);
-            if (resultElement != null) {
-                // It might be that cached UI object has been invalidated
-                // after AX cache reset has been performed. So we try to recreate
-                // the cached object automatically
-                // in order to avoid an unexpected StaleElementReferenceException
-                try {
-                    resultElement.getName();
-                } catch (Exception e) {
-                    Logger.info(String.format("The element identified by '%s' has been reported as stale (%s). " +
-                            "Trying to restore it", id, e.getMessage()));
-                    resultElement = restore(resultElement);
-                }
-            }
-        }
-
+        AndroidElement resultElement = stripeFor(id).get(id, clock.getAsLong(), maxAgeSupplier.getAsLong());
         if (resultElement == null) {
+            misses.incrementAndGet();
             throw new ElementNotFoundException(
                     String.format("The element identified by '%s' is not present in the cache " +
                             "or has expired. Try to find it again", id));
         }
+        hits.incrementAndGet();
         return resultElement;
     }
 
+    /**
+     * Tries to locate the given cached element again after it has been reported as stale.
+     *
+     * @param element The stale element
+     * @param reason The error the element has been reported with
+     * @return The restored element, which replaces the stale one in the cache
+     * @throws StaleElementReferenceException if the element cannot be restored
+     */
+    @NonNull
+    public AndroidElement restoreStale(AndroidElement element, Exception reason) {
+        staleElements.incrementAndGet();
+        Logger.info(String.format("The element identified by '%s' has been reported as stale (%s). " +
+                "Trying to restore it", element.getId(), reason.getMessage()));
+        return restoreOnce(element);
+    }
+
+    @VisibleForTesting
+    void put(AndroidElement element) {
+        long now = clock.getAsLong();
+        stripeFor(element.getId()).put(element, now);
+        long maxAge = maxAgeSupplier.getAsLong();
+        if (maxAge > 0) {
+            for (Stripe stripe : stripes) {
+                stripe.removeExpired(now, maxAge);
+            }
+        }
+        trimToSize(capacitySupplier.getAsInt());
+    }
+
+    /**
+     * Evicts the least recently used entries among all stripes until the cache fits the capacity.
+     */
+    private void trimToSize(int capacity) {
+        while (size.get() > capacity) {
+            Stripe eldestStripe = null;
+            long eldestAccessOrder = Long.MAX_VALUE;
+            for (Stripe stripe : stripes) {
+                long accessOrder = stripe.getEldestAccessOrder();
+                if (accessOrder < eldestAccessOrder) {
+                    eldestAccessOrder = accessOrder;
+                    eldestStripe = stripe;
+                }
+            }
+            if (eldestStripe == null) {
+                return;
+            }
+            // The entry might have been accessed or removed concurrently, then try again
+            if (eldestStripe.removeEldest(eldestAccessOrder)) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public ElementsCacheStatsModel getStats() {
+        return new ElementsCacheStatsModel(
+                size.get(),
+                capacitySupplier.getAsInt(),
+                maxAgeSupplier.getAsLong(),
+                hits.get(),
+                misses.get(),
+                evictions.get(),
+                expirations.get(),
+                staleElements.get(),
+                restorations.get(),
+                failedRestorations.get(),
+                coalescedRestorations.get()
+        );
+    }
+
     public AndroidElement add(AccessibleUiObject element, boolean isSingleMatch) {
         return add(element, isSingleMatch, null, null);
     }
@@ -173,9 +443,7 @@ public class ElementsCache {
     public AndroidElement add(AccessibleUiObject element, boolean isSingleMatch, @Nullable By by,
                               @Nullable String contextId) {
         AndroidElement androidElement = toAndroidElement(element, isSingleMatch, by, contextId);
-        synchronized (cache) {
-            cache.put(androidElement.getId(), androidElement);
-        }
+        put(androidElement);
         return androidElement;
     }
 }
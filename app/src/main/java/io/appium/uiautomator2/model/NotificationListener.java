@@ -43,6 +43,10 @@ public class NotificationListener implements OnAccessibilityEventListener {
     // idle (see AXWindowHelpers.resetAccessibilityCache). Starts stale so the first reset after
     // (re)starting the listener always clears.
     private volatile boolean accessibilityCacheStale = true;
+    // Incremented every time the listener is (re)started, so observers could tell whether
+    // some events might have been missed while the listener was inactive
+    private volatile int generation;
+    private final List<OnAccessibilityEventListener> observers = new CopyOnWriteArrayList<>();
 
     protected NotificationListener() {
         uiAutomation = UiAutomation.getInstance();
@@ -67,6 +71,7 @@ public class NotificationListener implements OnAccessibilityEventListener {
         originalListener = uiAutomation.getOnAccessibilityEventListener();
         isListening = true;
         accessibilityCacheStale = true;
+        ++generation;
         Logger.debug("Original listener: " + originalListener);
         uiAutomation.setOnAccessibilityEventListener(this);
     }
@@ -95,6 +100,10 @@ public class NotificationListener implements OnAccessibilityEventListener {
             accessibilityCacheStale = true;
         }
 
+        for (OnAccessibilityEventListener observer : observers) {
+            observer.onAccessibilityEvent(event);
+        }
+
         if (originalListener != null) {
             originalListener.onAccessibilityEvent(event);
         }
@@ -126,6 +135,29 @@ public class NotificationListener implements OnAccessibilityEventListener {
         return isListening;
     }
 
+    /**
+     * @return The number of times this listener has been started. If the value differs from
+     * the one retrieved earlier then accessibility events might have been missed in between.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Subscribes the given observer to all accessibility events received by this listener
+     * while it is active. Observers are invoked on the accessibility events thread,
+     * so they must not block.
+     */
+    public void addObserver(OnAccessibilityEventListener observer) {
+        if (!observers.contains(observer)) {
+            observers.add(observer);
+        }
+    }
+
+    public void removeObserver(OnAccessibilityEventListener observer) {
+        observers.remove(observer);
+    }
+
     protected long getToastClearTimeout() {
         return TOAST_CLEAR_TIMEOUT;
     }
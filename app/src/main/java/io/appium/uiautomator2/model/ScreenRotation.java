@@ -63,7 +63,7 @@ public enum ScreenRotation {
     }
 
     public static ScreenRotation ofOrientation(ScreenOrientation desiredOrientation) {
-        if (!Settings.get(UseResourcesForOrientationDetection.class).getValue()) {
+        if (!Settings.getValue(UseResourcesForOrientationDetection.class)) {
             return desiredOrientation == ScreenOrientation.LANDSCAPE ? ROTATION_270 : ROTATION_0;
         }
 
@@ -22,17 +22,18 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import io.appium.uiautomator2.core.SnapshotCache;
 import io.appium.uiautomator2.model.settings.ISetting;
 import io.appium.uiautomator2.model.settings.Settings;
 import io.appium.uiautomator2.utils.actions_scheduler.ScheduledActionsManager;
 
 public class Session {
     public static final String NO_ID = "None";
-    public static final int MAX_CACHE_SIZE = 500;
 
     private final Map<String, Object> capabilities = new HashMap<>();
     private final String sessionId;
-    private final ElementsCache elementsCache = new ElementsCache(MAX_CACHE_SIZE);
+    private final ElementsCache elementsCache = new ElementsCache();
+    private final SnapshotCache snapshotCache = new SnapshotCache();
     private AccessibilityScrollData lastScrollData;
 
     Session(String sessionId, Map<String, Object> capabilities) {
@@ -87,4 +88,15 @@ public class Session {
     public ElementsCache getElementsCache() {
         return this.elementsCache;
     }
+
+    public SnapshotCache getSnapshotCache() {
+        return this.snapshotCache;
+    }
+
+    /**
+     * Releases resources owned by the session once it is replaced by a new one.
+     */
+    void close() {
+        snapshotCache.close();
+    }
 }
@@ -0,0 +1,322 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model;
+
+import androidx.annotation.Nullable;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import io.appium.uiautomator2.utils.Attribute;
+
+/**
+ * Compact storage of the attribute values collected for a single snapshot element.
+ * <p>
+ * Boolean values are packed into a bitfield, numeric values and bounds are kept as primitives
+ * and only boxed or formatted when they are requested. String values are stored in an array,
+ * which slots are assigned by the {@link Layout} shared by all elements of the same snapshot.
+ */
+final class SnapshotAttributes {
+    private static final long BOOLEAN_ATTRIBUTES = maskOf(
+            Attribute.CHECKABLE, Attribute.CHECKED, Attribute.CLICKABLE, Attribute.ENABLED,
+            Attribute.FOCUSABLE, Attribute.FOCUSED, Attribute.LONG_CLICKABLE, Attribute.PASSWORD,
+            Attribute.SCROLLABLE, Attribute.SELECTED, Attribute.DISPLAYED,
+            Attribute.IMPORTANT_FOR_ACCESSIBILITY, Attribute.SCREEN_READER_FOCUSABLE,
+            Attribute.SHOWING_HINT_TEXT, Attribute.TEXT_ENTRY_KEY, Attribute.MULTI_LINE,
+            Attribute.DISMISSABLE, Attribute.ACCESSIBILITY_FOCUSED, Attribute.HEADING,
+            Attribute.CONTEXT_CLICKABLE, Attribute.CONTENT_INVALID,
+            Attribute.TEXT_HAS_CLICKABLE_SPAN, Attribute.IS_COLLECTION,
+            Attribute.IS_COLLECTION_ITEM
+    );
+    private static final long STRING_ATTRIBUTES = maskOf(
+            Attribute.CLASS, Attribute.PACKAGE, Attribute.TEXT, Attribute.ORIGINAL_TEXT,
+            Attribute.CONTENT_DESC, Attribute.RESOURCE_ID, Attribute.HINT, Attribute.EXTRAS,
+            Attribute.ERROR_TEXT, Attribute.PANE_TITLE, Attribute.TOOLTIP_TEXT,
+            Attribute.ACTIONS, Attribute.TEXT_UNIT
+    );
+    private static final String[] NO_STRINGS = new String[0];
+
+    private final Layout layout;
+    private final String[] strings;
+    private long presentMask;
+    private long flags;
+    private int index;
+    private int selectionStart;
+    private int selectionEnd;
+    private int inputType;
+    private int drawingOrder;
+    private int liveRegion;
+    private int maxTextLength;
+    private int windowId;
+    private float textSize;
+    private int left;
+    private int top;
+    private int right;
+    private int bottom;
+
+    SnapshotAttributes(Layout layout) {
+        this.layout = layout;
+        this.strings = layout.stringsCount == 0 ? NO_STRINGS : new String[layout.stringsCount];
+    }
+
+    private static long bitOf(Attribute attribute) {
+        return 1L << attribute.ordinal();
+    }
+
+    private static long maskOf(Attribute... attributes) {
+        long result = 0;
+        for (Attribute attribute : attributes) {
+            result |= bitOf(attribute);
+        }
+        return result;
+    }
+
+    boolean has(Attribute attribute) {
+        return (presentMask & bitOf(attribute)) != 0;
+    }
+
+    void putBoolean(Attribute attribute, boolean value) {
+        long bit = bitOf(attribute);
+        if ((BOOLEAN_ATTRIBUTES & bit) == 0) {
+            throw new IllegalArgumentException(String.format("'%s' is not a boolean attribute", attribute));
+        }
+        presentMask |= bit;
+        flags = value ? flags | bit : flags & ~bit;
+    }
+
+    void putInt(Attribute attribute, int value) {
+        switch (attribute) {
+            case INDEX:
+                index = value;
+                break;
+            case SELECTION_START:
+                selectionStart = value;
+                break;
+            case SELECTION_END:
+                selectionEnd = value;
+                break;
+            case INPUT_TYPE:
+                inputType = value;
+                break;
+            case DRAWING_ORDER:
+                drawingOrder = value;
+                break;
+            case LIVE_REGION:
+                liveRegion = value;
+                break;
+            case MAX_TEXT_LENGTH:
+                maxTextLength = value;
+                break;
+            case WINDOW_ID:
+                windowId = value;
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("'%s' is not an integer attribute", attribute));
+        }
+        presentMask |= bitOf(attribute);
+    }
+
+    void putTextSize(float value) {
+        textSize = value;
+        presentMask |= bitOf(Attribute.TEXT_SIZE);
+    }
+
+    void putBounds(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        presentMask |= bitOf(Attribute.BOUNDS);
+    }
+
+    /**
+     * Stores the given string value. Null values are ignored, so the attribute stays absent.
+     */
+    void putString(Attribute attribute, @Nullable String value) {
+        int slot = layout.stringSlots[attribute.ordinal()];
+        if (slot < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "'%s' is not a string attribute of the snapshot layout", attribute));
+        }
+        if (value != null) {
+            strings[slot] = value;
+            presentMask |= bitOf(attribute);
+        }
+    }
+
+    @Nullable
+    Object get(Attribute attribute) {
+        long bit = bitOf(attribute);
+        if ((presentMask & bit) == 0) {
+            return null;
+        }
+        if ((BOOLEAN_ATTRIBUTES & bit) != 0) {
+            return (flags & bit) != 0;
+        }
+        if ((STRING_ATTRIBUTES & bit) != 0) {
+            return strings[layout.stringSlots[attribute.ordinal()]];
+        }
+        switch (attribute) {
+            case INDEX:
+                return index;
+            case SELECTION_START:
+                return selectionStart;
+            case SELECTION_END:
+                return selectionEnd;
+            case INPUT_TYPE:
+                return inputType;
+            case DRAWING_ORDER:
+                return drawingOrder;
+            case LIVE_REGION:
+                return liveRegion;
+            case MAX_TEXT_LENGTH:
+                return maxTextLength;
+            case WINDOW_ID:
+                return windowId;
+            case TEXT_SIZE:
+                return textSize;
+            case BOUNDS:
+                return formatBounds();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Formats the bounds the same way {@code Rect.toShortString()} does.
+     */
+    private String formatBounds() {
+        return "[" + left + "," + top + "][" + right + "," + bottom + "]";
+    }
+
+    /**
+     * @return A read-only view of the present attributes, which iterates them in the order
+     * defined by the layout
+     */
+    Set<Attribute> keySet() {
+        return new KeySet(layout.order, presentMask);
+    }
+
+    /**
+     * Describes which attributes are collected for the elements of a single snapshot.
+     * The same instance is shared by all elements of the tree.
+     */
+    static final class Layout {
+        private final Attribute[] order;
+        private final Attribute[] included;
+        private final long includedMask;
+        private final byte[] stringSlots;
+        private final int stringsCount;
+
+        /**
+         * @param order The order of all attributes, which is used while iterating them
+         * @param includedAttributes The attributes to collect. Only items that are also present
+         *                           in the given order are respected.
+         */
+        Layout(Attribute[] order, Set<Attribute> includedAttributes) {
+            if (Attribute.values().length > Long.SIZE) {
+                throw new IllegalStateException(String.format(
+                        "Only up to %s attributes could be packed", Long.SIZE));
+            }
+            this.order = order;
+            this.stringSlots = new byte[Attribute.values().length];
+            Arrays.fill(stringSlots, (byte) -1);
+            Attribute[] includedInOrder = new Attribute[order.length];
+            int includedCount = 0;
+            long mask = 0;
+            int slotsCount = 0;
+            for (Attribute attribute : order) {
+                if (!includedAttributes.contains(attribute)) {
+                    continue;
+                }
+                includedInOrder[includedCount++] = attribute;
+                mask |= bitOf(attribute);
+                if ((STRING_ATTRIBUTES & bitOf(attribute)) != 0) {
+                    stringSlots[attribute.ordinal()] = (byte) slotsCount++;
+                }
+            }
+            this.included = Arrays.copyOf(includedInOrder, includedCount);
+            this.includedMask = mask;
+            this.stringsCount = slotsCount;
+        }
+
+        boolean includes(Attribute attribute) {
+            return (includedMask & bitOf(attribute)) != 0;
+        }
+
+        /**
+         * @return The attributes to collect in the layout order. The returned array must not be
+         * modified.
+         */
+        Attribute[] getIncludedAttributes() {
+            return included;
+        }
+    }
+
+    private static final class KeySet extends AbstractSet<Attribute> {
+        private final Attribute[] order;
+        private final long mask;
+
+        KeySet(Attribute[] order, long mask) {
+            this.order = order;
+            this.mask = mask;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Attribute && (mask & bitOf((Attribute) o)) != 0;
+        }
+
+        @Override
+        public int size() {
+            return Long.bitCount(mask);
+        }
+
+        @Override
+        public Iterator<Attribute> iterator() {
+            return new Iterator<Attribute>() {
+                private int position = advance(0);
+
+                private int advance(int from) {
+                    int result = from;
+                    while (result < order.length && (mask & bitOf(order[result])) == 0) {
+                        ++result;
+                    }
+                    return result;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return position < order.length;
+                }
+
+                @Override
+                public Attribute next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Attribute result = order[position];
+                    position = advance(position + 1);
+                    return result;
+                }
+            };
+        }
+    }
+}
@@ -59,12 +59,9 @@ public abstract class UiElement<R, E extends UiElement<R, E>> {
         return (T) getAttributes().get(attribute);
     }
 
-    @SuppressWarnings("unchecked")
     private <T> T get(Attribute attribute, T defaultValue) {
-        if (!getAttributes().containsKey(attribute)) {
-            return defaultValue;
-        }
-        return (T) getAttributes().get(attribute);
+        T value = get(attribute);
+        return value == null ? defaultValue : value;
     }
 
     @NonNull
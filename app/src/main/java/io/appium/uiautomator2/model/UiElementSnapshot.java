@@ -20,6 +20,7 @@ import static android.view.accessibility.AccessibilityNodeInfo.EXTRA_DATA_RENDER
 import static io.appium.uiautomator2.utils.ReflectionUtils.setField;
 import static io.appium.uiautomator2.utils.StringHelpers.charSequenceToNullableString;
 
+import android.graphics.Rect;
 import android.os.Build;
 import android.os.Bundle;
 import android.text.Spanned;
@@ -35,16 +36,15 @@ import androidx.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.regex.Pattern;
-import java.util.stream.IntStream;
-import java.util.stream.Collectors;
 
+import io.appium.uiautomator2.core.AxNodeBoundsCalculator;
 import io.appium.uiautomator2.core.AxNodeInfoHelper;
 import io.appium.uiautomator2.model.internal.TextData;
 import io.appium.uiautomator2.model.settings.AllowInvisibleElements;
@@ -52,7 +52,8 @@ import io.appium.uiautomator2.model.settings.AlwaysTraversableViewClasses;
 import io.appium.uiautomator2.model.settings.IncludeA11yActionsInPageSource;
 import io.appium.uiautomator2.model.settings.IncludeExtraRenderingInfo;
 import io.appium.uiautomator2.model.settings.IncludeExtrasInPageSource;
-import io.appium.uiautomator2.model.settings.Settings;
+import io.appium.uiautomator2.model.settings.SettingsSnapshot;
+import io.appium.uiautomator2.model.settings.SimpleBoundsCalculation;
 import io.appium.uiautomator2.model.settings.SnapshotMaxDepth;
 import io.appium.uiautomator2.utils.Attribute;
 import io.appium.uiautomator2.utils.Logger;
@@ -88,170 +89,279 @@ public class UiElementSnapshot extends UiElement<AccessibilityNodeInfo, UiElemen
             Attribute.INDEX
     };
 
-    private final Set<Attribute> includedAttributes = new HashSet<>();
-    private final Map<Attribute, Object> attributes;
+    private final TraversalContext context;
+    private final SnapshotAttributes attributes;
     private final List<UiElementSnapshot> children;
     private final int depth;
     private final int maxDepth;
     private final int index;
 
     private UiElementSnapshot(AccessibilityNodeInfo node, int index, int depth, int maxDepth,
-                              Set<Attribute> includedAttributes) {
+                              TraversalContext context) {
         super(Objects.requireNonNull(node));
+        this.context = context;
         this.depth = depth;
         this.maxDepth = maxDepth;
         this.index = index;
-        // Class name attribute should always be there
-        this.includedAttributes.add(Attribute.CLASS);
-        this.includedAttributes.addAll(includedAttributes);
-        this.attributes = collectAttributes();
+        this.attributes = collectAttributes(node, context.layout);
         this.children = buildChildren(node);
     }
 
     private UiElementSnapshot(AccessibilityNodeInfo node, int index, int depth,
-                              Set<Attribute> includedAttributes) {
-        this(node, index, depth, Settings.get(SnapshotMaxDepth.class).getValue(), includedAttributes);
+                              TraversalContext context) {
+        this(node, index, depth, context.maxDepth, context);
     }
 
-    private UiElementSnapshot(AccessibilityNodeInfo[] childNodes,
-                              Set<Attribute> includedAttributes) {
+    private UiElementSnapshot(AccessibilityNodeInfo[] childNodes, TraversalContext context) {
         super(null);
+        this.context = context;
         this.depth = 0;
         this.index = 0;
-        this.maxDepth = Settings.get(SnapshotMaxDepth.class).getValue();
-        Map<Attribute, Object> attribs = new LinkedHashMap<>();
-        putAttribute(attribs, Attribute.INDEX, this.index);
-        putAttribute(attribs, Attribute.CLASS, ROOT_NODE_NAME);
-        this.attributes = Collections.unmodifiableMap(attribs);
-        this.children = IntStream.range(0, childNodes.length)
-                .mapToObj(childNodeIdx -> new UiElementSnapshot(childNodes[childNodeIdx], childNodeIdx,
-                        this.depth + 1, includedAttributes))
-                .collect(Collectors.toList());
+        this.maxDepth = context.maxDepth;
+        this.attributes = new SnapshotAttributes(context.layout);
+        this.attributes.putInt(Attribute.INDEX, this.index);
+        this.attributes.putString(Attribute.CLASS, ROOT_NODE_NAME);
+        this.children = new ArrayList<>(childNodes.length);
+        for (int childNodeIdx = 0; childNodeIdx < childNodes.length; ++childNodeIdx) {
+            this.children.add(new UiElementSnapshot(childNodes[childNodeIdx], childNodeIdx,
+                    this.depth + 1, context));
+        }
     }
 
-    private static void putAttribute(Map<Attribute, Object> attribs, Attribute key, Object value) {
-        if (value != null) {
-            attribs.put(key, value);
+    /**
+     * Keeps the values, which only depend on settings and the requested attributes. These are
+     * resolved once per snapshot and shared by all its elements.
+     */
+    private static final class TraversalContext {
+        final SettingsSnapshot settings;
+        final SnapshotAttributes.Layout layout;
+        final int maxDepth;
+        final boolean areInvisibleElementsAllowed;
+        final Pattern[] alwaysTraversableClassPatterns;
+        // Shares display, window and scrollable ancestor lookups between all snapshot elements
+        final AxNodeBoundsCalculator boundsCalculator;
+
+        TraversalContext(SettingsSnapshot settings, Set<Attribute> includedAttributes) {
+            this.settings = settings;
+            this.layout = toLayout(settings, includedAttributes);
+            this.maxDepth = settings.getValue(SnapshotMaxDepth.class);
+            this.areInvisibleElementsAllowed = settings.getValue(AllowInvisibleElements.class);
+            this.alwaysTraversableClassPatterns = Arrays.stream(AlwaysTraversableViewClasses.toRegexes(
+                            settings.getValue(AlwaysTraversableViewClasses.class)))
+                    .map(Pattern::compile)
+                    .toArray(Pattern[]::new);
+            this.boundsCalculator = new AxNodeBoundsCalculator(
+                    !settings.getValue(SimpleBoundsCalculation.class), maxDepth);
+        }
+
+        private static SnapshotAttributes.Layout toLayout(SettingsSnapshot settings,
+                                                          Set<Attribute> includedAttributes) {
+            Set<Attribute> collectedAttributes = EnumSet.noneOf(Attribute.class);
+            collectedAttributes.addAll(includedAttributes);
+            // Class name attribute should always be there
+            collectedAttributes.add(Attribute.CLASS);
+            if (!settings.getValue(IncludeExtrasInPageSource.class)) {
+                collectedAttributes.remove(Attribute.EXTRAS);
+            }
+            if (!settings.getValue(IncludeA11yActionsInPageSource.class)) {
+                collectedAttributes.remove(Attribute.ACTIONS);
+            }
+            if (!settings.getValue(IncludeExtraRenderingInfo.class)) {
+                collectedAttributes.remove(Attribute.TEXT_SIZE);
+                collectedAttributes.remove(Attribute.TEXT_UNIT);
+            }
+            return new SnapshotAttributes.Layout(SUPPORTED_ATTRIBUTES, collectedAttributes);
         }
     }
 
-    private @Nullable Object getNodeAttributeValue(Attribute attr) {
-        AccessibilityNodeInfo node = Objects.requireNonNull(getNode());
+    private void collectNodeAttribute(SnapshotAttributes result, AccessibilityNodeInfo node,
+                                      Attribute attr, @Nullable TextData textData) {
         switch (attr) {
             case CHECKABLE:
-                return node.isCheckable();
+                result.putBoolean(attr, node.isCheckable());
+                break;
             case CHECKED:
-                return node.isChecked();
+                result.putBoolean(attr, node.isChecked());
+                break;
             case CLASS:
-                return charSequenceToNullableString(node.getClassName());
+                result.putString(attr, charSequenceToNullableString(node.getClassName()));
+                break;
             case CLICKABLE:
-                return node.isClickable();
+                result.putBoolean(attr, node.isClickable());
+                break;
             case CONTENT_DESC:
-                return charSequenceToNullableString(node.getContentDescription());
+                result.putString(attr, charSequenceToNullableString(node.getContentDescription()));
+                break;
             case ENABLED:
-                return node.isEnabled();
+                result.putBoolean(attr, node.isEnabled());
+                break;
             case FOCUSABLE:
-                return node.isFocusable();
+                result.putBoolean(attr, node.isFocusable());
+                break;
             case FOCUSED:
-                return node.isFocused();
+                result.putBoolean(attr, node.isFocused());
+                break;
             case LONG_CLICKABLE:
-                return node.isLongClickable();
+                result.putBoolean(attr, node.isLongClickable());
+                break;
             case PACKAGE:
-                return charSequenceToNullableString(node.getPackageName());
+                result.putString(attr, charSequenceToNullableString(node.getPackageName()));
+                break;
             case PASSWORD:
-                return node.isPassword();
+                result.putBoolean(attr, node.isPassword());
+                break;
             case RESOURCE_ID:
-                return AxNodeInfoHelper.getResourceId(node);
+                result.putString(attr, AxNodeInfoHelper.getResourceId(node));
+                break;
             case SCROLLABLE:
-                return node.isScrollable();
+                result.putBoolean(attr, node.isScrollable());
+                break;
             case SELECTION_START: {
                 Pair<Integer, Integer> selectionRange = AxNodeInfoHelper.getSelectionRange(node);
-                return selectionRange == null ? null : selectionRange.first;
+                if (selectionRange != null) {
+                    result.putInt(attr, selectionRange.first);
+                }
+                break;
             }
             case SELECTION_END: {
                 Pair<Integer, Integer> selectionRange = AxNodeInfoHelper.getSelectionRange(node);
-                return selectionRange == null ? null : selectionRange.second;
+                if (selectionRange != null) {
+                    result.putInt(attr, selectionRange.second);
+                }
+                break;
             }
             case SELECTED:
-                return node.isSelected();
+                result.putBoolean(attr, node.isSelected());
+                break;
             case TEXT:
-                return AxNodeInfoHelper.getText(node, true);
+                result.putString(attr, AxNodeInfoHelper.getText(node, true));
+                break;
             case HINT:
-                return node.getHintText();
+                result.putString(attr, charSequenceToNullableString(node.getHintText()));
+                break;
             case IMPORTANT_FOR_ACCESSIBILITY:
-                return node.isImportantForAccessibility();
+                result.putBoolean(attr, node.isImportantForAccessibility());
+                break;
             case SCREEN_READER_FOCUSABLE:
-                return Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
-                        ? node.isScreenReaderFocusable()
-                        : null;
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                    result.putBoolean(attr, node.isScreenReaderFocusable());
+                }
+                break;
             case INPUT_TYPE:
-                return node.getInputType() != 0 ? node.getInputType() : null;
+                if (node.getInputType() != 0) {
+                    result.putInt(attr, node.getInputType());
+                }
+                break;
             case DRAWING_ORDER:
-                return node.getDrawingOrder();
+                result.putInt(attr, node.getDrawingOrder());
+                break;
             case SHOWING_HINT_TEXT:
-                return node.isShowingHintText();
+                result.putBoolean(attr, node.isShowingHintText());
+                break;
             case ACTIONS:
-                return BaseElement.getA11yActionsAsString(node);
+                result.putString(attr, BaseElement.getA11yActionsAsString(node));
+                break;
             case TEXT_ENTRY_KEY:
-                return Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q ? node.isTextEntryKey() : null;
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                    result.putBoolean(attr, node.isTextEntryKey());
+                }
+                break;
             case MULTI_LINE:
-                return node.getMaxTextLength() != -1 ? node.isMultiLine() : null;
+                if (node.getMaxTextLength() != -1) {
+                    result.putBoolean(attr, node.isMultiLine());
+                }
+                break;
             case DISMISSABLE:
-                return node.isDismissable();
+                result.putBoolean(attr, node.isDismissable());
+                break;
             case ACCESSIBILITY_FOCUSED:
-                return node.isAccessibilityFocused();
+                result.putBoolean(attr, node.isAccessibilityFocused());
+                break;
             case HEADING:
-                return Build.VERSION.SDK_INT >= Build.VERSION_CODES.P ? node.isHeading() : null;
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                    result.putBoolean(attr, node.isHeading());
+                }
+                break;
             case LIVE_REGION:
-                return node.getLiveRegion();
+                result.putInt(attr, node.getLiveRegion());
+                break;
             case CONTEXT_CLICKABLE:
-                return node.isContextClickable();
+                result.putBoolean(attr, node.isContextClickable());
+                break;
             case MAX_TEXT_LENGTH:
-                return node.getMaxTextLength() != -1 ? node.getMaxTextLength() : null;
+                if (node.getMaxTextLength() != -1) {
+                    result.putInt(attr, node.getMaxTextLength());
+                }
+                break;
             case CONTENT_INVALID:
-                return node.isContentInvalid();
+                result.putBoolean(attr, node.isContentInvalid());
+                break;
             case ERROR_TEXT:
-                return charSequenceToNullableString(node.getError());
+                result.putString(attr, charSequenceToNullableString(node.getError()));
+                break;
             case PANE_TITLE:
-                return Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
-                        ? charSequenceToNullableString(node.getPaneTitle())
-                        : null;
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                    result.putString(attr, charSequenceToNullableString(node.getPaneTitle()));
+                }
+                break;
             case TOOLTIP_TEXT:
-                return Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
-                        ? charSequenceToNullableString(node.getTooltipText())
-                        : null;
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                    result.putString(attr, charSequenceToNullableString(node.getTooltipText()));
+                }
+                break;
             case TEXT_HAS_CLICKABLE_SPAN:
-                return isTextView(node) && textHasClickableSpan(node) ? true : null;
+                if (isTextView(node) && textHasClickableSpan(node)) {
+                    result.putBoolean(attr, true);
+                }
+                break;
             case EXTRAS:
-                return BaseElement.getExtrasAsString(node);
+                result.putString(attr, BaseElement.getExtrasAsString(node));
+                break;
             case ORIGINAL_TEXT:
-                return AxNodeInfoHelper.getText(node, false);
-            case BOUNDS:
-                return AxNodeInfoHelper.getBounds(node).toShortString();
+                result.putString(attr, AxNodeInfoHelper.getText(node, false));
+                break;
+            case BOUNDS: {
+                Rect bounds = context.boundsCalculator.getBounds(node);
+                result.putBounds(bounds.left, bounds.top, bounds.right, bounds.bottom);
+                break;
+            }
             case INDEX:
-                return index;
+                result.putInt(attr, index);
+                break;
             case DISPLAYED:
-                return node.isVisibleToUser();
+                result.putBoolean(attr, node.isVisibleToUser());
+                break;
             case WINDOW_ID: {
                 int windowId = node.getWindowId();
-                return windowId != AxNodeInfoHelper.UNDEFINED_WINDOW_ID ? windowId : null;
-            }
-            case TEXT_SIZE: {
-                TextData textData = extractTextData(node);
-                return textData != null ? textData.textSize : null;
-            }
-            case TEXT_UNIT: {
-                TextData textData = extractTextData(node);
-                return textData != null ? textData.textUnit : null;
+                if (windowId != AxNodeInfoHelper.UNDEFINED_WINDOW_ID) {
+                    result.putInt(attr, windowId);
+                }
+                break;
             }
+            case TEXT_SIZE:
+                if (textData != null) {
+                    result.putTextSize(textData.textSize);
+                }
+                break;
+            case TEXT_UNIT:
+                if (textData != null) {
+                    result.putString(attr, textData.textUnit);
+                }
+                break;
             case IS_COLLECTION:
                 // Only include this attribute in the page source if it is true, to reduce its size
-                return AxNodeInfoHelper.isCollection(node) ? true : null;
+                if (AxNodeInfoHelper.isCollection(node)) {
+                    result.putBoolean(attr, true);
+                }
+                break;
             case IS_COLLECTION_ITEM:
                 // Only include this attribute in the page source if it is true, to reduce its size
-                return AxNodeInfoHelper.isCollectionItem(node) ? true : null;
+                if (AxNodeInfoHelper.isCollectionItem(node)) {
+                    result.putBoolean(attr, true);
+                }
+                break;
             default:
-                return null;
+                break;
         }
     }
 
@@ -284,52 +394,49 @@ public class UiElementSnapshot extends UiElement<AccessibilityNodeInfo, UiElemen
         return TextData.parseTextData(textSizeInPx, textSizeUnit);
     }
 
-    private Map<Attribute, Object> collectAttributes() {
-        Map<Attribute, Object> result = new LinkedHashMap<>();
-        for (Attribute attr : SUPPORTED_ATTRIBUTES) {
-            if (attr.equals(Attribute.EXTRAS) &&
-                    !Settings.get(IncludeExtrasInPageSource.class).getValue()) {
-                continue;
-            }
-            if (attr.equals(Attribute.ACTIONS) &&
-                    !Settings.get(IncludeA11yActionsInPageSource.class).getValue()) {
-                continue;
-            }
-            if ((attr.equals(Attribute.TEXT_SIZE) || attr.equals(Attribute.TEXT_UNIT)) &&
-                    !Settings.get(IncludeExtraRenderingInfo.class).getValue()) {
-                continue;
-            }
-            if (includedAttributes.isEmpty() || includedAttributes.contains(attr)) {
-                putAttribute(result, attr, getNodeAttributeValue(attr));
-            }
+    private SnapshotAttributes collectAttributes(AccessibilityNodeInfo node,
+                                                 SnapshotAttributes.Layout layout) {
+        SnapshotAttributes result = new SnapshotAttributes(layout);
+        TextData textData = layout.includes(Attribute.TEXT_SIZE) || layout.includes(Attribute.TEXT_UNIT)
+                ? extractTextData(node)
+                : null;
+        for (Attribute attr : layout.getIncludedAttributes()) {
+            collectNodeAttribute(result, node, attr, textData);
         }
-        return Collections.unmodifiableMap(result);
+        return result;
     }
 
     public static UiElementSnapshot take(AccessibilityNodeInfo[] roots, List<CharSequence> toastMSGs,
                                          Set<Attribute> includedAttributes) {
-        UiElementSnapshot uiRoot = new UiElementSnapshot(roots, includedAttributes);
-        for (CharSequence toastMSG : toastMSGs) {
-            Logger.info(String.format("Adding toast message to root: %s", toastMSG));
-            uiRoot.addToastMsg(toastMSG);
+        SettingsSnapshot settings = SettingsSnapshot.current();
+        // Binding the settings makes node helpers, like the bounds calculation, use the same values
+        // for the whole traversal, even if the snapshot is not taken while handling a request
+        try (SettingsSnapshot.Scope ignored = settings.bind()) {
+            UiElementSnapshot uiRoot = new UiElementSnapshot(roots,
+                    new TraversalContext(settings, includedAttributes));
+            for (CharSequence toastMSG : toastMSGs) {
+                Logger.info(String.format("Adding toast message to root: %s", toastMSG));
+                uiRoot.addToastMsg(toastMSG);
+            }
+            return uiRoot;
         }
-        return uiRoot;
     }
 
     public static UiElementSnapshot take(AccessibilityNodeInfo rootElement, Set<Attribute> includedAttributes) {
-        return new UiElementSnapshot(rootElement, AxNodeInfoHelper.calculateIndex(rootElement), 0,
-                includedAttributes);
+        SettingsSnapshot settings = SettingsSnapshot.current();
+        try (SettingsSnapshot.Scope ignored = settings.bind()) {
+            return new UiElementSnapshot(rootElement, AxNodeInfoHelper.calculateIndex(rootElement), 0,
+                    new TraversalContext(settings, includedAttributes));
+        }
     }
 
     public static UiElementSnapshot take(AccessibilityNodeInfo rootElement, int maxDepth,
                                          Set<Attribute> includedAttributes) {
-        return new UiElementSnapshot(rootElement, AxNodeInfoHelper.calculateIndex(rootElement), 0,
-                maxDepth, includedAttributes);
-    }
-
-    private static UiElementSnapshot take(AccessibilityNodeInfo rootElement, int index, int depth,
-                                          Set<Attribute> includedAttributes) {
-        return new UiElementSnapshot(rootElement, index, depth, includedAttributes);
+        SettingsSnapshot settings = SettingsSnapshot.current();
+        try (SettingsSnapshot.Scope ignored = settings.bind()) {
+            return new UiElementSnapshot(rootElement, AxNodeInfoHelper.calculateIndex(rootElement), 0,
+                    maxDepth, new TraversalContext(settings, includedAttributes));
+        }
     }
 
     private void addToastMsg(CharSequence tokenMSG) {
@@ -340,7 +447,7 @@ public class UiElementSnapshot extends UiElement<AccessibilityNodeInfo, UiElemen
         node.setVisibleToUser(true);
         setField("mSealed", true, node);
         this.children.add(new UiElementSnapshot(node, this.children.size(), 0,
-                new HashSet<>(Arrays.asList(TOAST_NODE_ATTRIBUTES))));
+                new TraversalContext(context.settings, EnumSet.copyOf(Arrays.asList(TOAST_NODE_ATTRIBUTES)))));
     }
 
     /**
@@ -356,8 +463,12 @@ public class UiElementSnapshot extends UiElement<AccessibilityNodeInfo, UiElemen
             return false;
         }
 
-        return Arrays.stream(Settings.get(AlwaysTraversableViewClasses.class).asArray())
-                .anyMatch(pattern -> Pattern.matches(pattern, className));
+        for (Pattern pattern : context.alwaysTraversableClassPatterns) {
+            if (pattern.matcher(className).matches()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private List<UiElementSnapshot> buildChildren(AccessibilityNodeInfo node) {
@@ -371,7 +482,7 @@ public class UiElementSnapshot extends UiElement<AccessibilityNodeInfo, UiElemen
         }
 
         List<UiElementSnapshot> children = new ArrayList<>(childCount);
-        boolean areInvisibleElementsAllowed = Settings.get(AllowInvisibleElements.class).getValue();
+        boolean areInvisibleElementsAllowed = context.areInvisibleElementsAllowed;
 
         List<Integer> nullNodeIndexes = new ArrayList<>();
         for (int index = 0; index < childCount; ++index) {
@@ -386,7 +497,7 @@ public class UiElementSnapshot extends UiElement<AccessibilityNodeInfo, UiElemen
                 areInvisibleElementsAllowed
                 || child.isVisibleToUser()
                 || shouldTraverseIfRequested(node)) {
-                children.add(take(child, index, depth + 1, includedAttributes));
+                children.add(new UiElementSnapshot(child, index, depth + 1, context));
             } else {
                 // This child is dropped from the snapshot, so it would never be reachable for
                 // recycling via the tree. Recycle it here to avoid leaking it on API < 33.
@@ -401,14 +512,68 @@ public class UiElementSnapshot extends UiElement<AccessibilityNodeInfo, UiElemen
         return children;
     }
 
+    /**
+     * Refreshes the node of the given child element and rebuilds its subtree in place,
+     * so the rest of the snapshot hierarchy could be preserved.
+     *
+     * @param child The direct child element of this element
+     * @return The replaced child element, which nodes are not used by the snapshot anymore
+     * (except of its own node), or null if the child node could not be refreshed, for example
+     * if it does not exist on the screen anymore.
+     */
+    @Nullable
+    public UiElementSnapshot rebuildChild(UiElementSnapshot child) {
+        AccessibilityNodeInfo node = child.getNode();
+        if (node == null) {
+            return null;
+        }
+        for (int position = 0; position < children.size(); ++position) {
+            if (children.get(position) != child) {
+                continue;
+            }
+            if (!node.refresh()) {
+                return null;
+            }
+            try (SettingsSnapshot.Scope ignored = child.context.settings.bind()) {
+                children.set(position, new UiElementSnapshot(node, child.index, child.depth,
+                        child.maxDepth, child.context));
+            }
+            return child;
+        }
+        return null;
+    }
+
+    /**
+     * @return The list of child elements. It is owned by the snapshot and must not be modified.
+     */
     @Override
     public List<UiElementSnapshot> getChildren() {
-        return Collections.unmodifiableList(children);
+        return children;
+    }
+
+    @Override
+    public Set<Attribute> attributeKeys() {
+        return attributes.keySet();
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Attribute attribute) {
+        return (T) attributes.get(attribute);
     }
 
+    /**
+     * Materializes all the present attribute values into a map. Prefer {@link #attributeKeys()}
+     * and {@link #get(Attribute)}, which do not box or format values in advance.
+     */
     @Override
     protected Map<Attribute, Object> getAttributes() {
-        return attributes;
+        Map<Attribute, Object> result = new LinkedHashMap<>();
+        for (Attribute attr : attributes.keySet()) {
+            result.put(attr, attributes.get(attr));
+        }
+        return Collections.unmodifiableMap(result);
     }
 
     private static boolean isTextView(AccessibilityNodeInfo node) {
@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.api;
+
+public class CacheStatsModel extends BaseModel {
+    public int size;
+    public int capacity;
+    public String evictionPolicy;
+    public long hits;
+    public long misses;
+    public long evictions;
+
+    public CacheStatsModel() {}
+
+    public CacheStatsModel(
+            int size,
+            int capacity,
+            String evictionPolicy,
+            long hits,
+            long misses,
+            long evictions
+    ) {
+        this.size = size;
+        this.capacity = capacity;
+        this.evictionPolicy = evictionPolicy;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.api;
+
+public class ElementsCacheStatsModel extends BaseModel {
+    public int size;
+    public int capacity;
+    public long maxAgeMs;
+    public long hits;
+    public long misses;
+    public long evictions;
+    public long expirations;
+    public long staleElements;
+    public long restorations;
+    public long failedRestorations;
+    public long coalescedRestorations;
+
+    public ElementsCacheStatsModel() {}
+
+    public ElementsCacheStatsModel(
+            int size,
+            int capacity,
+            long maxAgeMs,
+            long hits,
+            long misses,
+            long evictions,
+            long expirations,
+            long staleElements,
+            long restorations,
+            long failedRestorations,
+            long coalescedRestorations
+    ) {
+        this.size = size;
+        this.capacity = capacity;
+        this.maxAgeMs = maxAgeMs;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.staleElements = staleElements;
+        this.restorations = restorations;
+        this.failedRestorations = failedRestorations;
+        this.coalescedRestorations = coalescedRestorations;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.api;
+
+import java.util.Map;
+
+public class GestureStatsModel extends BaseModel {
+    public long controllers;
+    public Map<String, TimingStatsModel> setup;
+    public Map<String, TimingStatsModel> injection;
+
+    public GestureStatsModel() {}
+
+    public GestureStatsModel(
+            long controllers,
+            Map<String, TimingStatsModel> setup,
+            Map<String, TimingStatsModel> injection
+    ) {
+        this.controllers = controllers;
+        this.setup = setup;
+        this.injection = injection;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.api;
+
+public class MjpegStatsModel extends BaseModel {
+    public long encodedFrames;
+    public long skippedFrames;
+    public boolean idle;
+    public int framerate;
+    public long droppedCaptures;
+    public TimingStatsModel capture;
+    public TimingStatsModel scale;
+    public TimingStatsModel compress;
+    public TimingStatsModel send;
+
+    public MjpegStatsModel() {}
+
+    public MjpegStatsModel(
+            long encodedFrames,
+            long skippedFrames,
+            boolean idle,
+            int framerate,
+            long droppedCaptures,
+            TimingStatsModel capture,
+            TimingStatsModel scale,
+            TimingStatsModel compress,
+            TimingStatsModel send
+    ) {
+        this.encodedFrames = encodedFrames;
+        this.skippedFrames = skippedFrames;
+        this.idle = idle;
+        this.framerate = framerate;
+        this.droppedCaptures = droppedCaptures;
+        this.capture = capture;
+        this.scale = scale;
+        this.compress = compress;
+        this.send = send;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.api;
+
+import java.util.Map;
+
+public class RequestsStatsModel extends BaseModel {
+    public int queueDepth;
+    public int activeHandlers;
+    public long completed;
+    public long rejected;
+    public Map<String, RouteStatsModel> routes;
+
+    public RequestsStatsModel() {}
+
+    public RequestsStatsModel(
+            int queueDepth,
+            int activeHandlers,
+            long completed,
+            long rejected,
+            Map<String, RouteStatsModel> routes
+    ) {
+        this.queueDepth = queueDepth;
+        this.activeHandlers = activeHandlers;
+        this.completed = completed;
+        this.rejected = rejected;
+        this.routes = routes;
+    }
+}
@@ -20,16 +20,34 @@ public class StatusModel extends BaseModel {
     public Boolean ready;
     public String message;
     public BuildConfigModel build;
+    public CacheStatsModel xpathCache;
+    public SnapshotCacheStatsModel snapshotCache;
+    public ElementsCacheStatsModel elementsCache;
+    public RequestsStatsModel requests;
+    public MjpegStatsModel mjpeg;
+    public GestureStatsModel gestures;
 
     public StatusModel() {}
 
     public StatusModel(
             Boolean ready,
             String message,
-            BuildConfigModel build
+            BuildConfigModel build,
+            CacheStatsModel xpathCache,
+            SnapshotCacheStatsModel snapshotCache,
+            ElementsCacheStatsModel elementsCache,
+            RequestsStatsModel requests,
+            MjpegStatsModel mjpeg,
+            GestureStatsModel gestures
     ) {
         this.ready = ready;
         this.message = message;
         this.build = build;
+        this.xpathCache = xpathCache;
+        this.snapshotCache = snapshotCache;
+        this.elementsCache = elementsCache;
+        this.requests = requests;
+        this.mjpeg = mjpeg;
+        this.gestures = gestures;
     }
 }
@@ -37,6 +37,8 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -46,6 +48,8 @@ import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
 import io.appium.uiautomator2.model.AccessibleUiObject;
 import io.appium.uiautomator2.model.AndroidElement;
 import io.appium.uiautomator2.model.ScreenRotation;
+import io.appium.uiautomator2.model.settings.CurrentDisplayId;
+import io.appium.uiautomator2.model.settings.Settings;
 import io.appium.uiautomator2.utils.Device;
 import io.appium.uiautomator2.utils.Logger;
 import io.appium.uiautomator2.utils.NodeInfoList;
@@ -68,10 +72,13 @@ public class CustomUiDevice {
     private static CustomUiDevice INSTANCE = null;
     private final Method METHOD_FIND_MATCH;
     private final Method METHOD_FIND_MATCHES;
+    private final Method METHOD_GET_DISPLAY_BY_ID;
+    private final Method METHOD_GET_DISPLAY_SIZE;
     private final Class<?> ByMatcherClass;
     private final Constructor<?> uiObject2Constructor;
     private final Instrumentation mInstrumentation;
     private final Object nativeGestureController;
+    private final Map<Integer, GestureController> gestureControllers = new ConcurrentHashMap<>();
 
     private CustomUiDevice() {
         this.mInstrumentation = (Instrumentation) getField(UiDevice.class, FIELD_M_INSTRUMENTATION, Device.getUiDevice());
@@ -84,6 +91,8 @@ public class CustomUiDevice {
                 ByMatcherClass, "findMatches",
                 UiDevice.class, BySelector.class, AccessibilityNodeInfo[].class
         );
+        this.METHOD_GET_DISPLAY_BY_ID = getMethod(UiDevice.class, "getDisplayById", int.class);
+        this.METHOD_GET_DISPLAY_SIZE = getMethod(UiDevice.class, "getDisplaySize", int.class);
         this.uiObject2Constructor = getConstructor(
                 UiObject2.class,
                 UiDevice.class, BySelector.class, AccessibilityNodeInfo.class
@@ -171,12 +180,17 @@ public class CustomUiDevice {
         }
     }
 
+    /**
+     * @param displayId The display to perform gestures on
+     * @return The controller, which is created once per display and then reused
+     */
     public GestureController getGestureController(int displayId) {
-        return new GestureController(nativeGestureController, displayId);
+        return gestureControllers.computeIfAbsent(displayId,
+                id -> new GestureController(nativeGestureController, id));
     }
 
     public GestureController getGestureController() {
-        return new GestureController(nativeGestureController);
+        return getGestureController(Settings.getValue(CurrentDisplayId.class));
     }
 
     public GestureController getGestureController(AndroidElement element) {
@@ -229,22 +243,16 @@ public class CustomUiDevice {
 
     @Nullable
     public Display getDisplayById(int displayId) {
-        Method getDisplayByIdMethod = ReflectionUtils.getMethod(
-                UiDevice.class, "getDisplayById", int.class
-        );
         try {
-            return (Display) getDisplayByIdMethod.invoke(getUiDevice(), displayId);
+            return (Display) METHOD_GET_DISPLAY_BY_ID.invoke(getUiDevice(), displayId);
         } catch (IllegalAccessException | InvocationTargetException e) {
             throw new UiAutomator2Exception(e);
         }
     }
 
     public Point getDisplaySize(int displayId) {
-        Method getDisplaySizeMethod = ReflectionUtils.getMethod(
-                UiDevice.class, "getDisplaySize", int.class
-        );
         try {
-            return (Point) getDisplaySizeMethod.invoke(getUiDevice(), displayId);
+            return (Point) METHOD_GET_DISPLAY_SIZE.invoke(getUiDevice(), displayId);
         } catch (IllegalAccessException | InvocationTargetException e) {
             throw new UiAutomator2Exception(e);
         }
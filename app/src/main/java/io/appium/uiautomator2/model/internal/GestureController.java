@@ -33,41 +33,46 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 
+import static io.appium.uiautomator2.utils.ReflectionUtils.getMethodByName;
 import static io.appium.uiautomator2.utils.ReflectionUtils.invoke;
 
-import io.appium.uiautomator2.model.settings.CurrentDisplayId;
-import io.appium.uiautomator2.model.settings.Settings;
-
+/**
+ * Performs gestures on a single display. Instances are created once per display
+ * by {@link CustomUiDevice} and are safe to be shared.
+ */
 public class GestureController {
     private final Object wrappedInstance;
     private final Method performGestureMethod;
+    private final Class<?> pointerGestureClass;
     private final Gestures gestures;
+    private final GestureStats stats = GestureStats.getInstance();
 
     GestureController(Object wrappedInstance, int displayId) {
         this.wrappedInstance = wrappedInstance;
-        this.performGestureMethod = extractPerformGestureMethod(wrappedInstance);
+        this.performGestureMethod = getMethodByName(wrappedInstance.getClass(), "performGesture");
+        this.pointerGestureClass = PointerGesture.getWrappedClass();
         this.gestures = new Gestures(displayId);
+        stats.onControllerCreated();
     }
 
-    GestureController(Object wrappedInstance) {
-        this(wrappedInstance, Settings.get(CurrentDisplayId.class).getValue());
-    }
-
-    private static Method extractPerformGestureMethod(Object wrappedInstance) {
-        return Arrays.stream(wrappedInstance.getClass().getDeclaredMethods())
-                .filter(method -> method.getName().equals("performGesture"))
-                .peek(method -> method.setAccessible(true))
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException(String.format("Cannot retrieve performGesture method from %s",
-                        wrappedInstance.getClass().getCanonicalName())));
+    public int getDisplayId() {
+        return gestures.getDisplayId();
     }
 
-    private void performGesture(PointerGesture... gestures) {
-        Object args = Array.newInstance(PointerGesture.getWrappedClass(), gestures.length);
+    /**
+     * @param name         The gesture name used in stats
+     * @param setupStartNs The moment the gesture setup has been started at
+     * @param gestures     Pointer gestures to perform simultaneously
+     */
+    private void performGesture(String name, long setupStartNs, PointerGesture... gestures) {
+        Object args = Array.newInstance(pointerGestureClass, gestures.length);
         for (int i = 0; i < gestures.length; ++i) {
             Array.set(args, i, gestures[i].getWrappedInstance());
         }
+        long injectionStartNs = System.nanoTime();
+        stats.onSetUp(name, injectionStartNs - setupStartNs);
         invoke(performGestureMethod, wrappedInstance, args);
+        stats.onInjected(name, System.nanoTime() - injectionStartNs);
     }
 
     private static UiDevice getDevice() {
@@ -75,15 +80,19 @@ public class GestureController {
     }
 
     private class GestureRunnable implements Runnable {
+        private final String mName;
+        private final long mSetupStartNs;
         private final PointerGesture[] mGestures;
 
-        public GestureRunnable(PointerGesture[] gestures) {
+        public GestureRunnable(String name, long setupStartNs, PointerGesture[] gestures) {
+            mName = name;
+            mSetupStartNs = setupStartNs;
             mGestures = gestures;
         }
 
         @Override
         public void run() {
-            performGesture(mGestures);
+            performGesture(mName, mSetupStartNs, mGestures);
         }
 
         @Override
@@ -92,26 +101,36 @@ public class GestureController {
         }
     }
 
-    private <R> R performGestureAndWait(EventCondition<R> condition, long timeout, PointerGesture... gestures) {
-        return getDevice().performActionAndWait(new GestureRunnable(gestures), condition, timeout);
+    private <R> R performGestureAndWait(String name, long setupStartNs, EventCondition<R> condition,
+                                        long timeout, PointerGesture... gestures) {
+        return getDevice().performActionAndWait(
+                new GestureRunnable(name, setupStartNs, gestures), condition, timeout);
     }
 
     public void click(Point point) {
-        performGesture(new PointerGesture(point, gestures.getDisplayId()).pause(0L));
+        long setupStartNs = System.nanoTime();
+        performGesture("click", setupStartNs,
+                new PointerGesture(point, gestures.getDisplayId()).pause(0L));
     }
 
     public void doubleClick(Point point) {
-        performGesture(new PointerGesture(point, gestures.getDisplayId()).pause(0L));
+        long setupStartNs = System.nanoTime();
+        performGesture("doubleClick", setupStartNs,
+                new PointerGesture(point, gestures.getDisplayId()).pause(0L));
         SystemClock.sleep(ViewConfiguration.getDoubleTapTimeout() / 2);
-        performGesture(new PointerGesture(point, gestures.getDisplayId()).pause(0L));
+        setupStartNs = System.nanoTime();
+        performGesture("doubleClick", setupStartNs,
+                new PointerGesture(point, gestures.getDisplayId()).pause(0L));
     }
 
     public void longClick(Point point, @Nullable Long durationMs) {
+        long setupStartNs = System.nanoTime();
         long duration = durationMs == null ? ViewConfiguration.getLongPressTimeout() : durationMs;
         if (duration < 0) {
             throw new IllegalArgumentException("Long click duration cannot be negative");
         }
-        performGesture(new PointerGesture(point, gestures.getDisplayId()).pause(duration));
+        performGesture("longClick", setupStartNs,
+                new PointerGesture(point, gestures.getDisplayId()).pause(duration));
     }
 
     private static int checkSpeed(int speed) {
@@ -129,23 +148,30 @@ public class GestureController {
     }
 
     public void drag(Point start, Point end, @Nullable Integer speed) {
+        long setupStartNs = System.nanoTime();
         int dragSpeed = speed == null ? Gestures.getDefaultDragSpeed() : checkSpeed(speed);
-        performGesture(gestures.drag(start, end, dragSpeed));
+        performGesture("drag", setupStartNs, gestures.drag(start, end, dragSpeed));
     }
 
     public void pinchClose(Rect area, float percent, @Nullable Integer speed) {
+        long setupStartNs = System.nanoTime();
         int pinchSpeed = speed == null ? Gestures.getDefaultPinchSpeed() : checkSpeed(speed);
-        performGesture(gestures.pinchClose(area, checkPercent(percent), pinchSpeed));
+        performGesture("pinchClose", setupStartNs,
+                gestures.pinchClose(area, checkPercent(percent), pinchSpeed));
     }
 
     public void pinchOpen(Rect area, float percent, @Nullable Integer speed) {
+        long setupStartNs = System.nanoTime();
         int pinchSpeed = speed == null ? Gestures.getDefaultPinchSpeed() : checkSpeed(speed);
-        performGesture(gestures.pinchOpen(area, checkPercent(percent), pinchSpeed));
+        performGesture("pinchOpen", setupStartNs,
+                gestures.pinchOpen(area, checkPercent(percent), pinchSpeed));
     }
 
     public void swipe(Rect area, Direction direction, float percent, @Nullable Integer speed) {
+        long setupStartNs = System.nanoTime();
         int swipeSpeed = speed == null ? Gestures.getDefaultSwipeSpeed() : checkSpeed(speed);
-        performGesture(gestures.swipe(area, direction, checkPercent(percent), swipeSpeed));
+        performGesture("swipe", setupStartNs,
+                gestures.swipe(area, direction, checkPercent(percent), swipeSpeed));
     }
 
     public boolean scroll(Rect area, Direction direction, float percent, @Nullable Integer speed) {
@@ -156,11 +182,12 @@ public class GestureController {
         Direction swipeDirection = Direction.reverse(direction);
         int scrollSpeed = speed == null ? Gestures.getDefaultScrollSpeed() : checkSpeed(speed);
         for (float swipePercent = percent; swipePercent > 0.0f; swipePercent -= 1.0f) {
+            long setupStartNs = System.nanoTime();
             float segment = Math.min(swipePercent, 1.0f);
             PointerGesture swipe = gestures.swipe(area, swipeDirection, segment, scrollSpeed).pause(250);
 
             // Perform the gesture and return early if we reached the end
-            Boolean scrollFinishedResult = performGestureAndWait(
+            Boolean scrollFinishedResult = performGestureAndWait("scroll", setupStartNs,
                     Until.scrollFinished(direction), Gestures.getScrollTimeout(), swipe
             );
             if (!Boolean.FALSE.equals(scrollFinishedResult)) {
@@ -172,6 +199,7 @@ public class GestureController {
     }
 
     public boolean fling(Rect area, Direction direction, @Nullable Integer speed) {
+        long setupStartNs = System.nanoTime();
         ViewConfiguration vc = ViewConfiguration.get(getInstrumentation().getTargetContext());
         int minVelocity = vc.getScaledMinimumFlingVelocity();
         int flingSpeed = speed == null ? Gestures.getDefaultFlingSpeed() : speed;
@@ -186,7 +214,7 @@ public class GestureController {
         PointerGesture swipe = gestures.swipe(area, swipeDirection, 1.0f, flingSpeed);
 
         // Perform the gesture and return true if we did not reach the end
-        Boolean scrollFinishedResult = performGestureAndWait(
+        Boolean scrollFinishedResult = performGestureAndWait("fling", setupStartNs,
                 Until.scrollFinished(direction),
                 Gestures.getFlingTimeout(),
                 swipe
@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.internal;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.appium.uiautomator2.model.api.GestureStatsModel;
+import io.appium.uiautomator2.model.api.TimingStatsModel;
+
+/**
+ * Per-gesture timings of {@link GestureController}, which are exposed by the status endpoint.
+ * The setup time is spent on building the pointer gestures before they are handed over to
+ * UiAutomator and the injection time is spent by UiAutomator on performing them.
+ */
+public class GestureStats {
+    private static GestureStats INSTANCE;
+
+    private final AtomicLong controllers = new AtomicLong();
+    private final Map<String, Timer> setupTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> injectionTimers = new ConcurrentHashMap<>();
+
+    public static synchronized GestureStats getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new GestureStats();
+        }
+        return INSTANCE;
+    }
+
+    void onControllerCreated() {
+        controllers.incrementAndGet();
+    }
+
+    void onSetUp(String gesture, long durationNanos) {
+        setupTimers.computeIfAbsent(gesture, name -> new Timer()).record(durationNanos);
+    }
+
+    void onInjected(String gesture, long durationNanos) {
+        injectionTimers.computeIfAbsent(gesture, name -> new Timer()).record(durationNanos);
+    }
+
+    public GestureStatsModel toModel() {
+        return new GestureStatsModel(controllers.get(), toModels(setupTimers), toModels(injectionTimers));
+    }
+
+    private static Map<String, TimingStatsModel> toModels(Map<String, Timer> timers) {
+        Map<String, TimingStatsModel> result = new TreeMap<>();
+        for (Map.Entry<String, Timer> entry : timers.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toModel());
+        }
+        return result;
+    }
+
+    private static class Timer {
+        private static final double NANOS_PER_MS = 1_000_000.0;
+
+        private long count = 0;
+        private long totalNanos = 0;
+        private long maxNanos = 0;
+
+        synchronized void record(long durationNanos) {
+            count++;
+            totalNanos += durationNanos;
+            maxNanos = Math.max(maxNanos, durationNanos);
+        }
+
+        synchronized TimingStatsModel toModel() {
+            return new TimingStatsModel(
+                    count,
+                    count == 0 ? 0 : totalNanos / NANOS_PER_MS / count,
+                    maxNanos / NANOS_PER_MS
+            );
+        }
+    }
+}
@@ -38,6 +38,8 @@ public abstract class AbstractSetting<T> implements ISetting<T> {
             apply(convertedValue);
         } catch (Exception e) {
             Logger.error(String.format("Unable to update the setting %s", getName()), e);
+        } finally {
+            SettingsSnapshot.refreshBound();
         }
     }
 
@@ -57,7 +59,11 @@ public abstract class AbstractSetting<T> implements ISetting<T> {
         if (Objects.equals(getDefaultValue(), getValue())) {
             return false;
         }
-        apply(getDefaultValue());
+        try {
+            apply(getDefaultValue());
+        } finally {
+            SettingsSnapshot.refreshBound();
+        }
         return true;
     }
 
@@ -58,12 +58,23 @@ public class AlwaysTraversableViewClasses extends AbstractSetting<String> {
         return patternArray;
     }
 
-    @Override
-    protected void apply(String traversableViewClasses) {
-        value = traversableViewClasses;
-        patternArray = Arrays.stream(value.split(","))
+    /**
+     * @param traversableViewClasses A comma separated list of glob patterns
+     * @return The list of corresponding regular expressions, which is empty if no patterns are given
+     */
+    public static String[] toRegexes(String traversableViewClasses) {
+        if (traversableViewClasses.trim().isEmpty()) {
+            return new String[0];
+        }
+        return Arrays.stream(traversableViewClasses.split(","))
                 .map(String::trim)
                 .map(GlobMatcher::globToRegex)
                 .toArray(String[]::new);
     }
+
+    @Override
+    protected void apply(String traversableViewClasses) {
+        value = traversableViewClasses;
+        patternArray = toRegexes(value);
+    }
 }
@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+import io.appium.uiautomator2.utils.Logger;
+
+/**
+ * Whether to write server logs to logcat from a background thread. Enabling it removes
+ * the logcat write latency from request handling, although log messages might be dropped
+ * if they are produced faster than they could be written. The count of dropped messages
+ * is reported in the log.
+ *
+ * Type: `Boolean`
+ * Default value: `false`
+ */
+public class AsyncLogging extends AbstractSetting<Boolean> {
+    private static final String SETTING_NAME = "asyncLogging";
+    private static final Boolean DEFAULT_VALUE = false;
+
+    public AsyncLogging() {
+        super(Boolean.class, SETTING_NAME);
+    }
+
+    @Override
+    public Boolean getValue() {
+        return Logger.isAsyncSinkEnabled();
+    }
+
+    @Override
+    public Boolean getDefaultValue() {
+        return DEFAULT_VALUE;
+    }
+
+    @Override
+    public boolean isTiedToSession() {
+        return false;
+    }
+
+    @Override
+    protected void apply(Boolean value) {
+        Logger.setAsyncSinkEnabled(value);
+    }
+}
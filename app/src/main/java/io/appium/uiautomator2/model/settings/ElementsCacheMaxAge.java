@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
+
+/**
+ * The maximum time in milliseconds a found element is kept in the session cache since
+ * it has been accessed for the last time. Zero means elements are only evicted when
+ * the cache size limit is reached.
+ */
+public class ElementsCacheMaxAge extends AbstractSetting<Long> {
+    public static final String SETTING_NAME = "elementsCacheMaxAge";
+    private static final long DEFAULT_VALUE = 0;
+    private static final long MIN_AGE = 0;
+    private static final long MAX_AGE = 24 * 60 * 60 * 1000;
+    private Long value = DEFAULT_VALUE;
+
+    public ElementsCacheMaxAge() {
+        super(Long.class, SETTING_NAME);
+    }
+
+    @Override
+    public Long getValue() {
+        return value;
+    }
+
+    @Override
+    public Long getDefaultValue() {
+        return DEFAULT_VALUE;
+    }
+
+    @Override
+    protected void apply(Long value) {
+        if (value == null || value < MIN_AGE || value > MAX_AGE) {
+            throw new InvalidArgumentException(String.format(
+                "Invalid %s value specified, must be in range %s..%s. %s was given",
+                SETTING_NAME,
+                MIN_AGE,
+                MAX_AGE,
+                value
+            ));
+        }
+        this.value = value;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
+
+/**
+ * The maximum count of found elements to be kept in the session cache. Least recently
+ * used elements are evicted once the limit is reached, so their identifiers cannot be
+ * used anymore.
+ */
+public class ElementsCacheSize extends AbstractSetting<Integer> {
+    public static final String SETTING_NAME = "elementsCacheSize";
+    private static final int DEFAULT_VALUE = 500;
+    private static final int MIN_SIZE = 1;
+    private static final int MAX_SIZE = 100000;
+    private Integer value = DEFAULT_VALUE;
+
+    public ElementsCacheSize() {
+        super(Integer.class, SETTING_NAME);
+    }
+
+    @Override
+    public Integer getValue() {
+        return value;
+    }
+
+    @Override
+    public Integer getDefaultValue() {
+        return DEFAULT_VALUE;
+    }
+
+    @Override
+    protected void apply(Integer value) {
+        if (value == null || value < MIN_SIZE || value > MAX_SIZE) {
+            throw new InvalidArgumentException(String.format(
+                "Invalid %s value specified, must be in range %s..%s. %s was given",
+                SETTING_NAME,
+                MIN_SIZE,
+                MAX_SIZE,
+                value
+            ));
+        }
+        this.value = value;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+/**
+ * When enabled, the session keeps the most recent UI hierarchy snapshot between page source
+ * and XPath lookups, and only rebuilds it (or its changed subtrees) after relevant
+ * accessibility events have been observed. This avoids re-traversing the whole accessibility
+ * tree on every lookup while the screen stays idle.
+ *
+ * Defaults to {@code false}. The cache is bypassed whenever the accessibility event listener
+ * is not active, since changes cannot be detected without it.
+ */
+public class EnableSnapshotCache extends AbstractSetting<Boolean> {
+    private static final String SETTING_NAME = "enableSnapshotCache";
+    private static final Boolean DEFAULT_VALUE = false;
+    private Boolean value = DEFAULT_VALUE;
+
+    public EnableSnapshotCache() {
+        super(Boolean.class, SETTING_NAME);
+    }
+
+    @Override
+    public Boolean getValue() {
+        return value;
+    }
+
+    @Override
+    public Boolean getDefaultValue() {
+        return DEFAULT_VALUE;
+    }
+
+    @Override
+    protected void apply(Boolean enableSnapshotCache) {
+        value = enableSnapshotCache;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
+import io.appium.uiautomator2.server.ServerConfig;
+
+/**
+ * Controls whether the MJPEG stream skips encoding and sending of frames
+ * if the screen content has not changed since the previous frame. While the
+ * screen stays static the capture rate is also lowered to the value of
+ * {@link MjpegIdleFramerate}, and it returns back to {@link MjpegServerFramerate}
+ * as soon as a change or an accessibility event is detected.
+ *
+ * Type: `Boolean`
+ * Acceptable values: `false`|`true`
+ * Default value: `false`
+ */
+public class MjpegChangeDetection extends AbstractSetting<Boolean> {
+    public static final String SETTING_NAME = "mjpegChangeDetection";
+    private static final boolean DEFAULT_VALUE = false;
+
+    public MjpegChangeDetection() {
+        super(Boolean.class, SETTING_NAME);
+    }
+
+    @Override
+    public Boolean getValue() {
+        return ServerConfig.isMjpegChangeDetection();
+    }
+
+    @Override
+    public Boolean getDefaultValue() {
+        return DEFAULT_VALUE;
+    }
+
+    @Override
+    public boolean isTiedToSession() {
+        return false;
+    }
+
+    @Override
+    protected void apply(Boolean value) {
+        if (value == null) {
+            throw new InvalidArgumentException(String.format(
+                "Invalid %s value specified, must be false|true. null was given",
+                SETTING_NAME));
+        }
+        ServerConfig.setMjpegChangeDetection(value);
+    }
+}
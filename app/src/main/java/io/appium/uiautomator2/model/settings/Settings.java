@@ -16,6 +16,11 @@
 
 package io.appium.uiautomator2.model.settings;
 
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
 public enum Settings {
     ACTION_ACKNOWLEDGMENT_TIMEOUT(new ActionAcknowledgmentTimeout()),
     ALLOW_INVISIBLE_ELEMENTS(new AllowInvisibleElements()),
@@ -43,6 +48,8 @@ public enum Settings {
     SERVER_PORT(new ServerPort()),
     MJPEG_SERVER_PORT(new MjpegServerPort()),
     MJPEG_SERVER_FRAMERATE(new MjpegServerFramerate()),
+    MJPEG_CHANGE_DETECTION(new MjpegChangeDetection()),
+    MJPEG_IDLE_FRAMERATE(new MjpegIdleFramerate()),
     MJPEG_SCALING_FACTOR(new MjpegScalingFactor()),
     MJPEG_SERVER_SCREENSHOT_QUALITY(new MjpegServerScreenshotQuality()),
     MJPEG_BILINEAR_FILTERING(new MjpegBilinearFiltering()),
@@ -51,7 +58,13 @@ public enum Settings {
     CURRENT_DISPLAY_ID(new CurrentDisplayId()),
     ALWAYS_TRAVERSABLE_VIEW_CLASSES(new AlwaysTraversableViewClasses()),
     DEFER_ACCESSIBILITY_CACHE_RESET(new DeferAccessibilityCacheReset()),
-    MAP_TEST_TAG_TO_RESOURCE_ID(new MapTestTagToResourceId());
+    MAP_TEST_TAG_TO_RESOURCE_ID(new MapTestTagToResourceId()),
+    XPATH_CACHE_SIZE(new XpathCacheSize()),
+    XPATH_CACHE_EVICTION_POLICY(new XpathCacheEvictionPolicy()),
+    ENABLE_SNAPSHOT_CACHE(new EnableSnapshotCache()),
+    ELEMENTS_CACHE_SIZE(new ElementsCacheSize()),
+    ELEMENTS_CACHE_MAX_AGE(new ElementsCacheMaxAge()),
+    ASYNC_LOGGING(new AsyncLogging());
 
     private final ISetting<?> setting;
 
@@ -63,13 +76,53 @@ public enum Settings {
         return setting;
     }
 
+    /**
+     * Resolves setting types and names to their enum items in constant time
+     */
+    private static final class Registry {
+        private static final Map<Class<?>, Settings> BY_TYPE = new HashMap<>();
+        private static final Map<String, Settings> BY_NAME = new HashMap<>();
+
+        static {
+            for (Settings enumItem : values()) {
+                BY_TYPE.put(enumItem.getSetting().getClass(), enumItem);
+                BY_NAME.put(enumItem.getSetting().getName(), enumItem);
+            }
+        }
+    }
+
+    static Settings of(Class<?> settingType) {
+        Settings enumItem = Registry.BY_TYPE.get(settingType);
+        if (enumItem == null) {
+            throw new IllegalArgumentException(String.format("%s setting is not known",
+                    settingType.getCanonicalName()));
+        }
+        return enumItem;
+    }
+
     public static <T extends ISetting<?>> T get(Class<T> settingType) {
-        return java.util.Arrays.stream(values())
-                .filter(enumItem -> enumItem.getSetting().getClass() == settingType)
-                .map(enumItem -> settingType.cast(enumItem.getSetting()))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException(String.format("%s setting is not known",
-                        settingType.getCanonicalName())));
+        return settingType.cast(of(settingType).getSetting());
+    }
+
+    /**
+     * Retrieves the value of the given setting. If a settings snapshot is bound to the current
+     * thread then the value is taken from it, so it stays the same while the current request
+     * is being handled.
+     *
+     * @param settingType The setting class
+     * @return The setting value
+     */
+    public static <T> T getValue(Class<? extends ISetting<T>> settingType) {
+        SettingsSnapshot snapshot = SettingsSnapshot.bound();
+        return snapshot == null
+                ? settingType.cast(of(settingType).getSetting()).getValue()
+                : snapshot.getValue(settingType);
+    }
+
+    @Nullable
+    public static ISetting<?> find(String settingName) {
+        Settings enumItem = Registry.BY_NAME.get(settingName);
+        return enumItem == null ? null : enumItem.getSetting();
     }
 
     public static void resetForNewSession() {
@@ -0,0 +1,135 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+import androidx.annotation.Nullable;
+
+import io.appium.uiautomator2.utils.Logger;
+
+/**
+ * A copy of all setting values taken at a certain point of time.
+ * <p>
+ * A snapshot could be bound to the current thread for the time a request is being handled,
+ * so {@link Settings#getValue(Class)} returns consistent values even if the settings are
+ * updated concurrently, for example in the middle of a tree traversal. Settings updated on
+ * the current thread while a snapshot is bound make it capture all values again, so a request
+ * sees its own updates.
+ */
+public final class SettingsSnapshot {
+    private static final ThreadLocal<SettingsSnapshot> BOUND = new ThreadLocal<>();
+    // Marks values that could not be retrieved while capturing the snapshot
+    private static final Object UNAVAILABLE = new Object();
+
+    // Replaced as a whole on refresh, so readers never see values of different captures
+    private volatile Object[] values;
+
+    private SettingsSnapshot(Object[] values) {
+        this.values = values;
+    }
+
+    /**
+     * @return A new snapshot of the current setting values
+     */
+    public static SettingsSnapshot capture() {
+        return new SettingsSnapshot(captureValues());
+    }
+
+    private static Object[] captureValues() {
+        Settings[] enumItems = Settings.values();
+        Object[] values = new Object[enumItems.length];
+        for (Settings enumItem : enumItems) {
+            Object value;
+            try {
+                value = enumItem.getSetting().getValue();
+            } catch (RuntimeException e) {
+                Logger.debug(String.format("Cannot capture the value of the '%s' setting: %s",
+                        enumItem, e.getMessage()));
+                value = UNAVAILABLE;
+            }
+            values[enumItem.ordinal()] = value;
+        }
+        return values;
+    }
+
+    /**
+     * @return The snapshot bound to the current thread or a new one if there is none
+     */
+    public static SettingsSnapshot current() {
+        SettingsSnapshot snapshot = BOUND.get();
+        return snapshot == null ? capture() : snapshot;
+    }
+
+    @Nullable
+    static SettingsSnapshot bound() {
+        return BOUND.get();
+    }
+
+    /**
+     * Makes the snapshot bound to the current thread capture all setting values again,
+     * so updates made while handling the current request are visible to it.
+     */
+    static void refreshBound() {
+        SettingsSnapshot snapshot = BOUND.get();
+        if (snapshot != null) {
+            snapshot.values = captureValues();
+        }
+    }
+
+    /**
+     * @param settingType The setting class
+     * @return The value the setting had when this snapshot was captured. The current value is
+     * returned if it could not be retrieved at that time.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(Class<? extends ISetting<T>> settingType) {
+        Settings enumItem = Settings.of(settingType);
+        Object value = values[enumItem.ordinal()];
+        return value == UNAVAILABLE
+                ? settingType.cast(enumItem.getSetting()).getValue()
+                : (T) value;
+    }
+
+    /**
+     * Binds this snapshot to the current thread until the returned scope is closed.
+     * Scopes could be nested, the previously bound snapshot is restored on close.
+     *
+     * @return The binding scope
+     */
+    public Scope bind() {
+        Scope scope = new Scope(BOUND.get());
+        BOUND.set(this);
+        return scope;
+    }
+
+    public static final class Scope implements AutoCloseable {
+        @Nullable
+        private final SettingsSnapshot previous;
+
+        private Scope(@Nullable SettingsSnapshot previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                BOUND.remove();
+            } else {
+                BOUND.set(previous);
+            }
+        }
+    }
+}
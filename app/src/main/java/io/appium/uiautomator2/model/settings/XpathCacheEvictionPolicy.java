@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+import java.util.Arrays;
+
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
+
+/**
+ * Defines which compiled XPath expression is dropped first once
+ * the cache reaches its maximum size (see {@link XpathCacheSize}):
+ * - lru: the least recently used expression
+ * - fifo: the expression that has been compiled first
+ */
+public class XpathCacheEvictionPolicy extends AbstractSetting<String> {
+    public static final String SETTING_NAME = "xpathCacheEvictionPolicy";
+    public static final String LRU = "lru";
+    public static final String FIFO = "fifo";
+    private static final String[] SUPPORTED_POLICIES = new String[]{LRU, FIFO};
+    private static final String DEFAULT_VALUE = LRU;
+    private String value = DEFAULT_VALUE;
+
+    public XpathCacheEvictionPolicy() {
+        super(String.class, SETTING_NAME);
+    }
+
+    @Override
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public String getDefaultValue() {
+        return DEFAULT_VALUE;
+    }
+
+    public boolean isAccessOrdered() {
+        return LRU.equals(value);
+    }
+
+    @Override
+    protected void apply(String value) {
+        String policy = value == null ? null : value.trim().toLowerCase();
+        if (!Arrays.asList(SUPPORTED_POLICIES).contains(policy)) {
+            throw new InvalidArgumentException(String.format(
+                "Invalid %s value specified, must be one of %s. %s was given",
+                SETTING_NAME,
+                Arrays.toString(SUPPORTED_POLICIES),
+                value
+            ));
+        }
+        this.value = policy;
+    }
+}
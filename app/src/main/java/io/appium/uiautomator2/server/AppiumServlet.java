@@ -16,22 +16,21 @@
 
 package io.appium.uiautomator2.server;
 
+import android.os.SystemClock;
+
 import androidx.annotation.Nullable;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.stream.IntStream;
 
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
 import io.appium.uiautomator2.handler.AcceptAlert;
+import io.appium.uiautomator2.handler.CaptureBinaryScreenshot;
 import io.appium.uiautomator2.handler.CaptureScreenshot;
 import io.appium.uiautomator2.handler.Clear;
 import io.appium.uiautomator2.handler.Click;
 import io.appium.uiautomator2.handler.DeleteSession;
 import io.appium.uiautomator2.handler.DismissAlert;
+import io.appium.uiautomator2.handler.ExecuteBatch;
 import io.appium.uiautomator2.handler.ActiveElement;
 import io.appium.uiautomator2.handler.FindElement;
 import io.appium.uiautomator2.handler.FindElements;
@@ -47,6 +46,7 @@ import io.appium.uiautomator2.handler.GetDeviceSize;
 import io.appium.uiautomator2.handler.GetDisplayDensity;
 import io.appium.uiautomator2.handler.GetElementAttribute;
 import io.appium.uiautomator2.handler.GetElementScreenshot;
+import io.appium.uiautomator2.handler.GetElementsProperties;
 import io.appium.uiautomator2.handler.GetName;
 import io.appium.uiautomator2.handler.GetOrientation;
 import io.appium.uiautomator2.handler.GetPackages;
@@ -81,10 +81,15 @@ import io.appium.uiautomator2.handler.Status;
 import io.appium.uiautomator2.handler.UnscheduleAction;
 import io.appium.uiautomator2.handler.UpdateSettings;
 import io.appium.uiautomator2.handler.request.BaseRequestHandler;
+import io.appium.uiautomator2.handler.request.ConcurrentCommandHandler;
 import io.appium.uiautomator2.http.AppiumResponse;
 import io.appium.uiautomator2.http.IHttpRequest;
 import io.appium.uiautomator2.http.IHttpResponse;
 import io.appium.uiautomator2.http.IHttpServlet;
+import io.appium.uiautomator2.http.RequestDispatcher;
+import io.appium.uiautomator2.model.settings.SettingsSnapshot;
+
+import static io.appium.uiautomator2.model.Session.NO_ID;
 
 public class AppiumServlet implements IHttpServlet {
 
@@ -95,11 +100,11 @@ public class AppiumServlet implements IHttpServlet {
     public static final String NAME_ID_KEY = "NAME_ID_KEY";
     public static final int MAX_ELEMENTS = 3;
     public static final int SECOND_ELEMENT_IDX = 2;
-    private static final ConcurrentMap<String, BaseRequestHandler> getHandler = new ConcurrentHashMap<>();
-    private static final ConcurrentMap<String, BaseRequestHandler> postHandler = new ConcurrentHashMap<>();
-    private static final ConcurrentMap<String, BaseRequestHandler> deleteHandler = new ConcurrentHashMap<>();
-    private final ConcurrentMap<String, String[]> mapperUrlSectionsCache = new ConcurrentHashMap<>();
-
+    // The route match is stored in the request data, so the request path is only matched once
+    private static final String ROUTE_MATCH_KEY = "ROUTE_MATCH_KEY";
+    private final RouteTable<BaseRequestHandler> getHandler = new RouteTable<>();
+    private final RouteTable<BaseRequestHandler> postHandler = new RouteTable<>();
+    private final RouteTable<BaseRequestHandler> deleteHandler = new RouteTable<>();
 
     public AppiumServlet() {
         init();
@@ -151,10 +156,13 @@ public class AppiumServlet implements IHttpServlet {
         register(postHandler, new ScrollTo("/session/:sessionId/gestures/scroll_to"));
         register(postHandler, new ScrollToElement("/session/:sessionId/appium/element/:id/scroll_to/:id2"));
         register(postHandler, new io.appium.uiautomator2.handler.gestures.Swipe("/session/:sessionId/appium/gestures/swipe"));
+        register(postHandler, new io.appium.uiautomator2.handler.gestures.GesturesBatch("/session/:sessionId/appium/gestures/batch"));
 
         register(postHandler, new ScheduleAction("/session/:sessionId/appium/schedule_action"));
         register(postHandler, new GetActionHistory("/session/:sessionId/appium/action_history"));
         register(postHandler, new UnscheduleAction("/session/:sessionId/appium/unschedule_action"));
+        register(postHandler, new ExecuteBatch("/session/:sessionId/appium/batch", this::handleNestedRequest));
+        register(postHandler, new GetElementsProperties("/session/:sessionId/appium/elements/properties"));
     }
 
     private void registerGetHandler() {
@@ -188,86 +196,106 @@ public class AppiumServlet implements IHttpServlet {
         register(getHandler, new GetDeviceInfo("/session/:sessionId/appium/device/info"));
         register(getHandler, new GetDeclaredOrientation("/session/:sessionId/appium/device/declared_orientation"));
         register(getHandler, new GetDisplayDensity("/session/:sessionId/appium/device/display_density"));
+        register(getHandler, new CaptureBinaryScreenshot("/session/:sessionId/appium/screenshot"));
+        register(getHandler, new CaptureBinaryScreenshot("/session/:sessionId/appium/element/:id/screenshot"));
     }
 
-    private void register(Map<String, BaseRequestHandler> registerOn, BaseRequestHandler handler) {
-        registerOn.put(handler.getMappedUri(), handler);
+    private void register(RouteTable<BaseRequestHandler> registerOn, BaseRequestHandler handler) {
+        registerOn.add(handler.getMappedUri(), handler);
     }
 
     @Nullable
-    private BaseRequestHandler findMatcher(IHttpRequest request, Map<String, BaseRequestHandler> handler) {
-        String[] urlToMatchSections = getRequestUrlSections(request.uri());
-        return handler.entrySet().stream()
-                .filter(entry -> {
-                    String[] mapperUrlSections = getMapperUrlSectionsCached(entry.getKey());
-                    return isFor(mapperUrlSections, urlToMatchSections);
-                })
-                .map(Map.Entry::getValue)
-                .findFirst()
-                .orElse(null);
+    RouteTable<BaseRequestHandler> getRouteTable(String method) {
+        if ("GET".equals(method)) {
+            return getHandler;
+        } else if ("POST".equals(method)) {
+            return postHandler;
+        } else if ("DELETE".equals(method)) {
+            return deleteHandler;
+        }
+        return null;
     }
 
+    @SuppressWarnings("unchecked")
     @Nullable
-    private String[] getRequestUrlSections(String urlToMatch) {
-        if (urlToMatch == null) {
-            return null;
-        }
-        int qPos = urlToMatch.indexOf('?');
-        if (qPos != -1) {
-            urlToMatch = urlToMatch.substring(0, urlToMatch.indexOf("?"));
+    private RouteTable.Match<BaseRequestHandler> findRoute(IHttpRequest request) {
+        Object cachedMatch = request.data().get(ROUTE_MATCH_KEY);
+        if (cachedMatch != null) {
+            return (RouteTable.Match<BaseRequestHandler>) cachedMatch;
         }
-        return urlToMatch.split("/");
-    }
-
-    private String[] getMapperUrlSectionsCached(String mapperUrl) {
-        String[] sections = mapperUrlSectionsCache.get(mapperUrl);
-        if (sections == null) {
-            sections = mapperUrl.split("/");
-            for (int i = 0; i < sections.length; i++) {
-                String section = sections[i];
-                // To work around a bug in Selenium Grid 2.31.0.
-                int qPos = section.indexOf('?');
-                if (qPos != -1) {
-                    sections[i] = section.substring(0, qPos);
-                }
-            }
-            mapperUrlSectionsCache.put(mapperUrl, sections);
+        RouteTable<BaseRequestHandler> routeTable = getRouteTable(request.method());
+        RouteTable.Match<BaseRequestHandler> match = routeTable == null
+                ? null
+                : routeTable.match(request.uri());
+        if (match != null) {
+            request.data().put(ROUTE_MATCH_KEY, match);
         }
-        return sections;
+        return match;
     }
 
-    private boolean isFor(String[] mapperUrlSections, String[] urlToMatchSections) {
-        if (urlToMatchSections == null) {
-            return mapperUrlSections.length == 0;
-        }
-        if (mapperUrlSections.length != urlToMatchSections.length) {
-            return false;
+    @Nullable
+    @Override
+    public String getDispatchLane(IHttpRequest request) {
+        RouteTable.Match<BaseRequestHandler> match = findRoute(request);
+        if (match == null || match.getValue() instanceof ConcurrentCommandHandler) {
+            return null;
         }
-        return IntStream.range(0, mapperUrlSections.length)
-                .allMatch(
-                    i -> mapperUrlSections[i].startsWith(":") || mapperUrlSections[i].equals(urlToMatchSections[i])
-                );
+        // Commands of the same session are handled in the order they have been received
+        String sessionId = match.getParam("sessionId");
+        return sessionId == null ? NO_ID : sessionId;
     }
 
     @Override
     public void handleHttpRequest(IHttpRequest request, IHttpResponse response) {
-        BaseRequestHandler handler = null;
-        if ("GET".equals(request.method())) {
-            handler = findMatcher(request, getHandler);
-        } else if ("POST".equals(request.method())) {
-            handler = findMatcher(request, postHandler);
-        } else if ("DELETE".equals(request.method())) {
-            handler = findMatcher(request, deleteHandler);
+        RouteTable.Match<BaseRequestHandler> match = findRoute(request);
+        if (match != null) {
+            handleRequest(request, response, match);
         }
-        if (handler != null) {
-            handleRequest(request, response, handler);
+    }
+
+    private void handleRequest(IHttpRequest request, IHttpResponse response,
+                               RouteTable.Match<BaseRequestHandler> match) {
+        final long startTime = SystemClock.uptimeMillis();
+        BaseRequestHandler handler = match.getValue();
+        addHandlerAttributesToRequest(request, match.getParams());
+        // All settings values stay the same while the request is being handled and its
+        // response is rendered, even if they are updated by a concurrent request
+        try (SettingsSnapshot.Scope ignored = SettingsSnapshot.capture().bind()) {
+            AppiumResponse result = handler.handle(request);
+            handleResponse(response, result);
         }
+        RequestDispatcher.getInstance().recordLatency(
+                String.format("%s %s", request.method(), handler.getMappedUri()),
+                SystemClock.uptimeMillis() - startTime);
     }
 
-    private void handleRequest(IHttpRequest request, IHttpResponse response, BaseRequestHandler handler) {
-        addHandlerAttributesToRequest(request, handler.getMappedUri());
-        AppiumResponse result = handler.handle(request);
-        handleResponse(response, result);
+    /**
+     * Handles a request, which is a part of another request, like a command of a batch.
+     * Each nested request gets its own settings snapshot, so settings changed by a preceding
+     * command are visible to the following ones.
+     *
+     * @return The response or null if no handler is registered for the request
+     */
+    @Nullable
+    private AppiumResponse handleNestedRequest(IHttpRequest request) {
+        RouteTable.Match<BaseRequestHandler> match = findRoute(request);
+        if (match == null) {
+            return null;
+        }
+        BaseRequestHandler handler = match.getValue();
+        if (handler instanceof ExecuteBatch) {
+            throw new InvalidArgumentException("Batch commands cannot be nested");
+        }
+        final long startTime = SystemClock.uptimeMillis();
+        addHandlerAttributesToRequest(request, match.getParams());
+        AppiumResponse result;
+        try (SettingsSnapshot.Scope ignored = SettingsSnapshot.capture().bind()) {
+            result = handler.handle(request);
+        }
+        RequestDispatcher.getInstance().recordLatency(
+                String.format("%s %s", request.method(), handler.getMappedUri()),
+                SystemClock.uptimeMillis() - startTime);
+        return result;
     }
 
     private void handleResponse(IHttpResponse response, @Nullable AppiumResponse result) {
@@ -277,51 +305,34 @@ public class AppiumServlet implements IHttpServlet {
         response.end();
     }
 
-    private void addHandlerAttributesToRequest(IHttpRequest request, String mappedUri) {
-        String sessionId = getParameter(mappedUri, request.uri(), ":sessionId");
-        if (sessionId != null) {
-            request.data().put(SESSION_ID_KEY, sessionId);
-        }
-
-        String command = getParameter(mappedUri, request.uri(), ":command");
-        if (command != null) {
-            request.data().put(COMMAND_NAME_KEY, command);
-        }
-
-        String name = getParameter(mappedUri, request.uri(), ":name");
-        if (name != null) {
-            request.data().put(NAME_ID_KEY, name);
-        }
-
-        String id = getParameter(mappedUri, request.uri(), ":id");
-        if (id != null) {
-            request.data().put(ELEMENT_ID_KEY, id);
-        }
-        for (int elementIdx = SECOND_ELEMENT_IDX; elementIdx < MAX_ELEMENTS + SECOND_ELEMENT_IDX; ++elementIdx) {
-            String elementId = getParameter(mappedUri, request.uri(), ":id" + elementIdx);
-            if (elementId != null) {
-                request.data().put(ELEMENT_ID_KEY + elementIdx, elementId);
+    private void addHandlerAttributesToRequest(IHttpRequest request, Map<String, String> params) {
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            String key = toRequestDataKey(param.getKey());
+            if (key != null) {
+                request.data().put(key, param.getValue());
             }
         }
     }
 
     @Nullable
-    private String getParameter(String configuredUri, String actualUri, String param) {
-        String[] configuredSections = configuredUri.split("/");
-        String[] currentSections = actualUri.split("/");
-        if (configuredSections.length != currentSections.length) {
-            return null;
+    private static String toRequestDataKey(String paramName) {
+        switch (paramName) {
+            case "sessionId":
+                return SESSION_ID_KEY;
+            case "command":
+                return COMMAND_NAME_KEY;
+            case "name":
+                return NAME_ID_KEY;
+            case ELEMENT_ID_KEY:
+                return ELEMENT_ID_KEY;
+            default:
+                break;
+        }
+        for (int elementIdx = SECOND_ELEMENT_IDX; elementIdx < MAX_ELEMENTS + SECOND_ELEMENT_IDX; ++elementIdx) {
+            if (paramName.equals(ELEMENT_ID_KEY + elementIdx)) {
+                return paramName;
+            }
         }
-        return IntStream.range(0, currentSections.length)
-                .filter(i -> configuredSections[i].contains(param))
-                .mapToObj(i -> {
-                    try {
-                        return URLDecoder.decode(currentSections[i], StandardCharsets.UTF_8.name());
-                    } catch (UnsupportedEncodingException e) {
-                        throw new IllegalArgumentException(e);
-                    }
-                })
-                .findFirst()
-                .orElse(null);
+        return null;
     }
 }
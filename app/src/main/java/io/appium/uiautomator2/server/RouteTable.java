@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.server;
+
+import androidx.annotation.Nullable;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps request paths to the values registered for URI templates like
+ * {@code /session/:sessionId/element/:id/click}.
+ * <p>
+ * Templates are stored in a trie of path segments, so a lookup walks the request path once
+ * instead of comparing it with every registered template. Literal segments take precedence
+ * over parameters at the same level, e.g. {@code /session/:sessionId/element/active} wins over
+ * {@code /session/:sessionId/element/:id}. The table is not thread-safe while it is being
+ * populated, although concurrent lookups are fine once all templates have been added.
+ *
+ * @param <T> The type of registered values
+ */
+class RouteTable<T> {
+    private static final String PARAM_PREFIX = ":";
+
+    private final Node<T> root = new Node<>();
+    private final List<String> templates = new ArrayList<>();
+
+    /**
+     * Registers a value for the given URI template. A value, which was previously registered
+     * for the same template, gets replaced.
+     *
+     * @param template The URI template. Segments starting with a colon are parameters.
+     * @param value    The value to register
+     */
+    void add(String template, T value) {
+        String[] segments = toSegments(template);
+        String[] paramNames = new String[segments.length];
+        Node<T> node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.startsWith(PARAM_PREFIX)) {
+                paramNames[i] = segment.substring(PARAM_PREFIX.length());
+                if (node.paramChild == null) {
+                    node.paramChild = new Node<>();
+                }
+                node = node.paramChild;
+            } else {
+                Node<T> child = node.literalChildren.get(segment);
+                if (child == null) {
+                    child = new Node<>();
+                    node.literalChildren.put(segment, child);
+                }
+                node = child;
+            }
+        }
+        if (node.route == null) {
+            templates.add(template);
+        }
+        node.route = new Route<>(value, paramNames);
+    }
+
+    /**
+     * @return The list of registered URI templates in the order they have been added
+     */
+    List<String> getTemplates() {
+        return Collections.unmodifiableList(templates);
+    }
+
+    /**
+     * Finds the value registered for the template matching the given request URI.
+     *
+     * @param uri The request URI. The query string, if present, is ignored.
+     * @return The match or null if no template matches the given URI
+     */
+    @Nullable
+    Match<T> match(@Nullable String uri) {
+        if (uri == null) {
+            return null;
+        }
+        String[] segments = toSegments(uri);
+        Route<T> route = find(root, segments, 0);
+        return route == null ? null : new Match<>(route, segments);
+    }
+
+    @Nullable
+    private static <T> Route<T> find(Node<T> node, String[] segments, int index) {
+        if (index == segments.length) {
+            return node.route;
+        }
+        Node<T> literalChild = node.literalChildren.get(segments[index]);
+        if (literalChild != null) {
+            Route<T> route = find(literalChild, segments, index + 1);
+            if (route != null) {
+                return route;
+            }
+        }
+        return node.paramChild == null ? null : find(node.paramChild, segments, index + 1);
+    }
+
+    private static String[] toSegments(String uri) {
+        int queryStart = uri.indexOf('?');
+        // Trailing slashes are ignored, which is consistent with how String.split works
+        return (queryStart == -1 ? uri : uri.substring(0, queryStart)).split("/");
+    }
+
+    private static class Node<T> {
+        final Map<String, Node<T>> literalChildren = new HashMap<>();
+        @Nullable
+        Node<T> paramChild;
+        @Nullable
+        Route<T> route;
+    }
+
+    private static class Route<T> {
+        final T value;
+        // Parameter names by segment index, or nulls for literal segments
+        final String[] paramNames;
+
+        Route(T value, String[] paramNames) {
+            this.value = value;
+            this.paramNames = paramNames;
+        }
+    }
+
+    static class Match<T> {
+        private final T value;
+        private final Map<String, String> params;
+
+        private Match(Route<T> route, String[] segments) {
+            this.value = route.value;
+            Map<String, String> params = new LinkedHashMap<>();
+            for (int i = 0; i < segments.length; i++) {
+                if (route.paramNames[i] != null) {
+                    params.put(route.paramNames[i], decode(segments[i]));
+                }
+            }
+            this.params = Collections.unmodifiableMap(params);
+        }
+
+        private static String decode(String segment) {
+            if (segment.indexOf('%') == -1 && segment.indexOf('+') == -1) {
+                return segment;
+            }
+            try {
+                return URLDecoder.decode(segment, StandardCharsets.UTF_8.name());
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+
+        T getValue() {
+            return value;
+        }
+
+        /**
+         * @return Decoded path parameter values keyed by parameter names without the leading
+         * colon, in the order they appear in the path
+         */
+        Map<String, String> getParams() {
+            return params;
+        }
+
+        @Nullable
+        String getParam(String name) {
+            return params.get(name);
+        }
+    }
+}
@@ -21,6 +21,8 @@ import java.util.Map;
 import java.util.Optional;
 
 import io.appium.uiautomator2.model.settings.MjpegBilinearFiltering;
+import io.appium.uiautomator2.model.settings.MjpegChangeDetection;
+import io.appium.uiautomator2.model.settings.MjpegIdleFramerate;
 import io.appium.uiautomator2.model.settings.MjpegScalingFactor;
 import io.appium.uiautomator2.model.settings.MjpegServerFramerate;
 import io.appium.uiautomator2.model.settings.MjpegServerPort;
@@ -31,6 +33,7 @@ public class ServerConfig {
     public static final int DEFAULT_SERVER_PORT = 6790;
     public static final int DEFAULT_MJPEG_SERVER_PORT = 7810;
     public static final int DEFAULT_MJPEG_SERVER_FRAMERATE = 10;
+    public static final int DEFAULT_MJPEG_IDLE_FRAMERATE = 1;
     public static final int DEFAULT_MJPEG_SCALING_FACTOR = 50;
     public static final int DEFAULT_MJPEG_SERVER_SCREENSHOT_QUALITY = 50;
     public static final boolean DEFAULT_MJPEG_SERVER_BILINEAR_FILTERING = false;
@@ -44,6 +47,11 @@ public class ServerConfig {
     private final static int MJPEG_SERVER_FRAMERATE = getValueFromEnvOrDefault(
         "MJPEG_SERVER_FRAMERATE",
         DEFAULT_MJPEG_SERVER_FRAMERATE);
+    private final static int MJPEG_IDLE_FRAMERATE = getValueFromEnvOrDefault(
+        "MJPEG_IDLE_FRAMERATE",
+        DEFAULT_MJPEG_IDLE_FRAMERATE);
+    private final static boolean MJPEG_CHANGE_DETECTION =
+        Boolean.parseBoolean(System.getenv("MJPEG_CHANGE_DETECTION"));
     private final static int MJPEG_SCALING_FACTOR = getValueFromEnvOrDefault(
         "MJPEG_SCALING_FACTOR",
         DEFAULT_MJPEG_SCALING_FACTOR);
@@ -95,6 +103,18 @@ public class ServerConfig {
             MJPEG_SERVER_FRAMERATE);
     }
 
+    public static boolean isMjpegChangeDetection() {
+        return getValueFromOverridesOrDefault(
+            MjpegChangeDetection.SETTING_NAME,
+            MJPEG_CHANGE_DETECTION);
+    }
+
+    public static int getMjpegIdleFramerate() {
+        return getValueFromOverridesOrDefault(
+            MjpegIdleFramerate.SETTING_NAME,
+            MJPEG_IDLE_FRAMERATE);
+    }
+
     public static int getMjpegServerScreenshotQuality() {
         return getValueFromOverridesOrDefault(
             MjpegServerScreenshotQuality.SETTING_NAME,
@@ -127,6 +147,18 @@ public class ServerConfig {
             mjpegServerFramerate);
     }
 
+    public static void setMjpegChangeDetection(boolean mjpegChangeDetection) {
+        setOverridesValue(
+            MjpegChangeDetection.SETTING_NAME,
+            mjpegChangeDetection);
+    }
+
+    public static void setMjpegIdleFramerate(int mjpegIdleFramerate) {
+        setOverridesValue(
+            MjpegIdleFramerate.SETTING_NAME,
+            mjpegIdleFramerate);
+    }
+
     public static void setMjpegServerScreenshotQuality(int mjpegServerScreenshotQuality) {
         setOverridesValue(
             MjpegServerScreenshotQuality.SETTING_NAME,
@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.server.mjpeg;
+
+/**
+ * Decides whether a captured frame has to be encoded and how long to wait before
+ * capturing the next one if change detection is enabled for the MJPEG stream.
+ * <p>
+ * A frame is encoded if its fingerprint differs from the previous one, if an accessibility
+ * event has been received since the previous frame, or if no frame has been encoded for
+ * {@link #KEYFRAME_INTERVAL_MS}, which bounds the staleness of the stream in case a change
+ * is not visible to the fingerprint. The stream switches to the idle framerate once
+ * nothing has changed for {@link #IDLE_AFTER_MS}, and returns back to the normal
+ * framerate as soon as a change or an accessibility event is detected.
+ * <p>
+ * All timestamps are expected to come from the same monotonic clock.
+ */
+class AdaptiveFramerate {
+    static final long IDLE_AFTER_MS = 1000;
+    static final long KEYFRAME_INTERVAL_MS = 5000;
+
+    private boolean hasFingerprint = false;
+    private long lastFingerprint;
+    private long lastChangeTimestamp = 0;
+    private long lastEncodedTimestamp = 0;
+    private boolean hasPendingActivity = false;
+
+    /**
+     * Records the activity reported by an external source, like an accessibility event.
+     */
+    synchronized void onActivity(long timestamp) {
+        hasPendingActivity = true;
+        lastChangeTimestamp = Math.max(lastChangeTimestamp, timestamp);
+    }
+
+    /**
+     * @param fingerprint The fingerprint of the captured frame
+     * @param timestamp   The capture timestamp
+     * @return Whether the frame has to be encoded and sent to clients
+     */
+    synchronized boolean onFrameCaptured(long fingerprint, long timestamp) {
+        boolean isChanged = !hasFingerprint || fingerprint != lastFingerprint;
+        hasFingerprint = true;
+        lastFingerprint = fingerprint;
+        if (isChanged) {
+            lastChangeTimestamp = timestamp;
+        }
+        boolean shouldEncode = isChanged
+                || hasPendingActivity
+                || timestamp - lastEncodedTimestamp >= KEYFRAME_INTERVAL_MS;
+        hasPendingActivity = false;
+        if (shouldEncode) {
+            lastEncodedTimestamp = timestamp;
+        }
+        return shouldEncode;
+    }
+
+    synchronized boolean isIdle(long timestamp) {
+        return hasFingerprint
+                && !hasPendingActivity
+                && timestamp - lastChangeTimestamp >= IDLE_AFTER_MS;
+    }
+
+    synchronized void reset() {
+        hasFingerprint = false;
+        hasPendingActivity = false;
+        lastChangeTimestamp = 0;
+        lastEncodedTimestamp = 0;
+    }
+}
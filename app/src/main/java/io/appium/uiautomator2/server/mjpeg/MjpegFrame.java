@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.server.mjpeg;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A single encoded MJPEG stream part. The same frame instance is shared between all
+ * connected clients, and each of them only gets its own read-only views of the frame
+ * buffers, so the JPEG data is never copied while it is being broadcast.
+ */
+final class MjpegFrame {
+    private static final String BOUNDARY_STRING =
+        "--BoundaryString\r\n" +
+        "Content-type: image/jpg\r\n" +
+        "Content-Length: %d\r\n\r\n";
+    private static final ByteBuffer END = ByteBuffer.wrap("\r\n\r\n".getBytes(UTF_8)).asReadOnlyBuffer();
+
+    private final ByteBuffer header;
+    private final ByteBuffer jpeg;
+
+    MjpegFrame(byte[] jpeg) {
+        this(jpeg, jpeg.length);
+    }
+
+    MjpegFrame(byte[] jpeg, int length) {
+        this.header = ByteBuffer.wrap(String.format(Locale.ROOT, BOUNDARY_STRING, length)
+            .getBytes(UTF_8)).asReadOnlyBuffer();
+        this.jpeg = ByteBuffer.wrap(jpeg, 0, length).asReadOnlyBuffer();
+    }
+
+    int getJpegSize() {
+        return jpeg.remaining();
+    }
+
+    /**
+     * @return New views of the frame buffers, which are ready to be written with a
+     * gathering write
+     */
+    ByteBuffer[] newBuffers() {
+        return new ByteBuffer[]{header.duplicate(), jpeg.duplicate(), END.duplicate()};
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.server.mjpeg;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+import io.appium.uiautomator2.common.exceptions.CompressScreenshotException;
+import io.appium.uiautomator2.server.ServerConfig;
+import io.appium.uiautomator2.utils.Logger;
+
+import static android.graphics.Bitmap.CompressFormat.JPEG;
+
+/**
+ * The encoding stage of the MJPEG stream pipeline.
+ * <p>
+ * Captured screenshots are handed over with {@link #submit(Bitmap)} and are scaled and
+ * compressed on this thread, so the capture of the next frame overlaps with the encoding
+ * of the previous one. The handoff queue only holds a single screenshot: if the encoder
+ * falls behind, the waiting screenshot is replaced with the most recent one. Encoded
+ * frames are passed to the consumer, which queues them for sending to clients.
+ * <p>
+ * The scaled bitmap and the JPEG output buffer are reused between frames.
+ */
+class MjpegFrameEncoder extends Thread {
+    private static final int INITIAL_OUTPUT_BUFFER_SIZE = 256 * 1024;
+
+    private final BlockingQueue<Bitmap> handoffQueue = new ArrayBlockingQueue<>(1);
+    private final Consumer<MjpegFrame> frameConsumer;
+    private final ByteArrayOutputStream outputBuffer =
+        new ByteArrayOutputStream(INITIAL_OUTPUT_BUFFER_SIZE);
+    private final Matrix scaleMatrix = new Matrix();
+    private final Paint scalePaint = new Paint();
+    @Nullable
+    private Bitmap scaledBitmap;
+    @Nullable
+    private Canvas scaledCanvas;
+    private volatile boolean isStopped = false;
+
+    MjpegFrameEncoder(Consumer<MjpegFrame> frameConsumer) {
+        super("MJPEG frame encoder");
+        this.frameConsumer = frameConsumer;
+        // The pooled bitmap is fully overwritten, so there is no need to clear it between frames
+        scalePaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.SRC));
+    }
+
+    /**
+     * Queues the screenshot for encoding. This method never blocks. The encoder takes over
+     * the ownership of the bitmap and recycles it once it is not needed anymore.
+     */
+    void submit(Bitmap screenshot) {
+        while (!handoffQueue.offer(screenshot)) {
+            Bitmap replaced = handoffQueue.poll();
+            if (replaced != null) {
+                replaced.recycle();
+                MjpegStreamStats.getInstance().onCaptureDropped();
+            }
+        }
+    }
+
+    @Override
+    public void interrupt() {
+        this.isStopped = true;
+        super.interrupt();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!isStopped) {
+                Bitmap screenshot;
+                try {
+                    screenshot = handoffQueue.take();
+                } catch (InterruptedException e) {
+                    break;
+                }
+                try {
+                    frameConsumer.accept(new MjpegFrame(encode(screenshot)));
+                } catch (Exception e) {
+                    Logger.error("Error encoding screenshot: ", e);
+                } finally {
+                    screenshot.recycle();
+                }
+            }
+        } finally {
+            Bitmap pending = handoffQueue.poll();
+            if (pending != null) {
+                pending.recycle();
+            }
+            if (scaledBitmap != null) {
+                scaledBitmap.recycle();
+                scaledBitmap = null;
+            }
+        }
+    }
+
+    private byte[] encode(Bitmap screenshot) {
+        long start = System.nanoTime();
+        Bitmap bitmap = scale(screenshot, ServerConfig.getMjpegScalingFactor() / 100.0f,
+            ServerConfig.isMjpegBilinearFiltering());
+        long scaled = System.nanoTime();
+        MjpegStreamStats.getInstance().onScaled(scaled - start);
+
+        outputBuffer.reset();
+        try {
+            if (!bitmap.compress(JPEG, ServerConfig.getMjpegServerScreenshotQuality(), outputBuffer)) {
+                throw new CompressScreenshotException(JPEG);
+            }
+        } finally {
+            if (bitmap != screenshot && bitmap != scaledBitmap) {
+                bitmap.recycle();
+            }
+        }
+        // The buffer is reused for the next frame, while the frame itself is shared between
+        // clients, so the frame gets its own exactly sized copy
+        byte[] jpeg = outputBuffer.toByteArray();
+        MjpegStreamStats.getInstance().onCompressed(System.nanoTime() - scaled);
+        return jpeg;
+    }
+
+    private Bitmap scale(Bitmap source, float scale, boolean filter) {
+        if (Math.abs(scale - 1.0f) < Float.MIN_NORMAL) {
+            return source;
+        }
+        int width = Math.max(1, Math.round(source.getWidth() * scale));
+        int height = Math.max(1, Math.round(source.getHeight() * scale));
+        if (source.getConfig() == Bitmap.Config.HARDWARE) {
+            // Hardware bitmaps cannot be drawn on a software canvas
+            return Bitmap.createScaledBitmap(source, width, height, filter);
+        }
+        if (scaledBitmap == null || scaledBitmap.isRecycled()
+            || scaledBitmap.getWidth() != width || scaledBitmap.getHeight() != height) {
+            if (scaledBitmap != null) {
+                scaledBitmap.recycle();
+            }
+            scaledBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            scaledCanvas = new Canvas(scaledBitmap);
+        }
+        scaleMatrix.setScale((float) width / source.getWidth(), (float) height / source.getHeight());
+        scalePaint.setFilterBitmap(filter);
+        scaledCanvas.drawBitmap(source, scaleMatrix, scalePaint);
+        return scaledBitmap;
+    }
+}
@@ -16,22 +16,33 @@
 
 package io.appium.uiautomator2.server.mjpeg;
 
-import android.os.SystemClock;
+import androidx.annotation.Nullable;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
 import java.util.Locale;
 
 import io.appium.uiautomator2.utils.Logger;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+/**
+ * A single MJPEG stream viewer.
+ * <p>
+ * Socket operations are non-blocking and only performed on the server selector thread.
+ * The stream thread just hands the most recent frame over with {@link #offer(MjpegFrame)}.
+ * A frame, which is being written at the moment, is always finished, so the multipart
+ * stream stays valid, but at most one more frame is waiting after it. Older waiting frames
+ * are dropped, so clients reading slower than frames are produced skip frames instead of
+ * slowing down the stream for everyone else.
+ */
 class MjpegScreenshotClient {
-    private static final int INPUT_NOT_READY_SLEEP_TIME_MS = 100;
-    private static final byte[] START = (
+    private static final int READ_BUFFER_SIZE = 1024;
+    private static final ByteBuffer START = ByteBuffer.wrap((
         "HTTP/1.0 200 OK\r\n" +
         "Server: Android Screenshot Socket Server\r\n" +
         "Connection: close\r\n" +
@@ -40,95 +51,182 @@ class MjpegScreenshotClient {
         "Cache-Control: no-cache, private\r\n" +
         "Pragma: no-cache\r\n" +
         "Content-Type: multipart/x-mixed-replace; boundary=--BoundaryString\r\n\r\n"
-    ).getBytes(UTF_8);
-
-    private final Socket socket;
-    private BufferedReader in;
-    private OutputStream out;
+    ).getBytes(UTF_8)).asReadOnlyBuffer();
+
+    private final SocketChannel channel;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    @Nullable
+    private SelectionKey key;
+    // The buffers which are being written to the socket at the moment
+    @Nullable
+    private ByteBuffer[] inFlight;
+    // The most recent frame, which is waiting for the one in flight to be written
+    @Nullable
+    private MjpegFrame pending;
+    private long inFlightSince;
     private boolean isClosed = false;
     private boolean isInitialized = false;
+    private long offeredFrames = 0;
+    private long sentFrames = 0;
+    private long droppedFrames = 0;
 
-    MjpegScreenshotClient(Socket socket) {
-        this.socket = socket;
+    MjpegScreenshotClient(SocketChannel channel) {
+        this.channel = channel;
     }
 
     private String getRemoteAddress() {
-        if (socket == null) {
+        Socket socket = channel.socket();
+        if (socket == null || socket.getRemoteSocketAddress() == null) {
             return "";
         }
         return socket.getRemoteSocketAddress().toString().replaceAll("^/+", "");
     }
 
-    boolean isClosed() {
+    synchronized boolean isClosed() {
         return isClosed;
     }
 
-    boolean isInitialized() {
+    synchronized boolean isInitialized() {
         return isInitialized;
     }
 
-    void closeSocket() {
-        if (isClosed()) {
+    synchronized boolean isWaitingForFirstFrame() {
+        return isInitialized && !isClosed && offeredFrames == 0;
+    }
+
+    /**
+     * Registers the client channel with the server selector. Must be called on the selector thread.
+     */
+    synchronized void register(Selector selector) throws IOException {
+        channel.configureBlocking(false);
+        key = channel.register(selector, SelectionKey.OP_READ, this);
+        Logger.info(String.format(
+            Locale.ROOT,
+            "Screenshot broadcast client opened a connection %s",
+            getRemoteAddress()
+        ));
+    }
+
+    synchronized void closeSocket() {
+        if (isClosed) {
             return;
         }
 
+        if (key != null) {
+            key.cancel();
+        }
         try {
-            socket.close();
+            channel.close();
         } catch (IOException closeError) {
             Logger.error("Error closing socket.", closeError);
         }
+        if (isInitialized) {
+            Logger.info(String.format(
+                Locale.ROOT,
+                "Screenshot broadcast stopped for %s. %d frames sent, %d frames dropped",
+                getRemoteAddress(), sentFrames, droppedFrames
+            ));
+        }
 
         this.isClosed = true;
     }
 
-    void initialize() {
-        if (isInitialized()) {
+    /**
+     * Queues the given frame for sending. This method never blocks on the socket.
+     *
+     * @param frame The most recent frame
+     */
+    synchronized void offer(MjpegFrame frame) {
+        if (isClosed || !isInitialized) {
             return;
         }
+        offeredFrames++;
+        if (pending != null) {
+            // The client has not managed to receive the previous frame yet
+            droppedFrames++;
+        }
+        pending = frame;
+        if (inFlight == null) {
+            setWriteInterest(true);
+            // The selector thread might be waiting with the old interest set
+            key.selector().wakeup();
+        }
+    }
 
-        Logger.info(String.format(
-            Locale.ROOT,
-            "Screenshot broadcast client opened a connection %s",
-            getRemoteAddress()
-        ));
-
-        try {
-            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            this.out = socket.getOutputStream();
-        } catch (IOException e) {
-            Logger.error("Client failed to initialize", e);
-            closeSocket();
+    /**
+     * Reads the client request. The stream starts once the request has been received.
+     * Must be called on the selector thread.
+     */
+    synchronized void onReadable() {
+        if (isClosed) {
             return;
         }
-
         try {
-            if (!in.ready()) {
-               SystemClock.sleep(INPUT_NOT_READY_SLEEP_TIME_MS);
-               // Client initialization will be retried on the next frame
-               return;
+            readBuffer.clear();
+            if (channel.read(readBuffer) < 0) {
+                closeSocket();
+                return;
             }
-
-            Logger.info(String.format(
-                Locale.ROOT,
-                "Screenshot broadcast starting for %s",
-                getRemoteAddress()
-            ));
-            out.write(START);
         } catch (IOException e) {
             Logger.warn("Client socket connection could not be read.", e);
             closeSocket();
             return;
         }
+        if (isInitialized) {
+            // Anything the client sends after the request is ignored
+            return;
+        }
 
-        this.isInitialized = true;
+        Logger.info(String.format(
+            Locale.ROOT,
+            "Screenshot broadcast starting for %s",
+            getRemoteAddress()
+        ));
+        inFlight = new ByteBuffer[]{START.duplicate()};
+        isInitialized = true;
+        onWritable();
     }
 
-    void write(byte[] data) {
+    /**
+     * Continues writing the buffers in flight, and then the pending frame if there is one.
+     * Must be called on the selector thread.
+     */
+    synchronized void onWritable() {
         try {
-            out.write(data);
+            while (!isClosed) {
+                if (inFlight == null) {
+                    if (pending == null) {
+                        setWriteInterest(false);
+                        return;
+                    }
+                    inFlight = pending.newBuffers();
+                    inFlightSince = System.nanoTime();
+                    pending = null;
+                }
+                channel.write(inFlight);
+                if (inFlight[inFlight.length - 1].hasRemaining()) {
+                    // The socket send buffer is full, continue once it is writable again
+                    setWriteInterest(true);
+                    return;
+                }
+                if (inFlight.length > 1) {
+                    sentFrames++;
+                    MjpegStreamStats.getInstance().onSent(System.nanoTime() - inFlightSince);
+                }
+                inFlight = null;
+            }
         } catch (IOException e) {
             Logger.warn("Client socket connection not writable. Closing... ", e);
             closeSocket();
         }
     }
+
+    private void setWriteInterest(boolean enabled) {
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        key.interestOps(enabled
+            ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+            : SelectionKey.OP_READ);
+    }
 }
@@ -17,19 +17,30 @@
 package io.appium.uiautomator2.server.mjpeg;
 
 import java.io.IOException;
-import java.net.ServerSocket;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 
 import io.appium.uiautomator2.utils.Logger;
 
+/**
+ * Accepts MJPEG stream viewers and serves all of them from a single selector thread.
+ * Frames are produced by {@link MjpegScreenshotStream} independently, so neither a slow
+ * viewer nor a new connection ever stalls the screenshot capture.
+ */
 public class MjpegScreenshotServer extends Thread {
     private final int port;
     private final List<MjpegScreenshotClient> clients;
     private final MjpegScreenshotStream mjpegScreenshotStream;
-    private ServerSocket serverSocket;
-    private boolean isStopped = false;
+    private volatile Selector selector;
+    private volatile ServerSocketChannel serverChannel;
+    private volatile boolean isStopped = false;
 
     public MjpegScreenshotServer(int port) {
         this(port, new ArrayList<MjpegScreenshotClient>());
@@ -50,7 +61,12 @@ public class MjpegScreenshotServer extends Thread {
     @Override
     public void run() {
         try {
-            serverSocket = new ServerSocket(port);
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.socket().setReuseAddress(true);
+            serverChannel.socket().bind(new InetSocketAddress(port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
             Logger.info(String.format(
                 Locale.ROOT,
                 "ServerSocket created on port %d", port));
@@ -62,14 +78,67 @@ public class MjpegScreenshotServer extends Thread {
         mjpegScreenshotStream.start();
         while (!isStopped) {
             try {
-                Logger.debug("Socket Server waiting for connections.");
-                addClient(new MjpegScreenshotClient(serverSocket.accept()));
+                selector.select();
             } catch (IOException e) {
-                Logger.error("Socket Server failed to open connection.", e);
+                Logger.error("Socket Server failed to select ready connections.", e);
+                break;
+            }
+            if (isStopped) {
+                break;
+            }
+            Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+            while (selectedKeys.hasNext()) {
+                SelectionKey key = selectedKeys.next();
+                selectedKeys.remove();
+                handleKey(key);
             }
         }
 
         closeAllClients();
+        try {
+            selector.close();
+        } catch (IOException e) {
+            Logger.error("Socket Server failed to close selector.", e);
+        }
+    }
+
+    private void handleKey(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            acceptClient();
+            return;
+        }
+        MjpegScreenshotClient client = (MjpegScreenshotClient) key.attachment();
+        if (key.isReadable()) {
+            client.onReadable();
+        }
+        if (key.isValid() && key.isWritable()) {
+            client.onWritable();
+        }
+    }
+
+    private void acceptClient() {
+        SocketChannel channel;
+        try {
+            channel = serverChannel.accept();
+        } catch (IOException e) {
+            Logger.error("Socket Server failed to open connection.", e);
+            return;
+        }
+        if (channel == null) {
+            return;
+        }
+        MjpegScreenshotClient client = new MjpegScreenshotClient(channel);
+        try {
+            client.register(selector);
+        } catch (IOException e) {
+            Logger.error("Socket Server failed to register connection.", e);
+            client.closeSocket();
+            return;
+        }
+        addClient(client);
     }
 
     private void closeServer() {
@@ -77,15 +146,21 @@ public class MjpegScreenshotServer extends Thread {
             return;
         }
 
+        this.isStopped = true;
+        mjpegScreenshotStream.interrupt();
         closeAllClients();
 
         try {
-            serverSocket.close();
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
         } catch (IOException e) {
             Logger.error("Socket Server failed to close socket.", e);
         }
-
-        this.isStopped = true;
+        if (selector != null) {
+            // The selector itself is closed by the server thread
+            selector.wakeup();
+        }
     }
 
     private void addClient(MjpegScreenshotClient client) {
@@ -16,30 +16,41 @@
 
 package io.appium.uiautomator2.server.mjpeg;
 
+import android.app.UiAutomation.OnAccessibilityEventListener;
 import android.graphics.Bitmap;
 import android.os.SystemClock;
+import android.view.accessibility.AccessibilityEvent;
+
+import androidx.annotation.Nullable;
 
 import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
 
 import io.appium.uiautomator2.common.exceptions.TakeScreenshotException;
+import io.appium.uiautomator2.model.NotificationListener;
 import io.appium.uiautomator2.model.internal.CustomUiDevice;
 import io.appium.uiautomator2.server.ServerConfig;
 import io.appium.uiautomator2.utils.Logger;
-import io.appium.uiautomator2.utils.ScreenshotHelper;
-
-import static java.nio.charset.StandardCharsets.UTF_8;
 
-public class MjpegScreenshotStream extends Thread {
-    private static final String BOUNDARY_STRING = 
-        "--BoundaryString\r\n" +
-        "Content-type: image/jpg\r\n" +
-        "Content-Length: %d\r\n\r\n";
+/**
+ * The capture stage of the MJPEG stream pipeline. Screenshots are taken at the configured
+ * framerate and handed over to {@link MjpegFrameEncoder}, which scales and compresses them
+ * on its own thread. Encoded frames are then queued for each client and sent by the
+ * selector thread of {@link MjpegScreenshotServer}.
+ */
+public class MjpegScreenshotStream extends Thread implements OnAccessibilityEventListener {
     private static final int NO_CLIENTS_CONNECTED_SLEEP_TIME_MS = 500;
-    private static final byte[] END = "\r\n\r\n".getBytes(UTF_8);
     private final List<MjpegScreenshotClient> clients;
-    private boolean isStopped = false;
+    private final AdaptiveFramerate adaptiveFramerate = new AdaptiveFramerate();
+    private final ScreenFingerprint screenFingerprint = new ScreenFingerprint();
+    private final MjpegFrameEncoder frameEncoder = new MjpegFrameEncoder(this::onFrameEncoded);
+    // Accessibility events wake the stream up from idle waits
+    private final Object wakeUpLock = new Object();
+    // The most recently encoded frame, which is sent to new clients while the screen stays static
+    @Nullable
+    private volatile MjpegFrame lastFrame;
+    private boolean isObservingEvents = false;
+    private volatile boolean isStopped = false;
 
     MjpegScreenshotStream(List<MjpegScreenshotClient> clients) {
         this.clients = clients;
@@ -51,8 +62,26 @@ public class MjpegScreenshotStream extends Thread {
         super.interrupt();
     }
 
+    @Override
+    public void onAccessibilityEvent(AccessibilityEvent event) {
+        synchronized (wakeUpLock) {
+            adaptiveFramerate.onActivity(SystemClock.uptimeMillis());
+            wakeUpLock.notifyAll();
+        }
+    }
+
     @Override
     public void run() {
+        frameEncoder.start();
+        try {
+            streamFrames();
+        } finally {
+            frameEncoder.interrupt();
+            observeEvents(false);
+        }
+    }
+
+    private void streamFrames() {
         while (!isStopped) {
             boolean noClientsConnected;
             synchronized (clients) {
@@ -64,101 +93,141 @@ public class MjpegScreenshotStream extends Thread {
                 continue;
             }
 
+            boolean detectChanges = ServerConfig.isMjpegChangeDetection();
+            observeEvents(detectChanges);
+            if (!detectChanges) {
+                adaptiveFramerate.reset();
+            }
+            long start = SystemClock.uptimeMillis();
+            boolean isIdle = detectChanges && adaptiveFramerate.isIdle(start);
+            int framerate = ServerConfig.getMjpegServerFramerate();
+            if (isIdle) {
+                framerate = Math.min(framerate, ServerConfig.getMjpegIdleFramerate());
+            }
+            MjpegStreamStats.getInstance().setFramerate(framerate, isIdle);
             // how long each loop should take in milliseconds
-            long targetInterval =
-                Math.round((1.0f / ServerConfig.getMjpegServerFramerate()) * 1000.0f);
-            long start = System.currentTimeMillis();
+            long targetInterval = Math.round((1.0f / framerate) * 1000.0f);
 
             // add some resilience to handle `getScreenshot` or any of its
-            // sub-routines raising an error. If an error occurs during
-            // [post-]processing the frame will be dropped
-            byte[] screenshotData;
+            // sub-routines raising an error. If an error occurs the frame will be dropped
             try {
-                screenshotData = getScreenshot();
-            } catch (Exception e) {
-                Logger.error("Error getting screenshot: ", e);
-                screenshotData = new byte[0];
-            }
-
-            if (screenshotData.length > 0) {
-                synchronized (clients) {
-                    Iterator<MjpegScreenshotClient> clientsIterator = clients.iterator();
-                    while (clientsIterator.hasNext()) {
-                        MjpegScreenshotClient client = clientsIterator.next();
-                        if (client.isClosed()) {
-                            clientsIterator.remove();
-                            continue;
-                        }
-
-                        if (!client.isInitialized()) {
-                            client.initialize();
-                        }
-
-                        client.write(screenshotData);
+                Bitmap screenshot = getScreenshot(detectChanges);
+                if (screenshot == null) {
+                    // The screen has not changed since the previous frame
+                    MjpegStreamStats.getInstance().onFrameSkipped();
+                    MjpegFrame frame = lastFrame;
+                    if (frame != null) {
+                        broadcast(frame, true);
                     }
+                } else {
+                    frameEncoder.submit(screenshot);
                 }
-            } else {
-                Logger.warn("Empty screenshot returned, dropping frame");
+            } catch (Exception e) {
+                Logger.error("Error getting screenshot, dropping frame: ", e);
             }
 
             // Always attempt to match the target framerate, even if the frame
             // was dropped, to keep the rate consistent
-            matchFramerate(targetInterval, start);
+            matchFramerate(targetInterval, start, isIdle);
+        }
+    }
+
+    private void onFrameEncoded(MjpegFrame frame) {
+        MjpegStreamStats.getInstance().onFrameEncoded();
+        lastFrame = frame;
+        broadcast(frame, false);
+    }
+
+    /**
+     * Hands the frame over to clients. The actual sending happens on the server thread.
+     *
+     * @param frame The frame to send
+     * @param newClientsOnly Whether to only send the frame to clients, which have not
+     *                       received any frame yet
+     */
+    private void broadcast(MjpegFrame frame, boolean newClientsOnly) {
+        synchronized (clients) {
+            Iterator<MjpegScreenshotClient> clientsIterator = clients.iterator();
+            while (clientsIterator.hasNext()) {
+                MjpegScreenshotClient client = clientsIterator.next();
+                if (client.isClosed()) {
+                    clientsIterator.remove();
+                    continue;
+                }
+
+                if (!newClientsOnly || client.isWaitingForFirstFrame()) {
+                    client.offer(frame);
+                }
+            }
         }
     }
 
-    private void matchFramerate(long targetInterval, long start) {
-        long end = System.currentTimeMillis();
-        long duration = end - start;
+    private void observeEvents(boolean enabled) {
+        if (enabled == isObservingEvents) {
+            return;
+        }
+        if (enabled) {
+            NotificationListener.getInstance().addObserver(this);
+        } else {
+            NotificationListener.getInstance().removeObserver(this);
+        }
+        isObservingEvents = enabled;
+    }
 
-        if (duration < targetInterval) {
+    private void matchFramerate(long targetInterval, long start, boolean isIdle) {
+        long duration = SystemClock.uptimeMillis() - start;
+        if (duration >= targetInterval) {
+            return;
+        }
+
+        if (!isIdle) {
             SystemClock.sleep(targetInterval - duration);
+            return;
+        }
+        synchronized (wakeUpLock) {
+            // Ramp up immediately if there was some activity while the frame was being captured
+            if (!adaptiveFramerate.isIdle(SystemClock.uptimeMillis())) {
+                return;
+            }
+            try {
+                wakeUpLock.wait(targetInterval - duration);
+            } catch (InterruptedException e) {
+                // The stream is being stopped
+            }
         }
     }
 
-    private byte[] getScreenshot() {
+    private boolean isChanged(Bitmap screenshot) {
+        long fingerprint;
+        try {
+            fingerprint = screenFingerprint.compute(screenshot);
+        } catch (RuntimeException e) {
+            // E.g. hardware bitmaps do not allow reading pixels
+            Logger.debug("Cannot compute the screenshot fingerprint", e);
+            return true;
+        }
+        return adaptiveFramerate.onFrameCaptured(fingerprint, SystemClock.uptimeMillis());
+    }
+
+    /**
+     * @param detectChanges Whether to skip the frame if the screen has not changed
+     * @return The captured screenshot or null if the screen has not changed since the
+     * previous frame
+     */
+    @Nullable
+    private Bitmap getScreenshot(boolean detectChanges) {
+        long start = System.nanoTime();
         Bitmap screenshot = CustomUiDevice.getInstance().getUiAutomation().takeScreenshot();
         if (screenshot == null) {
             throw new TakeScreenshotException("Could not take screenshot: UiAutomation returned null");
         }
 
-        byte[] jpeg = ScreenshotHelper.compressJpeg(
-            screenshot,
-            ServerConfig.getMjpegScalingFactor() / 100.0f,
-            ServerConfig.getMjpegServerScreenshotQuality(),
-            ServerConfig.isMjpegBilinearFiltering()
-        );
-        screenshot.recycle();
-
-        byte[] header = String.format(
-            Locale.ROOT,
-            BOUNDARY_STRING,
-            jpeg.length
-        ).getBytes(UTF_8);
-        byte[] data = new byte[jpeg.length + header.length + END.length];
-
-        System.arraycopy(
-            header,
-            0,
-            data,
-            0,
-            header.length
-        );
-        System.arraycopy(
-            jpeg,
-            0,
-            data,
-            header.length,
-            jpeg.length
-        );
-        System.arraycopy(
-            END,
-            0,
-            data,
-            header.length + jpeg.length,
-            END.length
-        );
-
-        return data;
+        boolean isSkipped = detectChanges && !isChanged(screenshot);
+        MjpegStreamStats.getInstance().onCaptured(System.nanoTime() - start);
+        if (isSkipped) {
+            screenshot.recycle();
+            return null;
+        }
+        return screenshot;
     }
 }
@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.server.mjpeg;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.appium.uiautomator2.model.api.MjpegStatsModel;
+import io.appium.uiautomator2.model.api.TimingStatsModel;
+
+/**
+ * Counters and per-stage timings of the MJPEG screenshot stream, which are exposed
+ * by the status endpoint.
+ */
+public class MjpegStreamStats {
+    private static MjpegStreamStats INSTANCE;
+
+    private final AtomicLong encodedFrames = new AtomicLong();
+    private final AtomicLong skippedFrames = new AtomicLong();
+    private final AtomicLong droppedCaptures = new AtomicLong();
+    private final StageTimer captureTimer = new StageTimer();
+    private final StageTimer scaleTimer = new StageTimer();
+    private final StageTimer compressTimer = new StageTimer();
+    private final StageTimer sendTimer = new StageTimer();
+    private volatile boolean isIdle = false;
+    private volatile int framerate = 0;
+
+    public static synchronized MjpegStreamStats getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new MjpegStreamStats();
+        }
+        return INSTANCE;
+    }
+
+    void onFrameEncoded() {
+        encodedFrames.incrementAndGet();
+    }
+
+    void onFrameSkipped() {
+        skippedFrames.incrementAndGet();
+    }
+
+    void onCaptureDropped() {
+        droppedCaptures.incrementAndGet();
+    }
+
+    void onCaptured(long durationNanos) {
+        captureTimer.record(durationNanos);
+    }
+
+    void onScaled(long durationNanos) {
+        scaleTimer.record(durationNanos);
+    }
+
+    void onCompressed(long durationNanos) {
+        compressTimer.record(durationNanos);
+    }
+
+    void onSent(long durationNanos) {
+        sendTimer.record(durationNanos);
+    }
+
+    void setFramerate(int framerate, boolean isIdle) {
+        this.framerate = framerate;
+        this.isIdle = isIdle;
+    }
+
+    public MjpegStatsModel toModel() {
+        return new MjpegStatsModel(encodedFrames.get(), skippedFrames.get(), isIdle, framerate,
+                droppedCaptures.get(), captureTimer.toModel(), scaleTimer.toModel(),
+                compressTimer.toModel(), sendTimer.toModel());
+    }
+
+    private static class StageTimer {
+        private static final double NANOS_PER_MS = 1_000_000.0;
+
+        private long count = 0;
+        private long totalNanos = 0;
+        private long maxNanos = 0;
+
+        synchronized void record(long durationNanos) {
+            count++;
+            totalNanos += durationNanos;
+            maxNanos = Math.max(maxNanos, durationNanos);
+        }
+
+        synchronized TimingStatsModel toModel() {
+            return new TimingStatsModel(
+                    count,
+                    count == 0 ? 0 : totalNanos / NANOS_PER_MS / count,
+                    maxNanos / NANOS_PER_MS
+            );
+        }
+    }
+}
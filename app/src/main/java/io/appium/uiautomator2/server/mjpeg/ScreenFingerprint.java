@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.server.mjpeg;
+
+import android.graphics.Bitmap;
+
+/**
+ * Computes cheap fingerprints of captured screenshots, so unchanged frames could be
+ * detected without scaling and encoding them. Only every {@link #ROW_STEP}-th pixel
+ * row contributes to the fingerprint, which is enough to notice any UI change larger
+ * than a few pixels in height at a fraction of the encoding cost.
+ * <p>
+ * Instances are not thread-safe as they reuse the same row buffer.
+ */
+class ScreenFingerprint {
+    static final int ROW_STEP = 4;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private int[] rowBuffer = new int[0];
+
+    long compute(Bitmap bitmap) {
+        final int width = bitmap.getWidth();
+        final int height = bitmap.getHeight();
+        if (rowBuffer.length < width) {
+            rowBuffer = new int[width];
+        }
+        long hash = mix(mix(FNV_OFFSET_BASIS, width), height);
+        for (int y = 0; y < height; y += ROW_STEP) {
+            bitmap.getPixels(rowBuffer, 0, width, 0, y, width, 1);
+            hash = hashPixels(hash, rowBuffer, width);
+        }
+        return hash;
+    }
+
+    static long hashPixels(long hash, int[] pixels, int count) {
+        for (int i = 0; i < count; i++) {
+            hash = mix(hash, pixels[i]);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+}
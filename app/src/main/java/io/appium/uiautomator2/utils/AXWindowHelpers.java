@@ -30,7 +30,9 @@ import java.util.Objects;
 
 import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
 import io.appium.uiautomator2.core.UiAutomatorBridge;
+import io.appium.uiautomator2.model.AppiumUIA2Driver;
 import io.appium.uiautomator2.model.NotificationListener;
+import io.appium.uiautomator2.model.Session;
 import io.appium.uiautomator2.model.internal.CustomUiDevice;
 import io.appium.uiautomator2.model.settings.DeferAccessibilityCacheReset;
 import io.appium.uiautomator2.model.settings.EnableMultiWindows;
@@ -50,13 +52,20 @@ public class AXWindowHelpers {
      * @param forceClear when true the AccessibilityInteractionClient cache is always cleared (used
      *                   by the explicit reset endpoint). When false the clear may be skipped if
      *                   {@link DeferAccessibilityCacheReset} is enabled and no relevant UI-change
-     *                   event has been observed since the last reset.
+     *                   event has been observed since the last reset. A forced clear also
+     *                   invalidates the snapshot tree cached by the current session.
      */
     public static void resetAccessibilityCache(boolean forceClear) {
         Device.waitForIdle();
         if (forceClear || shouldClearAccessibilityCache()) {
             clearAccessibilityCache();
         }
+        if (forceClear) {
+            Session session = AppiumUIA2Driver.getInstance().getSession();
+            if (session != null) {
+                session.getSnapshotCache().invalidate();
+            }
+        }
         synchronized (CACHED_WINDOW_ROOTS) {
             CACHED_WINDOW_ROOTS.clear();
         }
@@ -64,7 +73,7 @@ public class AXWindowHelpers {
 
     private static boolean shouldClearAccessibilityCache() {
         // Preserve the historical always-reset behavior unless the optimization is opted into.
-        if (!Settings.get(DeferAccessibilityCacheReset.class).getValue()) {
+        if (!Settings.getValue(DeferAccessibilityCacheReset.class)) {
             return true;
         }
         NotificationListener listener = NotificationListener.getInstance();
@@ -78,11 +87,11 @@ public class AXWindowHelpers {
     }
 
     public static AccessibilityNodeInfo[] getCachedWindowRoots() {
-        boolean shouldRetrieveAllWindowRoots = Settings.get(EnableMultiWindows.class).getValue();
+        boolean shouldRetrieveAllWindowRoots = Settings.getValue(EnableMultiWindows.class);
         // Multi-window retrieval is needed to search the topmost window from active package.
-        boolean shouldRetrieveTopmostWindowRootFromActivePackage = Settings.get(
+        boolean shouldRetrieveTopmostWindowRootFromActivePackage = Settings.getValue(
                 EnableTopmostWindowFromActivePackage.class
-        ).getValue();
+        );
         String cacheKey = makeCacheKey(
                 shouldRetrieveAllWindowRoots,
                 shouldRetrieveTopmostWindowRootFromActivePackage
@@ -117,7 +126,14 @@ public class AXWindowHelpers {
         };
     }
 
-    private static AccessibilityNodeInfo getActiveWindowRoot() {
+    /**
+     * Retrieves the root node of the active window the same way UiAutomator's QueryController
+     * does for UiSelector lookups, retrying while the root is not available yet.
+     *
+     * @return The root of the active window
+     * @throws UiAutomator2Exception if the root cannot be retrieved in time
+     */
+    public static AccessibilityNodeInfo getActiveWindowRoot() {
         long start = SystemClock.uptimeMillis();
         while (SystemClock.uptimeMillis() - start < AX_ROOT_RETRIEVAL_TIMEOUT_MS) {
             try {
@@ -0,0 +1,186 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils;
+
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded ring buffer of log records, which are written by a single background thread,
+ * so callers never wait for logcat. Slots are preallocated, thus enqueuing a record does not
+ * allocate. If the buffer is full then new records are dropped and the count of dropped
+ * records is reported as soon as there is free space again.
+ */
+class AsyncLogSink {
+    interface LogWriter {
+        void write(int level, String message, @Nullable Throwable throwable);
+    }
+
+    private static final String THREAD_NAME = "appium-logger";
+
+    private final LogWriter writer;
+    private final int[] levels;
+    private final String[] messages;
+    private final Throwable[] throwables;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    private final Thread worker;
+    // Guarded by lock
+    private int head;
+    private int size;
+    private long droppedCount;
+    private boolean isWriting;
+    private boolean isStopped;
+
+    AsyncLogSink(int capacity, LogWriter writer) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be a positive number");
+        }
+        this.writer = writer;
+        this.levels = new int[capacity];
+        this.messages = new String[capacity];
+        this.throwables = new Throwable[capacity];
+        this.worker = new Thread(this::run, THREAD_NAME);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Enqueues the record without blocking.
+     *
+     * @return false if the sink has been stopped and the record should be written by the caller
+     */
+    boolean offer(int level, String message, @Nullable Throwable throwable) {
+        lock.lock();
+        try {
+            if (isStopped) {
+                return false;
+            }
+            if (size == levels.length) {
+                droppedCount++;
+                return true;
+            }
+            int tail = (head + size) % levels.length;
+            levels[tail] = level;
+            messages[tail] = message;
+            throwables[tail] = throwable;
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until all the enqueued records are written.
+     *
+     * @return false if the records have not been written in the given time
+     */
+    boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (size > 0 || isWriting || droppedCount > 0) {
+                if (nanos <= 0 || !worker.isAlive()) {
+                    return false;
+                }
+                nanos = drained.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting new records. Records, which are already enqueued, are still written.
+     */
+    void stop() {
+        lock.lock();
+        try {
+            isStopped = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            int level;
+            String message;
+            Throwable throwable;
+            long dropped;
+            lock.lock();
+            try {
+                isWriting = false;
+                if (size == 0 && droppedCount == 0) {
+                    drained.signalAll();
+                }
+                while (size == 0 && droppedCount == 0) {
+                    if (isStopped) {
+                        return;
+                    }
+                    notEmpty.awaitUninterruptibly();
+                }
+                dropped = droppedCount;
+                droppedCount = 0;
+                level = levels[head];
+                message = messages[head];
+                throwable = throwables[head];
+                if (size > 0) {
+                    messages[head] = null;
+                    throwables[head] = null;
+                    head = (head + 1) % levels.length;
+                    size--;
+                } else {
+                    message = null;
+                }
+                isWriting = true;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                if (dropped > 0) {
+                    writer.write(android.util.Log.WARN, String.format(
+                            "%s log messages have been dropped because the log buffer was full",
+                            dropped), null);
+                }
+                if (message != null) {
+                    writer.write(level, message, throwable);
+                }
+            } catch (RuntimeException e) {
+                // There is nowhere else to report the failure to
+            }
+        }
+    }
+}
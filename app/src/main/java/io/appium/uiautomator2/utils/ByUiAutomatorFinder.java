@@ -31,12 +31,15 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.IntStream;
 
+import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
 import io.appium.uiautomator2.model.AccessibleUiObject;
 import io.appium.uiautomator2.model.AndroidElement;
 import io.appium.uiautomator2.model.By;
 import io.appium.uiautomator2.model.internal.CustomUiDevice;
 
+import static io.appium.uiautomator2.core.AxNodeInfoExtractor.toAxNodeInfo;
 import static io.appium.uiautomator2.model.AccessibleUiObject.toAccessibleUiObject;
+import static io.appium.uiautomator2.utils.AXWindowHelpers.getActiveWindowRoot;
 import static io.appium.uiautomator2.utils.Device.getUiDevice;
 import static io.appium.uiautomator2.utils.ElementLocationHelpers.toSelector;
 import static io.appium.uiautomator2.utils.ElementLocationHelpers.toSelectors;
@@ -102,6 +105,13 @@ public class ByUiAutomatorFinder {
         final boolean useIndex = doesUiSelectorHaveAttribute(sel, "CLASS_REGEX");
         if (useIndex) {
             Logger.debug("Selector has CLASS_REGEX attribute");
+        } else if (UiSelectorMatcher.isSupported(sel)) {
+            try {
+                return matchDescendantElementsInSinglePass(sel, context);
+            } catch (UiAutomator2Exception e) {
+                Logger.info(String.format("Cannot match %s in a single pass (%s). " +
+                        "Falling back to the search by instance", sel, e.getMessage()));
+            }
         }
         final List<AccessibleUiObject> elements = new ArrayList<>();
         int descendantIndex = 0;
@@ -127,6 +137,29 @@ public class ByUiAutomatorFinder {
         } while (true);
     }
 
+    /**
+     * Uses the same search scope as the instance-based lookup: UiDevice.findObject(UiSelector)
+     * waits for idle and only searches the active window, regardless of the multi-window
+     * settings, so both ways produce the same matches in the same order.
+     */
+    private static List<AccessibleUiObject> matchDescendantElementsInSinglePass(
+            UiSelector sel, @Nullable AndroidElement context) {
+        UiSelectorMatcher matcher = new UiSelectorMatcher(sel);
+        NodeInfoList matchedNodes;
+        if (context == null) {
+            Device.waitForIdle();
+            matchedNodes = matcher.findAll(getActiveWindowRoot());
+        } else {
+            matchedNodes = matcher.findAllDescendants(toAxNodeInfo(context.getUiObject()));
+        }
+        Logger.debug(String.format("Matched %s after evaluating %s",
+                pluralize(matchedNodes.size(), "node"),
+                pluralize(matcher.getEvaluatedNodesCount(), "node")));
+        return matchedNodes.isEmpty()
+                ? Collections.<AccessibleUiObject>emptyList()
+                : CustomUiDevice.getInstance().findObjects(matchedNodes);
+    }
+
     /**
      * Remove all duplicate elements from the provided list
      *
@@ -66,7 +66,7 @@ public abstract class Device {
     }
 
     public static void waitForIdle() {
-        long timeoutMs = Settings.get(WaitForIdleTimeout.class).getValue();
+        long timeoutMs = Settings.getValue(WaitForIdleTimeout.class);
         if (timeoutMs <= 0) {
             Logger.info("Idle timeout is not greater than zero. Skipping the wait");
             return;
@@ -22,24 +22,22 @@ import androidx.annotation.Nullable;
 import androidx.test.uiautomator.UiObjectNotFoundException;
 import androidx.test.uiautomator.UiSelector;
 
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import io.appium.uiautomator2.common.exceptions.ElementNotFoundException;
 import io.appium.uiautomator2.common.exceptions.NotImplementedException;
 import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
 import io.appium.uiautomator2.common.exceptions.UiSelectorSyntaxException;
 import io.appium.uiautomator2.core.AccessibilityNodeInfoDumper;
+import io.appium.uiautomator2.core.CompiledXPath;
+import io.appium.uiautomator2.core.CompiledXPathCache;
 import io.appium.uiautomator2.model.AccessibleUiObject;
 import io.appium.uiautomator2.model.AndroidElement;
 import io.appium.uiautomator2.model.AppiumUIA2Driver;
 import io.appium.uiautomator2.model.By;
-import io.appium.uiautomator2.model.UiElementSnapshot;
 import io.appium.uiautomator2.model.internal.CustomUiDevice;
 import io.appium.uiautomator2.model.settings.DisableIdLocatorAutocompletion;
 import io.appium.uiautomator2.model.settings.MapTestTagToResourceId;
@@ -70,7 +68,7 @@ public class ElementLocationHelpers {
 
     public static String rewriteIdLocator(By.ById by) {
         String locator = by.getElementLocator();
-        if (Settings.get(DisableIdLocatorAutocompletion.class).getValue()
+        if (Settings.getValue(DisableIdLocatorAutocompletion.class)
                 || resourceIdRegex.matcher(locator).matches()) {
             return locator;
         }
@@ -93,13 +91,11 @@ public class ElementLocationHelpers {
     public static NodeInfoList getXPathNodeMatch(
             final String expression, @Nullable AndroidElement element, boolean multiple) {
         AccessibilityNodeInfo root = element == null ? null : toAxNodeInfo(element.getUiObject());
-        // We are trying to be smart here and only include the actually queried
-        // attributes into the source XML document. This allows to improve the performance a lot
-        // while building this document.
-        Set<Attribute> includedAttributes = extractQueriedAttributes(expression);
+        CompiledXPath xpath = CompiledXPathCache.getInstance().get(expression);
+        Set<Attribute> includedAttributes = xpath.getQueriedAttributes();
         Logger.info(String.format("The following attributes will be included to the page source: %s",
                 includedAttributes));
-        return new AccessibilityNodeInfoDumper(root, includedAttributes).findNodes(expression, multiple);
+        return new AccessibilityNodeInfoDumper(root, includedAttributes).findNodes(xpath, multiple);
     }
 
     public static UiSelector toSelector(String uiaExpression) throws UiSelectorSyntaxException {
@@ -218,7 +214,7 @@ public class ElementLocationHelpers {
     public static AccessibleUiObject findElementById(
             By.ById by, @Nullable AndroidElement context) throws UiObjectNotFoundException {
         String locator = rewriteIdLocator(by);
-        if (Settings.get(MapTestTagToResourceId.class).getValue()) {
+        if (Settings.getValue(MapTestTagToResourceId.class)) {
             final NodeInfoList matchedNodes = getXPathNodeMatch(
                     resourceIdXPath(by.getElementLocator(), locator), context, false);
             if (matchedNodes.isEmpty()) {
@@ -291,16 +287,6 @@ public class ElementLocationHelpers {
         return result.append(')').toString();
     }
 
-    private static Set<Attribute> extractQueriedAttributes(String xpathExpression) {
-        if (xpathExpression.contains("@*")) {
-            return new HashSet<>(Arrays.asList(UiElementSnapshot.SUPPORTED_ATTRIBUTES));
-        }
-
-        return Arrays.stream(Attribute.values())
-                .filter(attr -> xpathExpression.contains("@" + attr.toString()))
-                .collect(Collectors.toSet());
-    }
-
     /**
      * Shared {@code By.ById} handling for both {@link #findElements} overloads. See
      * {@link #findElementById} for the resolution logic; the only difference is that an empty
@@ -308,7 +294,7 @@ public class ElementLocationHelpers {
      */
     private static List<AccessibleUiObject> findElementsById(By.ById by, @Nullable AndroidElement context) {
         String locator = rewriteIdLocator(by);
-        if (Settings.get(MapTestTagToResourceId.class).getValue()) {
+        if (Settings.getValue(MapTestTagToResourceId.class)) {
             final NodeInfoList matchedNodes = getXPathNodeMatch(
                     resourceIdXPath(by.getElementLocator(), locator), context, true);
             return matchedNodes.isEmpty()
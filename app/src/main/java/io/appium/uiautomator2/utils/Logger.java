@@ -16,26 +16,97 @@
 
 package io.appium.uiautomator2.utils;
 
-import java.util.Arrays;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import android.util.Log;
 
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Writes messages to logcat under the {@link #TAG} tag.
+ * <p>
+ * The supplier and the format-based overloads only build the message if the corresponding
+ * log level is enabled, so they should be preferred on hot paths over concatenating or
+ * formatting the message in advance. Logcat writes could optionally be moved to a background
+ * thread (see {@link #setAsyncSinkEnabled(boolean)}), so they never block callers.
+ */
 public class Logger {
     public static final String TAG = "appium";
+    private static final int ASYNC_SINK_CAPACITY = 1024;
+    private static final long ASYNC_SINK_FLUSH_TIMEOUT_MS = 1000;
+
+    @Nullable
+    private static volatile AsyncLogSink asyncSink;
 
     private static String getString(Object... args) {
-        return Arrays.stream(args)
-                .filter(Objects::nonNull)
-                .map(Object::toString)
-                .collect(Collectors.joining());
+        if (args.length == 1) {
+            return args[0] == null ? "" : args[0].toString();
+        }
+        StringBuilder result = new StringBuilder();
+        for (Object arg : args) {
+            if (arg != null) {
+                result.append(arg);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * @param level One of {@link Log} priority constants
+     * @return Whether messages of the given level are written to the log
+     */
+    public static boolean isLoggable(int level) {
+        return Log.isLoggable(TAG, level);
+    }
+
+    private static void write(int level, String message, @Nullable Throwable throwable) {
+        AsyncLogSink sink = asyncSink;
+        if (sink != null && sink.offer(level, message, throwable)) {
+            return;
+        }
+        writeToLogcat(level, message, throwable);
+    }
+
+    private static void writeToLogcat(int level, String message, @Nullable Throwable throwable) {
+        Log.println(level, TAG, throwable == null
+                ? message
+                : message + '\n' + Log.getStackTraceString(throwable));
+    }
+
+    /**
+     * Enables or disables writing to logcat from a background thread. The background writer
+     * has a bounded buffer and drops messages if it gets full. Messages, which are already
+     * buffered, are written before the sink is disabled.
+     */
+    public static synchronized void setAsyncSinkEnabled(boolean enabled) {
+        AsyncLogSink sink = asyncSink;
+        if (enabled == (sink != null)) {
+            return;
+        }
+        if (enabled) {
+            asyncSink = new AsyncLogSink(ASYNC_SINK_CAPACITY, Logger::writeToLogcat);
+            return;
+        }
+        asyncSink = null;
+        sink.stop();
+        try {
+            sink.flush(ASYNC_SINK_FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static boolean isAsyncSinkEnabled() {
+        return asyncSink != null;
     }
 
     /**
      * Logger error
      */
     public static void error(Object... messages) {
-        if (android.util.Log.isLoggable(TAG, android.util.Log.ERROR)) {
-            android.util.Log.e(TAG, getString(messages));
+        if (isLoggable(Log.ERROR)) {
+            write(Log.ERROR, getString(messages), null);
         }
     }
 
@@ -43,8 +114,53 @@ public class Logger {
      * Logger error
      */
     public static void error(String message, Throwable throwable) {
-        if (android.util.Log.isLoggable(TAG, android.util.Log.ERROR)) {
-            android.util.Log.e(TAG, getString(message), throwable);
+        if (isLoggable(Log.ERROR)) {
+            write(Log.ERROR, getString(message), throwable);
+        }
+    }
+
+    /**
+     * Logger error. The message is only built if the level is enabled.
+     */
+    public static void error(Supplier<String> message) {
+        if (isLoggable(Log.ERROR)) {
+            write(Log.ERROR, message.get(), null);
+        }
+    }
+
+    /**
+     * Logger error. The message is only built if the level is enabled.
+     */
+    public static void error(Supplier<String> message, Throwable throwable) {
+        if (isLoggable(Log.ERROR)) {
+            write(Log.ERROR, message.get(), throwable);
+        }
+    }
+
+    /**
+     * Logger error. The message is only formatted if the level is enabled.
+     */
+    public static void errorf(String format, @Nullable Object arg) {
+        if (isLoggable(Log.ERROR)) {
+            write(Log.ERROR, String.format(format, arg), null);
+        }
+    }
+
+    /**
+     * Logger error. The message is only formatted if the level is enabled.
+     */
+    public static void errorf(String format, @Nullable Object arg1, @Nullable Object arg2) {
+        if (isLoggable(Log.ERROR)) {
+            write(Log.ERROR, String.format(format, arg1, arg2), null);
+        }
+    }
+
+    /**
+     * Logger error. The message is only formatted if the level is enabled.
+     */
+    public static void errorf(String format, Object... args) {
+        if (isLoggable(Log.ERROR)) {
+            write(Log.ERROR, String.format(format, args), null);
         }
     }
 
@@ -52,8 +168,44 @@ public class Logger {
      * Logger warning
      */
     public static void warn(Object... messages) {
-        if (android.util.Log.isLoggable(TAG, android.util.Log.WARN)) {
-            android.util.Log.w(TAG, getString(messages));
+        if (isLoggable(Log.WARN)) {
+            write(Log.WARN, getString(messages), null);
+        }
+    }
+
+    /**
+     * Logger warning. The message is only built if the level is enabled.
+     */
+    public static void warn(Supplier<String> message) {
+        if (isLoggable(Log.WARN)) {
+            write(Log.WARN, message.get(), null);
+        }
+    }
+
+    /**
+     * Logger warning. The message is only formatted if the level is enabled.
+     */
+    public static void warnf(String format, @Nullable Object arg) {
+        if (isLoggable(Log.WARN)) {
+            write(Log.WARN, String.format(format, arg), null);
+        }
+    }
+
+    /**
+     * Logger warning. The message is only formatted if the level is enabled.
+     */
+    public static void warnf(String format, @Nullable Object arg1, @Nullable Object arg2) {
+        if (isLoggable(Log.WARN)) {
+            write(Log.WARN, String.format(format, arg1, arg2), null);
+        }
+    }
+
+    /**
+     * Logger warning. The message is only formatted if the level is enabled.
+     */
+    public static void warnf(String format, Object... args) {
+        if (isLoggable(Log.WARN)) {
+            write(Log.WARN, String.format(format, args), null);
         }
     }
 
@@ -61,8 +213,44 @@ public class Logger {
      * Logger info
      */
     public static void info(Object... messages) {
-        if (android.util.Log.isLoggable(TAG, android.util.Log.INFO)) {
-            android.util.Log.i(TAG, getString(messages));
+        if (isLoggable(Log.INFO)) {
+            write(Log.INFO, getString(messages), null);
+        }
+    }
+
+    /**
+     * Logger info. The message is only built if the level is enabled.
+     */
+    public static void info(Supplier<String> message) {
+        if (isLoggable(Log.INFO)) {
+            write(Log.INFO, message.get(), null);
+        }
+    }
+
+    /**
+     * Logger info. The message is only formatted if the level is enabled.
+     */
+    public static void infof(String format, @Nullable Object arg) {
+        if (isLoggable(Log.INFO)) {
+            write(Log.INFO, String.format(format, arg), null);
+        }
+    }
+
+    /**
+     * Logger info. The message is only formatted if the level is enabled.
+     */
+    public static void infof(String format, @Nullable Object arg1, @Nullable Object arg2) {
+        if (isLoggable(Log.INFO)) {
+            write(Log.INFO, String.format(format, arg1, arg2), null);
+        }
+    }
+
+    /**
+     * Logger info. The message is only formatted if the level is enabled.
+     */
+    public static void infof(String format, Object... args) {
+        if (isLoggable(Log.INFO)) {
+            write(Log.INFO, String.format(format, args), null);
         }
     }
 
@@ -70,8 +258,44 @@ public class Logger {
      * Logger debug
      */
     public static void debug(Object... messages) {
-        if (android.util.Log.isLoggable(TAG, android.util.Log.DEBUG)) {
-            android.util.Log.d(TAG, getString(messages));
+        if (isLoggable(Log.DEBUG)) {
+            write(Log.DEBUG, getString(messages), null);
+        }
+    }
+
+    /**
+     * Logger debug. The message is only built if the level is enabled.
+     */
+    public static void debug(Supplier<String> message) {
+        if (isLoggable(Log.DEBUG)) {
+            write(Log.DEBUG, message.get(), null);
+        }
+    }
+
+    /**
+     * Logger debug. The message is only formatted if the level is enabled.
+     */
+    public static void debugf(String format, @Nullable Object arg) {
+        if (isLoggable(Log.DEBUG)) {
+            write(Log.DEBUG, String.format(format, arg), null);
+        }
+    }
+
+    /**
+     * Logger debug. The message is only formatted if the level is enabled.
+     */
+    public static void debugf(String format, @Nullable Object arg1, @Nullable Object arg2) {
+        if (isLoggable(Log.DEBUG)) {
+            write(Log.DEBUG, String.format(format, arg1, arg2), null);
+        }
+    }
+
+    /**
+     * Logger debug. The message is only formatted if the level is enabled.
+     */
+    public static void debugf(String format, Object... args) {
+        if (isLoggable(Log.DEBUG)) {
+            write(Log.DEBUG, String.format(format, args), null);
         }
     }
 }
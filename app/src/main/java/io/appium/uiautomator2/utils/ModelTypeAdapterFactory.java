@@ -0,0 +1,194 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import io.appium.uiautomator2.model.api.ElementModel;
+import io.appium.uiautomator2.model.api.ElementRectModel;
+import io.appium.uiautomator2.model.api.WindowModel;
+import io.appium.uiautomator2.model.api.server.ResponseModel;
+
+import static io.appium.uiautomator2.utils.w3c.ElementConstants.JWP_ELEMENT_ID_KEY_NAME;
+import static io.appium.uiautomator2.utils.w3c.ElementConstants.W3C_ELEMENT_ID_KEY_NAME;
+
+/**
+ * Hand-written serializers for the models, which are sent in responses the most often.
+ * They produce exactly the same JSON as the reflective Gson adapters do, but without
+ * reflective field access. Deserialization is delegated to the reflective adapters.
+ */
+class ModelTypeAdapterFactory implements TypeAdapterFactory {
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == ResponseModel.class) {
+            return (TypeAdapter<T>) new ResponseModelAdapter(gson,
+                    gson.getDelegateAdapter(this, TypeToken.get(ResponseModel.class)));
+        }
+        if (rawType == ElementModel.class) {
+            return (TypeAdapter<T>) new ElementModelAdapter(
+                    gson.getDelegateAdapter(this, TypeToken.get(ElementModel.class)));
+        }
+        if (rawType == ElementRectModel.class) {
+            return (TypeAdapter<T>) new ElementRectModelAdapter(
+                    gson.getDelegateAdapter(this, TypeToken.get(ElementRectModel.class)));
+        }
+        if (rawType == WindowModel.class) {
+            return (TypeAdapter<T>) new WindowModelAdapter(gson,
+                    gson.getDelegateAdapter(this, TypeToken.get(WindowModel.class)));
+        }
+        return null;
+    }
+
+    private static void writeInteger(JsonWriter out, String name, Integer value) throws IOException {
+        out.name(name);
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(value);
+        }
+    }
+
+    private static class ResponseModelAdapter extends TypeAdapter<ResponseModel> {
+        private final TypeAdapter<ResponseModel> delegate;
+        private final TypeAdapter<Object> valueAdapter;
+
+        ResponseModelAdapter(Gson gson, TypeAdapter<ResponseModel> delegate) {
+            this.delegate = delegate;
+            this.valueAdapter = gson.getAdapter(Object.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, ResponseModel model) throws IOException {
+            if (model == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("value");
+            // Resolves the adapter for the runtime type of the value
+            valueAdapter.write(out, model.value);
+            out.name("sessionId").value(model.sessionId);
+            out.endObject();
+        }
+
+        @Override
+        public ResponseModel read(JsonReader in) throws IOException {
+            return delegate.read(in);
+        }
+    }
+
+    private static class ElementModelAdapter extends TypeAdapter<ElementModel> {
+        private final TypeAdapter<ElementModel> delegate;
+
+        ElementModelAdapter(TypeAdapter<ElementModel> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(JsonWriter out, ElementModel model) throws IOException {
+            if (model == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name(JWP_ELEMENT_ID_KEY_NAME).value(model.jwpElementId);
+            out.name(W3C_ELEMENT_ID_KEY_NAME).value(model.w3cElementId);
+            out.endObject();
+        }
+
+        @Override
+        public ElementModel read(JsonReader in) throws IOException {
+            return delegate.read(in);
+        }
+    }
+
+    private static class ElementRectModelAdapter extends TypeAdapter<ElementRectModel> {
+        private final TypeAdapter<ElementRectModel> delegate;
+
+        ElementRectModelAdapter(TypeAdapter<ElementRectModel> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(JsonWriter out, ElementRectModel model) throws IOException {
+            if (model == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeInteger(out, "x", model.x);
+            writeInteger(out, "y", model.y);
+            writeInteger(out, "width", model.width);
+            writeInteger(out, "height", model.height);
+            out.endObject();
+        }
+
+        @Override
+        public ElementRectModel read(JsonReader in) throws IOException {
+            return delegate.read(in);
+        }
+    }
+
+    private static class WindowModelAdapter extends TypeAdapter<WindowModel> {
+        private final TypeAdapter<WindowModel> delegate;
+        private final TypeAdapter<ElementRectModel> rectAdapter;
+
+        WindowModelAdapter(Gson gson, TypeAdapter<WindowModel> delegate) {
+            this.delegate = delegate;
+            this.rectAdapter = gson.getAdapter(ElementRectModel.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, WindowModel model) throws IOException {
+            if (model == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeInteger(out, "windowId", model.windowId);
+            out.name("displayId").value(model.displayId);
+            out.name("physicalDisplayId").value(model.physicalDisplayId);
+            out.name("virtualDisplayId").value(model.virtualDisplayId);
+            out.name("rect");
+            rectAdapter.write(out, model.rect);
+            out.name("packageName").value(model.packageName);
+            out.name("screenshot").value(model.screenshot);
+            out.name("type").value(model.type);
+            out.name("title").value(model.title);
+            out.name("layer").value(model.layer);
+            out.name("isAccessibilityFocused").value(model.isAccessibilityFocused);
+            out.name("isActive").value(model.isActive);
+            out.name("isFocused").value(model.isFocused);
+            out.name("isInPictureInPictureMode").value(model.isInPictureInPictureMode);
+            out.endObject();
+        }
+
+        @Override
+        public WindowModel read(JsonReader in) throws IOException {
+            return delegate.read(in);
+        }
+    }
+}
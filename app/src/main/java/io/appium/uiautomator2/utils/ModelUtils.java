@@ -2,30 +2,60 @@ package io.appium.uiautomator2.utils;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Type;
 
 import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.http.impl.NettyHttpRequest;
 import io.appium.uiautomator2.model.api.BaseModel;
 
 public class ModelUtils {
+    // Gson instances are thread-safe and cache type adapters, so they are only created once
+    private static final Gson GSON = new Gson();
+    private static final Gson SERIALIZER = createSerializer(false);
+    private static final Gson NULLS_SERIALIZER = createSerializer(true);
+
+    private static Gson createSerializer(boolean includeNullValues) {
+        GsonBuilder builder = new GsonBuilder()
+                .disableHtmlEscaping()
+                .registerTypeAdapterFactory(new ModelTypeAdapterFactory());
+        if (includeNullValues) {
+            builder.serializeNulls();
+        }
+        return builder.create();
+    }
+
     public static <T extends BaseModel> T toModel(IHttpRequest request, Class<T> modelCls) {
-        return toModel(request.body(), modelCls);
+        if (!(request instanceof NettyHttpRequest)) {
+            return toModel(request.body(), modelCls);
+        }
+        try (Reader reader = ((NettyHttpRequest) request).bodyReader()) {
+            return toModel(reader, modelCls);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
     }
 
     public static <T extends BaseModel> T toModel(String body, Class<T> modelCls) {
-        return modelCls.cast(new Gson().fromJson(body, modelCls).validate());
+        return modelCls.cast(GSON.fromJson(body, modelCls).validate());
+    }
+
+    public static <T extends BaseModel> T toModel(Reader body, Class<T> modelCls) {
+        return modelCls.cast(GSON.fromJson(body, modelCls).validate());
     }
 
     public static Object toObject(JSONArray json, Type type) {
-        return new Gson().fromJson(json.toString(), type);
+        return GSON.fromJson(json.toString(), type);
     }
 
     public static Object toObject(JSONObject json, Type type) {
-        return new Gson().fromJson(json.toString(), type);
+        return GSON.fromJson(json.toString(), type);
     }
 
     public static String toJsonString(Object model) {
@@ -33,11 +63,18 @@ public class ModelUtils {
     }
 
     public static String toJsonString(Object model, boolean includeNullValues) {
-        GsonBuilder builder = new GsonBuilder()
-                .disableHtmlEscaping();
-        if (includeNullValues) {
-            builder.serializeNulls();
-        }
-        return builder.create().toJson(model);
+        return (includeNullValues ? NULLS_SERIALIZER : SERIALIZER).toJson(model);
+    }
+
+    /**
+     * Serializes the model straight into the given output without building
+     * the intermediate JSON string.
+     *
+     * @param model             The model to serialize
+     * @param includeNullValues Whether to include properties with null values
+     * @param output            Where to write the JSON to. It is not flushed.
+     */
+    public static void writeJson(Object model, boolean includeNullValues, Appendable output) {
+        (includeNullValues ? NULLS_SERIALIZER : SERIALIZER).toJson(model, output);
     }
 }
@@ -18,15 +18,59 @@ package io.appium.uiautomator2.utils;
 
 import androidx.annotation.Nullable;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
 
+/**
+ * Reflection helpers. Resolved fields, methods and field getter handles are cached,
+ * so each member is only looked up and made accessible once per process.
+ */
 public class ReflectionUtils {
+    private static final ConcurrentMap<MemberKey, Field> FIELDS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<MemberKey, Method> METHODS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<MemberKey, MethodHandle> FIELD_GETTERS = new ConcurrentHashMap<>();
+
+    private static final class MemberKey {
+        private final Class<?> clazz;
+        private final String name;
+        @Nullable
+        private final Class<?>[] parameterTypes;
+
+        MemberKey(Class<?> clazz, String name, @Nullable Class<?>[] parameterTypes) {
+            this.clazz = clazz;
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof MemberKey)) {
+                return false;
+            }
+            MemberKey that = (MemberKey) other;
+            return clazz == that.clazz && name.equals(that.name)
+                    && Arrays.equals(parameterTypes, that.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hash(clazz, name) + Arrays.hashCode(parameterTypes);
+        }
+    }
+
     public static Class<?> getClass(final String name) {
         try {
             return Class.forName(name);
@@ -46,13 +90,62 @@ public class ReflectionUtils {
         }
     }
 
+    /**
+     * Resolves the declared field of the given class and makes it accessible.
+     *
+     * @param clazz The class, which declares the field
+     * @param fieldName The field name
+     * @return The cached field instance
+     * @throws UiAutomator2Exception if the field cannot be found
+     */
+    public static Field getDeclaredField(final Class<?> clazz, final String fieldName) {
+        MemberKey key = new MemberKey(clazz, fieldName, null);
+        Field result = FIELDS.get(key);
+        if (result != null) {
+            return result;
+        }
+        try {
+            result = clazz.getDeclaredField(fieldName);
+            result.setAccessible(true);
+        } catch (NoSuchFieldException e) {
+            throw new UiAutomator2Exception(String.format("Cannot find field %s in class %s",
+                    fieldName, clazz.getCanonicalName()), e);
+        }
+        Field previous = FIELDS.putIfAbsent(key, result);
+        return previous == null ? result : previous;
+    }
+
+    /**
+     * Creates a getter handle for the declared field of the given class. The handle type is
+     * (declaring class)field type for instance fields and ()field type for static ones, so
+     * it could be called with {@link MethodHandle#invokeExact(Object...)} without boxing.
+     *
+     * @param clazz The class, which declares the field
+     * @param fieldName The field name
+     * @return The cached getter handle
+     * @throws UiAutomator2Exception if the field cannot be found
+     */
+    public static MethodHandle getFieldGetter(final Class<?> clazz, final String fieldName) {
+        MemberKey key = new MemberKey(clazz, fieldName, null);
+        MethodHandle result = FIELD_GETTERS.get(key);
+        if (result != null) {
+            return result;
+        }
+        try {
+            result = MethodHandles.lookup().unreflectGetter(getDeclaredField(clazz, fieldName));
+        } catch (IllegalAccessException e) {
+            throw new UiAutomator2Exception(String.format("Cannot access field %s in class %s",
+                    fieldName, clazz.getCanonicalName()), e);
+        }
+        MethodHandle previous = FIELD_GETTERS.putIfAbsent(key, result);
+        return previous == null ? result : previous;
+    }
+
     public static Object getField(final Class<?> clazz, final String fieldName,
                                   @Nullable final Object object) {
         try {
-            Field field = clazz.getDeclaredField(fieldName);
-            field.setAccessible(true);
-            return field.get(object);
-        } catch (NoSuchFieldException | IllegalAccessException e) {
+            return getDeclaredField(clazz, fieldName).get(object);
+        } catch (UiAutomator2Exception | IllegalAccessException e) {
             throw new UiAutomator2Exception(
                     String.format("Cannot get field %s from object %s (class %s)",
                             fieldName, object, clazz.getCanonicalName()), e);
@@ -69,10 +162,8 @@ public class ReflectionUtils {
 
     public static void setField(final String fieldName, final Object value, final Object dstObject) {
         try {
-            Field declaredField = dstObject.getClass().getDeclaredField(fieldName);
-            declaredField.setAccessible(true);
-            declaredField.set(dstObject, value);
-        } catch (NoSuchFieldException | IllegalAccessException e) {
+            getDeclaredField(dstObject.getClass(), fieldName).set(dstObject, value);
+        } catch (UiAutomator2Exception | IllegalAccessException e) {
             throw new UiAutomator2Exception(String.format("Cannot set %s's field '%s' to '%s'",
                     dstObject.getClass().getSimpleName(), fieldName, value), e);
         }
@@ -89,14 +180,45 @@ public class ReflectionUtils {
     }
 
     public static Method getMethod(final Class<?> clazz, final String methodName, final Class<?>... parameterTypes) {
+        MemberKey key = new MemberKey(clazz, methodName, parameterTypes);
+        Method result = METHODS.get(key);
+        if (result != null) {
+            return result;
+        }
         try {
-            final Method method = clazz.getDeclaredMethod(methodName, parameterTypes);
-            method.setAccessible(true);
-            return method;
+            result = clazz.getDeclaredMethod(methodName, parameterTypes);
+            result.setAccessible(true);
         } catch (NoSuchMethodException e) {
             throw new UiAutomator2Exception(String.format("Cannot get method %s from class %s with parameter types %s",
                     methodName, clazz.getCanonicalName(), Arrays.toString(parameterTypes)), e);
         }
+        Method previous = METHODS.putIfAbsent(key, result);
+        return previous == null ? result : previous;
+    }
+
+    /**
+     * Resolves the first declared method of the given class with the given name
+     * regardless of its parameter types and makes it accessible.
+     *
+     * @param clazz The class, which declares the method
+     * @param methodName The method name
+     * @return The cached method instance
+     * @throws UiAutomator2Exception if the method cannot be found
+     */
+    public static Method getMethodByName(final Class<?> clazz, final String methodName) {
+        MemberKey key = new MemberKey(clazz, methodName, null);
+        Method result = METHODS.get(key);
+        if (result != null) {
+            return result;
+        }
+        result = Arrays.stream(clazz.getDeclaredMethods())
+                .filter(method -> method.getName().equals(methodName))
+                .findFirst()
+                .orElseThrow(() -> new UiAutomator2Exception(String.format(
+                        "Cannot retrieve %s method from %s", methodName, clazz.getCanonicalName())));
+        result.setAccessible(true);
+        Method previous = METHODS.putIfAbsent(key, result);
+        return previous == null ? result : previous;
     }
 
     public static Method getMethod(final String className, final String method, final Class<?>... parameterTypes) {
@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import androidx.annotation.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Image formats a screenshot could be encoded to when it is sent as raw bytes.
+ */
+public enum ScreenshotFormat {
+    PNG("image/png"),
+    JPEG("image/jpeg"),
+    WEBP("image/webp");
+
+    public static final int MAX_QUALITY = 100;
+
+    private final String mimeType;
+
+    ScreenshotFormat(String mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * @return Whether the quality value affects the encoded image
+     */
+    public boolean isLossy() {
+        return this != PNG;
+    }
+
+    /**
+     * Maps the format to the bitmap compression format.
+     *
+     * @param quality The requested quality. WEBP images are encoded losslessly
+     *                if the maximum quality is requested.
+     * @return The matching compression format
+     */
+    @SuppressWarnings("deprecation")
+    public Bitmap.CompressFormat toCompressFormat(int quality) {
+        switch (this) {
+            case JPEG:
+                return Bitmap.CompressFormat.JPEG;
+            case WEBP:
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+                    return quality >= MAX_QUALITY
+                            ? Bitmap.CompressFormat.WEBP_LOSSLESS
+                            : Bitmap.CompressFormat.WEBP_LOSSY;
+                }
+                return Bitmap.CompressFormat.WEBP;
+            default:
+                return Bitmap.CompressFormat.PNG;
+        }
+    }
+
+    /**
+     * @param name Either the format name, like "jpeg", or its MIME type, like "image/jpeg".
+     *             The comparison is case-insensitive and "jpg" is accepted as an alias.
+     * @return The matching format or null if the name is unknown
+     */
+    @Nullable
+    public static ScreenshotFormat fromString(@Nullable String name) {
+        if (name == null) {
+            return null;
+        }
+        String normalized = name.trim().toLowerCase(Locale.ROOT);
+        if (normalized.equals("jpg")) {
+            return JPEG;
+        }
+        for (ScreenshotFormat format : values()) {
+            if (format.mimeType.equals(normalized)
+                    || format.name().toLowerCase(Locale.ROOT).equals(normalized)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Picks the format the client prefers the most according to the given Accept header value.
+     * Wildcards resolve to {@link #PNG}, since this is the format screenshots are taken in.
+     *
+     * @param accept The Accept header value, for example "image/webp;q=0.9, image/png;q=0.5"
+     * @return The preferred format or null if the header does not list any supported format
+     */
+    @Nullable
+    public static ScreenshotFormat fromAcceptHeader(@Nullable String accept) {
+        if (accept == null) {
+            return null;
+        }
+        ScreenshotFormat result = null;
+        float resultWeight = 0;
+        for (String range : accept.split(",")) {
+            String[] parts = range.split(";");
+            String mediaType = parts[0].trim().toLowerCase(Locale.ROOT);
+            ScreenshotFormat format = mediaType.equals("*/*") || mediaType.equals("image/*")
+                    ? PNG
+                    : fromMimeType(mediaType);
+            if (format == null) {
+                continue;
+            }
+            float weight = parseWeight(parts);
+            if (weight > resultWeight) {
+                result = format;
+                resultWeight = weight;
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private static ScreenshotFormat fromMimeType(String mimeType) {
+        for (ScreenshotFormat format : values()) {
+            if (format.mimeType.equals(mimeType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    private static float parseWeight(String[] mediaRangeParts) {
+        for (int i = 1; i < mediaRangeParts.length; i++) {
+            String param = mediaRangeParts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Float.parseFloat(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -19,24 +19,29 @@ package io.appium.uiautomator2.utils;
 import android.app.UiAutomation;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
 import android.graphics.Rect;
+import android.os.Build;
 import android.os.ParcelFileDescriptor;
 import android.util.Base64;
 import android.util.DisplayMetrics;
 import android.view.Display;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Map;
 
 import io.appium.uiautomator2.common.exceptions.CompressScreenshotException;
 import io.appium.uiautomator2.common.exceptions.CropScreenshotException;
 import io.appium.uiautomator2.common.exceptions.TakeScreenshotException;
 import io.appium.uiautomator2.core.UiAutomatorBridge;
+import io.appium.uiautomator2.http.BinaryContent;
 import io.appium.uiautomator2.model.internal.CustomUiDevice;
 import io.appium.uiautomator2.model.settings.CurrentDisplayId;
 import io.appium.uiautomator2.model.settings.Settings;
@@ -56,20 +61,16 @@ public class ScreenshotHelper {
      * @return Base64-encoded screenshot string.
      */
     public static String takeScreenshot(@Nullable final Rect cropArea) throws TakeScreenshotException {
-        if (cropArea == null) {
-            return takeDeviceScreenshot(String.class);
+        RawScreenshot screenshot = takeDeviceScreenshot();
+        if (cropArea == null && screenshot.png != null) {
+            return Base64.encodeToString(screenshot.png, Base64.NO_WRAP);
         }
 
-        Bitmap fullScreenshot = takeDeviceScreenshot(Bitmap.class);
-        Bitmap elementScreenshot = null;
+        Bitmap elementScreenshot = screenshot.toBitmap(cropArea);
         try {
-            elementScreenshot = crop(fullScreenshot, cropArea);
             return bitmapToBase64Png(elementScreenshot);
         } finally {
-            fullScreenshot.recycle();
-            if (elementScreenshot != null && elementScreenshot != fullScreenshot) {
-                elementScreenshot.recycle();
-            }
+            elementScreenshot.recycle();
         }
     }
 
@@ -77,6 +78,43 @@ public class ScreenshotHelper {
         return takeScreenshot(null);
     }
 
+    /**
+     * Grab device screenshot and crop it to specified area if cropArea is not null.
+     * The screenshot is taken immediately, although it is only encoded to the requested
+     * format when the returned content is written, so the image bytes could go straight
+     * to the response buffers. PNG bytes produced by screencap are passed through as-is
+     * if neither cropping nor scaling is needed.
+     *
+     * @param cropArea Area to crop.
+     * @param format   The format to encode the image to.
+     * @param quality  The compression quality in range 1..100. Ignored for PNG.
+     * @param scale    The scale factor in range (0, 1].
+     * @return The screenshot content. It could only be written once.
+     */
+    public static BinaryContent takeScreenshot(
+            @Nullable final Rect cropArea, ScreenshotFormat format, int quality, float scale
+    ) throws TakeScreenshotException {
+        RawScreenshot screenshot = takeDeviceScreenshot();
+        if (cropArea == null && format == ScreenshotFormat.PNG && isUnscaled(scale)
+                && screenshot.png != null) {
+            return new EncodedScreenshot(format, screenshot.png);
+        }
+
+        Bitmap cropped = screenshot.toBitmap(cropArea);
+        if (isUnscaled(scale)) {
+            return new BitmapScreenshot(format, quality, cropped);
+        }
+        Bitmap result = null;
+        try {
+            result = scale(cropped, scale, true);
+        } finally {
+            if (result != cropped) {
+                cropped.recycle();
+            }
+        }
+        return new BitmapScreenshot(format, quality, result);
+    }
+
     /**
      * Converts a Bitmap to a base64-encoded PNG string.
      *
@@ -91,11 +129,10 @@ public class ScreenshotHelper {
     /**
      * Takes a shot of the current device's screen
      *
-     * @param outputType Either String.class or Bitmap.class
-     * @return Either base64-encoded content of the PNG screenshot or the screenshot as bitmap image
+     * @return Either the PNG content produced by screencap or the screenshot as bitmap image
      * @throws TakeScreenshotException if there was an error while taking the screenshot
      */
-    private static <T> T takeDeviceScreenshot(Class<T> outputType) throws TakeScreenshotException {
+    private static RawScreenshot takeDeviceScreenshot() throws TakeScreenshotException {
         int currentDisplayId = UiAutomatorBridge.getInstance().getCurrentDisplayId();
         boolean isCustomDisplayId = currentDisplayId != Settings.get(CurrentDisplayId.class).getDefaultValue();
         Display display = UiAutomatorBridge.getInstance().getCurrentDisplay();
@@ -122,7 +159,7 @@ public class ScreenshotHelper {
                 String command = screencapDisplayId == null
                         ? "screencap -p"
                         : String.format("screencap -d %s -p", screencapDisplayId);
-                return retrieveScreenshotViaScreencap(command, automation, outputType);
+                return new RawScreenshot(executeScreencapCommand(automation, command), null);
             } catch (Exception e) {
                 if (isCustomDisplayId) {
                     throw new TakeScreenshotException(
@@ -137,7 +174,7 @@ public class ScreenshotHelper {
 
         Bitmap screenshot = automation.takeScreenshot();
         validateScreenshot(screenshot);
-        return formatScreenshotOutput(screenshot, outputType);
+        return new RawScreenshot(null, screenshot);
     }
 
     @Nullable
@@ -150,26 +187,6 @@ public class ScreenshotHelper {
         return virtualDisplayMap.get(display.getName());
     }
 
-    /**
-     * Attempts to take screenshot using screencap shell command with display ID support.
-     *
-     * @return Result of the requested type if successful
-     */
-    private static <T> T retrieveScreenshotViaScreencap(
-            String command, UiAutomation automation, Class<T> outputType
-    ) throws IOException {
-        byte[] pngBytes = executeScreencapCommand(automation, command);
-
-        if (outputType == String.class) {
-            // For String output, return Base64-encoded PNG bytes directly
-            return outputType.cast(Base64.encodeToString(pngBytes, Base64.NO_WRAP));
-        }
-
-        // For Bitmap output, decode the PNG bytes
-        Bitmap bitmap = BitmapFactory.decodeByteArray(pngBytes, 0, pngBytes.length);
-        return outputType.cast(bitmap);
-    }
-
     private static boolean doesDisplayHaveCustomDensity(Display display) {
         DisplayMetrics metrics = new DisplayMetrics();
         display.getMetrics(metrics);
@@ -207,22 +224,6 @@ public class ScreenshotHelper {
         ));
     }
 
-    /**
-     * Formats the screenshot output according to the requested type.
-     */
-    private static <T> T formatScreenshotOutput(
-            Bitmap screenshot, Class<T> outputType
-    ) throws TakeScreenshotException {
-        if (outputType == String.class) {
-            try {
-                return outputType.cast(bitmapToBase64Png(screenshot));
-            } finally {
-                screenshot.recycle();
-            }
-        }
-        return outputType.cast(screenshot);
-    }
-
     private static byte[] compress(final Bitmap bitmap) throws TakeScreenshotException {
         try (final ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
             if (!bitmap.compress(PNG, 100, stream)) {
@@ -236,17 +237,10 @@ public class ScreenshotHelper {
 
     public static byte[] compressJpeg(final Bitmap bitmap, float scale, int quality, boolean filter) throws TakeScreenshotException {
         Bitmap resultBitmap;
-        if (Math.abs(scale - 1.0f) < Float.MIN_NORMAL) {
+        if (isUnscaled(scale)) {
             resultBitmap = bitmap;
         } else {
-            int width = Math.round(bitmap.getWidth() * scale);
-            int height = Math.round(bitmap.getHeight() * scale);
-            resultBitmap = Bitmap.createScaledBitmap(
-                bitmap,
-                width,
-                height,
-                filter
-            );
+            resultBitmap = scale(bitmap, scale, filter);
             bitmap.recycle();
         }
 
@@ -260,18 +254,90 @@ public class ScreenshotHelper {
         }
     }
 
-    private static Bitmap crop(Bitmap bitmap, Rect cropArea) throws CropScreenshotException {
-        final Rect bitmapRect = new Rect(
-            0,
-            0,
-            bitmap.getWidth(),
-            bitmap.getHeight()
-         );
+    private static boolean isUnscaled(float scale) {
+        return Math.abs(scale - 1.0f) < Float.MIN_NORMAL;
+    }
+
+    private static Bitmap scale(Bitmap bitmap, float scale, boolean filter) {
+        int width = Math.max(1, Math.round(bitmap.getWidth() * scale));
+        int height = Math.max(1, Math.round(bitmap.getHeight() * scale));
+        return Bitmap.createScaledBitmap(bitmap, width, height, filter);
+    }
+
+    /**
+     * Decodes the given PNG image. If the crop area is set then only the matching region
+     * of the image is decoded, so the memory needed for the resulting bitmap scales with
+     * the area size rather than with the size of the whole image. The full image is decoded
+     * and cropped if the region decoder is not available.
+     *
+     * @param png      The PNG image content.
+     * @param cropArea Area to crop.
+     * @return The decoded bitmap. The caller is responsible for recycling it.
+     * @throws TakeScreenshotException if the image cannot be decoded or the crop area
+     *                                 is outside of the image bounds.
+     */
+    @VisibleForTesting
+    static Bitmap decodePng(byte[] png, @Nullable Rect cropArea) throws TakeScreenshotException {
+        if (cropArea != null) {
+            Bitmap region = decodePngRegion(png, cropArea);
+            if (region != null) {
+                return region;
+            }
+        }
+
+        Bitmap fullImage = BitmapFactory.decodeByteArray(png, 0, png.length);
+        if (fullImage == null) {
+            throw new TakeScreenshotException("Cannot decode the screenshot taken by screencap");
+        }
+        return cropArea == null ? fullImage : cropAndRecycle(fullImage, cropArea);
+    }
+
+    @Nullable
+    @SuppressWarnings("deprecation")
+    private static Bitmap decodePngRegion(byte[] png, Rect cropArea) throws CropScreenshotException {
+        BitmapRegionDecoder decoder;
+        try {
+            decoder = Build.VERSION.SDK_INT >= Build.VERSION_CODES.S
+                    ? BitmapRegionDecoder.newInstance(png, 0, png.length)
+                    : BitmapRegionDecoder.newInstance(png, 0, png.length, false);
+        } catch (IOException e) {
+            Logger.info("Cannot create a region decoder for the screenshot, decoding it fully", e);
+            return null;
+        }
+        try {
+            Rect region = intersect(decoder.getWidth(), decoder.getHeight(), cropArea);
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+            return decoder.decodeRegion(region, options);
+        } finally {
+            decoder.recycle();
+        }
+    }
+
+    private static Bitmap cropAndRecycle(Bitmap bitmap, Rect cropArea) throws CropScreenshotException {
+        Bitmap result = null;
+        try {
+            result = crop(bitmap, cropArea);
+            return result;
+        } finally {
+            if (result != bitmap) {
+                bitmap.recycle();
+            }
+        }
+    }
+
+    private static Rect intersect(int width, int height, Rect cropArea) throws CropScreenshotException {
+        final Rect bitmapRect = new Rect(0, 0, width, height);
         final Rect intersectionRect = new Rect();
 
         if (!intersectionRect.setIntersect(bitmapRect, cropArea)) {
             throw new CropScreenshotException(bitmapRect, cropArea);
         }
+        return intersectionRect;
+    }
+
+    private static Bitmap crop(Bitmap bitmap, Rect cropArea) throws CropScreenshotException {
+        final Rect intersectionRect = intersect(bitmap.getWidth(), bitmap.getHeight(), cropArea);
 
         return Bitmap.createBitmap(
             bitmap,
@@ -281,4 +347,81 @@ public class ScreenshotHelper {
             intersectionRect.height()
         );
     }
+
+    /**
+     * The screenshot as it has been taken. Only one of the fields is set.
+     */
+    private static class RawScreenshot {
+        @Nullable
+        final byte[] png;
+        @Nullable
+        final Bitmap bitmap;
+
+        RawScreenshot(@Nullable byte[] png, @Nullable Bitmap bitmap) {
+            this.png = png;
+            this.bitmap = bitmap;
+        }
+
+        /**
+         * @param cropArea Area to crop.
+         * @return The screenshot bitmap, cropped if cropArea is not null. The caller
+         * is responsible for recycling it.
+         */
+        Bitmap toBitmap(@Nullable Rect cropArea) throws TakeScreenshotException {
+            if (bitmap == null) {
+                //noinspection ConstantConditions
+                return decodePng(png, cropArea);
+            }
+            return cropArea == null ? bitmap : cropAndRecycle(bitmap, cropArea);
+        }
+    }
+
+    private static class EncodedScreenshot implements BinaryContent {
+        private final ScreenshotFormat format;
+        private final byte[] content;
+
+        EncodedScreenshot(ScreenshotFormat format, byte[] content) {
+            this.format = format;
+            this.content = content;
+        }
+
+        @Override
+        public String getContentType() {
+            return format.getMimeType();
+        }
+
+        @Override
+        public void writeTo(OutputStream output) throws IOException {
+            output.write(content);
+        }
+    }
+
+    private static class BitmapScreenshot implements BinaryContent {
+        private final ScreenshotFormat format;
+        private final int quality;
+        private final Bitmap bitmap;
+
+        BitmapScreenshot(ScreenshotFormat format, int quality, Bitmap bitmap) {
+            this.format = format;
+            this.quality = quality;
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        public String getContentType() {
+            return format.getMimeType();
+        }
+
+        @Override
+        public void writeTo(OutputStream output) throws IOException {
+            Bitmap.CompressFormat compressFormat = format.toCompressFormat(quality);
+            try {
+                if (!bitmap.compress(compressFormat, quality, output)) {
+                    throw new CompressScreenshotException(compressFormat);
+                }
+            } finally {
+                bitmap.recycle();
+            }
+        }
+    }
 }
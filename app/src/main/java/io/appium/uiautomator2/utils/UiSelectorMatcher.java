@@ -0,0 +1,214 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils;
+
+import android.util.SparseArray;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.test.uiautomator.UiSelector;
+
+import java.lang.reflect.Method;
+
+import static io.appium.uiautomator2.utils.ReflectionUtils.getField;
+import static io.appium.uiautomator2.utils.ReflectionUtils.getMethod;
+import static io.appium.uiautomator2.utils.ReflectionUtils.invoke;
+
+/**
+ * Finds all the nodes matching the given {@link UiSelector} in a single traversal of
+ * the accessibility tree.
+ * <p>
+ * {@code UiDevice#findObject} only returns the first match, so finding all of them used to require
+ * a separate tree traversal per match addressed by its instance number. This matcher follows
+ * the same rules as {@code QueryController} does: only visible children are traversed,
+ * a {@code childSelector} continues the search among the descendants of the matched node and
+ * {@code fromParent} continues it among the descendants of its parent. Node attributes are
+ * evaluated by the selector itself, so the matching semantics stay the same. The matches are
+ * returned in the same order as the instance-based search would find them.
+ * <p>
+ * Instance numbers as well as container and pattern criteria are not supported, because their
+ * evaluation depends on the search state. Check {@link #isSupported(UiSelector)} first.
+ */
+public class UiSelectorMatcher {
+    private static final Method IS_MATCH_FOR = getMethod(UiSelector.class, "isMatchFor",
+            AccessibilityNodeInfo.class, int.class);
+    private static final int SELECTOR_CHILD = getCriterion("SELECTOR_CHILD");
+    private static final int SELECTOR_PARENT = getCriterion("SELECTOR_PARENT");
+    private static final int[] UNSUPPORTED_CRITERIA = {
+            getCriterion("SELECTOR_INSTANCE"),
+            getCriterion("SELECTOR_COUNT"),
+            getCriterion("SELECTOR_CONTAINER"),
+            getCriterion("SELECTOR_PATTERN"),
+    };
+
+    private final UiSelector selector;
+    private long evaluatedNodesCount = 0;
+
+    public UiSelectorMatcher(UiSelector selector) {
+        if (!isSupported(selector)) {
+            throw new IllegalArgumentException(String.format(
+                    "The selector %s cannot be matched in a single pass", selector));
+        }
+        this.selector = selector;
+    }
+
+    private static int getCriterion(String name) {
+        return (Integer) getField(UiSelector.class, name, null);
+    }
+
+    private static SparseArray<?> getAttributes(UiSelector selector) {
+        return (SparseArray<?>) getField(UiSelector.class, "mSelectorAttributes", selector);
+    }
+
+    /**
+     * @param selector The selector to check
+     * @return true if the selector, including all its child and parent selectors,
+     * could be evaluated by this matcher
+     */
+    public static boolean isSupported(UiSelector selector) {
+        SparseArray<?> attributes = getAttributes(selector);
+        for (int criterion : UNSUPPORTED_CRITERIA) {
+            if (attributes.indexOfKey(criterion) >= 0) {
+                return false;
+            }
+        }
+        Object childSelector = attributes.get(SELECTOR_CHILD);
+        if (childSelector instanceof UiSelector && !isSupported((UiSelector) childSelector)) {
+            return false;
+        }
+        Object parentSelector = attributes.get(SELECTOR_PARENT);
+        return !(parentSelector instanceof UiSelector) || isSupported((UiSelector) parentSelector);
+    }
+
+    /**
+     * @return The count of node matches evaluated by this instance so far
+     */
+    public long getEvaluatedNodesCount() {
+        return evaluatedNodesCount;
+    }
+
+    /**
+     * Finds all matches in the given trees. Root nodes are matched as well.
+     *
+     * @param roots The roots of the trees to search in, for example window roots
+     * @return The list of matched nodes
+     */
+    public NodeInfoList findAll(AccessibilityNodeInfo... roots) {
+        NodeInfoList result = new NodeInfoList();
+        for (AccessibilityNodeInfo root : roots) {
+            collect(root, 0, result);
+        }
+        return result;
+    }
+
+    /**
+     * Finds all matches among descendants of the given node, the node itself is not matched.
+     *
+     * @param root The node to search in, for example the node of a context element
+     * @return The list of matched nodes
+     */
+    public NodeInfoList findAllDescendants(AccessibilityNodeInfo root) {
+        NodeInfoList result = new NodeInfoList();
+        for (int i = 0; i < root.getChildCount(); ++i) {
+            AccessibilityNodeInfo child = getVisibleChild(root, i);
+            if (child != null) {
+                collect(child, i, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Replicates the {@code QueryController} search of the first match for the given selector.
+     * Instance numbers of the selector are respected.
+     */
+    @Nullable
+    @VisibleForTesting
+    AccessibilityNodeInfo findFirst(UiSelector selector, AccessibilityNodeInfo root) {
+        return findFirst(selector, root, 0);
+    }
+
+    private void collect(AccessibilityNodeInfo node, int index, NodeInfoList result) {
+        if (matches(selector, node, index)) {
+            AccessibilityNodeInfo match = isLeaf(selector) ? node : findFirstInNextLevel(selector, node);
+            if (match != null) {
+                result.add(match);
+            }
+        }
+        for (int i = 0; i < node.getChildCount(); ++i) {
+            AccessibilityNodeInfo child = getVisibleChild(node, i);
+            if (child != null) {
+                collect(child, i, result);
+            }
+        }
+    }
+
+    @Nullable
+    private AccessibilityNodeInfo findFirst(UiSelector selector, AccessibilityNodeInfo node, int index) {
+        if (matches(selector, node, index)) {
+            return isLeaf(selector) ? node : findFirstInNextLevel(selector, node);
+        }
+        return findFirstInChildren(selector, node);
+    }
+
+    @Nullable
+    private AccessibilityNodeInfo findFirstInNextLevel(UiSelector selector, AccessibilityNodeInfo node) {
+        SparseArray<?> attributes = getAttributes(selector);
+        Object childSelector = attributes.get(SELECTOR_CHILD);
+        if (childSelector != null) {
+            return findFirstInChildren((UiSelector) childSelector, node);
+        }
+        // fromParent() selectors continue the search among descendants of the parent node
+        Object parentSelector = attributes.get(SELECTOR_PARENT);
+        AccessibilityNodeInfo parent = node.getParent();
+        return parentSelector == null || parent == null
+                ? null
+                : findFirstInChildren((UiSelector) parentSelector, parent);
+    }
+
+    @Nullable
+    private AccessibilityNodeInfo findFirstInChildren(UiSelector selector, AccessibilityNodeInfo node) {
+        for (int i = 0; i < node.getChildCount(); ++i) {
+            AccessibilityNodeInfo child = getVisibleChild(node, i);
+            if (child == null) {
+                continue;
+            }
+            AccessibilityNodeInfo result = findFirst(selector, child, i);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static AccessibilityNodeInfo getVisibleChild(AccessibilityNodeInfo node, int index) {
+        AccessibilityNodeInfo child = node.getChild(index);
+        return child == null || !child.isVisibleToUser() ? null : child;
+    }
+
+    private static boolean isLeaf(UiSelector selector) {
+        SparseArray<?> attributes = getAttributes(selector);
+        return attributes.indexOfKey(SELECTOR_CHILD) < 0 && attributes.indexOfKey(SELECTOR_PARENT) < 0;
+    }
+
+    private boolean matches(UiSelector selector, AccessibilityNodeInfo node, int index) {
+        evaluatedNodesCount++;
+        return (Boolean) invoke(IS_MATCH_FOR, selector, node, index);
+    }
+}
@@ -16,11 +16,20 @@
 
 package io.appium.uiautomator2.utils;
 
+import android.view.View;
+
 import androidx.annotation.Nullable;
 
 import java.util.regex.Pattern;
 
+import io.appium.uiautomator2.model.settings.NormalizeTagNames;
+import io.appium.uiautomator2.model.settings.Settings;
+
+import static net.gcardone.junidecode.Junidecode.unidecode;
+
 public abstract class XMLHelpers {
+    public static final String NON_XML_CHAR_REPLACEMENT = "?";
+    private static final String DEFAULT_VIEW_CLASS_NAME = View.class.getName();
     // XML 1.0 Legal Characters (http://stackoverflow.com/a/4237934/347155)
     // #x9 | #xA | #xD | [#x20-#xD7FF] | [#xE000-#xFFFD] | [#x10000-#x10FFFF]
     private final static Pattern XML10_PATTERN = Pattern.compile("[^" + "\u0009\r\n" +
@@ -53,4 +62,38 @@ public abstract class XMLHelpers {
                 .matcher(String.valueOf(source))
                 .replaceAll(replacement);
     }
+
+    /**
+     * Converts the given class name to a valid XML node name, so it could be used
+     * as a tag name in the page source.
+     *
+     * @param className The class name of a UI element
+     * @return The XML node name. {@link View} class name is returned if the given
+     * class name is blank or cannot be converted.
+     */
+    public static String toXmlNodeName(@Nullable String className) {
+        if (StringHelpers.isBlank(className)) {
+            return DEFAULT_VIEW_CLASS_NAME;
+        }
+
+        String fixedName = className
+                .replaceAll("[$@#&]", ".")
+                .replaceAll("\\.+", ".")
+                .replaceAll("(^\\.|\\.$)", "");
+
+        if (Settings.getValue(NormalizeTagNames.class)) {
+            // A workaround for the Apache Harmony bug described in https://github.com/appium/appium/issues/11854
+            // The buggy implementation: https://android.googlesource.com/platform/dalvik/+/21d27c095fee51fd6eac6a68d50b79df4dc97d85/libcore/xml/src/main/java/org/apache/harmony/xml/dom/DocumentImpl.java#84
+            fixedName = unidecode(fixedName).replaceAll("[^A-Za-z0-9\\-._]", "_");
+        }
+
+        fixedName = toNodeName(fixedName);
+        if (StringHelpers.isBlank(fixedName)) {
+            fixedName = DEFAULT_VIEW_CLASS_NAME;
+        }
+        if (!fixedName.equals(className)) {
+            Logger.info(String.format("Rewrote class name '%s' to XML node name '%s'", className, fixedName));
+        }
+        return fixedName;
+    }
 }
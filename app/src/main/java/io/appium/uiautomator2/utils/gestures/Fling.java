@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils.gestures;
+
+import androidx.annotation.Nullable;
+
+import io.appium.uiautomator2.model.AndroidElement;
+import io.appium.uiautomator2.model.AppiumUIA2Driver;
+import io.appium.uiautomator2.model.Session;
+import io.appium.uiautomator2.model.api.gestures.FlingModel;
+import io.appium.uiautomator2.model.internal.CustomUiDevice;
+
+public class Fling extends BaseGesture {
+    @Nullable
+    public static Object perform(FlingModel flingModel) {
+        final String elementId = flingModel.origin == null ? null : flingModel.origin.getUnifiedId();
+        final boolean result;
+        if (elementId == null) {
+            if (flingModel.area == null) {
+                throw new IllegalArgumentException("The fling area coordinates must be provided if " +
+                        "element is not set");
+            }
+            result = CustomUiDevice.getInstance().getGestureController()
+                    .fling(flingModel.area.toNativeRect(), flingModel.getDirection(), flingModel.speed);
+        } else {
+            Session session = AppiumUIA2Driver.getInstance().getSessionOrThrow();
+            AndroidElement element = session.getElementsCache().get(elementId);
+            result = element.fling(flingModel.getDirection(), flingModel.speed);
+        }
+
+        return result;
+    }
+}
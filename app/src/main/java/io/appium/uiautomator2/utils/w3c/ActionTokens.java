@@ -67,4 +67,15 @@ public class ActionTokens {
     public long timeDeltaAt(int index) {
         return tokenizedActions.keyAt(index);
     }
+
+    /**
+     * @return All time deltas in ascending order
+     */
+    public long[] timeDeltas() {
+        long[] result = new long[size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = timeDeltaAt(i);
+        }
+        return result;
+    }
 }
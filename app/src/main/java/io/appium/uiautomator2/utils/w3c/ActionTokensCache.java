@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils.w3c;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+
+import io.appium.uiautomator2.model.api.actions.W3CGestureModel;
+import io.appium.uiautomator2.model.api.actions.W3CItemModel;
+
+import static io.appium.uiautomator2.utils.w3c.ActionsConstants.ACTION_ITEM_ORIGIN_POINTER;
+import static io.appium.uiautomator2.utils.w3c.ActionsConstants.ACTION_ITEM_ORIGIN_VIEWPORT;
+
+/**
+ * Keeps the most recently tokenized action chains, so replaying the same swipe or drag
+ * skips their preprocessing and tokenization.
+ * <p>
+ * Chains are keyed by their canonical representation. Tokens of chains, which use elements
+ * as the origin of pointer moves, depend on the current element bounds, so such chains are
+ * never cached. Cached tokens are shared between requests and must not be modified.
+ */
+public class ActionTokensCache {
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final int capacity;
+    private final LinkedHashMap<String, ActionTokens> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public ActionTokensCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ActionTokensCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the cached tokens of the given chain or tokenizes it.
+     *
+     * @param items     The chain of actions as it has been received from the client
+     * @param tokenizer Preprocesses and tokenizes the chain on a cache miss. Errors are not cached.
+     * @return Tokens of the chain
+     */
+    public ActionTokens get(List<W3CItemModel> items,
+                            Function<List<W3CItemModel>, ActionTokens> tokenizer) {
+        // The key must be built before the tokenizer gets a chance to modify the items
+        final String key = toKey(items);
+        if (key == null) {
+            return tokenizer.apply(items);
+        }
+        synchronized (entries) {
+            ActionTokens cached = entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        ActionTokens result = tokenizer.apply(items);
+        synchronized (entries) {
+            entries.put(key, result);
+            Iterator<String> eldest = entries.keySet().iterator();
+            while (entries.size() > capacity && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return The canonical representation of the given chain or null if its tokens
+     * cannot be cached
+     */
+    @Nullable
+    @VisibleForTesting
+    static String toKey(@Nullable List<W3CItemModel> items) {
+        if (items == null) {
+            return null;
+        }
+        final StringBuilder key = new StringBuilder();
+        for (W3CItemModel item : items) {
+            if (item == null || item.actions == null) {
+                return null;
+            }
+            appendString(key, item.type);
+            appendString(key, item.id);
+            appendString(key, item.parameters == null ? null : item.parameters.pointerType);
+            key.append(item.actions.size()).append('[');
+            for (W3CGestureModel gesture : item.actions) {
+                if (gesture == null || !isCacheableOrigin(gesture.origin)) {
+                    return null;
+                }
+                appendString(key, gesture.type);
+                appendString(key, (String) gesture.origin);
+                appendString(key, gesture.value);
+                appendNumber(key, gesture.duration);
+                appendNumber(key, gesture.x);
+                appendNumber(key, gesture.y);
+                appendNumber(key, gesture.button);
+                appendNumber(key, gesture.size);
+                appendNumber(key, gesture.pressure);
+            }
+            key.append(']');
+        }
+        return key.toString();
+    }
+
+    private static boolean isCacheableOrigin(@Nullable Object origin) {
+        return origin == null
+                || ACTION_ITEM_ORIGIN_VIEWPORT.equals(origin)
+                || ACTION_ITEM_ORIGIN_POINTER.equals(origin);
+    }
+
+    private static void appendString(StringBuilder key, @Nullable String value) {
+        if (value == null) {
+            key.append('-');
+        } else {
+            // The length prefix keeps the key unambiguous whatever characters the value contains
+            key.append(value.length()).append(':').append(value);
+        }
+    }
+
+    private static void appendNumber(StringBuilder key, @Nullable Number value) {
+        key.append(value == null ? "-" : value.toString()).append(',');
+    }
+}
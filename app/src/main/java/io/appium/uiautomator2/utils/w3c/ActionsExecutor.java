@@ -18,17 +18,21 @@ package io.appium.uiautomator2.utils.w3c;
 
 import android.os.Build;
 import android.os.SystemClock;
+import android.util.Log;
 import android.view.InputDevice;
+import android.view.InputEvent;
 import android.view.KeyCharacterMap;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 
+import androidx.annotation.Nullable;
+
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.locks.LockSupport;
 
 import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
 import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
@@ -48,14 +52,33 @@ public class ActionsExecutor {
     private static final List<Integer> HOVERING_ACTIONS = Arrays.asList(
             MotionEvent.ACTION_HOVER_ENTER, MotionEvent.ACTION_HOVER_EXIT, MotionEvent.ACTION_HOVER_MOVE
     );
-    private static final long NANOSECONDS_IN_MILLISECOND = 1000000;
     private final ActionTokens actionTokens;
     private final InteractionController interactionController;
+    private final ActionsScheduler scheduler = new ActionsScheduler();
+    private final int displayId;
+    @Nullable
+    private final Method setDisplayIdMethod;
 
     public ActionsExecutor(ActionTokens actionTokens) {
         this.actionTokens = actionTokens;
         this.keyCharacterMap = KeyCharacterMap.load(KeyCharacterMap.VIRTUAL_KEYBOARD);
         this.interactionController = UiAutomatorBridge.getInstance().getInteractionController();
+        this.displayId = Settings.getValue(CurrentDisplayId.class);
+        this.setDisplayIdMethod = resolveSetDisplayIdMethod();
+    }
+
+    @Nullable
+    private static Method resolveSetDisplayIdMethod() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.R) {
+            return null;
+        }
+        try {
+            // Method is marked as public with @hide in AOSP https://cs.android.com/android/platform/superproject/main/+/main:frameworks/base/core/java/android/view/MotionEvent.java;l=2419;drc=61197364367c9e404c7da6900658f1b16c42d0da;bpv=1;bpt=1?q=MotionEvent
+            return getMethod(MotionEvent.class, "setDisplayId", int.class);
+        } catch (UiAutomator2Exception e) {
+            Logger.error("Unable to set displayId on motion events", e);
+            return null;
+        }
     }
 
     private static boolean shouldIncludeEvent(MotionInputEventParams eventParams, boolean shouldHovering) {
@@ -88,23 +111,25 @@ public class ActionsExecutor {
     }
 
     private static void logEvent(Object event, long eventTime, boolean result) {
-        Logger.info(String.format("[%s (%s)] Synthesized: %s", eventTime, result ? "success" : "fail", event.toString()));
+        if (!Logger.isLoggable(Log.INFO)) {
+            return;
+        }
+        Logger.infof("[%s (%s)] Synthesized: %s", eventTime, result ? "success" : "fail", event);
         long currentTime = SystemClock.uptimeMillis();
         if (currentTime > eventTime + EVENT_INJECTION_DELAY_MS) {
-            Logger.info(String.format("The event has been delayed for %sms", currentTime - eventTime));
+            Logger.infof("The event has been delayed for %sms", currentTime - eventTime);
         }
     }
 
-    private boolean injectKeyEvent(KeyInputEventParams eventParam, long startTimestamp,
-                                   Set<Integer> depressedMetaKeys) {
+    private void buildKeyEvents(KeyInputEventParams eventParam, long startTimestamp, long eventTime,
+                                Set<Integer> depressedMetaKeys, List<InputEvent> output) {
         final int keyCode = eventParam.keyCode;
         if (keyCode <= 0) {
             depressedMetaKeys.clear();
-            return true;
+            return;
         }
         final int keyAction = eventParam.keyAction;
 
-        boolean result = true;
         final W3CKeyCode w3CKeyCode = W3CKeyCode.fromCodePoint(keyCode);
         if (w3CKeyCode == null) {
             final KeyEvent[] events = keyCharacterMap.getEvents(Character.toChars(keyCode));
@@ -116,16 +141,13 @@ public class ActionsExecutor {
             }
             for (KeyEvent event : events) {
                 if (event.getAction() == keyAction) {
-                    final long eventTime = SystemClock.uptimeMillis();
-                    final KeyEvent keyEvent = new KeyEvent(startTimestamp + eventParam.startDelta,
+                    output.add(new KeyEvent(startTimestamp + eventParam.startDelta,
                             eventTime, keyAction, event.getKeyCode(), 0,
                             event.getMetaState() | metaKeysToState(depressedMetaKeys),
-                            KeyCharacterMap.VIRTUAL_KEYBOARD, 0, 0);
-                    result &= interactionController.injectEventSync(keyEvent);
-                    logEvent(keyEvent, eventTime, result);
+                            KeyCharacterMap.VIRTUAL_KEYBOARD, 0, 0));
                 }
             }
-            return result;
+            return;
         }
 
         final Integer metaCode = w3CKeyCode.toAndroidMetaKeyCode();
@@ -135,22 +157,12 @@ public class ActionsExecutor {
             } else {
                 depressedMetaKeys.remove(metaCode);
             }
-            return true;
+            return;
         }
 
-        final long eventTime = SystemClock.uptimeMillis();
-        final KeyEvent keyEvent = new KeyEvent(startTimestamp + eventParam.startDelta,
+        output.add(new KeyEvent(startTimestamp + eventParam.startDelta,
                 eventTime, keyAction, w3CKeyCode.getAndroidCodePoint(), 0,
-                metaKeysToState(depressedMetaKeys), KeyCharacterMap.VIRTUAL_KEYBOARD, 0, 0);
-        result = interactionController.injectEventSync(keyEvent);
-        logEvent(keyEvent, eventTime, result);
-        return result;
-    }
-
-    private boolean executeKeyEvents(List<KeyInputEventParams> events, long startTimestamp,
-                                     Set<Integer> depressedMetaKeys) {
-        return events.stream()
-                .allMatch(event -> injectKeyEvent(event, startTimestamp, depressedMetaKeys));
+                metaKeysToState(depressedMetaKeys), KeyCharacterMap.VIRTUAL_KEYBOARD, 0, 0));
     }
 
     private static int toolTypeToInputSource(final int toolType) {
@@ -190,7 +202,9 @@ public class ActionsExecutor {
         return motionEvent + (index << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
     }
 
-    private boolean executeMotionEvents(List<MotionInputEventParams> events, long startTimestamp, Set<Integer> depressedMetaKeys) {
+    private void buildMotionEvents(List<MotionInputEventParams> events, long startTimestamp,
+                                   long eventTime, Set<Integer> depressedMetaKeys,
+                                   List<InputEvent> output) {
         final MotionEvent.PointerProperties[] nonHoveringProps = filterPointerProperties(events, false);
         final MotionEvent.PointerProperties[] hoveringProps = filterPointerProperties(events, true);
         final MotionEvent.PointerCoords[] nonHoveringCoords = filterPointerCoordinates(events, false);
@@ -198,12 +212,10 @@ public class ActionsExecutor {
         final int inputSource = extractInputSource(events);
         final int metaState = metaKeysToState(depressedMetaKeys);
         int pointersCount = getInitialPointersCount(events);
-        boolean result = true;
         boolean isMoveActionTriggered = false;
         for (final MotionInputEventParams event : normalizeSequence(events)) {
             final int actionCode = event.actionCode;
             final long downTime = startTimestamp + event.startDelta;
-            final long eventTime = SystemClock.uptimeMillis();
             MotionEvent synthesizedEvent = null;
             switch (actionCode) {
                 case MotionEvent.ACTION_DOWN: {
@@ -247,28 +259,69 @@ public class ActionsExecutor {
                     break;
             } // switch
             if (synthesizedEvent != null) {
-
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
-                    final int displayId = Settings.get(CurrentDisplayId.class).getValue();
+                if (setDisplayIdMethod != null) {
                     try {
-                        // Method is marked as public with @hide in AOSP https://cs.android.com/android/platform/superproject/main/+/main:frameworks/base/core/java/android/view/MotionEvent.java;l=2419;drc=61197364367c9e404c7da6900658f1b16c42d0da;bpv=1;bpt=1?q=MotionEvent
-                        invoke(getMethod(synthesizedEvent.getClass(), "setDisplayId", int.class), synthesizedEvent, displayId);
+                        invoke(setDisplayIdMethod, synthesizedEvent, displayId);
                     } catch (UiAutomator2Exception e) {
                         Logger.error("Unable to set displayId on motion event", e);
                     }
                 }
+                output.add(synthesizedEvent);
+            }
+        }
+    }
+
+    /**
+     * Synthesizes all the events scheduled at the given time delta
+     *
+     * @return The batch of events or null if there is nothing to inject
+     */
+    @Nullable
+    private ActionsScheduler.Batch buildBatch(List<InputEventParams> params, long startTimestampMs,
+                                              long eventTimeMs, Set<Integer> depressedMetaKeys) {
+        if (params == null || params.isEmpty()) {
+            return null;
+        }
 
-                result &= interactionController.injectEventSync(synthesizedEvent);
-                logEvent(synthesizedEvent, eventTime, result);
-                synthesizedEvent.recycle();
+        final List<InputEvent> keyEvents = new ArrayList<>();
+        final List<MotionInputEventParams> motionParams = new ArrayList<>();
+        for (final InputEventParams eventParam : params) {
+            if (eventParam instanceof KeyInputEventParams) {
+                buildKeyEvents((KeyInputEventParams) eventParam, startTimestampMs, eventTimeMs,
+                        depressedMetaKeys, keyEvents);
+            } else if (eventParam instanceof MotionInputEventParams) {
+                motionParams.add((MotionInputEventParams) eventParam);
             }
         }
-        return result;
+        final List<InputEvent> motionEvents = new ArrayList<>();
+        if (!motionParams.isEmpty()) {
+            buildMotionEvents(motionParams, startTimestampMs, eventTimeMs, depressedMetaKeys,
+                    motionEvents);
+        }
+        if (keyEvents.isEmpty() && motionEvents.isEmpty()) {
+            return null;
+        }
+        return () -> {
+            boolean result = true;
+            for (InputEvent event : keyEvents) {
+                // Do not type the rest of keys if any of them has failed
+                if (!injectEvent(event, eventTimeMs)) {
+                    result = false;
+                    break;
+                }
+            }
+            for (InputEvent event : motionEvents) {
+                result &= injectEvent(event, eventTimeMs);
+                ((MotionEvent) event).recycle();
+            }
+            return result;
+        };
     }
 
-    private static void sleepTillNextEvent(long nextEventTimestampNs) {
-        // LockSupport.parkNanos is precise, unlike Thread.sleep
-        LockSupport.parkNanos(nextEventTimestampNs - System.nanoTime());
+    private boolean injectEvent(InputEvent event, long eventTimeMs) {
+        boolean result = interactionController.injectEventSync(event);
+        logEvent(event, eventTimeMs, result);
+        return result;
     }
 
     public boolean execute() {
@@ -276,40 +329,15 @@ public class ActionsExecutor {
             return true;
         }
 
-        boolean result = true;
         final Set<Integer> depressedMetaKeys = new HashSet<>();
+        final long[] timeDeltasMs = actionTokens.timeDeltas();
+        final long startTimestampNs = scheduler.nanoTime();
         final long startTimestampMs = SystemClock.uptimeMillis();
-        final long startTimestampNs = System.nanoTime();
-        final long maxDeltaMs = actionTokens.maxTimeDelta();
-        Logger.debug(String.format("Max actions chain time delta: %sms", maxDeltaMs));
-        for (long currentDeltaMs = 0; currentDeltaMs <= maxDeltaMs; currentDeltaMs += EVENT_INJECTION_DELAY_MS) {
-            final List<InputEventParams> events = actionTokens.eventsAt(currentDeltaMs);
-            final long nextEventTimestampNs = (
-                    startTimestampNs + (currentDeltaMs + EVENT_INJECTION_DELAY_MS) * NANOSECONDS_IN_MILLISECOND
-            );
-            if (events == null || events.isEmpty()) {
-                sleepTillNextEvent(nextEventTimestampNs);
-                continue;
-            }
-
-            final List<MotionInputEventParams> motionEvents = new ArrayList<>();
-            final List<KeyInputEventParams> keyEvents = new ArrayList<>();
-            for (final InputEventParams eventParam : events) {
-                if (eventParam instanceof KeyInputEventParams) {
-                    keyEvents.add((KeyInputEventParams) eventParam);
-                } else if (eventParam instanceof MotionInputEventParams) {
-                    motionEvents.add((MotionInputEventParams) eventParam);
-                }
-            }
-            if (!keyEvents.isEmpty()) {
-                result &= executeKeyEvents(keyEvents, startTimestampMs, depressedMetaKeys);
-            }
-            if (!motionEvents.isEmpty()) {
-                result &= executeMotionEvents(motionEvents, startTimestampMs, depressedMetaKeys);
-            }
-
-            sleepTillNextEvent(nextEventTimestampNs);
-        }
-        return result;
+        Logger.debugf("Max actions chain time delta: %sms", timeDeltasMs[timeDeltasMs.length - 1]);
+        // Events carry their scheduled time, so the intervals between them
+        // do not depend on the injection latency
+        return scheduler.run(startTimestampNs, timeDeltasMs, EVENT_INJECTION_DELAY_MS,
+                (index, scheduledTimeNs) -> buildBatch(actionTokens.eventsAtIndex(index),
+                        startTimestampMs, startTimestampMs + timeDeltasMs[index], depressedMetaKeys));
     }
 }
@@ -94,7 +94,7 @@ public class ActionsPreprocessor {
     }
 
     public List<W3CItemModel> preprocess(List<W3CItemModel> items) {
-        final List<String> actionIds = new ArrayList<>();
+        final Set<String> actionIds = new HashSet<>();
         final Set<String> pointerTypes = new HashSet<>();
         for (final W3CItemModel actionItem : items) {
             if (actionItem.id == null) {
@@ -102,13 +102,12 @@ public class ActionsPreprocessor {
                         String.format("All actions must have the %s key set", ACTION_KEY_ID));
             }
             final String actionId = actionItem.id;
-            if (actionIds.contains(actionId)) {
+            if (!actionIds.add(actionId)) {
                 throw new ActionsParseException(
                         String.format("The action %s '%s' has one one or more duplicates",
                                 ACTION_KEY_ID, actionId));
             }
 
-            actionIds.add(actionId);
             if (actionItem.type == null) {
                 throw new ActionsParseException(
                         String.format("'%s' action must have the %s key set",
@@ -0,0 +1,137 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils.w3c;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Injects batches of input events at their scheduled offsets from the moment the execution
+ * has started. The scheduler only wakes up when there is something to inject and sleeps until
+ * absolute monotonic deadlines, so the time spent on injection does not accumulate as a drift.
+ * Each batch is prepared as soon as the previous one has been injected, which is still ahead
+ * of its own deadline in most cases.
+ */
+public class ActionsScheduler {
+    /**
+     * Input events, which are injected at the same time
+     */
+    public interface Batch {
+        /**
+         * @return false if any of the events has not been injected
+         */
+        boolean inject();
+    }
+
+    public interface BatchFactory {
+        /**
+         * Prepares the events of a batch
+         *
+         * @param index           The batch index
+         * @param scheduledTimeNs The monotonic time the batch is going to be injected at
+         * @return The batch or null if there is nothing to inject at the given index
+         */
+        @Nullable
+        Batch create(int index, long scheduledTimeNs);
+    }
+
+    @VisibleForTesting
+    interface Clock {
+        long nanoTime();
+
+        void parkNanos(long nanos);
+    }
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void parkNanos(long nanos) {
+            // LockSupport.parkNanos is precise, unlike Thread.sleep
+            LockSupport.parkNanos(nanos);
+        }
+    };
+
+    private final Clock clock;
+
+    public ActionsScheduler() {
+        this(SYSTEM_CLOCK);
+    }
+
+    @VisibleForTesting
+    ActionsScheduler(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @return The current monotonic time in nanoseconds, which is used for scheduling
+     */
+    public long nanoTime() {
+        return clock.nanoTime();
+    }
+
+    private void sleepUntil(long deadlineNs) {
+        long remainingNs;
+        // parkNanos could return earlier than requested
+        while ((remainingNs = deadlineNs - clock.nanoTime()) > 0) {
+            clock.parkNanos(remainingNs);
+        }
+    }
+
+    /**
+     * Injects the batches at their scheduled time.
+     *
+     * @param startTimeNs     The monotonic time the offsets are counted from
+     * @param timeDeltasMs    Sorted offsets of batches from the start time in milliseconds
+     * @param trailingDelayMs How long to wait after the last offset before returning
+     * @param factory         Prepares batches
+     * @return false if any of the batches has not been injected successfully
+     */
+    public boolean run(long startTimeNs, long[] timeDeltasMs, long trailingDelayMs,
+                       BatchFactory factory) {
+        if (timeDeltasMs.length == 0) {
+            return true;
+        }
+
+        boolean result = true;
+        int index = -1;
+        while (true) {
+            // The next batch is prepared right after the previous one has been injected
+            Batch batch = null;
+            while (batch == null && ++index < timeDeltasMs.length) {
+                batch = factory.create(index, toDeadline(startTimeNs, timeDeltasMs[index]));
+            }
+            if (batch == null) {
+                break;
+            }
+            sleepUntil(toDeadline(startTimeNs, timeDeltasMs[index]));
+            result &= batch.inject();
+        }
+        sleepUntil(toDeadline(startTimeNs, timeDeltasMs[timeDeltasMs.length - 1] + trailingDelayMs));
+        return result;
+    }
+
+    private static long toDeadline(long startTimeNs, long timeDeltaMs) {
+        return startTimeNs + TimeUnit.MILLISECONDS.toNanos(timeDeltaMs);
+    }
+}
@@ -58,9 +58,12 @@ import static io.appium.uiautomator2.utils.w3c.ActionsConstants.POINTER_TYPE_MOU
 import static io.appium.uiautomator2.utils.w3c.ActionsConstants.POINTER_TYPE_PEN;
 import static io.appium.uiautomator2.utils.w3c.ActionsConstants.POINTER_TYPE_TOUCH;
 
+/**
+ * Transforms preprocessed W3C action chains into {@link ActionTokens}.
+ * The tokenizer keeps no state between calls, so a single instance could be shared by
+ * concurrently handled requests.
+ */
 public class ActionsTokenizer {
-    private ActionTokens tokenizedActions;
-
     private static long alignDuration(long ms) {
         if (ms <= 0) {
             return 0;
@@ -127,7 +130,8 @@ public class ActionsTokenizer {
     }
 
     @Nullable
-    private Long findEntryPointDeltaForSecondaryAction(long timeDeltaMs) {
+    private static Long findEntryPointDeltaForSecondaryAction(ActionTokens tokenizedActions,
+                                                              long timeDeltaMs) {
         Long result = null;
         int upDownBalance = 0;
         for (int i = 0; i < tokenizedActions.size(); ++i) {
@@ -302,13 +306,14 @@ public class ActionsTokenizer {
         return extractElementCoordinates(actionId, gesture, origin);
     }
 
-    private void recordEventParams(long timeDeltaMs, @Nullable final InputEventParams newParam) {
+    private static void recordEventParams(ActionTokens tokenizedActions, long timeDeltaMs,
+                                          @Nullable final InputEventParams newParam) {
         if (newParam instanceof MotionInputEventParams) {
             final MotionInputEventParams motionParams = (MotionInputEventParams) newParam;
             if (motionParams.actionCode == MotionEvent.ACTION_UP
                     || motionParams.actionCode == MotionEvent.ACTION_DOWN
                     || motionParams.actionCode == MotionEvent.ACTION_MOVE) {
-                Long entryPointDelta = findEntryPointDeltaForSecondaryAction(timeDeltaMs);
+                Long entryPointDelta = findEntryPointDeltaForSecondaryAction(tokenizedActions, timeDeltaMs);
                 if (entryPointDelta != null) {
                     // The entry point for secondary up/down and move actions
                     // will always be the timestamp
@@ -320,7 +325,8 @@ public class ActionsTokenizer {
         tokenizedActions.addEventAt(timeDeltaMs, newParam);
     }
 
-    private void applyEmptyActionToEventsMapping(final W3CItemModel item) {
+    private static void applyEmptyActionToEventsMapping(final ActionTokens tokenizedActions,
+                                                        final W3CItemModel item) {
         final List<W3CGestureModel> gestures = item.actions;
         long timeDelta = 0;
         for (final W3CGestureModel gesture : gestures) {
@@ -333,11 +339,12 @@ public class ActionsTokenizer {
                 );
             }
             timeDelta += alignDuration(extractDuration(item, gesture));
-            recordEventParams(timeDelta, null);
+            recordEventParams(tokenizedActions, timeDelta, null);
         }
     }
 
-    private void applyKeyActionToEventsMapping(final W3CItemModel item) {
+    private static void applyKeyActionToEventsMapping(final ActionTokens tokenizedActions,
+                                                      final W3CItemModel item) {
         final List<W3CGestureModel> gestures = item.actions;
         long timeDelta = 0;
         long chainEntryPointDelta = 0;
@@ -345,7 +352,7 @@ public class ActionsTokenizer {
             switch (gesture.type) {
                 case ACTION_ITEM_TYPE_PAUSE:
                     timeDelta += alignDuration(extractDuration(item, gesture));
-                    recordEventParams(timeDelta, null);
+                    recordEventParams(tokenizedActions, timeDelta, null);
                     break;
                 case ACTION_ITEM_TYPE_KEY_DOWN:
                     chainEntryPointDelta = timeDelta;
@@ -373,7 +380,7 @@ public class ActionsTokenizer {
                                     : KeyEvent.ACTION_UP,
                             gesture.value.codePointAt(0)
                     );
-                    recordEventParams(timeDelta, evtParams);
+                    recordEventParams(tokenizedActions, timeDelta, evtParams);
                     chainEntryPointDelta = timeDelta;
                     break;
                 default:
@@ -406,7 +413,8 @@ public class ActionsTokenizer {
         }
     }
 
-    private void applyPointerActionToEventsMapping(final W3CItemModel item, final int pointerIndex) {
+    private static void applyPointerActionToEventsMapping(final ActionTokens tokenizedActions,
+                                                          final W3CItemModel item, final int pointerIndex) {
         final String actionId = item.id;
         final MotionEvent.PointerProperties props = new MotionEvent.PointerProperties();
         props.id = pointerIndex;
@@ -428,7 +436,7 @@ public class ActionsTokenizer {
             switch (gesture.type) {
                 case ACTION_ITEM_TYPE_PAUSE: {
                     timeDelta += alignDuration(extractDuration(item, gesture));
-                    recordEventParams(timeDelta, null);
+                    recordEventParams(tokenizedActions, timeDelta, null);
                 }
                 break;
                 case ACTION_ITEM_TYPE_POINTER_DOWN: {
@@ -443,7 +451,7 @@ public class ActionsTokenizer {
 
                     chainEntryPointDelta = timeDelta;
                     recentButton = extractButton(gesture, props.toolType);
-                    recordEventParams(timeDelta, new MotionInputEventParams(chainEntryPointDelta, MotionEvent.ACTION_DOWN,
+                    recordEventParams(tokenizedActions, timeDelta, new MotionInputEventParams(chainEntryPointDelta, MotionEvent.ACTION_DOWN,
                             extractCoordinates(actionId, gestures, actionItemIdx), recentButton, props));
                     isPointerDown = true;
                     recentDownDelta = timeDelta;
@@ -462,7 +470,7 @@ public class ActionsTokenizer {
                     }
 
                     recentButton = extractButton(gesture, props.toolType);
-                    recordEventParams(timeDelta, new MotionInputEventParams(chainEntryPointDelta, MotionEvent.ACTION_UP,
+                    recordEventParams(tokenizedActions, timeDelta, new MotionInputEventParams(chainEntryPointDelta, MotionEvent.ACTION_UP,
                             extractCoordinates(actionId, gestures, actionItemIdx), recentButton, props));
                     isPointerDown = false;
                     recentButton = 0;
@@ -481,7 +489,7 @@ public class ActionsTokenizer {
                         // because we don't know what the actual screen cursor position is
                         // before the action starts
                         timeDelta += duration;
-                        recordEventParams(timeDelta, null);
+                        recordEventParams(tokenizedActions, timeDelta, null);
                         break;
                     }
                     int actionCode = !isPointerDown && isToolTypeMouse
@@ -495,7 +503,7 @@ public class ActionsTokenizer {
                             ? startDelta + EVENT_INJECTION_DELAY_MS : startDelta;
                     long stepsCount = (startDelta + duration - firstActionDelta) / EVENT_INJECTION_DELAY_MS;
                     if (actionCode == MotionEvent.ACTION_HOVER_MOVE && !isHovering) {
-                        recordEventParams(firstActionDelta, new MotionInputEventParams(
+                        recordEventParams(tokenizedActions, firstActionDelta, new MotionInputEventParams(
                                 firstActionDelta, MotionEvent.ACTION_HOVER_ENTER, startCoordinates, 0, props));
                         isHovering = true;
                         if (stepsCount < 3) {
@@ -505,7 +513,7 @@ public class ActionsTokenizer {
                             duration = EVENT_INJECTION_DELAY_MS * 3;
                         }
                     } else {
-                        recordEventParams(firstActionDelta, new MotionInputEventParams(chainEntryPointDelta, MotionEvent.ACTION_MOVE,
+                        recordEventParams(tokenizedActions, firstActionDelta, new MotionInputEventParams(chainEntryPointDelta, MotionEvent.ACTION_MOVE,
                                 stepsCount <= 1 ? endCoordinates : startCoordinates, recentButton, props));
                     }
                     timeDelta = firstActionDelta + EVENT_INJECTION_DELAY_MS;
@@ -515,11 +523,11 @@ public class ActionsTokenizer {
                         currentCoordinates.x = startCoordinates.x + (endCoordinates.x - startCoordinates.x) / stepsCount * step;
                         currentCoordinates.y = startCoordinates.y + (endCoordinates.y - startCoordinates.y) / stepsCount * step;
                         if (step == stepsCount && isHovering) {
-                            recordEventParams(timeDelta, new MotionInputEventParams(
+                            recordEventParams(tokenizedActions, timeDelta, new MotionInputEventParams(
                                     firstActionDelta, MotionEvent.ACTION_HOVER_EXIT, endCoordinates, 0, props));
                             isHovering = false;
                         } else {
-                            recordEventParams(timeDelta, new MotionInputEventParams(
+                            recordEventParams(tokenizedActions, timeDelta, new MotionInputEventParams(
                                     chainEntryPointDelta, actionCode, currentCoordinates, recentButton, props));
                         }
                         timeDelta += EVENT_INJECTION_DELAY_MS;
@@ -552,21 +560,22 @@ public class ActionsTokenizer {
      * @throws ActionsParseException if the given actions chain cannot be tokenized properly
      */
     public ActionTokens tokenize(List<W3CItemModel> preprocessedItems) {
-        tokenizedActions = new ActionTokens();
+        final ActionTokens tokenizedActions = new ActionTokens();
 
         final List<W3CItemModel> emptyActions = filterActionsByType(preprocessedItems, ACTION_TYPE_NONE);
         for (final W3CItemModel emptyAction : emptyActions) {
-            applyEmptyActionToEventsMapping(emptyAction);
+            applyEmptyActionToEventsMapping(tokenizedActions, emptyAction);
         }
 
         final List<W3CItemModel> keyInputActions = filterActionsByType(preprocessedItems, ACTION_TYPE_KEY);
         for (final W3CItemModel keyAction : keyInputActions) {
-            applyKeyActionToEventsMapping(keyAction);
+            applyKeyActionToEventsMapping(tokenizedActions, keyAction);
         }
 
         final List<W3CItemModel> pointerActions = filterActionsByType(preprocessedItems, ACTION_TYPE_POINTER);
         for (int pointerIdx = 0; pointerIdx < pointerActions.size(); pointerIdx++) {
-            applyPointerActionToEventsMapping(pointerActions.get(pointerIdx), pointerIdx);
+            applyPointerActionToEventsMapping(tokenizedActions, pointerActions.get(pointerIdx),
+                    pointerIdx);
         }
 
         return tokenizedActions;
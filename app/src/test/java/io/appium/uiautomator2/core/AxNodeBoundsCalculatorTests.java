@@ -0,0 +1,133 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.core;
+
+import android.graphics.Rect;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import androidx.annotation.Nullable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class AxNodeBoundsCalculatorTests {
+    private static final Rect SCREEN = new Rect(0, 0, 1080, 2400);
+
+    private final AtomicInteger displayLookups = new AtomicInteger();
+
+    private static AccessibilityNodeInfo node(String name, Rect bounds, boolean isScrollable,
+                                              AccessibilityNodeInfo... children) {
+        AccessibilityNodeInfo result = AccessibilityNodeInfo.obtain();
+        result.setText(name);
+        result.setBoundsInScreen(bounds);
+        result.setScrollable(isScrollable);
+        for (AccessibilityNodeInfo child : children) {
+            shadowOf(result).addChild(child);
+        }
+        return result;
+    }
+
+    private AxNodeBoundsCalculator calculator(boolean trimScrollableParent) {
+        return new AxNodeBoundsCalculator(trimScrollableParent, 70, displayId -> {
+            displayLookups.incrementAndGet();
+            return new Rect(SCREEN);
+        }) {
+            // Robolectric nodes do not have source identifiers
+            @Nullable
+            @Override
+            String toCacheKey(AccessibilityNodeInfo node) {
+                return String.valueOf(node.getText());
+            }
+        };
+    }
+
+    @Test
+    public void shouldTrimBoundsIntoDisplay() {
+        AccessibilityNodeInfo item = node("item", new Rect(-10, 2300, 500, 2500), false);
+        assertEquals(new Rect(0, 2300, 500, 2400), calculator(true).getBounds(item));
+    }
+
+    @Test
+    public void shouldTrimBoundsIntoScrollableAncestor() {
+        AccessibilityNodeInfo item = node("item", new Rect(0, 900, 1080, 1100), false);
+        node("list", new Rect(0, 200, 1080, 1000), true,
+                node("row", new Rect(0, 900, 1080, 1100), false, item));
+        assertEquals(new Rect(0, 900, 1080, 1000), calculator(true).getBounds(item));
+    }
+
+    @Test
+    public void shouldNotTrimBoundsIntoScrollableAncestorIfDisabled() {
+        AccessibilityNodeInfo item = node("item", new Rect(0, 900, 1080, 1100), false);
+        node("list", new Rect(0, 200, 1080, 1000), true, item);
+        assertEquals(new Rect(0, 900, 1080, 1100), calculator(false).getBounds(item));
+    }
+
+    @Test
+    public void shouldTrimBoundsIntoNestedScrollableAncestors() {
+        AccessibilityNodeInfo item = node("item", new Rect(0, 100, 1080, 1100), false);
+        node("outer", new Rect(0, 500, 1080, 2000), true,
+                node("inner", new Rect(0, 0, 1080, 1000), true, item));
+        assertEquals(new Rect(0, 500, 1080, 1000), calculator(true).getBounds(item));
+    }
+
+    @Test
+    public void shouldShareAncestorLookupsBetweenSiblings() {
+        AccessibilityNodeInfo first = node("first", new Rect(0, 100, 1080, 300), false);
+        AccessibilityNodeInfo second = node("second", new Rect(0, 300, 1080, 500), false);
+        AccessibilityNodeInfo list = node("list", new Rect(0, 0, 1080, 400), true,
+                node("row", new Rect(0, 100, 1080, 500), false, first, second));
+        AxNodeBoundsCalculator calculator = calculator(true);
+
+        assertEquals(new Rect(0, 100, 1080, 300), calculator.getBounds(first));
+        // The visible bounds of the list are memoized after the first lookup
+        list.setBoundsInScreen(new Rect(0, 0, 1080, 350));
+        assertEquals(new Rect(0, 300, 1080, 400), calculator.getBounds(second));
+        assertEquals(new Rect(0, 300, 1080, 350), calculator(true).getBounds(second));
+    }
+
+    @Test
+    public void shouldLookupEachDisplayOnce() {
+        AccessibilityNodeInfo first = node("first", new Rect(0, 0, 10, 10), false);
+        AccessibilityNodeInfo second = node("second", new Rect(0, 10, 10, 20), false);
+        node("root", new Rect(SCREEN), false, first, second);
+        AxNodeBoundsCalculator calculator = calculator(true);
+
+        calculator.getBounds(first);
+        calculator.getBounds(second);
+        calculator.getBounds(null);
+        assertEquals(1, displayLookups.get());
+    }
+
+    @Test
+    public void shouldReturnDisplayBoundsForMissingNode() {
+        AxNodeBoundsCalculator calculator = calculator(true);
+        Rect bounds = calculator.getBounds(null);
+        assertEquals(SCREEN, bounds);
+        // The returned instance must not be the memoized one
+        bounds.setEmpty();
+        assertEquals(SCREEN, calculator.getBounds(null));
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.core;
+
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import androidx.annotation.Nullable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import io.appium.uiautomator2.utils.ReflectionUtils;
+
+import static io.appium.uiautomator2.BenchmarkAssumptions.assumeBenchmarksEnabled;
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Compares the throughput of {@link AxNodeInfoHelper#toUuid(AccessibilityNodeInfo)} and of
+ * bounds calculation with members resolved on every call (as it used to be done) and with
+ * cached accessors. Results are printed to stdout. Measurements only run if requested with
+ * the benchmarks Gradle property, while the checks of equal results are always performed.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class AxNodeInfoHelperBenchmarkTests {
+    private static final int ITERATIONS = 20000;
+    private static final int LIST_ITEMS_COUNT = 50;
+    private static final long UNDEFINED_NODE_ID = (((long) Integer.MAX_VALUE) << 32) | Integer.MAX_VALUE;
+
+    @SuppressWarnings("unused")
+    private static class FakeDevice {
+        private Object getDisplayById(int displayId) {
+            return displayId == 0 ? this : null;
+        }
+
+        private Point getDisplaySize(int displayId) {
+            return new Point(1080, 2400);
+        }
+    }
+
+    private static final FakeDevice DEVICE = new FakeDevice();
+
+    private static final IntFunction<Rect> LEGACY_DISPLAY_RECT_PROVIDER = displayId -> {
+        try {
+            Method getDisplayById = FakeDevice.class.getDeclaredMethod("getDisplayById", int.class);
+            getDisplayById.setAccessible(true);
+            if (getDisplayById.invoke(DEVICE, displayId) == null) {
+                return null;
+            }
+            Method getDisplaySize = FakeDevice.class.getDeclaredMethod("getDisplaySize", int.class);
+            getDisplaySize.setAccessible(true);
+            Point size = (Point) getDisplaySize.invoke(DEVICE, displayId);
+            return new Rect(0, 0, size.x, size.y);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    };
+
+    private static final IntFunction<Rect> CACHED_DISPLAY_RECT_PROVIDER = displayId -> {
+        if (ReflectionUtils.invoke(ReflectionUtils.getMethod(FakeDevice.class, "getDisplayById", int.class),
+                DEVICE, displayId) == null) {
+            return null;
+        }
+        Point size = (Point) ReflectionUtils.invoke(
+                ReflectionUtils.getMethod(FakeDevice.class, "getDisplaySize", int.class), DEVICE, displayId);
+        return new Rect(0, 0, size.x, size.y);
+    };
+
+    private static class Calculator extends AxNodeBoundsCalculator {
+        Calculator(IntFunction<Rect> displayRectProvider) {
+            super(true, 70, displayRectProvider);
+        }
+
+        // Robolectric nodes do not have source identifiers
+        @Nullable
+        @Override
+        String toCacheKey(AccessibilityNodeInfo node) {
+            return String.valueOf(node.getText());
+        }
+    }
+
+    @Nullable
+    private static String legacyToUuid(AccessibilityNodeInfo info) throws ReflectiveOperationException {
+        Field field = info.getClass().getDeclaredField("mSourceNodeId");
+        field.setAccessible(true);
+        long sourceNodeId = (Long) field.get(info);
+        if (sourceNodeId == UNDEFINED_NODE_ID || info.getWindowId() == AxNodeInfoHelper.UNDEFINED_WINDOW_ID) {
+            return null;
+        }
+        String sourceNodeIdHex = String.format("%016x", sourceNodeId);
+        String windowIdHex = String.format("%016x", info.getWindowId());
+        return String.format("%s-%s-%s-%s-%s",
+                windowIdHex.substring(0, 8), windowIdHex.substring(8, 12), windowIdHex.substring(12, 16),
+                sourceNodeIdHex.substring(0, 4), sourceNodeIdHex.substring(4, 16));
+    }
+
+    private static List<AccessibilityNodeInfo> buildListItems() {
+        AccessibilityNodeInfo list = AccessibilityNodeInfo.obtain();
+        list.setText("list");
+        list.setScrollable(true);
+        list.setBoundsInScreen(new Rect(0, 200, 1080, 2000));
+        List<AccessibilityNodeInfo> result = new ArrayList<>();
+        for (int i = 0; i < LIST_ITEMS_COUNT; ++i) {
+            AccessibilityNodeInfo row = AccessibilityNodeInfo.obtain();
+            row.setText("row " + i);
+            row.setBoundsInScreen(new Rect(0, 200 + i * 100, 1080, 300 + i * 100));
+            AccessibilityNodeInfo item = AccessibilityNodeInfo.obtain();
+            item.setText("item " + i);
+            item.setBoundsInScreen(new Rect(20, 200 + i * 100, 1060, 300 + i * 100));
+            shadowOf(row).addChild(item);
+            shadowOf(list).addChild(row);
+            result.add(item);
+        }
+        return result;
+    }
+
+    private static AccessibilityNodeInfo buildNodeWithIdentifiers() {
+        AccessibilityNodeInfo node = AccessibilityNodeInfo.obtain();
+        ReflectionUtils.setField("mSourceNodeId", 0x12345678L, node);
+        ReflectionUtils.setField("mWindowId", 7, node);
+        return node;
+    }
+
+    private static void assumeBenchmarksRequested() {
+        assumeBenchmarksEnabled();
+    }
+
+    @Test
+    public void shouldProduceSameUuidAsResolvedPerCall() throws Exception {
+        AccessibilityNodeInfo node = buildNodeWithIdentifiers();
+        assertEquals(legacyToUuid(node), AxNodeInfoHelper.toUuid(node));
+    }
+
+    @Test
+    public void shouldCalculateSameBoundsWithCachedAccessors() {
+        List<AccessibilityNodeInfo> items = buildListItems();
+        AxNodeBoundsCalculator calculator = new Calculator(CACHED_DISPLAY_RECT_PROVIDER);
+        for (AccessibilityNodeInfo item : items) {
+            assertEquals(new Calculator(LEGACY_DISPLAY_RECT_PROVIDER).getBounds(item),
+                    calculator.getBounds(item));
+        }
+    }
+
+    @Test
+    public void benchmarkToUuidThroughput() throws Exception {
+        assumeBenchmarksRequested();
+        AccessibilityNodeInfo node = buildNodeWithIdentifiers();
+        String expected = AxNodeInfoHelper.toUuid(node);
+
+        String legacyResult = null;
+        long legacyStart = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            legacyResult = legacyToUuid(node);
+        }
+        long legacyDuration = System.nanoTime() - legacyStart;
+
+        String cachedResult = null;
+        long cachedStart = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; ++i) {
+            cachedResult = AxNodeInfoHelper.toUuid(node);
+        }
+        long cachedDuration = System.nanoTime() - cachedStart;
+
+        System.out.printf("toUuid x %d. Resolved per call: %.2f ms (%.0f ops/s). " +
+                        "Cached getter handle: %.2f ms (%.0f ops/s)%n",
+                ITERATIONS, legacyDuration / 1e6, ITERATIONS * 1e9 / legacyDuration,
+                cachedDuration / 1e6, ITERATIONS * 1e9 / cachedDuration);
+        assertEquals(expected, legacyResult);
+        assertEquals(expected, cachedResult);
+    }
+
+    @Test
+    public void benchmarkBoundsThroughput() {
+        assumeBenchmarksRequested();
+        List<AccessibilityNodeInfo> items = buildListItems();
+        int rounds = ITERATIONS / LIST_ITEMS_COUNT;
+        List<Rect> expected = new ArrayList<>();
+        for (AccessibilityNodeInfo item : items) {
+            expected.add(new Calculator(LEGACY_DISPLAY_RECT_PROVIDER).getBounds(item));
+        }
+
+        long legacyStart = System.nanoTime();
+        for (int round = 0; round < rounds; ++round) {
+            for (AccessibilityNodeInfo item : items) {
+                new Calculator(LEGACY_DISPLAY_RECT_PROVIDER).getBounds(item);
+            }
+        }
+        long legacyDuration = System.nanoTime() - legacyStart;
+
+        long cachedStart = System.nanoTime();
+        for (int round = 0; round < rounds; ++round) {
+            for (AccessibilityNodeInfo item : items) {
+                new Calculator(CACHED_DISPLAY_RECT_PROVIDER).getBounds(item);
+            }
+        }
+        long cachedDuration = System.nanoTime() - cachedStart;
+
+        long sharedStart = System.nanoTime();
+        List<Rect> actual = new ArrayList<>();
+        for (int round = 0; round < rounds; ++round) {
+            actual.clear();
+            AxNodeBoundsCalculator calculator = new Calculator(CACHED_DISPLAY_RECT_PROVIDER);
+            for (AccessibilityNodeInfo item : items) {
+                actual.add(calculator.getBounds(item));
+            }
+        }
+        long sharedDuration = System.nanoTime() - sharedStart;
+
+        int count = rounds * LIST_ITEMS_COUNT;
+        System.out.printf("getBounds x %d. Resolved per call: %.0f ops/s. Cached methods: %.0f ops/s. " +
+                        "Cached methods and calculator shared by %d siblings: %.0f ops/s%n",
+                count, count * 1e9 / legacyDuration, count * 1e9 / cachedDuration,
+                LIST_ITEMS_COUNT, count * 1e9 / sharedDuration);
+        assertEquals(expected, actual);
+    }
+}
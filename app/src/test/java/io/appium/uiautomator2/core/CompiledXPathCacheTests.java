@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.appium.uiautomator2.common.exceptions.InvalidSelectorException;
+import io.appium.uiautomator2.model.api.CacheStatsModel;
+import io.appium.uiautomator2.model.settings.EnforceXpath1;
+import io.appium.uiautomator2.model.settings.Settings;
+import io.appium.uiautomator2.model.settings.XpathCacheEvictionPolicy;
+import io.appium.uiautomator2.model.settings.XpathCacheSize;
+import io.appium.uiautomator2.utils.Attribute;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledXPathCacheTests {
+    private CompiledXPathCache cache;
+
+    @Before
+    public void setUp() {
+        Settings.get(EnforceXpath1.class).update(true);
+        Settings.get(XpathCacheSize.class).update(2);
+        cache = new CompiledXPathCache();
+    }
+
+    @After
+    public void tearDown() {
+        Settings.get(EnforceXpath1.class).reset();
+        Settings.get(XpathCacheSize.class).reset();
+        Settings.get(XpathCacheEvictionPolicy.class).reset();
+    }
+
+    @Test
+    public void shouldReuseCompiledExpressions() {
+        CompiledXPath first = cache.get("//*[@text='foo']");
+        CompiledXPath second = cache.get("//*[@text='foo']");
+        assertSame(first, second);
+        assertTrue(first.isXpath1());
+        assertTrue(first.getQueriedAttributes().contains(Attribute.TEXT));
+        CacheStatsModel stats = cache.getStats();
+        assertEquals(1, stats.size);
+        assertEquals(1, stats.hits);
+        assertEquals(1, stats.misses);
+    }
+
+    @Test
+    public void shouldNotMixUpXpathEngines() {
+        CompiledXPath xpath1 = cache.get("//a");
+        Settings.get(EnforceXpath1.class).update(false);
+        CompiledXPath xpath2 = cache.get("//a");
+        assertNotSame(xpath1, xpath2);
+        assertEquals(2, cache.getStats().misses);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntries() {
+        CompiledXPath a = cache.get("//a");
+        cache.get("//b");
+        cache.get("//a");
+        cache.get("//c");
+        assertSame(a, cache.get("//a"));
+        assertEquals(1, cache.getStats().evictions);
+    }
+
+    @Test
+    public void shouldEvictOldestEntriesWithFifoPolicy() {
+        Settings.get(XpathCacheEvictionPolicy.class).update(XpathCacheEvictionPolicy.FIFO);
+        CompiledXPath a = cache.get("//a");
+        cache.get("//b");
+        cache.get("//a");
+        cache.get("//c");
+        assertNotSame(a, cache.get("//a"));
+        assertEquals(2, cache.getStats().evictions);
+    }
+
+    @Test
+    public void shouldNotCacheAnythingIfDisabled() {
+        Settings.get(XpathCacheSize.class).update(0);
+        assertNotSame(cache.get("//a"), cache.get("//a"));
+        assertEquals(0, cache.getStats().size);
+    }
+
+    @Test(expected = InvalidSelectorException.class)
+    public void shouldFailOnInvalidSelectors() {
+        cache.get("//*[");
+    }
+}
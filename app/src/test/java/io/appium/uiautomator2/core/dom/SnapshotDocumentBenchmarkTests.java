@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.core.dom;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static io.appium.uiautomator2.BenchmarkAssumptions.assumeBenchmarksEnabled;
+import static io.appium.uiautomator2.core.dom.SnapshotDocumentTests.buildTree;
+import static io.appium.uiautomator2.core.dom.SnapshotDocumentTests.evaluateXpath1;
+import static io.appium.uiautomator2.core.dom.SnapshotDocumentTests.evaluateXpath2;
+import static io.appium.uiautomator2.core.dom.SnapshotDocumentTests.serializeAndParse;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Compares XPath lookups on the snapshot DOM with the former approach, which serialized
+ * the snapshot to XML and parsed it again. Results are printed to stdout.
+ */
+public class SnapshotDocumentBenchmarkTests {
+
+    @Before
+    public void setUp() {
+        assumeBenchmarksEnabled();
+    }
+
+    @Test
+    public void benchmarkXpathLookupOnLargeTrees() throws Exception {
+        final String query = "//android.widget.TextView[@clickable='true' and contains(@text, '7')]";
+        final int iterations = 3;
+        for (int nodesCount : new int[]{1000, 5000, 20000}) {
+            SnapshotDocumentTests.TestUiElement tree = buildTree(nodesCount);
+            long[] xpath1Durations = new long[2];
+            long[] xpath2Durations = new long[2];
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                int expectedCount = evaluateXpath1(serializeAndParse(tree), query).size();
+                xpath1Durations[0] += System.nanoTime() - start;
+                start = System.nanoTime();
+                int actualCount = evaluateXpath1(new SnapshotDocument(tree,
+                        Collections.<String, String>emptyMap()), query).size();
+                xpath1Durations[1] += System.nanoTime() - start;
+                assertEquals(expectedCount, actualCount);
+                assertNotEquals(0, actualCount);
+
+                start = System.nanoTime();
+                expectedCount = evaluateXpath2(serializeAndParse(tree), query).size();
+                xpath2Durations[0] += System.nanoTime() - start;
+                start = System.nanoTime();
+                actualCount = evaluateXpath2(new SnapshotDocument(tree,
+                        Collections.<String, String>emptyMap()), query).size();
+                xpath2Durations[1] += System.nanoTime() - start;
+                assertEquals(expectedCount, actualCount);
+            }
+            System.out.printf("%s nodes: XPath1 %sms (parsed XML) vs %sms (snapshot DOM), " +
+                            "XPath2 %sms (parsed XML) vs %sms (snapshot DOM)%n",
+                    nodesCount,
+                    xpath1Durations[0] / iterations / 1_000_000,
+                    xpath1Durations[1] / iterations / 1_000_000,
+                    xpath2Durations[0] / iterations / 1_000_000,
+                    xpath2Durations[1] / iterations / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.core.dom;
+
+import org.apache.xerces.jaxp.DocumentBuilderFactoryImpl;
+import org.eclipse.wst.xml.xpath2.api.Item;
+import org.eclipse.wst.xml.xpath2.api.ResultSequence;
+import org.eclipse.wst.xml.xpath2.api.XPath2Expression;
+import org.eclipse.wst.xml.xpath2.processor.Engine;
+import org.eclipse.wst.xml.xpath2.processor.util.DynamicContextBuilder;
+import org.eclipse.wst.xml.xpath2.processor.util.StaticContextBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+
+import io.appium.uiautomator2.model.UiElement;
+import io.appium.uiautomator2.utils.Attribute;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotDocumentTests {
+    private static final String ROOT_NODE_NAME = "hierarchy";
+    private static final String LAYOUT_CLASS = "android.widget.LinearLayout";
+    private static final String TEXT_VIEW_CLASS = "android.widget.TextView";
+
+    private TestUiElement root;
+    private SnapshotDocument document;
+
+    static class TestUiElement extends UiElement<Object, TestUiElement> {
+        private final Map<Attribute, Object> attributes = new LinkedHashMap<>();
+        private final List<TestUiElement> children = new ArrayList<>();
+
+        TestUiElement(String className, int index) {
+            super(null);
+            attributes.put(Attribute.INDEX, index);
+            attributes.put(Attribute.CLASS, className);
+        }
+
+        TestUiElement with(Attribute attribute, Object value) {
+            attributes.put(attribute, value);
+            return this;
+        }
+
+        TestUiElement addChild(TestUiElement child) {
+            children.add(child);
+            return child;
+        }
+
+        @Override
+        public List<TestUiElement> getChildren() {
+            return children;
+        }
+
+        @Override
+        protected Map<Attribute, Object> getAttributes() {
+            return attributes;
+        }
+    }
+
+    /**
+     * Builds a synthetic hierarchy of layouts having ten text views each,
+     * so it contains exactly {@code nodesCount} nodes including the root
+     */
+    static TestUiElement buildTree(int nodesCount) {
+        TestUiElement hierarchy = new TestUiElement(ROOT_NODE_NAME, 0);
+        TestUiElement layout = null;
+        int layoutsCount = 0;
+        for (int i = 1; i < nodesCount; i++) {
+            if (layout == null || layout.getChildren().size() == 10) {
+                layout = hierarchy.addChild(new TestUiElement(LAYOUT_CLASS, layoutsCount++)
+                        .with(Attribute.ENABLED, true)
+                        .with(Attribute.BOUNDS, "[0,0][1080,2400]"));
+                continue;
+            }
+            int index = layout.getChildren().size();
+            layout.addChild(new TestUiElement(TEXT_VIEW_CLASS, index)
+                    .with(Attribute.TEXT, String.format("Item %s", i))
+                    .with(Attribute.CLICKABLE, index % 2 == 0)
+                    .with(Attribute.ENABLED, true)
+                    .with(Attribute.BOUNDS, String.format("[0,%s][1080,%s]", i, i + 1)));
+        }
+        return hierarchy;
+    }
+
+    private static void serialize(XMLStreamWriter writer, UiElement<?, ?> element) throws Exception {
+        String name = element.getClassName();
+        writer.writeStartElement(name);
+        for (Attribute attribute : element.attributeKeys()) {
+            if (attribute.isExposableToXml()) {
+                writer.writeAttribute(attribute.getName(), String.valueOf((Object) element.get(attribute)));
+            }
+        }
+        for (UiElement<?, ?> child : element.getChildren()) {
+            serialize(writer, child);
+        }
+        writer.writeEndElement();
+    }
+
+    /**
+     * Replicates the former lookup approach, which serialized the snapshot to XML
+     * and then parsed it into a separate DOM tree
+     */
+    static org.w3c.dom.Document serializeAndParse(UiElement<?, ?> element) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, "UTF-8");
+        writer.writeStartDocument("UTF-8", "1.0");
+        serialize(writer, element);
+        writer.writeEndDocument();
+        writer.close();
+        DocumentBuilderFactory factory = new DocumentBuilderFactoryImpl();
+        factory.setNamespaceAware(true);
+        factory.setValidating(false);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(outputStream.toByteArray()));
+    }
+
+    static List<Node> evaluateXpath1(Node context, String query) throws Exception {
+        NodeList nodeList = (NodeList) XPathFactory.newInstance().newXPath()
+                .compile(query)
+                .evaluate(context, XPathConstants.NODESET);
+        List<Node> result = new ArrayList<>();
+        for (int i = 0; i < nodeList.getLength(); i++) {
+            result.add(nodeList.item(i));
+        }
+        return result;
+    }
+
+    static List<Node> evaluateXpath2(Node context, String query) {
+        StaticContextBuilder scb = new StaticContextBuilder();
+        XPath2Expression expr = new Engine().parseExpression(query, scb);
+        ResultSequence rs = expr.evaluate(new DynamicContextBuilder(scb), new Object[]{context});
+        List<Node> result = new ArrayList<>();
+        Iterator<Item> iterator = rs.iterator();
+        while (iterator.hasNext()) {
+            Object value = iterator.next().getNativeValue();
+            if (value instanceof Node) {
+                result.add((Node) value);
+            }
+        }
+        return result;
+    }
+
+    @Before
+    public void setUp() {
+        root = buildTree(34);
+        Map<String, String> displayInfo = new LinkedHashMap<>();
+        displayInfo.put("width", "1080");
+        displayInfo.put("height", "2400");
+        document = new SnapshotDocument(root, displayInfo);
+    }
+
+    @Test
+    public void shouldAssignDocumentOrderOrdinals() {
+        assertEquals(34, document.getElementsCount());
+        Element hierarchy = document.getDocumentElement();
+        assertEquals(ROOT_NODE_NAME, hierarchy.getTagName());
+        assertEquals(1, ((SnapshotNode) hierarchy).getOrdinal());
+        Node firstLayout = hierarchy.getFirstChild();
+        Node secondLayout = firstLayout.getNextSibling();
+        assertEquals(2, ((SnapshotNode) firstLayout).getOrdinal());
+        assertEquals(13, ((SnapshotNode) secondLayout).getOrdinal());
+        assertSame(firstLayout, secondLayout.getPreviousSibling());
+        assertEquals(Node.DOCUMENT_POSITION_CONTAINED_BY | Node.DOCUMENT_POSITION_FOLLOWING,
+                hierarchy.compareDocumentPosition(secondLayout.getFirstChild()));
+        assertEquals(Node.DOCUMENT_POSITION_CONTAINS | Node.DOCUMENT_POSITION_PRECEDING,
+                secondLayout.getFirstChild().compareDocumentPosition(hierarchy));
+        assertEquals(Node.DOCUMENT_POSITION_PRECEDING,
+                secondLayout.compareDocumentPosition(firstLayout.getLastChild()));
+        SnapshotNode firstAttribute = (SnapshotNode) firstLayout.getAttributes().item(0);
+        SnapshotNode secondAttribute = (SnapshotNode) firstLayout.getAttributes().item(1);
+        assertTrue(((SnapshotNode) firstLayout).getDocumentOrderKey()
+                < firstAttribute.getDocumentOrderKey());
+        assertTrue(firstAttribute.getDocumentOrderKey() < secondAttribute.getDocumentOrderKey());
+        assertTrue(secondAttribute.getDocumentOrderKey()
+                < ((SnapshotNode) firstLayout.getFirstChild()).getDocumentOrderKey());
+    }
+
+    @Test
+    public void shouldExposeSnapshotAttributes() {
+        Element textView = (Element) document.getDocumentElement().getFirstChild().getFirstChild();
+        assertEquals(TEXT_VIEW_CLASS, textView.getTagName());
+        assertEquals("Item 2", textView.getAttribute("text"));
+        assertEquals("true", textView.getAttribute("clickable"));
+        assertEquals("", textView.getAttribute("width"));
+        assertTrue(document.getDocumentElement().hasAttribute("width"));
+    }
+
+    @Test
+    public void shouldEvaluateXpath1OverSnapshot() throws Exception {
+        List<Node> nodes = evaluateXpath1(document,
+                "(//android.widget.TextView[@text='Item 5']/following::android.widget.TextView)[1]");
+        assertEquals(1, nodes.size());
+        assertEquals("Item 6", ((Element) nodes.get(0)).getAttribute("text"));
+        assertSame(root.getChildren().get(0).getChildren().get(4),
+                ((SnapshotElement) nodes.get(0)).getUiElement());
+    }
+
+    @Test
+    public void shouldEvaluateXpath2OverSnapshot() {
+        List<Node> nodes = evaluateXpath2(document,
+                "//android.widget.TextView[ends-with(@text, '3')]");
+        assertEquals(3, nodes.size());
+        assertEquals("Item 3", ((Element) nodes.get(0)).getAttribute("text"));
+        assertEquals("Item 33", ((Element) nodes.get(2)).getAttribute("text"));
+    }
+
+    @Test
+    public void shouldEvaluateRelativeXpathFromElementContext() throws Exception {
+        Node secondLayout = document.getDocumentElement().getFirstChild().getNextSibling();
+        assertEquals(10, evaluateXpath1(secondLayout, "./*").size());
+        assertEquals(10, evaluateXpath2(secondLayout, "./*").size());
+        assertEquals(30, evaluateXpath2(secondLayout, "//android.widget.TextView").size());
+    }
+
+    @Test
+    public void shouldMatchTheSameNodesAsParsedXml() throws Exception {
+        org.w3c.dom.Document parsed = serializeAndParse(root);
+        for (String query : new String[]{"//*", "//*[@clickable='true']", "//*[@text='Item 17']/.."}) {
+            assertEquals(evaluateXpath1(parsed, query).size(), evaluateXpath1(document, query).size());
+            assertEquals(evaluateXpath2(parsed, query).size(), evaluateXpath2(document, query).size());
+        }
+    }
+}
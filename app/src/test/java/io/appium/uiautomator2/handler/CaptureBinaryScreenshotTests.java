@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.handler;
+
+import org.junit.Test;
+
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
+import io.appium.uiautomator2.utils.ScreenshotFormat;
+
+import static org.junit.Assert.assertEquals;
+
+public class CaptureBinaryScreenshotTests {
+    @Test
+    public void shouldPreferTheExplicitFormatOverTheAcceptHeader() {
+        assertEquals(ScreenshotFormat.JPEG,
+                CaptureBinaryScreenshot.parseFormat("jpeg", "image/webp"));
+        assertEquals(ScreenshotFormat.WEBP,
+                CaptureBinaryScreenshot.parseFormat(null, "image/webp"));
+    }
+
+    @Test
+    public void shouldFallBackToPng() {
+        assertEquals(ScreenshotFormat.PNG, CaptureBinaryScreenshot.parseFormat(null, null));
+        assertEquals(ScreenshotFormat.PNG,
+                CaptureBinaryScreenshot.parseFormat(null, "application/json"));
+    }
+
+    @Test(expected = InvalidArgumentException.class)
+    public void shouldRejectUnknownFormats() {
+        CaptureBinaryScreenshot.parseFormat("bmp", null);
+    }
+
+    @Test
+    public void shouldParseQuality() {
+        assertEquals(CaptureBinaryScreenshot.DEFAULT_QUALITY,
+                CaptureBinaryScreenshot.parseQuality(null, ScreenshotFormat.JPEG));
+        assertEquals(ScreenshotFormat.MAX_QUALITY,
+                CaptureBinaryScreenshot.parseQuality(null, ScreenshotFormat.PNG));
+        assertEquals(55, CaptureBinaryScreenshot.parseQuality("55", ScreenshotFormat.WEBP));
+    }
+
+    @Test(expected = InvalidArgumentException.class)
+    public void shouldRejectOutOfRangeQuality() {
+        CaptureBinaryScreenshot.parseQuality("101", ScreenshotFormat.JPEG);
+    }
+
+    @Test
+    public void shouldParseScale() {
+        assertEquals(1.0f, CaptureBinaryScreenshot.parseScale(null), 0);
+        assertEquals(0.25f, CaptureBinaryScreenshot.parseScale("0.25"), 0);
+    }
+
+    @Test(expected = InvalidArgumentException.class)
+    public void shouldRejectZeroScale() {
+        CaptureBinaryScreenshot.parseScale("0");
+    }
+
+    @Test(expected = InvalidArgumentException.class)
+    public void shouldRejectNonNumericScale() {
+        CaptureBinaryScreenshot.parseScale("NaN");
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.handler;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.appium.uiautomator2.common.exceptions.ElementNotFoundException;
+import io.appium.uiautomator2.http.AppiumResponse;
+import io.appium.uiautomator2.http.IHttpRequest;
+import io.appium.uiautomator2.http.StreamedText;
+import io.appium.uiautomator2.model.api.BatchCommandResultModel;
+import io.appium.uiautomator2.model.api.ElementModel;
+import io.appium.uiautomator2.model.api.server.ErrorModel;
+import io.appium.uiautomator2.server.AppiumServlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ExecuteBatchTests {
+    private static final String SESSION_ID = "123";
+
+    private final List<String> executedCommands = new ArrayList<>();
+    private final Map<String, Object> responseValues = new HashMap<>();
+    private ExecuteBatch executeBatch;
+
+    @Before
+    public void setUp() {
+        executeBatch = new ExecuteBatch("/session/:sessionId/appium/batch", request -> {
+            String command = String.format("%s %s %s", request.method(), request.uri(), request.body());
+            executedCommands.add(command.trim());
+            String key = String.format("%s %s", request.method(), request.uri());
+            return responseValues.containsKey(key)
+                    ? new AppiumResponse(SESSION_ID, responseValues.get(key))
+                    : null;
+        });
+    }
+
+    private static ElementModel toElementModel(String id) {
+        ElementModel result = new ElementModel();
+        result.jwpElementId = id;
+        result.w3cElementId = id;
+        return result;
+    }
+
+    private List<BatchCommandResultModel> execute(String body) {
+        IHttpRequest request = mock(IHttpRequest.class);
+        Map<String, Object> data = new HashMap<>();
+        data.put(AppiumServlet.SESSION_ID_KEY, SESSION_ID);
+        when(request.data()).thenReturn(data);
+        when(request.body()).thenReturn(body);
+        AppiumResponse response = executeBatch.safeHandle(request);
+        //noinspection unchecked
+        return (List<BatchCommandResultModel>) response.getValue();
+    }
+
+    @Test
+    public void shouldExecuteCommandsInOrder() {
+        responseValues.put("POST /session/123/element", toElementModel("e1"));
+        responseValues.put("GET /session/123/element/e1/text", "hello");
+        List<BatchCommandResultModel> results = execute("{\"commands\": [" +
+                "{\"method\": \"POST\", \"path\": \"/element\", " +
+                "\"body\": {\"strategy\": \"id\", \"selector\": \"foo\"}}," +
+                "{\"method\": \"get\", \"path\": \"/element/${0}/text\"}" +
+                "]}");
+
+        assertEquals(Arrays.asList(
+                "POST /session/123/element {\"strategy\":\"id\",\"selector\":\"foo\"}",
+                "GET /session/123/element/e1/text"), executedCommands);
+        assertEquals(2, results.size());
+        assertEquals(200, results.get(0).status);
+        assertEquals("e1", ((ElementModel) results.get(0).value).getUnifiedId());
+        assertEquals(200, results.get(1).status);
+        assertEquals("hello", results.get(1).value);
+    }
+
+    @Test
+    public void shouldResolveReferencesToListItemsInBody() {
+        responseValues.put("POST /session/123/elements",
+                Arrays.asList(toElementModel("e1"), toElementModel("e2")));
+        responseValues.put("POST /session/123/actions", null);
+        List<BatchCommandResultModel> results = execute("{\"commands\": [" +
+                "{\"method\": \"POST\", \"path\": \"/elements\"}," +
+                "{\"method\": \"POST\", \"path\": \"/actions\", \"body\": {\"origin\": \"${0[1]}\"}}" +
+                "]}");
+
+        assertEquals("POST /session/123/actions {\"origin\":\"e2\"}", executedCommands.get(1));
+        assertEquals(200, results.get(1).status);
+    }
+
+    @Test
+    public void shouldStopOnFirstErrorByDefault() {
+        responseValues.put("POST /session/123/element", new ElementNotFoundException());
+        List<BatchCommandResultModel> results = execute("{\"commands\": [" +
+                "{\"method\": \"POST\", \"path\": \"/element\"}," +
+                "{\"method\": \"GET\", \"path\": \"/source\"}" +
+                "]}");
+
+        assertEquals(1, executedCommands.size());
+        assertEquals(1, results.size());
+        assertEquals(404, results.get(0).status);
+        assertEquals("no such element", ((ErrorModel) results.get(0).value).error);
+    }
+
+    @Test
+    public void shouldContinueAfterErrorsIfRequested() {
+        responseValues.put("POST /session/123/element", new ElementNotFoundException());
+        responseValues.put("GET /session/123/source", "<hierarchy/>");
+        List<BatchCommandResultModel> results = execute("{\"stopOnError\": false, \"commands\": [" +
+                "{\"method\": \"POST\", \"path\": \"/element\"}," +
+                "{\"method\": \"GET\", \"path\": \"/element/${0}/text\"}," +
+                "{\"method\": \"GET\", \"path\": \"/source\"}" +
+                "]}");
+
+        assertEquals(3, results.size());
+        assertEquals(404, results.get(0).status);
+        // The reference cannot be resolved, because the first command has failed
+        assertEquals(400, results.get(1).status);
+        assertEquals(200, results.get(2).status);
+        assertEquals(2, executedCommands.size());
+    }
+
+    @Test
+    public void shouldReportUnknownCommands() {
+        List<BatchCommandResultModel> results = execute("{\"commands\": [" +
+                "{\"method\": \"GET\", \"path\": \"/unknown\"}" +
+                "]}");
+
+        assertEquals(404, results.get(0).status);
+        assertEquals("unknown command", ((ErrorModel) results.get(0).value).error);
+    }
+
+    @Test
+    public void shouldRejectReferencesToFollowingCommands() {
+        List<BatchCommandResultModel> results = execute("{\"commands\": [" +
+                "{\"method\": \"GET\", \"path\": \"/element/${1}/text\"}" +
+                "]}");
+
+        assertTrue(executedCommands.isEmpty());
+        assertEquals(400, results.get(0).status);
+    }
+
+    @Test
+    public void shouldRejectInvalidMethods() {
+        List<BatchCommandResultModel> results = execute("{\"commands\": [" +
+                "{\"method\": \"PUT\", \"path\": \"/source\"}" +
+                "]}");
+
+        assertTrue(executedCommands.isEmpty());
+        assertEquals(400, results.get(0).status);
+    }
+
+    @Test
+    public void shouldMaterializeStreamedText() {
+        responseValues.put("GET /session/123/source", (StreamedText) writer -> writer.write("<hierarchy/>"));
+        List<BatchCommandResultModel> results = execute("{\"commands\": [" +
+                "{\"method\": \"GET\", \"path\": \"/source\"}" +
+                "]}");
+
+        assertEquals("<hierarchy/>", results.get(0).value);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.handler;
+
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import androidx.test.uiautomator.StaleObjectException;
+import androidx.test.uiautomator.UiObject2;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.appium.uiautomator2.common.exceptions.StaleElementReferenceException;
+import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
+import io.appium.uiautomator2.core.AxNodeBoundsCalculator;
+import io.appium.uiautomator2.core.AxNodeInfoExtractor;
+import io.appium.uiautomator2.model.AndroidElement;
+import io.appium.uiautomator2.model.ElementsCache;
+import io.appium.uiautomator2.utils.Attribute;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({AxNodeInfoExtractor.class})
+public class GetElementsPropertiesTests {
+    private static final List<String> NAMES = Collections.singletonList("enabled");
+    private static final List<Attribute> ATTRIBUTES = Collections.singletonList(Attribute.ENABLED);
+
+    private ElementsCache elementsCache;
+    private AndroidElement staleElement;
+
+    @Before
+    public void setUp() {
+        PowerMockito.mockStatic(AxNodeInfoExtractor.class);
+        elementsCache = mock(ElementsCache.class);
+        UiObject2 staleObject = mock(UiObject2.class);
+        staleElement = mockElement("stale", staleObject);
+        // This is how UiObject2.getAccessibilityNodeInfo failures arrive from the reflective call
+        when(AxNodeInfoExtractor.toAxNodeInfo(staleObject)).thenThrow(new UiAutomator2Exception(
+                "Cannot invoke method getAccessibilityNodeInfo", new StaleObjectException()));
+        when(elementsCache.peek("stale")).thenReturn(staleElement);
+    }
+
+    private static AndroidElement mockElement(String id, Object uiObject) {
+        AndroidElement element = mock(AndroidElement.class);
+        when(element.getId()).thenReturn(id);
+        when(element.getUiObject()).thenReturn(uiObject);
+        return element;
+    }
+
+    @Test
+    public void shouldRestoreStaleUiObject2Elements() throws Exception {
+        UiObject2 restoredObject = mock(UiObject2.class);
+        AndroidElement restoredElement = mockElement("stale", restoredObject);
+        AccessibilityNodeInfo node = mock(AccessibilityNodeInfo.class);
+        when(node.isEnabled()).thenReturn(true);
+        when(AxNodeInfoExtractor.toAxNodeInfo(restoredObject)).thenReturn(node);
+        when(elementsCache.restoreStale(same(staleElement), any(Exception.class)))
+                .thenReturn(restoredElement);
+
+        List<Object> row = GetElementsProperties.readProperties(elementsCache, "stale", NAMES,
+                ATTRIBUTES, new AxNodeBoundsCalculator());
+
+        assertEquals(Collections.singletonList("true"), row);
+        verify(elementsCache).restoreStale(same(staleElement), any(UiAutomator2Exception.class));
+    }
+
+    @Test
+    public void shouldReturnNullRowIfStaleUiObject2ElementCannotBeRestored() throws Exception {
+        when(elementsCache.restoreStale(same(staleElement), any(Exception.class)))
+                .thenThrow(new StaleElementReferenceException());
+
+        assertNull(GetElementsProperties.readProperties(elementsCache, "stale", NAMES,
+                ATTRIBUTES, new AxNodeBoundsCalculator()));
+        verify(elementsCache).restoreStale(same(staleElement), any(UiAutomator2Exception.class));
+    }
+}
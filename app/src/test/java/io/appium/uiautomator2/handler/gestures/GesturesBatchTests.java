@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.handler.gestures;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
+import io.appium.uiautomator2.model.api.gestures.GestureBatchItemModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GesturesBatchTests {
+    private static GestureBatchItemModel item(String type, Map<String, ?> payload) {
+        GestureBatchItemModel result = new GestureBatchItemModel();
+        result.type = type;
+        result.payload = payload;
+        return result;
+    }
+
+    private static Map<String, Object> swipePayload(String direction) {
+        Map<String, Object> area = new HashMap<>();
+        area.put("left", 0);
+        area.put("top", 0);
+        area.put("width", 1080);
+        area.put("height", 2000);
+        Map<String, Object> result = new HashMap<>();
+        result.put("area", area);
+        result.put("direction", direction);
+        result.put("percent", 0.5);
+        return result;
+    }
+
+    private static void assertRejected(List<GestureBatchItemModel> items, String expectedMessagePart) {
+        try {
+            GesturesBatch.prepare(items);
+            fail("InvalidArgumentException is expected");
+        } catch (InvalidArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(expectedMessagePart));
+        }
+    }
+
+    @Test
+    public void verifyAllGesturesArePreparedBeforeInjection() {
+        List<Supplier<Object>> gestures = GesturesBatch.prepare(Arrays.asList(
+                item("swipe", swipePayload("up")),
+                item("swipe", swipePayload("down"))
+        ));
+
+        assertEquals(2, gestures.size());
+    }
+
+    @Test
+    public void verifyUnknownGestureTypeIsRejected() {
+        assertRejected(Arrays.asList(
+                item("swipe", swipePayload("up")),
+                item("rotate", Collections.emptyMap())
+        ), "gesture #1 must be one of");
+    }
+
+    @Test
+    public void verifyMissingPayloadIsRejected() {
+        assertRejected(Collections.singletonList(item("swipe", null)),
+                "payload of the 'swipe' gesture #0");
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.http;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import io.appium.uiautomator2.utils.ModelUtils;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonEscapingWriterTests {
+    private static final String SAMPLE = "<?xml version='1.0' encoding='UTF-8' standalone='yes' ?>\r\n"
+            + "<hierarchy text=\"a \\ b\">\t\b\f\u0001\u001f\u2028\u2029 \u0451\ud83d\ude00</hierarchy>";
+
+    private static String toJsonStringValue(String value) {
+        String json = ModelUtils.toJsonString(value);
+        return json.substring(1, json.length() - 1);
+    }
+
+    @Test
+    public void shouldEscapeTheSameWayAsGson() throws IOException {
+        StringWriter result = new StringWriter();
+        try (Writer writer = new JsonEscapingWriter(result)) {
+            writer.write(SAMPLE);
+        }
+        assertEquals(toJsonStringValue(SAMPLE), result.toString());
+    }
+
+    @Test
+    public void shouldEscapeSingleCharactersAndArrayRanges() throws IOException {
+        StringWriter result = new StringWriter();
+        try (Writer writer = new JsonEscapingWriter(result)) {
+            for (char c : SAMPLE.substring(0, 10).toCharArray()) {
+                writer.write(c);
+            }
+            char[] rest = SAMPLE.toCharArray();
+            writer.write(rest, 10, rest.length - 10);
+        }
+        assertEquals(toJsonStringValue(SAMPLE), result.toString());
+    }
+}
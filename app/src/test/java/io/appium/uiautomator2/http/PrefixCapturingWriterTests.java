@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.http;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+public class PrefixCapturingWriterTests {
+    @Test
+    public void shouldForwardEverythingAndCaptureThePrefix() throws IOException {
+        StringWriter result = new StringWriter();
+        PrefixCapturingWriter writer = new PrefixCapturingWriter(result, 5);
+        writer.write("ab");
+        writer.write('c');
+        writer.write("defgh".toCharArray(), 1, 3);
+        writer.flush();
+        assertEquals("abcefg", result.toString());
+        assertEquals("abcef\u2026", writer.getPreview());
+    }
+
+    @Test
+    public void shouldNotAbbreviateShortContent() throws IOException {
+        StringWriter result = new StringWriter();
+        PrefixCapturingWriter writer = new PrefixCapturingWriter(result, 5);
+        writer.write("abcde");
+        assertEquals("abcde", writer.getPreview());
+        writer.write('f');
+        assertEquals("abcde\u2026", writer.getPreview());
+    }
+}
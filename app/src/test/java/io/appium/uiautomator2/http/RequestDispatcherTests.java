@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.http;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.appium.uiautomator2.model.api.RouteStatsModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RequestDispatcherTests {
+    private final RequestDispatcher dispatcher = RequestDispatcher.getInstance();
+
+    @Test
+    public void shouldKeepTheOrderOfRequestsInTheSameLane() throws InterruptedException {
+        final int count = 50;
+        List<Integer> handled = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(count);
+        for (int i = 0; i < count; ++i) {
+            final int index = i;
+            dispatcher.dispatch("session", () -> {
+                handled.add(index);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < count; ++i) {
+            assertEquals(i, (int) handled.get(i));
+        }
+    }
+
+    @Test
+    public void shouldNotBlockConcurrentRequestsBehindBusyLane() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch concurrentDone = new CountDownLatch(1);
+        dispatcher.dispatch("busy", () -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        dispatcher.dispatch(null, concurrentDone::countDown);
+        try {
+            assertTrue(concurrentDone.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void shouldRecordRouteLatency() {
+        dispatcher.recordLatency("GET /test", 10);
+        dispatcher.recordLatency("GET /test", 30);
+        RouteStatsModel stats = dispatcher.getStats().routes.get("GET /test");
+        assertEquals(2, stats.count);
+        assertEquals(20, stats.averageMs);
+        assertEquals(30, stats.maxMs);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.http;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class ServerHandlerTests {
+    private static final long TIMEOUT_MS = 5000;
+    // The slow request waits that long for the fast one to be handled
+    private static final long SLOW_REQUEST_WAIT_MS = 300;
+
+    private EventLoopGroup group;
+    private Channel serverChannel;
+    private Channel clientChannel;
+    private final BlockingQueue<String> responses = new LinkedBlockingQueue<>();
+    private final List<String> handledUris = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch fastRequestHandled = new CountDownLatch(1);
+
+    private final IHttpServlet servlet = new IHttpServlet() {
+        @Override
+        public String getDispatchLane(IHttpRequest request) {
+            // The fast request may run concurrently with the slow one
+            return request.uri().equals("/slow") ? "slow" : null;
+        }
+
+        @Override
+        public void handleHttpRequest(IHttpRequest request, IHttpResponse response) throws Exception {
+            if (request.uri().equals("/slow")) {
+                fastRequestHandled.await(SLOW_REQUEST_WAIT_MS, TimeUnit.MILLISECONDS);
+            } else {
+                fastRequestHandled.countDown();
+            }
+            handledUris.add(request.uri());
+            response.setContent(request.uri()).end();
+        }
+    };
+
+    @Before
+    public void setUp() throws InterruptedException {
+        group = new DefaultEventLoopGroup(2);
+        LocalAddress address = new LocalAddress(ServerHandlerTests.class.getSimpleName());
+        serverChannel = new ServerBootstrap()
+                .group(group)
+                .channel(LocalServerChannel.class)
+                .childHandler(new ChannelInitializer<LocalChannel>() {
+                    @Override
+                    protected void initChannel(LocalChannel ch) {
+                        ch.pipeline().addLast(new HttpServerCodec(),
+                                new HttpObjectAggregator(65536),
+                                new ServerHandler(Collections.singletonList(servlet)));
+                    }
+                })
+                .bind(address).sync().channel();
+        clientChannel = new Bootstrap()
+                .group(group)
+                .channel(LocalChannel.class)
+                .handler(new ChannelInitializer<LocalChannel>() {
+                    @Override
+                    protected void initChannel(LocalChannel ch) {
+                        ch.pipeline().addLast(new HttpClientCodec(),
+                                new HttpObjectAggregator(65536),
+                                new SimpleChannelInboundHandler<FullHttpResponse>() {
+                                    @Override
+                                    protected void channelRead0(ChannelHandlerContext ctx,
+                                                                FullHttpResponse msg) {
+                                        responses.add(msg.content().toString(StandardCharsets.UTF_8));
+                                    }
+                                });
+                    }
+                })
+                .connect(address).sync().channel();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        clientChannel.close().sync();
+        serverChannel.close().sync();
+        group.shutdownGracefully(0, TIMEOUT_MS, TimeUnit.MILLISECONDS).sync();
+    }
+
+    private String nextResponse() throws InterruptedException {
+        String response = responses.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull("No response has been received in time", response);
+        return response;
+    }
+
+    @Test
+    public void shouldRespondToPipelinedRequestsInOrder() throws InterruptedException {
+        clientChannel.write(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/slow"));
+        clientChannel.writeAndFlush(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/fast"));
+
+        assertEquals("/slow", nextResponse());
+        assertEquals("/fast", nextResponse());
+        // The next request of the connection is only handled after the response to the previous one
+        assertEquals(Arrays.asList("/slow", "/fast"), handledUris);
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model;
+
+import androidx.test.uiautomator.UiObjectNotFoundException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.appium.uiautomator2.common.exceptions.ElementNotFoundException;
+import io.appium.uiautomator2.model.api.ElementsCacheStatsModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ElementsCacheTests {
+    private static final long TIMEOUT_MS = 5000;
+
+    private int capacity;
+    private long maxAgeMs;
+    private long now;
+    private ElementsCache elementsCache;
+
+    @Before
+    public void setUp() {
+        capacity = 3;
+        maxAgeMs = 0;
+        now = 0;
+        elementsCache = new ElementsCache(() -> capacity, () -> maxAgeMs, () -> now);
+    }
+
+    private static AndroidElement mockElement(String id) throws UiObjectNotFoundException {
+        AndroidElement element = mock(AndroidElement.class);
+        when(element.getId()).thenReturn(id);
+        when(element.getName()).thenReturn(id);
+        return element;
+    }
+
+    private void assertNotCached(String id) {
+        try {
+            elementsCache.get(id);
+            fail(String.format("The element '%s' is expected to be evicted", id));
+        } catch (ElementNotFoundException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedElements() throws Exception {
+        AndroidElement first = mockElement("1");
+        elementsCache.put(first);
+        elementsCache.put(mockElement("2"));
+        elementsCache.put(mockElement("3"));
+        assertSame(first, elementsCache.get("1"));
+        elementsCache.put(mockElement("4"));
+
+        assertEquals(3, elementsCache.size());
+        assertNotCached("2");
+        assertSame(first, elementsCache.get("1"));
+        assertEquals("3", elementsCache.get("3").getId());
+        assertEquals("4", elementsCache.get("4").getId());
+        assertEquals(1, elementsCache.getStats().evictions);
+    }
+
+    @Test
+    public void shouldApplyCapacityChanges() throws Exception {
+        capacity = 100;
+        for (int i = 0; i < 100; ++i) {
+            elementsCache.put(mockElement(String.valueOf(i)));
+        }
+        assertEquals(100, elementsCache.size());
+
+        capacity = 10;
+        elementsCache.put(mockElement("100"));
+        assertEquals(10, elementsCache.size());
+        assertNotCached("90");
+        for (int i = 91; i <= 100; ++i) {
+            assertEquals(String.valueOf(i), elementsCache.get(String.valueOf(i)).getId());
+        }
+    }
+
+    @Test
+    public void shouldExpireElementsThatHaveNotBeenAccessedForTooLong() throws Exception {
+        maxAgeMs = 1000;
+        elementsCache.put(mockElement("1"));
+        elementsCache.put(mockElement("2"));
+        now = 900;
+        assertEquals("1", elementsCache.get("1").getId());
+        now = 1500;
+        assertEquals("1", elementsCache.get("1").getId());
+        assertNotCached("2");
+
+        now = 3000;
+        elementsCache.put(mockElement("3"));
+        assertEquals(1, elementsCache.size());
+        assertEquals(2, elementsCache.getStats().expirations);
+    }
+
+    @Test
+    public void shouldNotExpireElementsIfMaxAgeIsDisabled() throws Exception {
+        elementsCache.put(mockElement("1"));
+        now = Long.MAX_VALUE / 2;
+        assertEquals("1", elementsCache.get("1").getId());
+        assertEquals(0, elementsCache.getStats().expirations);
+    }
+
+    @Test
+    public void shouldCollectStats() throws Exception {
+        elementsCache.put(mockElement("1"));
+        elementsCache.get("1");
+        assertNotCached("2");
+
+        ElementsCacheStatsModel stats = elementsCache.getStats();
+        assertEquals(1, stats.size);
+        assertEquals(3, stats.capacity);
+        assertEquals(1, stats.hits);
+        assertEquals(1, stats.misses);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullIdentifiers() {
+        elementsCache.get(null);
+    }
+
+    @Test
+    public void shouldNotBlockOtherLookupsWhileCheckingElementLiveness() throws Exception {
+        final CountDownLatch probeStarted = new CountDownLatch(1);
+        final CountDownLatch probeReleased = new CountDownLatch(1);
+        AndroidElement slowElement = mock(AndroidElement.class);
+        when(slowElement.getId()).thenReturn("slow");
+        when(slowElement.getName()).thenAnswer(invocation -> {
+            probeStarted.countDown();
+            assertTrue(probeReleased.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+            return "slow";
+        });
+        elementsCache.put(slowElement);
+        elementsCache.put(mockElement("fast"));
+
+        Thread prober = new Thread(() -> elementsCache.get("slow"));
+        prober.start();
+        try {
+            assertTrue(probeStarted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+            assertEquals("fast", elementsCache.get("fast").getId());
+            elementsCache.put(mockElement("other"));
+        } finally {
+            probeReleased.countDown();
+            prober.join(TIMEOUT_MS);
+        }
+        assertFalse(prober.isAlive());
+    }
+
+    @Test
+    public void shouldRestoreStaleElementOnlyOnce() throws Exception {
+        final CountDownLatch restoreStarted = new CountDownLatch(1);
+        final CountDownLatch restoreReleased = new CountDownLatch(1);
+        final AtomicInteger restoreCalls = new AtomicInteger();
+        final AndroidElement restoredElement = mockElement("stale");
+        elementsCache = new ElementsCache(() -> capacity, () -> maxAgeMs, () -> now) {
+            @Override
+            AndroidElement restore(AndroidElement element) {
+                restoreCalls.incrementAndGet();
+                restoreStarted.countDown();
+                try {
+                    assertTrue(restoreReleased.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                put(restoredElement);
+                return restoredElement;
+            }
+        };
+        AndroidElement staleElement = mock(AndroidElement.class);
+        when(staleElement.getId()).thenReturn("stale");
+        when(staleElement.getName()).thenThrow(new UiObjectNotFoundException("stale"));
+        elementsCache.put(staleElement);
+
+        final AtomicReference<AndroidElement> firstResult = new AtomicReference<>();
+        final AtomicReference<AndroidElement> secondResult = new AtomicReference<>();
+        Thread first = new Thread(() -> firstResult.set(elementsCache.get("stale")));
+        Thread second = new Thread(() -> secondResult.set(elementsCache.get("stale")));
+        first.start();
+        try {
+            assertTrue(restoreStarted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+            second.start();
+            long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+            while (elementsCache.getStats().coalescedRestorations == 0
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            restoreReleased.countDown();
+            first.join(TIMEOUT_MS);
+            second.join(TIMEOUT_MS);
+        }
+
+        assertEquals(1, restoreCalls.get());
+        assertSame(restoredElement, firstResult.get());
+        assertSame(restoredElement, secondResult.get());
+        assertSame(restoredElement, elementsCache.get("stale"));
+        ElementsCacheStatsModel stats = elementsCache.getStats();
+        assertEquals(2, stats.staleElements);
+        assertEquals(1, stats.restorations);
+        assertEquals(1, stats.coalescedRestorations);
+    }
+
+    @Test
+    public void shouldPeekElementsWithoutCheckingLiveness() throws Exception {
+        final AndroidElement restoredElement = mockElement("stale");
+        elementsCache = new ElementsCache(() -> capacity, () -> maxAgeMs, () -> now) {
+            @Override
+            AndroidElement restore(AndroidElement element) {
+                put(restoredElement);
+                return restoredElement;
+            }
+        };
+        AndroidElement staleElement = mock(AndroidElement.class);
+        when(staleElement.getId()).thenReturn("stale");
+        when(staleElement.getName()).thenThrow(new UiObjectNotFoundException("stale"));
+        elementsCache.put(staleElement);
+
+        assertSame(staleElement, elementsCache.peek("stale"));
+        assertEquals(0, elementsCache.getStats().staleElements);
+        assertSame(restoredElement, elementsCache.restoreStale(staleElement,
+                new UiObjectNotFoundException("stale")));
+        assertSame(restoredElement, elementsCache.peek("stale"));
+        assertEquals(1, elementsCache.getStats().staleElements);
+        assertEquals(1, elementsCache.getStats().restorations);
+    }
+}
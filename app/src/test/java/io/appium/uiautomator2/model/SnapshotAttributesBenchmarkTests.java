@@ -0,0 +1,232 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.appium.uiautomator2.utils.Attribute;
+
+import static io.appium.uiautomator2.BenchmarkAssumptions.assumeBenchmarksEnabled;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures the amount of memory allocated to store the attributes of a large snapshot, using
+ * the former per-element map layout and the compact layout. Results are printed to stdout.
+ * The measurement only runs if requested with the benchmarks Gradle property.
+ */
+public class SnapshotAttributesBenchmarkTests {
+    private static final int NODES_COUNT = 5000;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final String[] CLASS_NAMES = {
+            "android.widget.FrameLayout", "android.widget.LinearLayout",
+            "android.widget.TextView", "android.widget.ImageView", "android.widget.Button"
+    };
+    private static final String TEXT = "Lorem ipsum";
+    private static final String PACKAGE = "io.appium.android.apis";
+    private static final String RESOURCE_ID = "io.appium.android.apis:id/text";
+
+    private interface SnapshotBuilder {
+        List<Object> build(Set<Attribute> includedAttributes);
+    }
+
+    private static String toShortString(int left, int top, int right, int bottom) {
+        StringBuilder sb = new StringBuilder(32);
+        sb.append('[').append(left).append(',').append(top).append("][")
+                .append(right).append(',').append(bottom).append(']');
+        return sb.toString();
+    }
+
+    private static final Set<Attribute> INT_ATTRIBUTES = EnumSet.of(
+            Attribute.INDEX, Attribute.DRAWING_ORDER, Attribute.SELECTION_START,
+            Attribute.SELECTION_END, Attribute.LIVE_REGION, Attribute.WINDOW_ID
+    );
+    private static final Set<Attribute> STRING_ATTRIBUTES = EnumSet.of(
+            Attribute.CLASS, Attribute.PACKAGE, Attribute.TEXT, Attribute.ORIGINAL_TEXT,
+            Attribute.RESOURCE_ID
+    );
+    private static final Set<Attribute> BOOLEAN_ATTRIBUTES = EnumSet.of(
+            Attribute.CHECKABLE, Attribute.CHECKED, Attribute.CLICKABLE, Attribute.ENABLED,
+            Attribute.FOCUSABLE, Attribute.FOCUSED, Attribute.LONG_CLICKABLE, Attribute.PASSWORD,
+            Attribute.SCROLLABLE, Attribute.SELECTED, Attribute.DISPLAYED,
+            Attribute.IMPORTANT_FOR_ACCESSIBILITY, Attribute.SCREEN_READER_FOCUSABLE,
+            Attribute.SHOWING_HINT_TEXT, Attribute.TEXT_ENTRY_KEY, Attribute.DISMISSABLE,
+            Attribute.ACCESSIBILITY_FOCUSED, Attribute.HEADING, Attribute.CONTEXT_CLICKABLE,
+            Attribute.CONTENT_INVALID
+    );
+    // Other attributes are usually absent
+
+    private static int intValueOf(Attribute attribute, int nodeIndex) {
+        switch (attribute) {
+            case INDEX:
+            case DRAWING_ORDER:
+                return nodeIndex;
+            case WINDOW_ID:
+                return 1000 + nodeIndex % 3;
+            default:
+                return 0;
+        }
+    }
+
+    private static String stringValueOf(Attribute attribute, int nodeIndex) {
+        switch (attribute) {
+            case CLASS:
+                return CLASS_NAMES[nodeIndex % CLASS_NAMES.length];
+            case PACKAGE:
+                return PACKAGE;
+            case RESOURCE_ID:
+                return RESOURCE_ID;
+            default:
+                return TEXT;
+        }
+    }
+
+    private static boolean booleanValueOf(Attribute attribute, int nodeIndex) {
+        switch (attribute) {
+            case CLICKABLE:
+            case ENABLED:
+            case FOCUSABLE:
+            case LONG_CLICKABLE:
+            case DISPLAYED:
+            case IMPORTANT_FOR_ACCESSIBILITY:
+                return nodeIndex % 2 == 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Replicates the former layout: a copy of the included attributes set, a map of boxed values
+     * and the bounds string per element, plus unmodifiable wrappers for attributes and children
+     */
+    private static List<Object> buildMapBased(Set<Attribute> includedAttributes) {
+        List<Object> result = new ArrayList<>(NODES_COUNT);
+        for (int i = 0; i < NODES_COUNT; i++) {
+            Set<Attribute> included = new HashSet<>();
+            included.add(Attribute.CLASS);
+            included.addAll(includedAttributes);
+            Map<Attribute, Object> attributes = new LinkedHashMap<>();
+            for (Attribute attr : UiElementSnapshot.SUPPORTED_ATTRIBUTES) {
+                if (!included.contains(attr)) {
+                    continue;
+                }
+                Object value = null;
+                if (attr == Attribute.BOUNDS) {
+                    value = toShortString(0, i, 1080, i + 42);
+                } else if (INT_ATTRIBUTES.contains(attr)) {
+                    value = intValueOf(attr, i);
+                } else if (BOOLEAN_ATTRIBUTES.contains(attr)) {
+                    value = booleanValueOf(attr, i);
+                } else if (STRING_ATTRIBUTES.contains(attr)) {
+                    value = stringValueOf(attr, i);
+                }
+                if (value != null) {
+                    attributes.put(attr, value);
+                }
+            }
+            result.add(new Object[]{included, Collections.unmodifiableMap(attributes),
+                    Collections.unmodifiableList(Collections.emptyList())});
+        }
+        return result;
+    }
+
+    private static List<Object> buildCompact(Set<Attribute> includedAttributes) {
+        List<Object> result = new ArrayList<>(NODES_COUNT);
+        Set<Attribute> collected = EnumSet.of(Attribute.CLASS);
+        collected.addAll(includedAttributes);
+        SnapshotAttributes.Layout layout = new SnapshotAttributes.Layout(
+                UiElementSnapshot.SUPPORTED_ATTRIBUTES, collected);
+        for (int i = 0; i < NODES_COUNT; i++) {
+            SnapshotAttributes attributes = new SnapshotAttributes(layout);
+            for (Attribute attr : layout.getIncludedAttributes()) {
+                if (attr == Attribute.BOUNDS) {
+                    attributes.putBounds(0, i, 1080, i + 42);
+                } else if (INT_ATTRIBUTES.contains(attr)) {
+                    attributes.putInt(attr, intValueOf(attr, i));
+                } else if (BOOLEAN_ATTRIBUTES.contains(attr)) {
+                    attributes.putBoolean(attr, booleanValueOf(attr, i));
+                } else if (STRING_ATTRIBUTES.contains(attr)) {
+                    attributes.putString(attr, stringValueOf(attr, i));
+                }
+            }
+            result.add(attributes);
+        }
+        return result;
+    }
+
+    private static long measureAllocatedBytes(com.sun.management.ThreadMXBean threadBean,
+                                              SnapshotBuilder builder, Set<Attribute> includedAttributes) {
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            builder.build(includedAttributes);
+        }
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        List<Object> snapshot = builder.build(includedAttributes);
+        long allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+        assertEquals(NODES_COUNT, snapshot.size());
+        return allocatedBytes;
+    }
+
+    @Test
+    public void shouldProduceSameValuesAsMapBasedLayout() {
+        Set<Attribute> includedAttributes = new HashSet<>(Arrays.asList(UiElementSnapshot.SUPPORTED_ATTRIBUTES));
+        List<Object> mapBased = buildMapBased(includedAttributes);
+        List<Object> compact = buildCompact(includedAttributes);
+        for (int i = 0; i < NODES_COUNT; i++) {
+            @SuppressWarnings("unchecked")
+            Map<Attribute, Object> expected = (Map<Attribute, Object>) ((Object[]) mapBased.get(i))[1];
+            SnapshotAttributes actual = (SnapshotAttributes) compact.get(i);
+            assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+            for (Attribute attr : actual.keySet()) {
+                assertEquals(expected.get(attr), actual.get(attr));
+            }
+        }
+    }
+
+    @Test
+    public void benchmarkAllocations() {
+        assumeBenchmarksEnabled();
+        // Per-thread allocation counters are a HotSpot extension
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationsBean = (com.sun.management.ThreadMXBean) threadBean;
+        Assume.assumeTrue(allocationsBean.isThreadAllocatedMemorySupported()
+                && allocationsBean.isThreadAllocatedMemoryEnabled());
+
+        Set<Attribute> includedAttributes = new HashSet<>(Arrays.asList(UiElementSnapshot.SUPPORTED_ATTRIBUTES));
+        long mapBasedBytes = measureAllocatedBytes(allocationsBean,
+                SnapshotAttributesBenchmarkTests::buildMapBased, includedAttributes);
+        long compactBytes = measureAllocatedBytes(allocationsBean,
+                SnapshotAttributesBenchmarkTests::buildCompact, includedAttributes);
+        System.out.println(String.format(
+                "Attributes of %s elements: map based %s bytes (%s per element), compact %s bytes (%s per element)",
+                NODES_COUNT, mapBasedBytes, mapBasedBytes / NODES_COUNT,
+                compactBytes, compactBytes / NODES_COUNT));
+    }
+}
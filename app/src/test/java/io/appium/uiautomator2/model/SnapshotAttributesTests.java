@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import io.appium.uiautomator2.utils.Attribute;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotAttributesTests {
+    private static final SnapshotAttributes.Layout LAYOUT = new SnapshotAttributes.Layout(
+            UiElementSnapshot.SUPPORTED_ATTRIBUTES,
+            EnumSet.of(Attribute.CLASS, Attribute.TEXT, Attribute.CLICKABLE, Attribute.BOUNDS,
+                    Attribute.INDEX, Attribute.HEADING, Attribute.TEXT_SIZE)
+    );
+
+    @Test
+    public void shouldKeepLayoutOrderOfIncludedAttributes() {
+        assertEquals(Arrays.asList(Attribute.INDEX, Attribute.CLASS, Attribute.TEXT,
+                        Attribute.CLICKABLE, Attribute.BOUNDS, Attribute.HEADING, Attribute.TEXT_SIZE),
+                Arrays.asList(LAYOUT.getIncludedAttributes()));
+        assertTrue(LAYOUT.includes(Attribute.BOUNDS));
+        assertFalse(LAYOUT.includes(Attribute.ENABLED));
+    }
+
+    @Test
+    public void shouldIterateOnlyPresentAttributesInLayoutOrder() {
+        SnapshotAttributes attributes = new SnapshotAttributes(LAYOUT);
+        attributes.putBoolean(Attribute.CLICKABLE, false);
+        attributes.putString(Attribute.TEXT, null);
+        attributes.putString(Attribute.CLASS, "android.widget.TextView");
+        attributes.putInt(Attribute.INDEX, 3);
+
+        List<Attribute> keys = new ArrayList<>(attributes.keySet());
+        assertEquals(Arrays.asList(Attribute.INDEX, Attribute.CLASS, Attribute.CLICKABLE), keys);
+        assertEquals(3, attributes.keySet().size());
+        assertTrue(attributes.keySet().contains(Attribute.CLICKABLE));
+        assertFalse(attributes.keySet().contains(Attribute.TEXT));
+        assertNull(attributes.get(Attribute.TEXT));
+        assertNull(attributes.get(Attribute.HEADING));
+    }
+
+    @Test
+    public void shouldMaterializeValuesOnDemand() {
+        SnapshotAttributes attributes = new SnapshotAttributes(LAYOUT);
+        attributes.putString(Attribute.CLASS, "android.widget.Button");
+        attributes.putBoolean(Attribute.CLICKABLE, true);
+        attributes.putBoolean(Attribute.HEADING, false);
+        attributes.putInt(Attribute.INDEX, 1024);
+        attributes.putTextSize(14.5f);
+        attributes.putBounds(0, 210, 1080, 2400);
+
+        assertEquals("android.widget.Button", attributes.get(Attribute.CLASS));
+        assertSame(Boolean.TRUE, attributes.get(Attribute.CLICKABLE));
+        assertSame(Boolean.FALSE, attributes.get(Attribute.HEADING));
+        assertEquals(1024, attributes.get(Attribute.INDEX));
+        assertEquals(14.5f, attributes.get(Attribute.TEXT_SIZE));
+        assertEquals("[0,210][1080,2400]", attributes.get(Attribute.BOUNDS));
+    }
+
+    @Test
+    public void shouldOverwriteBooleanFlags() {
+        SnapshotAttributes attributes = new SnapshotAttributes(LAYOUT);
+        attributes.putBoolean(Attribute.CLICKABLE, true);
+        attributes.putBoolean(Attribute.CLICKABLE, false);
+        assertSame(Boolean.FALSE, attributes.get(Attribute.CLICKABLE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectStringsOutsideOfLayout() {
+        new SnapshotAttributes(LAYOUT).putString(Attribute.CONTENT_DESC, "description");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMismatchedValueTypes() {
+        new SnapshotAttributes(LAYOUT).putBoolean(Attribute.INDEX, true);
+    }
+}
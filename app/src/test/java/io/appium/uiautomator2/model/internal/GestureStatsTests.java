@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.internal;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import io.appium.uiautomator2.model.api.GestureStatsModel;
+import io.appium.uiautomator2.model.api.TimingStatsModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GestureStatsTests {
+    @Test
+    public void verifyTimingsAreRecordedPerGesture() {
+        GestureStats stats = new GestureStats();
+        stats.onControllerCreated();
+        stats.onSetUp("swipe", TimeUnit.MILLISECONDS.toNanos(1));
+        stats.onSetUp("swipe", TimeUnit.MILLISECONDS.toNanos(3));
+        stats.onInjected("swipe", TimeUnit.MILLISECONDS.toNanos(300));
+        stats.onSetUp("click", TimeUnit.MILLISECONDS.toNanos(2));
+
+        GestureStatsModel model = stats.toModel();
+        assertEquals(1, model.controllers);
+        assertEquals(2, model.setup.size());
+        TimingStatsModel swipeSetup = model.setup.get("swipe");
+        assertEquals(2, swipeSetup.count);
+        assertEquals(2.0, swipeSetup.averageMs, 0.001);
+        assertEquals(3.0, swipeSetup.maxMs, 0.001);
+        assertEquals(300.0, model.injection.get("swipe").maxMs, 0.001);
+        assertTrue(!model.injection.containsKey("click"));
+    }
+}
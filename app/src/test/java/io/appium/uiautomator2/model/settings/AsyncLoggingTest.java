@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncLoggingTest {
+    private AsyncLogging asyncLogging;
+
+    @Before
+    public void setUp() {
+        asyncLogging = new AsyncLogging();
+    }
+
+    @After
+    public void tearDown() {
+        asyncLogging.update(false);
+    }
+
+    @Test
+    public void shouldBeBoolean() {
+        Assert.assertEquals(Boolean.class, asyncLogging.getValueType());
+    }
+
+    @Test
+    public void shouldReturnValidSettingName() {
+        Assert.assertEquals("asyncLogging", asyncLogging.getName());
+    }
+
+    @Test
+    public void shouldBeFalseByDefault() {
+        assertFalse(asyncLogging.getValue());
+    }
+
+    @Test
+    public void shouldBeAbleToSetValue() {
+        asyncLogging.update(true);
+        assertTrue(asyncLogging.getValue());
+        asyncLogging.update(false);
+        assertFalse(asyncLogging.getValue());
+    }
+}
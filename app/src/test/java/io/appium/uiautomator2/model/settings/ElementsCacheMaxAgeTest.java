@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
+
+public class ElementsCacheMaxAgeTest {
+    private ElementsCacheMaxAge elementsCacheMaxAge;
+
+    @Before
+    public void setup() {
+        elementsCacheMaxAge = new ElementsCacheMaxAge();
+    }
+
+    @Test
+    public void shouldBeLong() {
+        Assert.assertEquals(Long.class, elementsCacheMaxAge.getValueType());
+    }
+
+    @Test
+    public void shouldReturnValidSettingName() {
+        Assert.assertEquals("elementsCacheMaxAge", elementsCacheMaxAge.getName());
+    }
+
+    @Test
+    public void shouldBeDisabledByDefault() {
+        Assert.assertEquals(Long.valueOf(0), elementsCacheMaxAge.getValue());
+    }
+
+    @Test
+    public void shouldBeAbleToChangeMaxAge() {
+        elementsCacheMaxAge.apply(60000L);
+        Assert.assertEquals(Long.valueOf(60000), elementsCacheMaxAge.getValue());
+        elementsCacheMaxAge.apply(0L);
+        Assert.assertEquals(Long.valueOf(0), elementsCacheMaxAge.getValue());
+    }
+
+    @Test(expected = InvalidArgumentException.class)
+    public void shouldRejectNegativeMaxAge() {
+        elementsCacheMaxAge.apply(-1L);
+    }
+}
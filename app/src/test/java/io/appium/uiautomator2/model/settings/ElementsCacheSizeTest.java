@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
+
+public class ElementsCacheSizeTest {
+    private ElementsCacheSize elementsCacheSize;
+
+    @Before
+    public void setup() {
+        elementsCacheSize = new ElementsCacheSize();
+    }
+
+    @Test
+    public void shouldBeInteger() {
+        Assert.assertEquals(Integer.class, elementsCacheSize.getValueType());
+    }
+
+    @Test
+    public void shouldReturnValidSettingName() {
+        Assert.assertEquals("elementsCacheSize", elementsCacheSize.getName());
+    }
+
+    @Test
+    public void shouldHaveDefaultValue() {
+        Assert.assertEquals(Integer.valueOf(500), elementsCacheSize.getValue());
+    }
+
+    @Test
+    public void shouldBeAbleToChangeCacheSize() {
+        elementsCacheSize.apply(1);
+        Assert.assertEquals(Integer.valueOf(1), elementsCacheSize.getValue());
+        elementsCacheSize.apply(5000);
+        Assert.assertEquals(Integer.valueOf(5000), elementsCacheSize.getValue());
+    }
+
+    @Test(expected = InvalidArgumentException.class)
+    public void shouldRejectZeroCacheSize() {
+        elementsCacheSize.apply(0);
+    }
+
+    @Test(expected = InvalidArgumentException.class)
+    public void shouldRejectTooBigCacheSize() {
+        elementsCacheSize.apply(100001);
+    }
+}
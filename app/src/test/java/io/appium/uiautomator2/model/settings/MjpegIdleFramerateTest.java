@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
+
+public class MjpegIdleFramerateTest {
+    private MjpegIdleFramerate mjpegIdleFramerate;
+
+    @Before
+    public void setup() {
+        mjpegIdleFramerate = new MjpegIdleFramerate();
+    }
+
+    @After
+    public void tearDown() {
+        mjpegIdleFramerate.apply(mjpegIdleFramerate.getDefaultValue());
+    }
+
+    @Test
+    public void shouldBeInteger() {
+        Assert.assertEquals(Integer.class, mjpegIdleFramerate.getValueType());
+    }
+
+    @Test
+    public void shouldReturnValidSettingName() {
+        Assert.assertEquals("mjpegIdleFramerate", mjpegIdleFramerate.getName());
+    }
+
+    @Test
+    public void shouldBeAbleToChangeIdleFramerate() {
+        mjpegIdleFramerate.apply(5);
+        Assert.assertEquals(Integer.valueOf(5), mjpegIdleFramerate.getValue());
+    }
+
+    @Test(expected = InvalidArgumentException.class)
+    public void shouldRejectZeroFramerate() {
+        mjpegIdleFramerate.apply(0);
+    }
+
+    @Test(expected = InvalidArgumentException.class)
+    public void shouldRejectTooHighFramerate() {
+        mjpegIdleFramerate.apply(61);
+    }
+}
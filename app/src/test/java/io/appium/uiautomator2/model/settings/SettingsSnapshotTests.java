@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SettingsSnapshotTests {
+
+    @After
+    public void tearDown() {
+        Settings.get(AllowInvisibleElements.class).reset();
+        Settings.get(SnapshotMaxDepth.class).reset();
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void shouldResolveEverySettingByTypeAndName() {
+        for (Settings enumItem : Settings.values()) {
+            ISetting<?> setting = enumItem.getSetting();
+            assertSame(setting, Settings.get((Class) setting.getClass()));
+            assertSame(setting, Settings.find(setting.getName()));
+        }
+        assertNull(Settings.find("unknownSetting"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailOnUnknownSettingType() {
+        Settings.get(AbstractSetting.class);
+    }
+
+    @Test
+    public void shouldKeepValuesCapturedBeforeUpdate() {
+        Settings.get(AllowInvisibleElements.class).update(false);
+        Settings.get(SnapshotMaxDepth.class).update(10);
+        SettingsSnapshot snapshot = SettingsSnapshot.capture();
+        Settings.get(AllowInvisibleElements.class).update(true);
+        Settings.get(SnapshotMaxDepth.class).update(20);
+
+        assertEquals(false, snapshot.getValue(AllowInvisibleElements.class));
+        assertEquals(10, (int) snapshot.getValue(SnapshotMaxDepth.class));
+        assertEquals(true, Settings.getValue(AllowInvisibleElements.class));
+    }
+
+    @Test
+    public void shouldReadValuesFromBoundSnapshot() {
+        Settings.get(SnapshotMaxDepth.class).update(10);
+        SettingsSnapshot outer = SettingsSnapshot.capture();
+        Settings.get(SnapshotMaxDepth.class).update(20);
+        SettingsSnapshot inner = SettingsSnapshot.capture();
+        Settings.get(SnapshotMaxDepth.class).update(30);
+
+        try (SettingsSnapshot.Scope ignored = outer.bind()) {
+            assertEquals(10, (int) Settings.getValue(SnapshotMaxDepth.class));
+            assertSame(outer, SettingsSnapshot.current());
+            try (SettingsSnapshot.Scope ignored2 = inner.bind()) {
+                assertEquals(20, (int) Settings.getValue(SnapshotMaxDepth.class));
+            }
+            assertEquals(10, (int) Settings.getValue(SnapshotMaxDepth.class));
+        }
+        assertEquals(30, (int) Settings.getValue(SnapshotMaxDepth.class));
+    }
+
+    @Test
+    public void shouldCaptureAllValuesWhenBound() throws InterruptedException {
+        Settings.get(AllowInvisibleElements.class).update(false);
+        Settings.get(SnapshotMaxDepth.class).update(10);
+
+        try (SettingsSnapshot.Scope ignored = SettingsSnapshot.capture().bind()) {
+            // Updates made by another request must not be visible, even for values not read yet
+            Thread updater = new Thread(() -> {
+                Settings.get(AllowInvisibleElements.class).update(true);
+                Settings.get(SnapshotMaxDepth.class).update(20);
+            });
+            updater.start();
+            updater.join();
+
+            assertEquals(false, Settings.getValue(AllowInvisibleElements.class));
+            assertEquals(10, (int) Settings.getValue(SnapshotMaxDepth.class));
+        }
+        assertEquals(20, (int) Settings.getValue(SnapshotMaxDepth.class));
+    }
+
+    @Test
+    public void shouldReadValuesUpdatedWhileSnapshotIsBound() {
+        Settings.get(AllowInvisibleElements.class).update(false);
+        Settings.get(SnapshotMaxDepth.class).update(10);
+
+        try (SettingsSnapshot.Scope ignored = SettingsSnapshot.capture().bind()) {
+            assertEquals(false, Settings.getValue(AllowInvisibleElements.class));
+            assertEquals(10, (int) Settings.getValue(SnapshotMaxDepth.class));
+
+            Settings.get(AllowInvisibleElements.class).update(true);
+            assertEquals(true, Settings.getValue(AllowInvisibleElements.class));
+            assertEquals(10, (int) Settings.getValue(SnapshotMaxDepth.class));
+
+            Settings.get(AllowInvisibleElements.class).reset();
+            assertEquals(false, Settings.getValue(AllowInvisibleElements.class));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
+
+public class XpathCacheEvictionPolicyTest {
+    private XpathCacheEvictionPolicy xpathCacheEvictionPolicy;
+
+    @Before
+    public void setup() {
+        xpathCacheEvictionPolicy = new XpathCacheEvictionPolicy();
+    }
+
+    @Test
+    public void shouldBeString() {
+        Assert.assertEquals(String.class, xpathCacheEvictionPolicy.getValueType());
+    }
+
+    @Test
+    public void shouldReturnValidSettingName() {
+        Assert.assertEquals("xpathCacheEvictionPolicy", xpathCacheEvictionPolicy.getName());
+    }
+
+    @Test
+    public void shouldBeAccessOrderedByDefault() {
+        Assert.assertEquals("lru", xpathCacheEvictionPolicy.getValue());
+        Assert.assertTrue(xpathCacheEvictionPolicy.isAccessOrdered());
+    }
+
+    @Test
+    public void shouldBeAbleToSwitchToFifo() {
+        xpathCacheEvictionPolicy.apply(" FIFO ");
+        Assert.assertEquals("fifo", xpathCacheEvictionPolicy.getValue());
+        Assert.assertFalse(xpathCacheEvictionPolicy.isAccessOrdered());
+    }
+
+    @Test(expected = InvalidArgumentException.class)
+    public void shouldRejectUnknownPolicy() {
+        xpathCacheEvictionPolicy.apply("random");
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.model.settings;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.appium.uiautomator2.common.exceptions.InvalidArgumentException;
+
+public class XpathCacheSizeTest {
+    private XpathCacheSize xpathCacheSize;
+
+    @Before
+    public void setup() {
+        xpathCacheSize = new XpathCacheSize();
+    }
+
+    @Test
+    public void shouldBeInteger() {
+        Assert.assertEquals(Integer.class, xpathCacheSize.getValueType());
+    }
+
+    @Test
+    public void shouldReturnValidSettingName() {
+        Assert.assertEquals("xpathCacheSize", xpathCacheSize.getName());
+    }
+
+    @Test
+    public void shouldBeAbleToChangeCacheSize() {
+        xpathCacheSize.apply(0);
+        Assert.assertEquals(Integer.valueOf(0), xpathCacheSize.getValue());
+        xpathCacheSize.apply(1000);
+        Assert.assertEquals(Integer.valueOf(1000), xpathCacheSize.getValue());
+    }
+
+    @Test(expected = InvalidArgumentException.class)
+    public void shouldRejectNegativeCacheSize() {
+        xpathCacheSize.apply(-1);
+    }
+}
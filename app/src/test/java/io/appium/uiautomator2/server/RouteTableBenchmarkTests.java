@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.server;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.appium.uiautomator2.handler.request.BaseRequestHandler;
+
+import static io.appium.uiautomator2.BenchmarkAssumptions.assumeBenchmarksEnabled;
+
+/**
+ * A JMH-style microbenchmark, which compares the route table lookup with the linear scan over
+ * all registered templates the servlet used to perform. Results are printed to stdout.
+ * It only runs if requested with the benchmarks Gradle property.
+ */
+public class RouteTableBenchmarkTests {
+    private static final String[] METHODS = {"GET", "POST", "DELETE"};
+    private static final int WARMUP_ITERATIONS = 2000;
+    private static final int MEASURED_ITERATIONS = 5000;
+
+    private interface Lookup {
+        BaseRequestHandler find(String uri);
+    }
+
+    @Before
+    public void setUp() {
+        assumeBenchmarksEnabled();
+    }
+
+    private static boolean matchesLinearly(String template, String uri) {
+        String[] templateSections = template.split("/");
+        String[] uriSections = uri.split("/");
+        if (templateSections.length != uriSections.length) {
+            return false;
+        }
+        for (int i = 0; i < templateSections.length; i++) {
+            if (!templateSections[i].startsWith(":") && !templateSections[i].equals(uriSections[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double measureNanosPerOp(List<String> uris, Lookup lookup) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            for (String uri : uris) {
+                lookup.find(uri);
+            }
+        }
+        long startTime = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            for (String uri : uris) {
+                lookup.find(uri);
+            }
+        }
+        return (double) (System.nanoTime() - startTime) / MEASURED_ITERATIONS / uris.size();
+    }
+
+    @Test
+    public void benchmarkRegisteredRoutes() {
+        AppiumServlet servlet = new AppiumServlet();
+        for (String method : METHODS) {
+            RouteTable<BaseRequestHandler> routeTable = servlet.getRouteTable(method);
+            List<String> templates = routeTable.getTemplates();
+            List<String> uris = new ArrayList<>();
+            for (String template : templates) {
+                uris.add(RouteTableTests.toRequestUri(template));
+            }
+            Lookup trieLookup = uri -> routeTable.match(uri).getValue();
+            Lookup linearLookup = uri -> {
+                for (String template : templates) {
+                    if (matchesLinearly(template, uri)) {
+                        return routeTable.match(template).getValue();
+                    }
+                }
+                return null;
+            };
+            System.out.println(String.format("%s routes (%s): trie %.1f ns/op, linear scan %.1f ns/op",
+                    method, templates.size(),
+                    measureNanosPerOp(uris, trieLookup), measureNanosPerOp(uris, linearLookup)));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.server;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import io.appium.uiautomator2.handler.request.BaseRequestHandler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class RouteTableTests {
+    private RouteTable<String> routeTable;
+
+    static String toRequestUri(String template) {
+        return template
+                .replace(":sessionId", "c8f1e6ae-5f7b-4d0f-9bb3-3d2a0f6a1c52")
+                .replace(":id2", "00000000-0000-0011-ffff-ffff0000001f")
+                .replace(":id", "00000000-0000-0011-ffff-ffff0000002a")
+                .replace(":name", "content-desc")
+                .replace(":windowHandle", "current");
+    }
+
+    @Before
+    public void setUp() {
+        routeTable = new RouteTable<>();
+        routeTable.add("/status", "status");
+        routeTable.add("/session", "newSession");
+        routeTable.add("/session/:sessionId", "sessionDetails");
+        routeTable.add("/session/:sessionId/element/:id/text", "text");
+        routeTable.add("/session/:sessionId/element/:id/attribute/:name", "attribute");
+        routeTable.add("/session/:sessionId/element/active", "activeElement");
+        routeTable.add("/session/:sessionId/appium/element/:id/scroll_to/:id2", "scrollTo");
+    }
+
+    @Test
+    public void shouldMatchLiteralRoutes() {
+        assertEquals("status", routeTable.match("/status").getValue());
+        assertEquals("newSession", routeTable.match("/session").getValue());
+        assertEquals("status", routeTable.match("/status/").getValue());
+        assertEquals("status", routeTable.match("/status?foo=bar").getValue());
+    }
+
+    @Test
+    public void shouldCollectPathParameters() {
+        RouteTable.Match<String> match = routeTable.match("/session/abc/element/el%201/attribute/content-desc");
+        assertEquals("attribute", match.getValue());
+        assertEquals(Arrays.asList("sessionId", "id", "name"), Arrays.asList(match.getParams().keySet().toArray()));
+        assertEquals("abc", match.getParam("sessionId"));
+        assertEquals("el 1", match.getParam("id"));
+        assertEquals("content-desc", match.getParam("name"));
+
+        match = routeTable.match("/session/abc/appium/element/1/scroll_to/2");
+        assertEquals("scrollTo", match.getValue());
+        assertEquals("1", match.getParam("id"));
+        assertEquals("2", match.getParam("id2"));
+    }
+
+    @Test
+    public void shouldPreferLiteralSegmentsOverParameters() {
+        assertEquals("activeElement", routeTable.match("/session/abc/element/active").getValue());
+        RouteTable.Match<String> match = routeTable.match("/session/abc/element/active/text");
+        assertEquals("text", match.getValue());
+        assertEquals("active", match.getParam("id"));
+    }
+
+    @Test
+    public void shouldNotMatchUnknownRoutes() {
+        assertNull(routeTable.match("/session/abc/element"));
+        assertNull(routeTable.match("/session/abc/element/1/text/foo"));
+        assertNull(routeTable.match("/unknown"));
+        assertNull(routeTable.match(null));
+    }
+
+    @Test
+    public void shouldReplaceValuesOfDuplicateTemplates() {
+        routeTable.add("/status", "newStatus");
+        assertEquals("newStatus", routeTable.match("/status").getValue());
+        assertEquals(7, routeTable.getTemplates().size());
+    }
+
+    @Test
+    public void shouldResolveRegisteredServletRoutesToTheirHandlers() {
+        AppiumServlet servlet = new AppiumServlet();
+        for (String method : new String[]{"GET", "POST", "DELETE"}) {
+            RouteTable<BaseRequestHandler> servletRoutes = servlet.getRouteTable(method);
+            for (String template : servletRoutes.getTemplates()) {
+                BaseRequestHandler handler = servletRoutes.match(template).getValue();
+                assertNotNull(template, handler);
+                assertSame(template, handler, servletRoutes.match(toRequestUri(template)).getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.server.mjpeg;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveFramerateTests {
+    private AdaptiveFramerate adaptiveFramerate;
+
+    @Before
+    public void setUp() {
+        adaptiveFramerate = new AdaptiveFramerate();
+    }
+
+    @Test
+    public void shouldSkipUnchangedFrames() {
+        assertTrue(adaptiveFramerate.onFrameCaptured(1, 1000));
+        assertFalse(adaptiveFramerate.onFrameCaptured(1, 1100));
+        assertTrue(adaptiveFramerate.onFrameCaptured(2, 1200));
+        assertFalse(adaptiveFramerate.onFrameCaptured(2, 1300));
+    }
+
+    @Test
+    public void shouldEncodeKeyframesOfStaticScreen() {
+        assertTrue(adaptiveFramerate.onFrameCaptured(1, 1000));
+        assertFalse(adaptiveFramerate.onFrameCaptured(1, 1000 + AdaptiveFramerate.KEYFRAME_INTERVAL_MS - 1));
+        assertTrue(adaptiveFramerate.onFrameCaptured(1, 1000 + AdaptiveFramerate.KEYFRAME_INTERVAL_MS));
+    }
+
+    @Test
+    public void shouldBecomeIdleIfNothingChanges() {
+        assertFalse(adaptiveFramerate.isIdle(1000));
+        adaptiveFramerate.onFrameCaptured(1, 1000);
+        adaptiveFramerate.onFrameCaptured(1, 1500);
+        assertFalse(adaptiveFramerate.isIdle(1500));
+        assertTrue(adaptiveFramerate.isIdle(1000 + AdaptiveFramerate.IDLE_AFTER_MS));
+    }
+
+    @Test
+    public void shouldRampUpOnActivity() {
+        adaptiveFramerate.onFrameCaptured(1, 1000);
+        assertTrue(adaptiveFramerate.isIdle(3000));
+        adaptiveFramerate.onActivity(3000);
+        assertFalse(adaptiveFramerate.isIdle(3000));
+        // The next frame is encoded even if the fingerprint is the same
+        assertTrue(adaptiveFramerate.onFrameCaptured(1, 3100));
+        assertFalse(adaptiveFramerate.isIdle(3100));
+        assertTrue(adaptiveFramerate.isIdle(3000 + AdaptiveFramerate.IDLE_AFTER_MS));
+    }
+
+    @Test
+    public void shouldStartOverAfterReset() {
+        adaptiveFramerate.onFrameCaptured(1, 1000);
+        adaptiveFramerate.reset();
+        assertFalse(adaptiveFramerate.isIdle(5000));
+        assertTrue(adaptiveFramerate.onFrameCaptured(1, 5000));
+    }
+}
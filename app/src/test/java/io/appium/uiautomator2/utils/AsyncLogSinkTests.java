@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncLogSinkTests {
+    private static final int INFO = 4;
+
+    private final List<String> written = Collections.synchronizedList(new ArrayList<>());
+    private AsyncLogSink sink;
+
+    @After
+    public void tearDown() {
+        if (sink != null) {
+            sink.stop();
+        }
+    }
+
+    @Test
+    public void shouldWriteRecordsInOrder() throws InterruptedException {
+        List<Throwable> throwables = Collections.synchronizedList(new ArrayList<>());
+        sink = new AsyncLogSink(16, (level, message, throwable) -> {
+            written.add(level + ":" + message);
+            throwables.add(throwable);
+        });
+        Exception error = new Exception();
+        for (int i = 0; i < 40; i++) {
+            assertTrue(sink.offer(INFO, "message " + i, i == 39 ? error : null));
+            // Give the writer a chance to catch up, so nothing gets dropped
+            assertTrue(sink.flush(5, TimeUnit.SECONDS));
+        }
+        assertEquals(40, written.size());
+        assertEquals("4:message 0", written.get(0));
+        assertEquals("4:message 39", written.get(39));
+        assertSame(error, throwables.get(39));
+        assertEquals(0, sink.getDroppedCount());
+    }
+
+    @Test
+    public void shouldDropRecordsAndReportTheirCountIfTheBufferIsFull() throws InterruptedException {
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch unblockWriter = new CountDownLatch(1);
+        sink = new AsyncLogSink(2, (level, message, throwable) -> {
+            if (message.equals("blocker")) {
+                writerBlocked.countDown();
+                try {
+                    unblockWriter.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            written.add(message);
+        });
+        sink.offer(INFO, "blocker", null);
+        assertTrue(writerBlocked.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(sink.offer(INFO, "message " + i, null));
+        }
+        assertEquals(3, sink.getDroppedCount());
+        unblockWriter.countDown();
+        assertTrue(sink.flush(5, TimeUnit.SECONDS));
+
+        assertEquals(4, written.size());
+        assertEquals("blocker", written.get(0));
+        assertTrue(written.get(1).startsWith("3 log messages have been dropped"));
+        assertEquals("message 0", written.get(2));
+        assertEquals("message 1", written.get(3));
+    }
+
+    @Test
+    public void shouldWriteBufferedRecordsAfterStop() throws InterruptedException {
+        sink = new AsyncLogSink(16, (level, message, throwable) -> written.add(message));
+        sink.offer(INFO, "first", null);
+        sink.offer(INFO, "second", null);
+        sink.stop();
+        assertFalse(sink.offer(INFO, "third", null));
+        sink.flush(5, TimeUnit.SECONDS);
+        assertEquals(2, written.size());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.appium.uiautomator2.model.api.ElementModel;
+import io.appium.uiautomator2.model.api.ElementRectModel;
+import io.appium.uiautomator2.model.api.WindowModel;
+import io.appium.uiautomator2.model.api.server.ResponseModel;
+
+import static org.junit.Assert.assertEquals;
+
+public class ModelTypeAdapterFactoryTests {
+    private static final Gson REFLECTIVE = new GsonBuilder()
+            .disableHtmlEscaping()
+            .create();
+    private static final Gson REFLECTIVE_WITH_NULLS = new GsonBuilder()
+            .disableHtmlEscaping()
+            .serializeNulls()
+            .create();
+
+    private static ElementModel createElement(String id) {
+        ElementModel element = new ElementModel();
+        element.jwpElementId = id;
+        element.w3cElementId = id;
+        return element;
+    }
+
+    private static ElementRectModel createRect(Integer x, Integer y, Integer width, Integer height) {
+        ElementRectModel rect = new ElementRectModel();
+        rect.x = x;
+        rect.y = y;
+        rect.width = width;
+        rect.height = height;
+        return rect;
+    }
+
+    private static WindowModel createWindow() {
+        WindowModel window = new WindowModel();
+        window.windowId = 5;
+        window.displayId = 1;
+        window.physicalDisplayId = "4619827259835644672";
+        window.rect = createRect(0, 0, 1080, 2400);
+        window.packageName = "io.appium.settings";
+        window.type = 1;
+        window.title = "Settings <\"main\">";
+        window.layer = 3;
+        window.isActive = true;
+        window.isFocused = true;
+        return window;
+    }
+
+    private static void assertSameJson(Object model) {
+        assertEquals(REFLECTIVE_WITH_NULLS.toJson(model), ModelUtils.toJsonString(model, true));
+        assertEquals(REFLECTIVE.toJson(model), ModelUtils.toJsonString(model, false));
+    }
+
+    @Test
+    public void shouldSerializeElementsLikeReflectiveAdapters() {
+        assertSameJson(createElement("1234-5678"));
+        assertSameJson(new ElementModel());
+    }
+
+    @Test
+    public void shouldSerializeRectsLikeReflectiveAdapters() {
+        assertSameJson(createRect(-1, 2, 300, 400));
+        assertSameJson(createRect(null, 2, null, 400));
+    }
+
+    @Test
+    public void shouldSerializeWindowsLikeReflectiveAdapters() {
+        assertSameJson(createWindow());
+        assertSameJson(new WindowModel());
+    }
+
+    @Test
+    public void shouldSerializeResponsesLikeReflectiveAdapters() {
+        List<Object> elements = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            elements.add(createElement(String.valueOf(i)));
+        }
+        assertSameJson(new ResponseModel(elements, "session"));
+        assertSameJson(new ResponseModel(createWindow(), null));
+        assertSameJson(new ResponseModel(Arrays.asList(createRect(1, 2, 3, 4), null, "text", 1.5), "s"));
+        assertSameJson(new ResponseModel(null, "session"));
+        assertSameJson(new ResponseModel());
+    }
+
+    @Test
+    public void shouldDelegateDeserializationToReflectiveAdapters() {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new ModelTypeAdapterFactory())
+                .create();
+        ElementModel element = gson.fromJson("{\"element\": \"abc\"}", ElementModel.class);
+        assertEquals("abc", element.getUnifiedId());
+        ElementRectModel rect = gson.fromJson("{\"x\": 1, \"height\": 4}", ElementRectModel.class);
+        assertEquals(Integer.valueOf(1), rect.x);
+        assertEquals(Integer.valueOf(4), rect.height);
+    }
+}
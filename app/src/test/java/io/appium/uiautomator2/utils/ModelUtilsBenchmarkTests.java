@@ -0,0 +1,202 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import io.appium.uiautomator2.model.api.ElementModel;
+import io.appium.uiautomator2.model.api.FindElementModel;
+import io.appium.uiautomator2.model.api.server.ResponseModel;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+
+import static io.appium.uiautomator2.BenchmarkAssumptions.assumeBenchmarksEnabled;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the serialization of a FindElements response with 500 elements and the
+ * deserialization of a FindElement request with a Gson instance created per call and
+ * an intermediate string (as it used to be done) and with the shared Gson instances
+ * streaming to and from Netty buffers. Results are printed to stdout. Measurements only run
+ * if requested with the benchmarks Gradle property, while the checks of equal results are
+ * always performed.
+ */
+public class ModelUtilsBenchmarkTests {
+    private static final int ELEMENTS_COUNT = 500;
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int ITERATIONS = 2000;
+    private static final String FIND_REQUEST = "{\"strategy\": \"-android uiautomator\", "
+            + "\"selector\": \"new UiSelector().resourceId(\\\"android:id/list\\\")"
+            + ".childSelector(new UiSelector().className(\\\"android.widget.TextView\\\"))\", "
+            + "\"context\": \"\"}";
+
+    private static ResponseModel createFindElementsResponse() {
+        List<ElementModel> elements = new ArrayList<>();
+        for (int i = 0; i < ELEMENTS_COUNT; i++) {
+            ElementModel element = new ElementModel();
+            element.jwpElementId = UUID.randomUUID().toString();
+            element.w3cElementId = element.jwpElementId;
+            elements.add(element);
+        }
+        return new ResponseModel(elements, UUID.randomUUID().toString());
+    }
+
+    private static int serializeLegacy(ResponseModel model, ByteBuf buffer) {
+        Gson gson = new GsonBuilder()
+                .disableHtmlEscaping()
+                .serializeNulls()
+                .create();
+        byte[] data = gson.toJson(model).getBytes(StandardCharsets.UTF_8);
+        buffer.writeBytes(data);
+        return data.length;
+    }
+
+    private static int serializeStreamed(ResponseModel model, ByteBuf buffer) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new ByteBufOutputStream(buffer), StandardCharsets.UTF_8));
+        ModelUtils.writeJson(model, true, writer);
+        writer.flush();
+        return buffer.readableBytes();
+    }
+
+    private static FindElementModel deserializeLegacy(ByteBuf content) {
+        String body = content.toString(StandardCharsets.UTF_8);
+        return (FindElementModel) new Gson().fromJson(body, FindElementModel.class).validate();
+    }
+
+    private static FindElementModel deserializeStreamed(ByteBuf content) throws IOException {
+        try (Reader reader = new InputStreamReader(
+                new ByteBufInputStream(content.duplicate()), StandardCharsets.UTF_8)) {
+            return ModelUtils.toModel(reader, FindElementModel.class);
+        }
+    }
+
+    private static void assumeBenchmarksRequested() {
+        assumeBenchmarksEnabled();
+    }
+
+    @Test
+    public void shouldSerializeResponsesLikeGsonInstancesPerCall() throws IOException {
+        ResponseModel model = createFindElementsResponse();
+        ByteBuf expected = PooledByteBufAllocator.DEFAULT.buffer();
+        ByteBuf actual = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            serializeLegacy(model, expected);
+            serializeStreamed(model, actual);
+            assertEquals(expected.toString(StandardCharsets.UTF_8), actual.toString(StandardCharsets.UTF_8));
+        } finally {
+            expected.release();
+            actual.release();
+        }
+    }
+
+    @Test
+    public void shouldDeserializeRequestsLikeGsonInstancesPerCall() throws IOException {
+        ByteBuf content = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            content.writeBytes(FIND_REQUEST.getBytes(StandardCharsets.UTF_8));
+            assertEquals(deserializeLegacy(content).selector, deserializeStreamed(content).selector);
+        } finally {
+            content.release();
+        }
+    }
+
+    @Test
+    public void benchmarkFindElementsResponseSerialization() throws IOException {
+        assumeBenchmarksRequested();
+        ResponseModel model = createFindElementsResponse();
+        PooledByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+
+        long size = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            ByteBuf buffer = allocator.buffer();
+            size += serializeLegacy(model, buffer);
+            buffer.release();
+            buffer = allocator.buffer();
+            size += serializeStreamed(model, buffer);
+            buffer.release();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            ByteBuf buffer = allocator.buffer();
+            size += serializeLegacy(model, buffer);
+            buffer.release();
+        }
+        long legacyNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            ByteBuf buffer = allocator.buffer();
+            size += serializeStreamed(model, buffer);
+            buffer.release();
+        }
+        long streamedNanos = System.nanoTime() - start;
+
+        System.out.printf("FindElements response with %d elements: new Gson + String %.1f us/op, "
+                        + "shared Gson + JsonWriter %.1f us/op (%d bytes written in total)%n",
+                ELEMENTS_COUNT, legacyNanos / 1e3 / ITERATIONS, streamedNanos / 1e3 / ITERATIONS, size);
+    }
+
+    @Test
+    public void benchmarkFindElementRequestDeserialization() throws IOException {
+        assumeBenchmarksRequested();
+        ByteBuf content = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            content.writeBytes(FIND_REQUEST.getBytes(StandardCharsets.UTF_8));
+
+            for (int i = 0; i < WARMUP_ITERATIONS * 10; i++) {
+                deserializeLegacy(content);
+                deserializeStreamed(content);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS * 10; i++) {
+                deserializeLegacy(content);
+            }
+            long legacyNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS * 10; i++) {
+                deserializeStreamed(content);
+            }
+            long streamedNanos = System.nanoTime() - start;
+
+            System.out.printf("FindElement request: new Gson + String %.2f us/op, "
+                            + "shared Gson + ByteBuf reader %.2f us/op%n",
+                    legacyNanos / 1e3 / ITERATIONS / 10, streamedNanos / 1e3 / ITERATIONS / 10);
+        } finally {
+            content.release();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils;
+
+import org.junit.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+
+import io.appium.uiautomator2.common.exceptions.UiAutomator2Exception;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ReflectionUtilsTests {
+    @SuppressWarnings("unused")
+    private static class Sample {
+        private static final int STATIC_VALUE = 42;
+        private long value = 1;
+
+        private int twice(int arg) {
+            return arg * 2;
+        }
+
+        private String twice(String arg) {
+            return arg + arg;
+        }
+    }
+
+    @Test
+    public void shouldCacheResolvedFields() {
+        assertSame(ReflectionUtils.getDeclaredField(Sample.class, "value"),
+                ReflectionUtils.getDeclaredField(Sample.class, "value"));
+    }
+
+    @Test
+    public void shouldGetAndSetPrivateFields() {
+        Sample sample = new Sample();
+        ReflectionUtils.setField("value", 5L, sample);
+        assertEquals(5L, ReflectionUtils.getField("value", sample));
+        assertEquals(42, ReflectionUtils.getField(Sample.class, "STATIC_VALUE", null));
+    }
+
+    @Test
+    public void shouldReadFieldsWithGetterHandles() throws Throwable {
+        MethodHandle getter = ReflectionUtils.getFieldGetter(Sample.class, "value");
+        assertSame(getter, ReflectionUtils.getFieldGetter(Sample.class, "value"));
+        Sample sample = new Sample();
+        sample.value = 7;
+        assertEquals(7L, (long) getter.invokeExact(sample));
+    }
+
+    @Test
+    public void shouldCacheMethodsBySignature() {
+        Method intMethod = ReflectionUtils.getMethod(Sample.class, "twice", int.class);
+        Method stringMethod = ReflectionUtils.getMethod(Sample.class, "twice", String.class);
+        assertSame(intMethod, ReflectionUtils.getMethod(Sample.class, "twice", int.class));
+        assertEquals(4, ReflectionUtils.invoke(intMethod, new Sample(), 2));
+        assertEquals("ab" + "ab", ReflectionUtils.invoke(stringMethod, new Sample(), "ab"));
+    }
+
+    @Test
+    public void shouldResolveMethodsByName() {
+        Method method = ReflectionUtils.getMethodByName(Sample.class, "twice");
+        assertEquals("twice", method.getName());
+        assertSame(method, ReflectionUtils.getMethodByName(Sample.class, "twice"));
+    }
+
+    @Test(expected = UiAutomator2Exception.class)
+    public void shouldFailOnMissingFields() {
+        ReflectionUtils.getDeclaredField(Sample.class, "missing");
+    }
+
+    @Test(expected = UiAutomator2Exception.class)
+    public void shouldFailOnMissingMethods() {
+        ReflectionUtils.getMethodByName(Sample.class, "missing");
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ScreenshotFormatTests {
+    @Test
+    public void shouldParseFormatNames() {
+        assertEquals(ScreenshotFormat.PNG, ScreenshotFormat.fromString("png"));
+        assertEquals(ScreenshotFormat.JPEG, ScreenshotFormat.fromString("JPEG"));
+        assertEquals(ScreenshotFormat.JPEG, ScreenshotFormat.fromString("jpg"));
+        assertEquals(ScreenshotFormat.WEBP, ScreenshotFormat.fromString(" image/webp "));
+        assertNull(ScreenshotFormat.fromString("gif"));
+        assertNull(ScreenshotFormat.fromString(null));
+    }
+
+    @Test
+    public void shouldPickTheFirstSupportedAcceptedFormat() {
+        assertEquals(ScreenshotFormat.WEBP,
+                ScreenshotFormat.fromAcceptHeader("image/avif, image/webp, image/png"));
+        assertEquals(ScreenshotFormat.JPEG,
+                ScreenshotFormat.fromAcceptHeader("image/jpeg;charset=x"));
+    }
+
+    @Test
+    public void shouldPickTheAcceptedFormatWithTheHighestWeight() {
+        assertEquals(ScreenshotFormat.JPEG,
+                ScreenshotFormat.fromAcceptHeader("image/png;q=0.5, image/jpeg;q=0.8, image/webp;q=0.1"));
+        assertEquals(ScreenshotFormat.PNG,
+                ScreenshotFormat.fromAcceptHeader("image/webp;q=0, image/png;q=invalid, */*;q=0.2"));
+    }
+
+    @Test
+    public void shouldResolveWildcardsToPng() {
+        assertEquals(ScreenshotFormat.PNG, ScreenshotFormat.fromAcceptHeader("*/*"));
+        assertEquals(ScreenshotFormat.PNG, ScreenshotFormat.fromAcceptHeader("image/*"));
+    }
+
+    @Test
+    public void shouldIgnoreUnsupportedAcceptedFormats() {
+        assertNull(ScreenshotFormat.fromAcceptHeader("application/json"));
+        assertNull(ScreenshotFormat.fromAcceptHeader(""));
+        assertNull(ScreenshotFormat.fromAcceptHeader(null));
+    }
+}
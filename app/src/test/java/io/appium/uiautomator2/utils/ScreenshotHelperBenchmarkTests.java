@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Rect;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static io.appium.uiautomator2.BenchmarkAssumptions.assumeBenchmarksEnabled;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares element screenshots taken from synthetic 1080x2400 screencap frames by decoding
+ * the whole PNG and cropping it (as it used to be done) and by decoding the element region only.
+ * Results are printed to stdout. It only runs if requested with the benchmarks Gradle property.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ScreenshotHelperBenchmarkTests {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 2400;
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int ITERATIONS = 10;
+
+    private static byte[] png;
+
+    @BeforeClass
+    public static void createFrame() {
+        assumeBenchmarksEnabled();
+
+        // Flat bands with some noise resemble typical UI screens closer than pure noise
+        int[] pixels = new int[WIDTH * HEIGHT];
+        Random random = new Random(42);
+        for (int y = 0; y < HEIGHT; y++) {
+            int band = 0xFF000000 | ((y / 120) * 0x0A0C0E);
+            for (int x = 0; x < WIDTH; x++) {
+                pixels[y * WIDTH + x] = random.nextInt(20) == 0 ? band ^ random.nextInt(0xFFFFFF) : band;
+            }
+        }
+        Bitmap frame = Bitmap.createBitmap(pixels, WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        frame.compress(Bitmap.CompressFormat.PNG, 100, output);
+        frame.recycle();
+        png = output.toByteArray();
+    }
+
+    private static Bitmap decodeAndCrop(Rect cropArea) {
+        Bitmap fullImage = BitmapFactory.decodeByteArray(png, 0, png.length);
+        Bitmap result = Bitmap.createBitmap(fullImage, cropArea.left, cropArea.top,
+                cropArea.width(), cropArea.height());
+        if (result != fullImage) {
+            fullImage.recycle();
+        }
+        return result;
+    }
+
+    private static void measure(String name, Rect cropArea) {
+        long peakBytes = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            decodeAndCrop(cropArea).recycle();
+            ScreenshotHelper.decodePng(png, cropArea).recycle();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            decodeAndCrop(cropArea).recycle();
+        }
+        long legacyNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Bitmap region = ScreenshotHelper.decodePng(png, cropArea);
+            assertEquals(cropArea.width(), region.getWidth());
+            assertEquals(cropArea.height(), region.getHeight());
+            peakBytes = Math.max(peakBytes, region.getAllocationByteCount());
+            region.recycle();
+        }
+        long regionNanos = System.nanoTime() - start;
+
+        System.out.printf("%s %s: decode+crop %.1f ms (%d KB decoded), region %.1f ms (%d KB decoded)%n",
+                name, cropArea.toShortString(),
+                legacyNanos / 1e6 / ITERATIONS, WIDTH * HEIGHT * 4 / 1024,
+                regionNanos / 1e6 / ITERATIONS, peakBytes / 1024);
+    }
+
+    @Test
+    public void benchmarkElementScreenshots() {
+        System.out.printf("Synthetic %dx%d PNG frame: %d KB%n", WIDTH, HEIGHT, png.length / 1024);
+        measure("Toolbar", new Rect(0, 80, WIDTH, 248));
+        measure("Button", new Rect(390, 1150, 690, 1280));
+        measure("Navigation bar", new Rect(0, HEIGHT - 126, WIDTH, HEIGHT));
+        measure("Full screen", new Rect(0, 0, WIDTH, HEIGHT));
+    }
+}
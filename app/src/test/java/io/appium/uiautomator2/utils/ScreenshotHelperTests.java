@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Rect;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.ByteArrayOutputStream;
+
+import io.appium.uiautomator2.common.exceptions.CropScreenshotException;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ScreenshotHelperTests {
+    private static final int WIDTH = 120;
+    private static final int HEIGHT = 200;
+
+    private byte[] png;
+
+    @Before
+    public void setUp() {
+        Bitmap image = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setPixel(x, y, Color.rgb(x, y, (x + y) % 256));
+            }
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        image.compress(Bitmap.CompressFormat.PNG, 100, output);
+        image.recycle();
+        png = output.toByteArray();
+    }
+
+    @Test
+    public void shouldDecodeTheFullImage() {
+        Bitmap result = ScreenshotHelper.decodePng(png, null);
+        assertEquals(WIDTH, result.getWidth());
+        assertEquals(HEIGHT, result.getHeight());
+        assertEquals(Color.rgb(WIDTH - 1, HEIGHT - 1, (WIDTH + HEIGHT - 2) % 256),
+                result.getPixel(WIDTH - 1, HEIGHT - 1));
+    }
+
+    @Test
+    public void shouldDecodeTheRequestedRegionOnly() {
+        Bitmap result = ScreenshotHelper.decodePng(png, new Rect(10, 150, 50, 180));
+        assertEquals(40, result.getWidth());
+        assertEquals(30, result.getHeight());
+        assertEquals(Color.rgb(10, 150, 160), result.getPixel(0, 0));
+        assertEquals(Color.rgb(49, 179, 228), result.getPixel(39, 29));
+    }
+
+    @Test
+    public void shouldClipTheRegionToTheImageBounds() {
+        Bitmap result = ScreenshotHelper.decodePng(png, new Rect(100, 190, 300, 400));
+        assertEquals(20, result.getWidth());
+        assertEquals(10, result.getHeight());
+        assertEquals(Color.rgb(100, 190, 34), result.getPixel(0, 0));
+    }
+
+    @Test(expected = CropScreenshotException.class)
+    public void shouldFailIfTheRegionIsOutsideOfTheImage() {
+        ScreenshotHelper.decodePng(png, new Rect(WIDTH, HEIGHT, WIDTH + 10, HEIGHT + 10));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils;
+
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import androidx.test.uiautomator.UiSelector;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static io.appium.uiautomator2.BenchmarkAssumptions.assumeBenchmarksEnabled;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Compares the count of node evaluations and the time needed to find all matches of a selector
+ * by looking up each instance separately and in a single pass. Results are printed to stdout.
+ * It only runs if requested with the benchmarks Gradle property.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class UiSelectorMatcherBenchmarkTests {
+    private static final int[] MATCHES_COUNTS = {10, 100, 500};
+    private static final int HEADER_NODES_COUNT = 50;
+    private static final String TEXT_VIEW = "android.widget.TextView";
+
+    private static AccessibilityNodeInfo node(String className, String text) {
+        AccessibilityNodeInfo result = AccessibilityNodeInfo.obtain();
+        result.setClassName(className);
+        result.setText(text);
+        result.setVisibleToUser(true);
+        return result;
+    }
+
+    /**
+     * Builds a screen with a header and a list, where each list row contains an icon
+     * and a single text view
+     */
+    private static AccessibilityNodeInfo buildScreen(int rowsCount) {
+        AccessibilityNodeInfo root = node("android.widget.FrameLayout", null);
+        AccessibilityNodeInfo header = node("android.widget.LinearLayout", null);
+        for (int i = 0; i < HEADER_NODES_COUNT; ++i) {
+            shadowOf(header).addChild(node("android.widget.ImageButton", "action " + i));
+        }
+        shadowOf(root).addChild(header);
+        AccessibilityNodeInfo list = node("android.widget.ListView", null);
+        for (int i = 0; i < rowsCount; ++i) {
+            AccessibilityNodeInfo row = node("android.widget.LinearLayout", null);
+            shadowOf(row).addChild(node("android.widget.ImageView", null));
+            shadowOf(row).addChild(node(TEXT_VIEW, "item " + i));
+            shadowOf(list).addChild(row);
+        }
+        shadowOf(root).addChild(list);
+        return root;
+    }
+
+    private static int countNodes(AccessibilityNodeInfo root) {
+        int result = 1;
+        for (int i = 0; i < root.getChildCount(); ++i) {
+            result += countNodes(root.getChild(i));
+        }
+        return result;
+    }
+
+    @Test
+    public void benchmarkFindingAllMatches() {
+        assumeBenchmarksEnabled();
+
+        UiSelector selector = new UiSelector().className(TEXT_VIEW);
+        for (int matchesCount : MATCHES_COUNTS) {
+            AccessibilityNodeInfo root = buildScreen(matchesCount);
+            int nodesCount = countNodes(root);
+
+            UiSelectorMatcher byInstanceMatcher = new UiSelectorMatcher(selector);
+            long byInstanceStart = System.nanoTime();
+            int byInstanceMatchesCount = 0;
+            while (byInstanceMatcher.findFirst(selector.instance(byInstanceMatchesCount), root) != null) {
+                ++byInstanceMatchesCount;
+            }
+            long byInstanceDuration = System.nanoTime() - byInstanceStart;
+
+            UiSelectorMatcher singlePassMatcher = new UiSelectorMatcher(selector);
+            long singlePassStart = System.nanoTime();
+            NodeInfoList matches = singlePassMatcher.findAll(root);
+            long singlePassDuration = System.nanoTime() - singlePassStart;
+
+            System.out.printf("%d matches in %d nodes. By instance: %d evaluations, %.2f ms. " +
+                            "Single pass: %d evaluations, %.2f ms%n",
+                    matchesCount, nodesCount,
+                    byInstanceMatcher.getEvaluatedNodesCount(), byInstanceDuration / 1e6,
+                    singlePassMatcher.getEvaluatedNodesCount(), singlePassDuration / 1e6);
+            assertEquals(matchesCount, byInstanceMatchesCount);
+            assertEquals(matchesCount, matches.size());
+            assertEquals("item " + (matchesCount - 1),
+                    String.valueOf(matches.getAll().get(matchesCount - 1).getText()));
+            assertEquals(nodesCount, singlePassMatcher.getEvaluatedNodesCount());
+            assertTrue(byInstanceMatcher.getEvaluatedNodesCount() > (long) matchesCount * nodesCount / 2);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils;
+
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import androidx.annotation.Nullable;
+import androidx.test.uiautomator.UiSelector;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class UiSelectorMatcherTests {
+    private static final String FRAME_LAYOUT = "android.widget.FrameLayout";
+    private static final String LINEAR_LAYOUT = "android.widget.LinearLayout";
+    private static final String TEXT_VIEW = "android.widget.TextView";
+    private static final String BUTTON = "android.widget.Button";
+
+    private static AccessibilityNodeInfo node(String className, @Nullable String text,
+                                              AccessibilityNodeInfo... children) {
+        AccessibilityNodeInfo result = AccessibilityNodeInfo.obtain();
+        result.setClassName(className);
+        result.setText(text);
+        result.setVisibleToUser(true);
+        for (AccessibilityNodeInfo child : children) {
+            shadowOf(result).addChild(child);
+        }
+        return result;
+    }
+
+    private static AccessibilityNodeInfo buildTree() {
+        return node(FRAME_LAYOUT, null,
+                node(LINEAR_LAYOUT, "first row",
+                        node(TEXT_VIEW, "a"),
+                        node(BUTTON, "ok"),
+                        node(TEXT_VIEW, "b")),
+                node(LINEAR_LAYOUT, "second row",
+                        node(BUTTON, "cancel"),
+                        node(LINEAR_LAYOUT, "nested row",
+                                node(TEXT_VIEW, "c"))),
+                node(LINEAR_LAYOUT, "empty row"),
+                node(TEXT_VIEW, "d"));
+    }
+
+    private static List<String> toTexts(List<AccessibilityNodeInfo> nodes) {
+        List<String> result = new ArrayList<>();
+        for (AccessibilityNodeInfo node : nodes) {
+            result.add(String.valueOf(node.getText()));
+        }
+        return result;
+    }
+
+    private static List<AccessibilityNodeInfo> dedupe(List<AccessibilityNodeInfo> nodes) {
+        Set<AccessibilityNodeInfo> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<AccessibilityNodeInfo> result = new ArrayList<>();
+        for (AccessibilityNodeInfo node : nodes) {
+            if (seen.add(node)) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Collects matches the same way the instance-based search does
+     */
+    private static List<String> findAllByInstance(UiSelector selector, AccessibilityNodeInfo root) {
+        return findAllByInstance(new UiSelectorMatcher(selector), selector, root);
+    }
+
+    private static List<String> findAllByInstance(UiSelectorMatcher matcher, UiSelector selector,
+                                                  AccessibilityNodeInfo root) {
+        List<AccessibilityNodeInfo> result = new ArrayList<>();
+        for (int instance = 0; ; ++instance) {
+            AccessibilityNodeInfo match = matcher.findFirst(selector.instance(instance), root);
+            if (match == null) {
+                break;
+            }
+            result.add(match);
+        }
+        return toTexts(dedupe(result));
+    }
+
+    @Test
+    public void shouldFindAllMatchesInDocumentOrder() {
+        UiSelector selector = new UiSelector().className(TEXT_VIEW);
+        List<AccessibilityNodeInfo> matches = new UiSelectorMatcher(selector).findAll(buildTree()).getAll();
+        assertEquals(Arrays.asList("a", "b", "c", "d"), toTexts(matches));
+    }
+
+    @Test
+    public void shouldEvaluateEachNodeOnceInSinglePass() {
+        UiSelector selector = new UiSelector().className(TEXT_VIEW);
+        UiSelectorMatcher singlePassMatcher = new UiSelectorMatcher(selector);
+        singlePassMatcher.findAll(buildTree());
+        UiSelectorMatcher byInstanceMatcher = new UiSelectorMatcher(selector);
+        assertEquals(Arrays.asList("a", "b", "c", "d"), findAllByInstance(byInstanceMatcher, selector, buildTree()));
+        // The tree consists of 11 nodes, while each instance lookup starts from the root again
+        assertEquals(11, singlePassMatcher.getEvaluatedNodesCount());
+        assertTrue(byInstanceMatcher.getEvaluatedNodesCount() > 2 * singlePassMatcher.getEvaluatedNodesCount());
+    }
+
+    @Test
+    public void shouldSkipInvisibleNodes() {
+        AccessibilityNodeInfo hidden = node(LINEAR_LAYOUT, null, node(TEXT_VIEW, "hidden child"));
+        hidden.setVisibleToUser(false);
+        AccessibilityNodeInfo root = node(FRAME_LAYOUT, null, hidden, node(TEXT_VIEW, "visible"));
+        UiSelector selector = new UiSelector().className(TEXT_VIEW);
+        assertEquals(Arrays.asList("visible"), toTexts(new UiSelectorMatcher(selector).findAll(root).getAll()));
+    }
+
+    @Test
+    public void shouldMatchIndexes() {
+        UiSelector selector = new UiSelector().className(TEXT_VIEW).index(2);
+        assertEquals(Arrays.asList("b"), toTexts(new UiSelectorMatcher(selector).findAll(buildTree()).getAll()));
+    }
+
+    @Test
+    public void shouldNotMatchTheRootOfDescendantsSearch() {
+        AccessibilityNodeInfo root = node(TEXT_VIEW, "root", node(TEXT_VIEW, "child"));
+        UiSelector selector = new UiSelector().className(TEXT_VIEW);
+        assertEquals(Arrays.asList("child"),
+                toTexts(new UiSelectorMatcher(selector).findAllDescendants(root).getAll()));
+    }
+
+    @Test
+    public void shouldMatchSameNodesAsInstanceSearch() {
+        AccessibilityNodeInfo root = buildTree();
+        UiSelector[] selectors = {
+                new UiSelector().className(TEXT_VIEW),
+                new UiSelector().textContains("row"),
+                new UiSelector().className(LINEAR_LAYOUT)
+                        .childSelector(new UiSelector().className(TEXT_VIEW)),
+                new UiSelector().className(BUTTON)
+                        .fromParent(new UiSelector().className(TEXT_VIEW)),
+                new UiSelector().className(LINEAR_LAYOUT)
+                        .childSelector(new UiSelector().className(LINEAR_LAYOUT)
+                                .childSelector(new UiSelector().className(TEXT_VIEW))),
+                new UiSelector().className(BUTTON).text("missing"),
+        };
+        for (UiSelector selector : selectors) {
+            List<String> expected = findAllByInstance(selector, root);
+            List<String> actual = toTexts(dedupe(new UiSelectorMatcher(selector).findAll(root).getAll()));
+            assertEquals(selector.toString(), expected, actual);
+        }
+    }
+
+    @Test
+    public void shouldFindFirstDescendantPerParentMatch() {
+        UiSelector selector = new UiSelector().className(LINEAR_LAYOUT)
+                .childSelector(new UiSelector().className(TEXT_VIEW));
+        // The nested row is a match of its own, but it shares the text view with its parent
+        assertEquals(Arrays.asList("a", "c", "c"),
+                toTexts(new UiSelectorMatcher(selector).findAll(buildTree()).getAll()));
+    }
+
+    @Test
+    public void shouldSupportSimpleAndChainedSelectors() {
+        assertTrue(UiSelectorMatcher.isSupported(new UiSelector().text("a").clickable(true)));
+        assertTrue(UiSelectorMatcher.isSupported(new UiSelector().className(LINEAR_LAYOUT)
+                .childSelector(new UiSelector().className(TEXT_VIEW))));
+        assertTrue(UiSelectorMatcher.isSupported(new UiSelector().className(BUTTON)
+                .fromParent(new UiSelector().className(TEXT_VIEW))));
+    }
+
+    @Test
+    public void shouldNotSupportInstances() {
+        assertFalse(UiSelectorMatcher.isSupported(new UiSelector().className(TEXT_VIEW).instance(1)));
+        assertFalse(UiSelectorMatcher.isSupported(new UiSelector().className(LINEAR_LAYOUT)
+                .childSelector(new UiSelector().className(TEXT_VIEW).instance(2))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnsupportedSelectors() {
+        new UiSelectorMatcher(new UiSelector().instance(0));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils.w3c;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+import io.appium.uiautomator2.model.api.actions.W3CGestureModel;
+import io.appium.uiautomator2.model.api.actions.W3CItemModel;
+
+import static io.appium.uiautomator2.BenchmarkAssumptions.assumeBenchmarksEnabled;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the time needed to prepare a replayed 100-point drag chain for injection with and
+ * without {@link ActionTokensCache}. Results are printed to stdout. It only runs if requested
+ * with the benchmarks Gradle property.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class ActionTokensCacheBenchmarkTests {
+    private static final int POINTS_COUNT = 100;
+    private static final int ITERATIONS = 2000;
+    private static final ActionsPreprocessor actionsPreprocessor = new ActionsPreprocessor();
+    private static final ActionsTokenizer actionsTokenizer = new ActionsTokenizer();
+
+    private static W3CGestureModel gesture(String type, Long duration, Double x, Double y) {
+        W3CGestureModel result = new W3CGestureModel();
+        result.type = type;
+        result.duration = duration;
+        result.x = x;
+        result.y = y;
+        return result;
+    }
+
+    /**
+     * The chain is rebuilt on every call, like it would be parsed from every request
+     */
+    private static List<W3CItemModel> dragChain() {
+        W3CItemModel item = new W3CItemModel();
+        item.type = "pointer";
+        item.id = "finger1";
+        item.actions = new ArrayList<>();
+        item.actions.add(gesture("pointerMove", 0L, 100.0, 2000.0));
+        item.actions.add(gesture("pointerDown", null, null, null));
+        item.actions.add(gesture("pause", 500L, null, null));
+        for (int i = 1; i <= POINTS_COUNT; i++) {
+            item.actions.add(gesture("pointerMove", 60L, 100.0 + i * 8, 2000.0 - i * 15));
+        }
+        item.actions.add(gesture("pointerUp", null, null, null));
+        return Collections.singletonList(item);
+    }
+
+    private static ActionTokens tokenize(List<W3CItemModel> items) {
+        return actionsTokenizer.tokenize(actionsPreprocessor.preprocess(items));
+    }
+
+    private static double measureMicros(Function<List<W3CItemModel>, ActionTokens> preparer) {
+        for (int i = 0; i < ITERATIONS / 4; i++) {
+            preparer.apply(dragChain());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            preparer.apply(dragChain());
+        }
+        return (System.nanoTime() - start) / 1000.0 / ITERATIONS;
+    }
+
+    @Test
+    public void measureRepeatedDragChainPreparation() {
+        assumeBenchmarksEnabled();
+
+        ActionTokensCache cache = new ActionTokensCache();
+        ActionTokens expected = tokenize(dragChain());
+        ActionTokens cached = cache.get(dragChain(), ActionTokensCacheBenchmarkTests::tokenize);
+        assertEquals(expected.size(), cached.size());
+        assertEquals(expected.maxTimeDelta(), cached.maxTimeDelta());
+
+        double tokenizationMicros = measureMicros(ActionTokensCacheBenchmarkTests::tokenize);
+        double cachedMicros = measureMicros(
+                items -> cache.get(items, ActionTokensCacheBenchmarkTests::tokenize));
+        System.out.printf(Locale.ROOT,
+                "%s-point drag of %s ticks: %.1fus per tokenization, %.1fus per cache hit%n",
+                POINTS_COUNT, expected.size(), tokenizationMicros, cachedMicros);
+        assertEquals(1, cache.size());
+    }
+}
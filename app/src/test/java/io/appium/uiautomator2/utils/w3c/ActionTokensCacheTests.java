@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils.w3c;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import io.appium.uiautomator2.model.api.actions.W3CGestureModel;
+import io.appium.uiautomator2.model.api.actions.W3CItemModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ActionTokensCacheTests {
+    private static W3CGestureModel gesture(String type, Long duration, Object origin, Double x, Double y) {
+        W3CGestureModel result = new W3CGestureModel();
+        result.type = type;
+        result.duration = duration;
+        result.origin = origin;
+        result.x = x;
+        result.y = y;
+        return result;
+    }
+
+    private static List<W3CItemModel> swipe(double fromY, double toY, Object origin) {
+        W3CItemModel item = new W3CItemModel();
+        item.type = "pointer";
+        item.id = "finger1";
+        item.actions = new ArrayList<>();
+        item.actions.add(gesture("pointerMove", 0L, "viewport", 500.0, fromY));
+        item.actions.add(gesture("pointerDown", null, null, null, null));
+        item.actions.add(gesture("pointerMove", 500L, origin, 500.0, toY));
+        item.actions.add(gesture("pointerUp", null, null, null, null));
+        return Collections.singletonList(item);
+    }
+
+    private static Function<List<W3CItemModel>, ActionTokens> countingTokenizer(AtomicInteger counter) {
+        return items -> {
+            counter.incrementAndGet();
+            return new ActionTokens();
+        };
+    }
+
+    @Test
+    public void verifyEqualChainsAreTokenizedOnce() {
+        ActionTokensCache cache = new ActionTokensCache();
+        AtomicInteger tokenizations = new AtomicInteger();
+        ActionTokens first = cache.get(swipe(1500, 500, "viewport"), countingTokenizer(tokenizations));
+        ActionTokens second = cache.get(swipe(1500, 500, "viewport"), countingTokenizer(tokenizations));
+
+        assertSame(first, second);
+        assertEquals(1, tokenizations.get());
+    }
+
+    @Test
+    public void verifyDifferentChainsAreTokenizedSeparately() {
+        ActionTokensCache cache = new ActionTokensCache();
+        AtomicInteger tokenizations = new AtomicInteger();
+        ActionTokens first = cache.get(swipe(1500, 500, "viewport"), countingTokenizer(tokenizations));
+        ActionTokens second = cache.get(swipe(1500, 600, "viewport"), countingTokenizer(tokenizations));
+
+        assertNotSame(first, second);
+        assertEquals(2, tokenizations.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void verifyChainsWithElementOriginsAreNotCached() {
+        ActionTokensCache cache = new ActionTokensCache();
+        AtomicInteger tokenizations = new AtomicInteger();
+        cache.get(swipe(1500, 500, "some-element-id"), countingTokenizer(tokenizations));
+        cache.get(swipe(1500, 500, "some-element-id"), countingTokenizer(tokenizations));
+
+        assertEquals(2, tokenizations.get());
+        assertEquals(0, cache.size());
+        assertNull(ActionTokensCache.toKey(swipe(1500, 500, Collections.emptyMap())));
+    }
+
+    @Test
+    public void verifyLeastRecentlyUsedChainIsEvicted() {
+        ActionTokensCache cache = new ActionTokensCache(2);
+        AtomicInteger tokenizations = new AtomicInteger();
+        cache.get(swipe(1500, 100, "viewport"), countingTokenizer(tokenizations));
+        cache.get(swipe(1500, 200, "viewport"), countingTokenizer(tokenizations));
+        // Makes the first chain the most recently used one
+        cache.get(swipe(1500, 100, "viewport"), countingTokenizer(tokenizations));
+        cache.get(swipe(1500, 300, "viewport"), countingTokenizer(tokenizations));
+        assertEquals(3, tokenizations.get());
+
+        cache.get(swipe(1500, 100, "viewport"), countingTokenizer(tokenizations));
+        assertEquals(3, tokenizations.get());
+        cache.get(swipe(1500, 200, "viewport"), countingTokenizer(tokenizations));
+        assertEquals(4, tokenizations.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void verifyFailuresAreNotCached() {
+        ActionTokensCache cache = new ActionTokensCache();
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.get(swipe(1500, 500, "viewport"), items -> {
+                    throw new ActionsParseException("invalid chain");
+                });
+                fail("ActionsParseException is expected");
+            } catch (ActionsParseException e) {
+                // expected
+            }
+        }
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void verifyKeysAreUnambiguous() {
+        List<W3CItemModel> first = swipe(1500, 500, "viewport");
+        first.get(0).id = "a";
+        first.get(0).type = "bpointer";
+        List<W3CItemModel> second = swipe(1500, 500, "viewport");
+        second.get(0).id = "ab";
+        second.get(0).type = "pointer";
+
+        assertNotEquals(ActionTokensCache.toKey(first), ActionTokensCache.toKey(second));
+    }
+}
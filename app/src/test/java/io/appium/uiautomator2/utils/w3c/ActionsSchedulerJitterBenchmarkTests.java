@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils.w3c;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.appium.uiautomator2.BenchmarkAssumptions.assumeBenchmarksEnabled;
+import static io.appium.uiautomator2.utils.w3c.ActionsConstants.EVENT_INJECTION_DELAY_MS;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the difference between the scheduled and the actual injection time of a long
+ * pointer move for the event-driven scheduler and for the former fixed-step tick loop.
+ * Event synthesis and injection are emulated by busy waits of a comparable duration.
+ * It takes several seconds of real time, so it only runs if requested with the benchmarks
+ * Gradle property.
+ */
+public class ActionsSchedulerJitterBenchmarkTests {
+    private static final long MOVE_DURATION_MS = 2000;
+    private static final long PAUSE_DURATION_MS = 500;
+    private static final long BUILD_COST_NS = TimeUnit.MICROSECONDS.toNanos(800);
+    private static final long INJECT_COST_NS = TimeUnit.MICROSECONDS.toNanos(300);
+
+    private static class Stats {
+        final long[] jitterNs;
+        final int wakeups;
+
+        Stats(long[] jitterNs, int wakeups) {
+            this.jitterNs = jitterNs;
+            this.wakeups = wakeups;
+        }
+
+        long percentile(int p) {
+            long[] sorted = jitterNs.clone();
+            Arrays.sort(sorted);
+            return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)];
+        }
+
+        long min() {
+            return Arrays.stream(jitterNs).min().orElse(0);
+        }
+
+        String describe(String name) {
+            return String.format(Locale.ROOT,
+                    "%s: mean %.3fms, p50 %.3fms, p99 %.3fms, max %.3fms, %d wakeups",
+                    name, toMs((long) Arrays.stream(jitterNs).average().orElse(0)),
+                    toMs(percentile(50)), toMs(percentile(99)), toMs(percentile(100)), wakeups);
+        }
+
+        private static double toMs(long ns) {
+            return ns / 1e6;
+        }
+    }
+
+    /**
+     * pointerDown, a move with a point every tick, a pause and pointerUp
+     */
+    private static long[] longPointerMoveTimeline() {
+        int moveTicks = (int) (MOVE_DURATION_MS / EVENT_INJECTION_DELAY_MS);
+        long[] deltas = new long[moveTicks + 2];
+        for (int i = 0; i <= moveTicks; i++) {
+            deltas[i] = (long) i * EVENT_INJECTION_DELAY_MS;
+        }
+        deltas[moveTicks + 1] = MOVE_DURATION_MS + PAUSE_DURATION_MS;
+        return deltas;
+    }
+
+    private static void busyWait(long durationNs) {
+        final long deadline = System.nanoTime() + durationNs;
+        //noinspection StatementWithEmptyBody
+        while (System.nanoTime() < deadline) {
+        }
+    }
+
+    private static Stats measureScheduler(long[] deltas) {
+        long[] jitter = new long[deltas.length];
+        int[] wakeups = {0};
+        ActionsScheduler scheduler = new ActionsScheduler(new ActionsScheduler.Clock() {
+            @Override
+            public long nanoTime() {
+                return System.nanoTime();
+            }
+
+            @Override
+            public void parkNanos(long nanos) {
+                wakeups[0]++;
+                LockSupport.parkNanos(nanos);
+            }
+        });
+        long start = scheduler.nanoTime();
+        scheduler.run(start, deltas, EVENT_INJECTION_DELAY_MS, (index, scheduledTimeNs) -> {
+            busyWait(BUILD_COST_NS);
+            return () -> {
+                jitter[index] = System.nanoTime() - scheduledTimeNs;
+                busyWait(INJECT_COST_NS);
+                return true;
+            };
+        });
+        return new Stats(jitter, wakeups[0]);
+    }
+
+    private static Stats measureLegacyTickLoop(long[] deltas) {
+        long[] jitter = new long[deltas.length];
+        int wakeups = 0;
+        long start = System.nanoTime();
+        long maxDelta = deltas[deltas.length - 1];
+        int index = 0;
+        for (long delta = 0; delta <= maxDelta; delta += EVENT_INJECTION_DELAY_MS) {
+            if (deltas[index] == delta) {
+                busyWait(BUILD_COST_NS);
+                jitter[index++] = System.nanoTime() - (start + TimeUnit.MILLISECONDS.toNanos(delta));
+                busyWait(INJECT_COST_NS);
+            }
+            wakeups++;
+            LockSupport.parkNanos(start + TimeUnit.MILLISECONDS.toNanos(delta + EVENT_INJECTION_DELAY_MS)
+                    - System.nanoTime());
+        }
+        return new Stats(jitter, wakeups);
+    }
+
+    @Test
+    public void measureInjectionJitterOfLongPointerMove() {
+        assumeBenchmarksEnabled();
+
+        long[] deltas = longPointerMoveTimeline();
+        Stats legacy = measureLegacyTickLoop(deltas);
+        Stats scheduled = measureScheduler(deltas);
+        System.out.println(legacy.describe("Tick loop"));
+        System.out.println(scheduled.describe("Scheduler"));
+
+        // Events must never be injected ahead of their schedule
+        assertTrue(scheduled.min() >= 0);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.appium.uiautomator2.utils.w3c;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ActionsSchedulerTests {
+    private static final long START_NS = TimeUnit.SECONDS.toNanos(1);
+
+    private static class FakeClock implements ActionsScheduler.Clock {
+        long nowNs = START_NS;
+        int wakeups;
+
+        @Override
+        public long nanoTime() {
+            return nowNs;
+        }
+
+        @Override
+        public void parkNanos(long nanos) {
+            wakeups++;
+            nowNs += nanos;
+        }
+    }
+
+    private static long ms(long value) {
+        return START_NS + TimeUnit.MILLISECONDS.toNanos(value);
+    }
+
+    @Test
+    public void verifyBatchesAreInjectedAtTheirDeadlines() {
+        FakeClock clock = new FakeClock();
+        List<Long> createdAt = new ArrayList<>();
+        List<Long> injectedAt = new ArrayList<>();
+        boolean result = new ActionsScheduler(clock).run(START_NS, new long[]{0, 20, 100}, 20,
+                (index, scheduledTimeNs) -> {
+                    createdAt.add(clock.nowNs);
+                    return () -> {
+                        assertEquals(scheduledTimeNs, clock.nowNs);
+                        injectedAt.add(clock.nowNs);
+                        return true;
+                    };
+                });
+
+        assertTrue(result);
+        assertEquals(Arrays.asList(ms(0), ms(20), ms(100)), injectedAt);
+        // Each batch is prepared right after the previous one has been injected
+        assertEquals(Arrays.asList(ms(0), ms(0), ms(20)), createdAt);
+        assertEquals(ms(120), clock.nowNs);
+    }
+
+    @Test
+    public void verifyEmptyBatchesDoNotCauseWakeups() {
+        FakeClock clock = new FakeClock();
+        long[] deltas = new long[100];
+        for (int i = 0; i < deltas.length; i++) {
+            deltas[i] = i * 20L;
+        }
+        List<Integer> injected = new ArrayList<>();
+        new ActionsScheduler(clock).run(START_NS, deltas, 0,
+                (index, scheduledTimeNs) -> index % 10 == 0 ? () -> injected.add(index) : null);
+
+        assertEquals(Arrays.asList(0, 10, 20, 30, 40, 50, 60, 70, 80, 90), injected);
+        // Nine sleeps between the batches and the one till the last time delta
+        assertEquals(10, clock.wakeups);
+        assertEquals(ms(1980), clock.nowNs);
+    }
+
+    @Test
+    public void verifyFailedBatchDoesNotStopTheExecution() {
+        FakeClock clock = new FakeClock();
+        List<Integer> injected = new ArrayList<>();
+        boolean result = new ActionsScheduler(clock).run(START_NS, new long[]{0, 20, 40}, 20,
+                (index, scheduledTimeNs) -> () -> injected.add(index) && index != 1);
+
+        assertFalse(result);
+        assertEquals(Arrays.asList(0, 1, 2), injected);
+    }
+
+    @Test
+    public void verifyLateInjectionDoesNotShiftFollowingDeadlines() {
+        FakeClock clock = new FakeClock();
+        List<Long> injectedAt = new ArrayList<>();
+        new ActionsScheduler(clock).run(START_NS, new long[]{0, 20, 40}, 20,
+                (index, scheduledTimeNs) -> () -> {
+                    injectedAt.add(clock.nowNs);
+                    // The first injection takes longer than the interval between the batches
+                    clock.nowNs += TimeUnit.MILLISECONDS.toNanos(index == 0 ? 30 : 1);
+                    return true;
+                });
+
+        assertEquals(Arrays.asList(ms(0), ms(30), ms(40)), injectedAt);
+    }
+
+    @Test
+    public void verifyEarlyWakeupsDoNotInjectAheadOfSchedule() {
+        FakeClock clock = new FakeClock() {
+            @Override
+            public void parkNanos(long nanos) {
+                // Emulate parkNanos returning before the requested time has elapsed
+                super.parkNanos(Math.max(1, nanos / 2));
+            }
+        };
+        List<Long> injectedAt = new ArrayList<>();
+        new ActionsScheduler(clock).run(START_NS, new long[]{0, 20, 100}, 20,
+                (index, scheduledTimeNs) -> () -> {
+                    assertTrue(clock.nowNs >= scheduledTimeNs);
+                    injectedAt.add(clock.nowNs);
+                    return true;
+                });
+
+        assertEquals(Arrays.asList(ms(0), ms(20), ms(100)), injectedAt);
+        assertEquals(ms(120), clock.nowNs);
+    }
+
+    @Test
+    public void verifyEmptyTimelineIsNoop() {
+        FakeClock clock = new FakeClock();
+        assertTrue(new ActionsScheduler(clock).run(START_NS, new long[0], 20,
+                (index, scheduledTimeNs) -> {
+                    throw new AssertionError("No batches are expected");
+                }));
+        assertEquals(0, clock.wakeups);
+    }
+}